@@ -0,0 +1,113 @@
+package com.student.service;
+
+import com.student.entity.StatusType;
+import com.student.entity.Student;
+import com.student.util.Constant;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * 基准测试用的班级数据
+ * 班级名称以 jmh- 开头，建在临时数据目录下，测试结束后删除；数据由固定的随机种子生成，每次运行相同
+ * 每个基准测试在单独的 JVM 中运行，加载类时把 Constant.FILE_PATH 指向新建的临时目录，
+ * 不会读写真实的班级数据；也可以用 -Dstudent.data.path=目录 指定
+ */
+final class BenchmarkClasses {
+    static final int GROUPS = 10;   // 每个班级的小组数
+    private static final long SEED = 20240901L;
+
+    static {
+        // 必须在 Constant 初始化之前设置，各基准测试的 setUp 都先调用本类
+        if (System.getProperty(Constant.FILE_PATH_PROPERTY) == null) {
+            try {
+                File root = Files.createTempDirectory("studentprj-jmh").toFile();
+                root.deleteOnExit();
+                System.setProperty(Constant.FILE_PATH_PROPERTY, root.getPath() + File.separator);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        if (!new File(Constant.FILE_PATH).equals(new File(System.getProperty(Constant.FILE_PATH_PROPERTY)))) {
+            throw new IllegalStateException("Constant 已经初始化，基准测试不能使用数据目录：" + Constant.FILE_PATH);
+        }
+    }
+
+    private BenchmarkClasses() {
+    }
+
+    /**
+     * 通过班级数据仓库建立班级，每名学生平均有 statusPerStudent 条状态记录，建好后班级保持加载
+     * 学号为 S0、S1……，小组为 G0 到 G9
+     */
+    static void create(String className, int students, int statusPerStudent) throws IOException {
+        delete(className);
+        classDir(className).mkdirs();
+        ClassRepository repository = ClassRepository.getInstance();
+        repository.load(className);
+        for (int g = 0; g < GROUPS; g++) {
+            repository.addGroup("G" + g);
+        }
+        List<String[]> rows = new ArrayList<>(students);
+        for (int i = 0; i < students; i++) {
+            rows.add(new String[]{"S" + i, "学生" + i, "G" + (i % GROUPS), ""});
+        }
+        repository.addStudents(rows);
+        Random random = new Random(SEED);
+        StatusType[] types = StatusType.values();
+        List<Student> all = repository.getStudents();
+        for (long i = 0; i < (long) students * statusPerStudent; i++) {
+            repository.recordStatus(all.get(random.nextInt(students)), types[random.nextInt(types.length)]);
+        }
+        // 重新加载时合并快照，之后的加载只读快照
+        repository.load(className);
+    }
+
+    /**
+     * 用 DatasetGenerator 按旧版格式建立一个班级，不生成照片和状态记录
+     * @param prefix 班级名称前缀
+     * @return 班级名称
+     */
+    static String createLegacy(String prefix, int students) throws IOException {
+        DatasetGenerator generator = new DatasetGenerator();
+        generator.setPrefix(prefix);
+        generator.setStudentCount(students);
+        generator.setGroupCount(GROUPS);
+        generator.setPhotoSize(0, 0);
+        generator.setMonths(0);
+        return generator.generate().get(0);
+    }
+
+    /**
+     * @return 临时数据目录下的班级目录
+     */
+    static File classDir(String className) {
+        return new File(Constant.FILE_PATH + className);
+    }
+
+    /**
+     * 删除班级目录，班级是当前班级时先卸载
+     */
+    static void delete(String className) throws IOException {
+        if (className.equals(Constant.CLASS_PATH)) {
+            ClassRepository.getInstance().unload();
+        }
+        Path dir = classDir(className).toPath();
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.student.service;
+
+import com.student.dao.LegacyClassDao;
+import com.student.dao.SnapshotDao;
+import com.student.entity.SchoolClass;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 加载班级：读取快照、重放日志后加载为当前班级、读取旧版文本文件
+ * 对应原来学生列表和随机点名面板每次打开时逐个解析学生文件的路径
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClassLoadBenchmark {
+    @Param({"1000", "10000"})
+    int students;
+
+    private String snapshotClass;
+    private String legacyClass;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        snapshotClass = "jmh-load-" + students;
+        BenchmarkClasses.create(snapshotClass, students, 2);
+        legacyClass = BenchmarkClasses.createLegacy("jmh-legacy-" + students + "-", students);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkClasses.delete(snapshotClass);
+        BenchmarkClasses.delete(legacyClass);
+    }
+
+    @Benchmark
+    public SchoolClass readSnapshot() throws IOException {
+        return new SnapshotDao(snapshotClass).read();
+    }
+
+    @Benchmark
+    public SchoolClass readOnlyReplay() throws IOException {
+        return ClassReader.read(snapshotClass);
+    }
+
+    @Benchmark
+    public int loadRepository() throws IOException {
+        ClassRepository repository = ClassRepository.getInstance();
+        repository.load(snapshotClass);
+        return repository.getStudentCount();
+    }
+
+    @Benchmark
+    public SchoolClass readLegacy() throws IOException {
+        return new LegacyClassDao(legacyClass).read();
+    }
+}
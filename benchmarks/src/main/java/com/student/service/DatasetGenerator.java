@@ -0,0 +1,371 @@
+package com.student.service;
+
+import com.student.entity.StatusType;
+import com.student.util.Constant;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.*;
+import java.nio.file.Files;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.*;
+
+/**
+ * 班级测试数据生成器
+ * 按旧版程序的目录格式生成班级，加载时与真实班级一样经过旧版文件导入：
+ *   班级/students/学号.txt             学号、姓名、小组、加入时间
+ *   班级/groups/小组/小组.txt          小组名称、创建时间、所属班级、分数
+ *   班级/groups/小组/students.txt      每行 学号,姓名
+ *   班级/photos/学号.jpg               指定大小的占位照片
+ *   班级/status/时间.txt               每条缺勤、请假、答题记录一个文件
+ * 同一组参数和随机种子生成的内容完全相同：每个班级、每名学生、每个上课日各自从种子派生随机数，与线程调度无关；
+ * 时间一律按 UTC 计算并以 yyyy-MM-dd HH:mm:ss 写出，与运行机器的时区无关
+ * 班级目录已存在且不是空目录时拒绝生成：旧的快照、日志和文本文件会被优先读取或混入新生成的班级
+ * 文件按批交给固定大小的线程池并行写入
+ *
+ * 用法：java -cp benchmarks.jar com.student.service.DatasetGenerator [选项]
+ *   --out 目录          输出目录，默认 Constant.FILE_PATH
+ *   --classes N         班级数，默认 1
+ *   --students M        每班学生数，默认 1000
+ *   --groups G          每班小组数，默认 8
+ *   --photo 宽x高       照片大小，默认 640x480，0x0 不生成照片
+ *   --months N          状态记录的月数，默认 3
+ *   --status-rate R     每名学生每个上课日的平均状态记录数，默认 0.1
+ *   --seed S            随机种子，默认 1
+ *   --threads T         写入线程数，默认 Constant.IO_CONCURRENCY
+ *   --prefix P          班级名称前缀，默认 gen-
+ */
+public class DatasetGenerator {
+    private static final int BATCH_SIZE = 256;        // 每个写入任务处理的学生数
+    private static final int PHOTO_VARIANTS = 16;     // 不同内容的占位照片数，学生轮流使用
+    private static final LocalDate END_DATE = LocalDate.of(2024, 6, 28);   // 最后一个上课日，固定以保证可重复
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");   // 文件中的时间格式
+    // 常见姓氏和名字用字，都是 GB2312 一级汉字，可以按拼音首字母搜索
+    private static final String SURNAMES = "王李张刘陈杨黄赵吴周徐孙马朱胡郭何高林罗郑梁谢宋唐许韩冯邓曹彭曾肖田董袁潘"
+            + "于蒋蔡余杜叶程苏魏吕丁任沈姚卢姜崔钟谭陆汪范金石廖贾夏韦付方白邹孟熊秦邱江尹薛闫段雷侯龙史陶黎贺顾毛郝龚邵万钱严";
+    private static final String GIVEN = "伟芳娜敏静丽强磊军洋勇艳杰娟涛明超秀霞平刚桂英华玉萍红兰鹏飞宇浩然子轩梓涵一诺欣怡"
+            + "晨阳思远佳琪雨婷嘉豪俊杰文博天宇浩宇家乐志强晓东海波建国小龙春梅秋菊冬雪振华国庆新民";
+
+    private File outputDir = new File(Constant.FILE_PATH);   // 输出目录
+    private int classCount = 1;           // 班级数
+    private int studentCount = 1000;      // 每班学生数
+    private int groupCount = 8;           // 每班小组数
+    private int photoWidth = 640;         // 照片宽度，0 不生成照片
+    private int photoHeight = 480;        // 照片高度
+    private int months = 3;               // 状态记录的月数
+    private double statusRate = 0.1;      // 每名学生每个上课日的平均状态记录数
+    private long seed = 1;                // 随机种子
+    private int threads = Constant.IO_CONCURRENCY;   // 写入线程数
+    private String prefix = "gen-";       // 班级名称前缀
+
+    public static void main(String[] args) throws Exception {
+        DatasetGenerator generator = new DatasetGenerator();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--out":
+                    generator.setOutputDir(new File(value));
+                    break;
+                case "--classes":
+                    generator.setClassCount(Integer.parseInt(value));
+                    break;
+                case "--students":
+                    generator.setStudentCount(Integer.parseInt(value));
+                    break;
+                case "--groups":
+                    generator.setGroupCount(Integer.parseInt(value));
+                    break;
+                case "--photo":
+                    generator.setPhotoSize(Integer.parseInt(value.substring(0, value.indexOf('x'))),
+                            Integer.parseInt(value.substring(value.indexOf('x') + 1)));
+                    break;
+                case "--months":
+                    generator.setMonths(Integer.parseInt(value));
+                    break;
+                case "--status-rate":
+                    generator.setStatusRate(Double.parseDouble(value));
+                    break;
+                case "--seed":
+                    generator.setSeed(Long.parseLong(value));
+                    break;
+                case "--threads":
+                    generator.setThreads(Integer.parseInt(value));
+                    break;
+                case "--prefix":
+                    generator.setPrefix(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("未知选项：" + args[i]);
+            }
+        }
+        long start = System.nanoTime();
+        List<String> classes = generator.generate();
+        System.out.printf("已生成 %d 个班级，每班 %d 名学生，用时 %.1f 秒：%s%n", classes.size(),
+                generator.studentCount, (System.nanoTime() - start) / 1e9, classes);
+    }
+
+    /**
+     * 生成全部班级，任何一个班级目录已存在且不是空目录时不生成任何班级
+     * @return 班级名称
+     */
+    public List<String> generate() throws IOException {
+        List<String> classNames = new ArrayList<>();
+        for (int c = 0; c < classCount; c++) {
+            String className = String.format("%s%03d", prefix, c + 1);
+            String[] existing = new File(outputDir, className).list();
+            if (existing != null && existing.length > 0) {
+                throw new IOException("班级目录不是空目录，请先删除或使用其他 --prefix：" + new File(outputDir, className));
+            }
+            classNames.add(className);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+            Thread thread = new Thread(runnable, "dataset-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            byte[][] photos = renderPhotos();
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int c = 0; c < classCount; c++) {
+                submitClass(executor, tasks, classNames.get(c), c, photos);
+            }
+            for (Future<?> task : tasks) {
+                get(task);
+            }
+            return classNames;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 生成一个班级的名单，再把学生、小组和状态文件分批提交写入
+     */
+    private void submitClass(ExecutorService executor, List<Future<?>> tasks, String className, int classIndex,
+                             byte[][] photos) throws IOException {
+        File classDir = new File(outputDir, className);
+        File studentsDir = new File(classDir, "students");
+        File groupsDir = new File(classDir, "groups");
+        File photosDir = new File(classDir, "photos");
+        File statusDir = new File(classDir, "status");
+        for (File dir : new File[]{studentsDir, groupsDir, photosDir, statusDir}) {
+            if (!dir.isDirectory() && !dir.mkdirs()) {
+                throw new IOException("无法创建目录：" + dir);
+            }
+        }
+
+        long classSeed = mix(seed, classIndex);
+        String[] ids = new String[studentCount];
+        String[] names = new String[studentCount];
+        int[] groups = new int[studentCount];
+        for (int i = 0; i < studentCount; i++) {
+            SplittableRandom random = new SplittableRandom(mix(classSeed, i));
+            ids[i] = String.format("%03d%06d", classIndex + 1, i + 1);
+            names[i] = name(random);
+            groups[i] = random.nextInt(groupCount);
+        }
+        String[] groupNames = new String[groupCount];
+        for (int g = 0; g < groupCount; g++) {
+            groupNames[g] = String.format("G%02d", g + 1);
+        }
+        String created = END_DATE.minusMonths(months).atStartOfDay().format(TIME);
+
+        for (int g = 0; g < groupCount; g++) {
+            int group = g;
+            tasks.add(executor.submit(() -> {
+                File groupDir = new File(groupsDir, groupNames[group]);
+                groupDir.mkdirs();
+                try (BufferedWriter writer = new BufferedWriter(new FileWriter(new File(groupDir, groupNames[group] + ".txt")))) {
+                    writer.write("小组名称：" + groupNames[group]);
+                    writer.newLine();
+                    writer.write("创建时间：" + created);
+                    writer.newLine();
+                    writer.write("所属班级：" + className);
+                    writer.newLine();
+                    writer.write("分数：" + new SplittableRandom(mix(classSeed, -1 - group)).nextInt(50));
+                }
+                try (BufferedWriter writer = new BufferedWriter(new FileWriter(new File(groupDir, "students.txt")))) {
+                    for (int i = 0; i < studentCount; i++) {
+                        if (groups[i] == group) {
+                            writer.write(ids[i] + "," + names[i]);
+                            writer.newLine();
+                        }
+                    }
+                }
+                return null;
+            }));
+        }
+
+        for (int from = 0; from < studentCount; from += BATCH_SIZE) {
+            int start = from;
+            int end = Math.min(from + BATCH_SIZE, studentCount);
+            tasks.add(executor.submit(() -> {
+                for (int i = start; i < end; i++) {
+                    try (BufferedWriter writer = new BufferedWriter(new FileWriter(new File(studentsDir, ids[i] + ".txt")))) {
+                        writer.write("学号：" + ids[i]);
+                        writer.newLine();
+                        writer.write("姓名：" + names[i]);
+                        writer.newLine();
+                        writer.write("小组：" + groupNames[groups[i]]);
+                        writer.newLine();
+                        writer.write("加入时间：" + created);
+                    }
+                    if (photos.length > 0) {
+                        Files.write(new File(photosDir, ids[i] + ".jpg").toPath(), photos[i % photos.length]);
+                    }
+                }
+                return null;
+            }));
+        }
+
+        // 每个上课日一个任务，记录时间从当天8点（UTC）起逐毫秒递增，文件名不会重复
+        LocalDate day = END_DATE.minusMonths(months).plusDays(1);
+        for (; !day.isAfter(END_DATE); day = day.plusDays(1)) {
+            if (day.getDayOfWeek() == DayOfWeek.SATURDAY || day.getDayOfWeek() == DayOfWeek.SUNDAY) {
+                continue;
+            }
+            long dayStart = day.atTime(8, 0).toInstant(ZoneOffset.UTC).toEpochMilli();
+            long daySeed = mix(classSeed, day.toEpochDay() + Integer.MAX_VALUE);
+            tasks.add(executor.submit(() -> {
+                writeStatusDay(statusDir, names, dayStart, new SplittableRandom(daySeed));
+                return null;
+            }));
+        }
+    }
+
+    /**
+     * 写入一个上课日的状态记录，记录数在 学生数 x statusRate 的0.5到1.5倍之间
+     * 答题占七成，缺勤两成，请假一成
+     */
+    private void writeStatusDay(File statusDir, String[] names, long dayStart, SplittableRandom random)
+            throws IOException {
+        int records = (int) Math.round(names.length * statusRate * (0.5 + random.nextDouble()));
+        for (int k = 0; k < records; k++) {
+            long time = dayStart + k;
+            int roll = random.nextInt(10);
+            StatusType type = roll < 7 ? StatusType.ANSWER : roll < 9 ? StatusType.ABSENCE : StatusType.LEAVE;
+            try (BufferedWriter writer = new BufferedWriter(new FileWriter(new File(statusDir, time + ".txt")))) {
+                writer.write("学生：" + names[random.nextInt(names.length)]);
+                writer.newLine();
+                writer.write("状态：" + type.getLabel());
+                writer.newLine();
+                writer.write("时间：" + Instant.ofEpochMilli(time).atOffset(ZoneOffset.UTC).format(TIME));
+            }
+        }
+    }
+
+    /**
+     * 预先生成 PHOTO_VARIANTS 张不同的 JPEG 照片，写入时只复制字节
+     */
+    private byte[][] renderPhotos() throws IOException {
+        if (photoWidth <= 0 || photoHeight <= 0) {
+            return new byte[0][];
+        }
+        byte[][] photos = new byte[PHOTO_VARIANTS][];
+        Random random = new Random(seed);
+        for (int v = 0; v < PHOTO_VARIANTS; v++) {
+            BufferedImage image = new BufferedImage(photoWidth, photoHeight, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = image.createGraphics();
+            g.setPaint(new GradientPaint(0, 0, new Color(random.nextInt(0xFFFFFF)), photoWidth, photoHeight,
+                    new Color(random.nextInt(0xFFFFFF))));
+            g.fillRect(0, 0, photoWidth, photoHeight);
+            // 头像轮廓和少量噪点，压缩后的大小接近普通证件照
+            g.setColor(new Color(random.nextInt(0xFFFFFF)));
+            g.fillOval(photoWidth / 3, photoHeight / 6, photoWidth / 3, photoHeight / 3);
+            g.fillRoundRect(photoWidth / 5, photoHeight / 2, photoWidth * 3 / 5, photoHeight / 2, photoWidth / 5,
+                    photoHeight / 5);
+            g.dispose();
+            for (int n = photoWidth * photoHeight / 64; n > 0; n--) {
+                image.setRGB(random.nextInt(photoWidth), random.nextInt(photoHeight), random.nextInt(0xFFFFFF));
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ImageIO.write(image, "jpg", out);
+            photos[v] = out.toByteArray();
+        }
+        return photos;
+    }
+
+    private static String name(SplittableRandom random) {
+        StringBuilder name = new StringBuilder(3);
+        name.append(SURNAMES.charAt(random.nextInt(SURNAMES.length())));
+        int given = random.nextInt(4) == 0 ? 1 : 2;
+        for (int i = 0; i < given; i++) {
+            name.append(GIVEN.charAt(random.nextInt(GIVEN.length())));
+        }
+        return name.toString();
+    }
+
+    /**
+     * 由种子和下标派生新的种子（SplitMix64 的混合函数）
+     */
+    private static long mix(long seed, long index) {
+        long z = seed + (index + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static void get(Future<?> task) throws IOException {
+        try {
+            task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("生成测试数据被中断");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    public void setOutputDir(File outputDir) {
+        this.outputDir = outputDir;
+    }
+
+    public void setClassCount(int classCount) {
+        this.classCount = classCount;
+    }
+
+    public void setStudentCount(int studentCount) {
+        this.studentCount = studentCount;
+    }
+
+    public void setGroupCount(int groupCount) {
+        this.groupCount = Math.max(1, groupCount);
+    }
+
+    public void setPhotoSize(int photoWidth, int photoHeight) {
+        this.photoWidth = photoWidth;
+        this.photoHeight = photoHeight;
+    }
+
+    public void setMonths(int months) {
+        this.months = months;
+    }
+
+    public void setStatusRate(double statusRate) {
+        this.statusRate = statusRate;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public void setPrefix(String prefix) {
+        this.prefix = prefix;
+    }
+}
@@ -0,0 +1,60 @@
+package com.student.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 导出当前班级成绩为 CSV 和 XLSX
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExportBenchmark {
+    private static final String CLASS_NAME = "jmh-export";
+
+    @Param({"1000", "10000"})
+    int students;
+
+    private File csv;
+    private File xlsx;
+    private final ScoreExporter.Listener listener = new ScoreExporter.Listener() {
+        @Override
+        public void progress(int done, int total) {
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+    };
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        BenchmarkClasses.create(CLASS_NAME, students, 2);
+        csv = File.createTempFile("jmh-export", ".csv");
+        xlsx = File.createTempFile("jmh-export", ".xlsx");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkClasses.delete(CLASS_NAME);
+        csv.delete();
+        xlsx.delete();
+    }
+
+    @Benchmark
+    public boolean exportCsv() throws IOException {
+        return new ScoreExporter(ClassRepository.getInstance()).export(csv, listener);
+    }
+
+    @Benchmark
+    public boolean exportXlsx() throws IOException {
+        return new ScoreExporter(ClassRepository.getInstance()).export(xlsx, listener);
+    }
+}
@@ -0,0 +1,74 @@
+package com.student.service;
+
+import com.student.entity.Student;
+import com.student.util.IndexedList;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 学生换组：通过班级数据仓库修改学生的小组（追加日志、移动组内名单、更新索引），
+ * 以及组内名单本身的删除和追加，对应原来 updateGroupStudentsList 重写整个小组名单的路径
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GroupMoveBenchmark {
+    private static final String CLASS_NAME = "jmh-move";
+
+    @Param({"10000"})
+    int students;
+
+    private List<Student> all;
+    private int next;
+    private final List<Object> indexedList = new IndexedList<>();
+    private final List<Object> arrayList = new ArrayList<>();
+    private Object[] members;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        BenchmarkClasses.create(CLASS_NAME, students, 0);
+        all = ClassRepository.getInstance().getStudents();
+        members = new Object[students];
+        for (int i = 0; i < students; i++) {
+            members[i] = new Object();
+            indexedList.add(members[i]);
+            arrayList.add(members[i]);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkClasses.delete(CLASS_NAME);
+    }
+
+    @Benchmark
+    public boolean moveStudent() throws IOException {
+        Student student = all.get(next++ % all.size());
+        int group = Integer.parseInt(student.getGroupName().substring(1));
+        return ClassRepository.getInstance().updateStudent(student.getStudentId(), student.getStudentId(),
+                student.getName(), "G" + (group + 1) % BenchmarkClasses.GROUPS);
+    }
+
+    @Benchmark
+    public int indexedListMove() {
+        Object member = members[next++ % members.length];
+        indexedList.remove(member);
+        indexedList.add(member);
+        return indexedList.size();
+    }
+
+    @Benchmark
+    public int arrayListMove() {
+        Object member = members[next++ % members.length];
+        arrayList.remove(member);
+        arrayList.add(member);
+        return arrayList.size();
+    }
+}
@@ -0,0 +1,66 @@
+package com.student.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 照片缩略图：隔行隔列解码并缩放到缩略图大小，以及读取已保存的缩略图
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class PhotoDecodeBenchmark {
+    private static final String CLASS_NAME = "jmh-photo";
+
+    @Param({"1600x1200", "4000x3000"})
+    String size;
+
+    private File photo;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        BenchmarkClasses.delete(CLASS_NAME);
+        File dir = new File(BenchmarkClasses.classDir(CLASS_NAME), "photos");
+        dir.mkdirs();
+        photo = new File(dir, "S0.jpg");
+        int width = Integer.parseInt(size.substring(0, size.indexOf('x')));
+        int height = Integer.parseInt(size.substring(size.indexOf('x') + 1));
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(1);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                // 渐变加噪声，压缩率接近普通照片
+                int noise = random.nextInt(32);
+                image.setRGB(x, y, ((x * 255 / width + noise) & 0xFF) << 16 | ((y * 255 / height + noise) & 0xFF) << 8
+                        | (((x + y) & 0xFF) ^ noise));
+            }
+        }
+        ImageIO.write(image, "jpg", photo);
+        // 生成保存的缩略图
+        PhotoCache.decode(photo.getPath(), CLASS_NAME);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkClasses.delete(CLASS_NAME);
+    }
+
+    @Benchmark
+    public PhotoCache.Thumbnail decodeAndScale() {
+        return PhotoCache.decode(photo.getPath(), "");
+    }
+
+    @Benchmark
+    public PhotoCache.Thumbnail savedThumbnail() {
+        return PhotoCache.decode(photo.getPath(), CLASS_NAME);
+    }
+}
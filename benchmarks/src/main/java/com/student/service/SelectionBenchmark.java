@@ -0,0 +1,56 @@
+package com.student.service;
+
+import com.student.entity.SelectionMode;
+import com.student.entity.Student;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+/**
+ * 随机点名：按当前抽取方式建立抽样器，以及从已建立的抽样器抽取一名学生
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SelectionBenchmark {
+    private static final String CLASS_NAME = "jmh-select";
+
+    @Param({"RANDOM", "SHUFFLE_BAG", "WEIGHTED"})
+    SelectionMode mode;
+
+    @Param({"1000"})
+    int students;
+
+    private List<Student> all;
+    private IntSupplier sampler;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        BenchmarkClasses.create(CLASS_NAME, students, 2);
+        all = ClassRepository.getInstance().getStudents();
+        SelectionEngine.getInstance().setMode(mode);
+        sampler = buildSampler();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkClasses.delete(CLASS_NAME);
+    }
+
+    @Benchmark
+    public IntSupplier buildSampler() {
+        return SelectionEngine.getInstance().sampler(SelectionEngine.STUDENTS, all.size(),
+                i -> all.get(i).getStudentId(), i -> all.get(i).getAnswerCount());
+    }
+
+    @Benchmark
+    public int sample() {
+        return sampler.getAsInt();
+    }
+}
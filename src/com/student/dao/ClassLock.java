@@ -0,0 +1,73 @@
+package com.student.dao;
+
+import com.student.util.Constant;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 班级文件锁
+ * 多台电脑通过共享目录同时打开同一个班级时，追加日志、合并快照等写操作都要先获得 班级目录/class.lock 上的文件锁，
+ * 保证同一时刻只有一个程序写入，并且写入前能先读到其他程序已写入的记录
+ * 同一个程序内的多个线程先通过 ReentrantLock 排队，同一个线程重复加锁时只在第一次获得文件锁
+ */
+public class ClassLock implements Closeable {
+    public static final String FILE_NAME = "class.lock";
+
+    private final FileChannel channel;   // 锁文件
+    private final ReentrantLock threadLock = new ReentrantLock();   // 程序内线程之间的互斥
+    private FileLock lock;               // 已获得的文件锁，没有加锁时为null
+
+    public ClassLock(String className) throws IOException {
+        File dir = new File(Constant.FILE_PATH + className);
+        if (!dir.exists()) {
+            dir.mkdirs();
+        }
+        this.channel = FileChannel.open(new File(dir, FILE_NAME).toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * 获得文件锁，本程序其他线程或其他程序持有锁时等待
+     * 用完后在 finally 中调用 unlock
+     */
+    public void lock() throws IOException {
+        threadLock.lock();
+        if (threadLock.getHoldCount() > 1) {
+            return;
+        }
+        try {
+            lock = channel.lock();
+        } catch (IOException | RuntimeException e) {
+            threadLock.unlock();
+            throw e;
+        }
+    }
+
+    /**
+     * 释放 lock 获得的文件锁，锁文件已关闭时只释放线程之间的互斥
+     */
+    public void unlock() throws IOException {
+        try {
+            if (threadLock.getHoldCount() == 1 && lock != null) {
+                FileLock held = lock;
+                lock = null;
+                if (held.isValid()) {
+                    held.release();
+                }
+            }
+        } finally {
+            threadLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
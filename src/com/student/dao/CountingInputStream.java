@@ -0,0 +1,50 @@
+package com.student.dao;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 统计已读取字节数的输入流，表格读取时用于估计进度
+ */
+class CountingInputStream extends FilterInputStream {
+    private volatile long count;    // 已读取的字节数，进度可能由其他线程读取
+
+    CountingInputStream(InputStream in) {
+        super(in);
+    }
+
+    long getCount() {
+        return count;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b >= 0) {
+            count++;
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        int n = super.read(buffer, offset, length);
+        if (n > 0) {
+            count += n;
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        count += skipped;
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+}
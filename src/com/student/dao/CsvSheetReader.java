@@ -0,0 +1,127 @@
+package com.student.dao;
+
+import com.student.util.Metrics;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CSV 表格读取类
+ * 带 BOM 或前 64KB 是合法 UTF-8 时按 UTF-8 读取，否则按 GBK 读取（中文 Excel 另存的 CSV 默认是 GBK）
+ * 支持双引号包围的单元格，单元格内可以有逗号、换行和两个双引号表示的双引号
+ */
+public class CsvSheetReader implements SheetReader {
+    private static final int SNIFF_BYTES = 64 * 1024;   // 判断编码时检查的字节数
+
+    private final CountingInputStream counter;   // 统计已读取的字节数
+    private final Reader reader;                 // 缓冲读取
+    private final long totalBytes;               // 文件大小
+    private final StringBuilder cell = new StringBuilder();   // 正在读取的单元格
+    private boolean finished;                    // 是否已读到文件末尾
+
+    public CsvSheetReader(File file) throws IOException {
+        totalBytes = file.length();
+        counter = new CountingInputStream(new FileInputStream(file));
+        try {
+            BufferedInputStream in = new BufferedInputStream(counter, SNIFF_BYTES);
+            Charset charset = detectCharset(in);
+            reader = new BufferedReader(new InputStreamReader(in, charset), 64 * 1024);
+        } catch (IOException e) {
+            counter.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public String[] readRow() throws IOException {
+        if (finished) {
+            return null;
+        }
+        List<String> cells = new ArrayList<>();
+        cell.setLength(0);
+        boolean quoted = false;     // 是否在双引号内
+        boolean empty = true;       // 本行是否还没有任何字符
+        while (true) {
+            int c = reader.read();
+            if (c < 0) {
+                finished = true;
+                if (empty) {
+                    return null;
+                }
+                cells.add(cell.toString());
+                return cells.toArray(new String[0]);
+            }
+            empty = false;
+            if (quoted) {
+                if (c != '"') {
+                    cell.append((char) c);
+                    continue;
+                }
+                reader.mark(1);
+                if (reader.read() == '"') {
+                    cell.append('"');
+                } else {
+                    reader.reset();
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                cells.add(cell.toString());
+                cell.setLength(0);
+            } else if (c == '\n' || c == '\r') {
+                if (c == '\r') {
+                    reader.mark(1);
+                    if (reader.read() != '\n') {
+                        reader.reset();
+                    }
+                }
+                cells.add(cell.toString());
+                return cells.toArray(new String[0]);
+            } else {
+                cell.append((char) c);
+            }
+        }
+    }
+
+    @Override
+    public long getBytesRead() {
+        return counter.getCount();
+    }
+
+    @Override
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    @Override
+    public void close() throws IOException {
+        Metrics.SHEET_IO.read(counter.getCount());
+        reader.close();
+    }
+
+    /**
+     * 检查文件开头判断编码，UTF-8 的 BOM 会被跳过
+     */
+    private static Charset detectCharset(BufferedInputStream in) throws IOException {
+        in.mark(SNIFF_BYTES);
+        byte[] head = in.readNBytes(SNIFF_BYTES);
+        in.reset();
+        if (head.length >= 3 && (head[0] & 0xFF) == 0xEF && (head[1] & 0xFF) == 0xBB && (head[2] & 0xFF) == 0xBF) {
+            in.skip(3);
+            return StandardCharsets.UTF_8;
+        }
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+        ByteBuffer bytes = ByteBuffer.wrap(head);
+        CoderResult result = decoder.decode(bytes, CharBuffer.allocate(head.length), true);
+        // 截断在最后一个字符中间的不算错误
+        boolean valid = !result.isError() || (head.length == SNIFF_BYTES && bytes.remaining() < 4);
+        return valid ? StandardCharsets.UTF_8 : Charset.forName("GBK");
+    }
+}
@@ -0,0 +1,67 @@
+package com.student.dao;
+
+import com.student.util.ScoreUtil;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * CSV 表格写入类
+ * 使用 UTF-8 编码并写入 BOM，Excel 打开时中文不会乱码
+ * CSV 只有一个表，多个工作表之间用空行分隔，每个工作表以名称行和表头行开始
+ */
+public class CsvSheetWriter implements SheetWriter {
+    private final Writer writer;     // 缓冲写入
+    private boolean firstSheet = true;
+
+    public CsvSheetWriter(File file) throws IOException {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.writer = new BufferedWriter(
+                new OutputStreamWriter(Channels.newOutputStream(channel), StandardCharsets.UTF_8), 64 * 1024);
+        writer.write('\uFEFF');
+    }
+
+    @Override
+    public void startSheet(String name, String... headers) throws IOException {
+        if (!firstSheet) {
+            writer.write("\r\n");
+        }
+        firstSheet = false;
+        writeRow(name);
+        writeRow((Object[]) headers);
+    }
+
+    @Override
+    public void writeRow(Object... cells) throws IOException {
+        for (int i = 0; i < cells.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writeCell(cells[i]);
+        }
+        writer.write("\r\n");
+    }
+
+    private void writeCell(Object cell) throws IOException {
+        if (cell == null) {
+            return;
+        }
+        String text = cell instanceof Double ? ScoreUtil.format((Double) cell) : cell.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            writer.write(text);
+            return;
+        }
+        writer.write('"');
+        writer.write(text.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
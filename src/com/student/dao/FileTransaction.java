@@ -0,0 +1,142 @@
+package com.student.dao;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * 多文件事务
+ * 同一目录下的多个文件要么全部替换成新内容，要么全部保持原样：
+ * 1. 新内容先写入 文件名.txn 临时文件并刷盘
+ * 2. 写入提交标记文件 txn.commit，列出本次事务的全部文件，标记写完即视为提交成功
+ * 3. 依次把临时文件重命名为目标文件，最后删除提交标记
+ * 加载班级前调用 recover：有完整提交标记时继续完成重命名，否则删除残留的临时文件
+ */
+public class FileTransaction {
+    private static final String MARKER = "txn.commit";
+    private static final String SUFFIX = ".txn";
+
+    private final File dir;                              // 事务所在目录
+    private final List<String> fileNames = new ArrayList<>(); // 本次事务替换的文件
+
+    public FileTransaction(File dir) {
+        this.dir = dir;
+    }
+
+    /**
+     * 登记一个要替换的文件，返回写入新内容用的临时文件
+     * @param fileName 目标文件名
+     * @return 临时文件，调用者负责写入并关闭
+     */
+    public File stage(String fileName) {
+        fileNames.add(fileName);
+        return new File(dir, fileName + SUFFIX);
+    }
+
+    /**
+     * 提交事务
+     */
+    public void commit() throws IOException {
+        for (String fileName : fileNames) {
+            File staged = new File(dir, fileName + SUFFIX);
+            if (!staged.exists()) {
+                staged.createNewFile();
+            }
+            try (FileOutputStream out = new FileOutputStream(staged, true)) {
+                out.getFD().sync();
+            }
+        }
+        writeMarker();
+        finish(dir, fileNames);
+    }
+
+    /**
+     * 恢复目录中未完成的事务
+     * @param dir 事务所在目录
+     */
+    public static void recover(File dir) throws IOException {
+        File marker = new File(dir, MARKER);
+        if (marker.exists()) {
+            List<String> names = readMarker(marker);
+            if (names != null) {
+                finish(dir, names);
+                return;
+            }
+            // 提交标记没有写完，事务未提交
+            marker.delete();
+        }
+        File[] staged = dir.listFiles((d, name) -> name.endsWith(SUFFIX));
+        if (staged != null) {
+            for (File file : staged) {
+                file.delete();
+            }
+        }
+    }
+
+    private static void finish(File dir, List<String> names) throws IOException {
+        for (String name : names) {
+            File staged = new File(dir, name + SUFFIX);
+            // 重放时已经重命名过的文件直接跳过
+            if (staged.exists()) {
+                moveReplacing(staged, new File(dir, name));
+            }
+        }
+        Files.deleteIfExists(new File(dir, MARKER).toPath());
+    }
+
+    /**
+     * 用源文件替换目标文件，文件系统支持时使用原子重命名
+     */
+    private static void moveReplacing(File source, File target) throws IOException {
+        try {
+            Files.move(source.toPath(), target.toPath(),
+                    StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private void writeMarker() throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bos);
+        out.writeInt(fileNames.size());
+        for (String fileName : fileNames) {
+            out.writeUTF(fileName);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bos.toByteArray());
+        out.writeInt((int) crc.getValue());
+        try (FileOutputStream fos = new FileOutputStream(new File(dir, MARKER))) {
+            fos.write(bos.toByteArray());
+            fos.getFD().sync();
+        }
+    }
+
+    /**
+     * 读取提交标记
+     * @return 事务中的文件名，标记不完整时返回null
+     */
+    private static List<String> readMarker(File marker) throws IOException {
+        byte[] bytes = Files.readAllBytes(marker.toPath());
+        if (bytes.length < 8) {
+            return null;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length - 4);
+        if (ByteBuffer.wrap(bytes).getInt(bytes.length - 4) != (int) crc.getValue()) {
+            return null;
+        }
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        int count = in.readInt();
+        List<String> names = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            names.add(in.readUTF());
+        }
+        return names;
+    }
+}
@@ -0,0 +1,327 @@
+package com.student.dao;
+
+import com.student.util.Constant;
+import com.student.util.Metrics;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.zip.CRC32;
+
+/**
+ * 班级修改日志读写类
+ * 每次修改只在 班级目录/journal.log 末尾追加一条记录，加载班级时在快照之上重放日志，
+ * 日志积累到一定数量后由班级数据仓库写入新的快照并清空日志
+ *
+ * 日志由若干记录组，一个记录组包含一次提交的全部记录，整组写入、整组校验：
+ * 长度(int) { 日志序号(long) 类型(byte) 内容 }... CRC32校验值(int)
+ * 文件末尾不完整或校验失败的记录组视为写入中断，打开日志时整组截掉
+ *
+ * 追加记录时只写入操作系统缓存，由 SyncScheduler 定时统一刷盘，多次修改共用一次刷盘
+ * 其他程序也可能向同一个日志追加记录，调用者在 ClassLock 保护下先用 catchUp 读取这些记录再追加
+ */
+public class JournalDao implements Closeable {
+    public static final String FILE_NAME = "journal.log";
+
+    private final File file;             // 日志文件
+    private FileChannel channel;         // 日志文件通道
+    private ScheduledFuture<?> syncTask; // 定时刷盘任务
+    private volatile boolean dirty;      // 是否有未刷盘的记录
+    private long lastLsn;                // 最后一条记录的序号
+    private int recordCount;             // 日志中的记录数
+    private long position;               // 已读取或写入的日志末尾位置
+    private boolean broken;              // 写入失败且无法截掉写了一半的记录组，重新打开前不能追加
+
+    public JournalDao(String className) {
+        this.file = new File(Constant.FILE_PATH + className, FILE_NAME);
+    }
+
+    /**
+     * 打开日志文件，读取全部有效记录并截掉末尾不完整的记录
+     * @param afterLsn 快照中已包含的最后一条记录序号，只返回序号更大的记录
+     * @return 需要重放的记录
+     */
+    public List<JournalRecord> open(long afterLsn) throws IOException {
+        byte[] bytes = file.exists() ? Files.readAllBytes(file.toPath()) : new byte[0];
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        Metrics.JOURNAL_IO.opened();
+        Metrics.JOURNAL_IO.read(bytes.length);
+
+        List<JournalRecord> records = new ArrayList<>();
+        lastLsn = afterLsn;
+        recordCount = 0;
+        int pos = parse(bytes, afterLsn, records);
+        if (pos < bytes.length) {
+            // 截掉写入中断的记录
+            channel.truncate(pos);
+            channel.force(false);
+        }
+        channel.position(pos);
+        position = pos;
+        broken = false;
+
+        syncTask = SyncScheduler.schedule(this::syncQuietly);
+        return records;
+    }
+
+    /**
+     * 只读取日志中的有效记录，不打开写入通道、不截断文件，用于统计其他班级
+     * @param afterLsn 快照中已包含的最后一条记录序号，只返回序号更大的记录
+     * @return 需要重放的记录
+     */
+    public List<JournalRecord> read(long afterLsn) throws IOException {
+        byte[] bytes = file.exists() ? Files.readAllBytes(file.toPath()) : new byte[0];
+        Metrics.JOURNAL_IO.read(bytes.length);
+        List<JournalRecord> records = new ArrayList<>();
+        lastLsn = afterLsn;
+        recordCount = 0;
+        parse(bytes, afterLsn, records);
+        return records;
+    }
+
+    /**
+     * 读取其他程序在上次读取或写入之后追加的记录，需要在 ClassLock 保护下调用
+     * @return 新的记录，日志文件比已读取的位置短（已被其他程序合并清空）时返回null
+     */
+    public synchronized List<JournalRecord> catchUp() throws IOException {
+        long size = channel.size();
+        if (size < position) {
+            return null;
+        }
+        List<JournalRecord> records = new ArrayList<>();
+        if (size == position) {
+            return records;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) (size - position));
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                break;
+            }
+        }
+        Metrics.JOURNAL_IO.read(buffer.position());
+        int pos = parse(buffer.array(), lastLsn, records);
+        position += pos;
+        channel.position(position);
+        return records;
+    }
+
+    /**
+     * 解析完整的记录组，遇到不完整或校验失败的记录组时停止
+     * @param afterLsn 只返回序号更大的记录
+     * @param records 解析出的记录
+     * @return 最后一个完整记录组的结束位置
+     */
+    private int parse(byte[] bytes, long afterLsn, List<JournalRecord> records) throws IOException {
+        int pos = 0;
+        while (pos + 4 <= bytes.length) {
+            int length = ByteBuffer.wrap(bytes, pos, 4).getInt();
+            if (length <= 0 || pos + 8L + length > bytes.length) {
+                break;
+            }
+            CRC32 crc = new CRC32();
+            crc.update(bytes, pos + 4, length);
+            if (ByteBuffer.wrap(bytes, pos + 4 + length, 4).getInt() != (int) crc.getValue()) {
+                break;
+            }
+            ByteArrayInputStream frame = new ByteArrayInputStream(bytes, pos + 4, length);
+            DataInputStream in = new DataInputStream(frame);
+            while (frame.available() > 0) {
+                JournalRecord record = decode(in);
+                if (record.getLsn() > afterLsn) {
+                    records.add(record);
+                    lastLsn = Math.max(lastLsn, record.getLsn());
+                }
+                recordCount++;
+            }
+            pos += 8 + length;
+        }
+        return pos;
+    }
+
+    /**
+     * 追加一条记录，并为记录分配日志序号
+     * @param record 日志记录
+     */
+    public void append(JournalRecord record) throws IOException {
+        append(Collections.singletonList(record));
+    }
+
+    /**
+     * 把多条记录作为一个记录组追加，重放时这些记录要么全部生效，要么全部忽略
+     * 写入失败时截掉已写入的部分再抛出异常，之后的记录不会跟在写了一半的记录组后面（重放时读不到）
+     * @param records 日志记录
+     */
+    public synchronized void append(List<JournalRecord> records) throws IOException {
+        if (broken) {
+            throw new IOException("日志写入失败后未能恢复，请重新加载班级：" + file);
+        }
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(64 * records.size());
+        DataOutputStream out = new DataOutputStream(bos);
+        out.writeInt(0);   // 长度占位
+        long lsn = lastLsn;
+        for (JournalRecord record : records) {
+            record.setLsn(++lsn);
+            encode(record, out);
+        }
+        out.writeInt(0);   // 校验值占位
+        byte[] bytes = bos.toByteArray();
+        int length = bytes.length - 8;
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 4, length);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        buffer.putInt(0, length);
+        buffer.putInt(bytes.length - 4, (int) crc.getValue());
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            try {
+                channel.truncate(position);
+                channel.position(position);
+            } catch (IOException truncateFailure) {
+                broken = true;
+                e.addSuppressed(truncateFailure);
+            }
+            throw e;
+        }
+        Metrics.JOURNAL_IO.written(bytes.length);
+        position += bytes.length;
+        lastLsn = lsn;
+        recordCount += records.size();
+        dirty = true;
+    }
+
+    /**
+     * 把已追加的记录刷入磁盘
+     * 刷盘前先清除标记，刷盘期间追加的记录会重新设置标记；刷盘失败时恢复标记，下次继续重试
+     */
+    public void sync() throws IOException {
+        if (dirty) {
+            dirty = false;
+            try {
+                channel.force(false);
+            } catch (IOException | RuntimeException e) {
+                dirty = true;
+                throw e;
+            }
+        }
+    }
+
+    private void syncQuietly() {
+        try {
+            sync();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * 在多文件事务中清空日志：登记一个空的日志文件并关闭当前日志，
+     * 事务结束后需要调用 open 重新打开日志
+     * @param transaction 多文件事务
+     */
+    public synchronized void stageReset(FileTransaction transaction) throws IOException {
+        new FileOutputStream(transaction.stage(FILE_NAME)).close();
+        close();
+    }
+
+    public long getLastLsn() {
+        return lastLsn;
+    }
+
+    public int getRecordCount() {
+        return recordCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (syncTask != null) {
+            syncTask.cancel(false);
+        }
+        if (channel != null && channel.isOpen()) {
+            sync();
+            channel.close();
+        }
+    }
+
+    private static void encode(JournalRecord record, DataOutputStream out) throws IOException {
+        out.writeLong(record.getLsn());
+        out.writeByte(record.getType().ordinal());
+        switch (record.getType()) {
+            case ADD_GROUP:
+            case DELETE_GROUP:
+                out.writeUTF(record.getGroupName());
+                break;
+            case SET_GROUP_SCORE:
+                out.writeUTF(record.getGroupName());
+                out.writeDouble(record.getScore());
+                break;
+            case ADD_STUDENT:
+                out.writeUTF(record.getStudentId());
+                out.writeUTF(record.getName());
+                out.writeUTF(record.getGroupName());
+                out.writeUTF(record.getPhotoPath() == null ? "" : record.getPhotoPath());
+                break;
+            case UPDATE_STUDENT:
+                out.writeUTF(record.getStudentId());
+                out.writeUTF(record.getNewStudentId());
+                out.writeUTF(record.getName());
+                out.writeUTF(record.getGroupName());
+                break;
+            case DELETE_STUDENT:
+                out.writeUTF(record.getStudentId());
+                break;
+            case STATUS_MARK:
+                out.writeLong(record.getStatusSeq());
+                break;
+        }
+    }
+
+    private static JournalRecord decode(DataInputStream in) throws IOException {
+        long lsn = in.readLong();
+        int ordinal = in.readByte();
+        if (ordinal < 0 || ordinal >= JournalRecord.Type.values().length) {
+            throw new IOException("未知的日志记录类型：" + ordinal);
+        }
+        JournalRecord record = new JournalRecord(JournalRecord.Type.values()[ordinal]);
+        record.setLsn(lsn);
+        switch (record.getType()) {
+            case ADD_GROUP:
+            case DELETE_GROUP:
+                record.setGroupName(in.readUTF());
+                break;
+            case SET_GROUP_SCORE:
+                record.setGroupName(in.readUTF());
+                record.setScore(in.readDouble());
+                break;
+            case ADD_STUDENT:
+                record.setStudentId(in.readUTF());
+                record.setName(in.readUTF());
+                record.setGroupName(in.readUTF());
+                String photo = in.readUTF();
+                record.setPhotoPath(photo.isEmpty() ? null : photo);
+                break;
+            case UPDATE_STUDENT:
+                record.setStudentId(in.readUTF());
+                record.setNewStudentId(in.readUTF());
+                record.setName(in.readUTF());
+                record.setGroupName(in.readUTF());
+                break;
+            case DELETE_STUDENT:
+                record.setStudentId(in.readUTF());
+                break;
+            case STATUS_MARK:
+                record.setStatusSeq(in.readLong());
+                break;
+        }
+        return record;
+    }
+}
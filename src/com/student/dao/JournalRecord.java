@@ -0,0 +1,156 @@
+package com.student.dao;
+
+/**
+ * 班级修改日志记录
+ * 每次修改小组、学生或小组分数都对应一条日志记录
+ */
+public class JournalRecord {
+    /**
+     * 日志记录类型，序号写入日志文件，只能在末尾追加新类型
+     */
+    public enum Type {
+        ADD_GROUP,         // 新增小组
+        DELETE_GROUP,      // 删除小组
+        SET_GROUP_SCORE,   // 修改小组分数
+        ADD_STUDENT,       // 新增学生
+        UPDATE_STUDENT,    // 修改学生
+        DELETE_STUDENT,    // 删除学生
+        STATUS_MARK        // 状态日志位置，重放到这里时先应用此前的状态记录
+    }
+
+    private final Type type;         // 记录类型
+    private long lsn;                // 日志序号，写入日志时分配
+    private String studentId;        // 学号（修改学生时为原学号）
+    private String newStudentId;     // 新学号
+    private String name;             // 姓名
+    private String groupName;        // 小组名称
+    private String photoPath;        // 照片路径
+    private double score;            // 分数
+    private long statusSeq;          // 状态日志序号
+
+    JournalRecord(Type type) {
+        this.type = type;
+    }
+
+    public static JournalRecord addGroup(String groupName) {
+        JournalRecord record = new JournalRecord(Type.ADD_GROUP);
+        record.groupName = groupName;
+        return record;
+    }
+
+    public static JournalRecord deleteGroup(String groupName) {
+        JournalRecord record = new JournalRecord(Type.DELETE_GROUP);
+        record.groupName = groupName;
+        return record;
+    }
+
+    public static JournalRecord setGroupScore(String groupName, double score) {
+        JournalRecord record = new JournalRecord(Type.SET_GROUP_SCORE);
+        record.groupName = groupName;
+        record.score = score;
+        return record;
+    }
+
+    public static JournalRecord addStudent(String studentId, String name, String groupName, String photoPath) {
+        JournalRecord record = new JournalRecord(Type.ADD_STUDENT);
+        record.studentId = studentId;
+        record.name = name;
+        record.groupName = groupName;
+        record.photoPath = photoPath;
+        return record;
+    }
+
+    public static JournalRecord updateStudent(String oldId, String studentId, String name, String groupName) {
+        JournalRecord record = new JournalRecord(Type.UPDATE_STUDENT);
+        record.studentId = oldId;
+        record.newStudentId = studentId;
+        record.name = name;
+        record.groupName = groupName;
+        return record;
+    }
+
+    public static JournalRecord deleteStudent(String studentId) {
+        JournalRecord record = new JournalRecord(Type.DELETE_STUDENT);
+        record.studentId = studentId;
+        return record;
+    }
+
+    /**
+     * 学生学号变化或删除前记录状态日志的位置，
+     * 加载时保证此前的状态记录按原学号计分
+     */
+    public static JournalRecord statusMark(long statusSeq) {
+        JournalRecord record = new JournalRecord(Type.STATUS_MARK);
+        record.statusSeq = statusSeq;
+        return record;
+    }
+
+    // Getter 和 Setter 方法
+    public Type getType() {
+        return type;
+    }
+
+    public long getLsn() {
+        return lsn;
+    }
+
+    void setLsn(long lsn) {
+        this.lsn = lsn;
+    }
+
+    public String getStudentId() {
+        return studentId;
+    }
+
+    void setStudentId(String studentId) {
+        this.studentId = studentId;
+    }
+
+    public String getNewStudentId() {
+        return newStudentId;
+    }
+
+    void setNewStudentId(String newStudentId) {
+        this.newStudentId = newStudentId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    void setName(String name) {
+        this.name = name;
+    }
+
+    public String getGroupName() {
+        return groupName;
+    }
+
+    void setGroupName(String groupName) {
+        this.groupName = groupName;
+    }
+
+    public String getPhotoPath() {
+        return photoPath;
+    }
+
+    void setPhotoPath(String photoPath) {
+        this.photoPath = photoPath;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    void setScore(double score) {
+        this.score = score;
+    }
+
+    public long getStatusSeq() {
+        return statusSeq;
+    }
+
+    void setStatusSeq(long statusSeq) {
+        this.statusSeq = statusSeq;
+    }
+}
@@ -0,0 +1,246 @@
+package com.student.dao;
+
+import com.student.entity.Group;
+import com.student.entity.SchoolClass;
+import com.student.entity.Student;
+import com.student.util.Constant;
+import com.student.util.IndexedList;
+import com.student.util.Metrics;
+
+import java.io.*;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * 班级文本文件读取类
+ * 读取旧版的 students/学号.txt 和 groups/小组名/小组名.txt 文件，
+ * 班级没有快照文件时用于导入旧数据
+ * 文件分批交给固定大小的线程池并发读取和解析，网络存储上多个文件的读取延迟可以重叠，
+ * 解析结果按目录顺序在调用线程中合并到班级数据
+ */
+public class LegacyClassDao {
+    private static final int BATCH_SIZE = 64;   // 每个读取任务处理的文件数
+
+    private final File classDir;     // 班级目录
+    private final File studentsDir;  // 学生信息目录
+    private final File groupsDir;    // 小组目录
+
+    public LegacyClassDao(String className) {
+        this.classDir = new File(Constant.FILE_PATH + className);
+        this.studentsDir = new File(classDir, "students");
+        this.groupsDir = new File(classDir, "groups");
+    }
+
+    /**
+     * 按 Constant.IO_CONCURRENCY 的并发数读取整个班级
+     * @return 班级信息
+     */
+    public SchoolClass read() throws IOException {
+        return read(Constant.IO_CONCURRENCY, ReadListener.NONE);
+    }
+
+    /**
+     * 按 Constant.IO_CONCURRENCY 的并发数读取整个班级，每合并一批学生报告一次进度
+     * @param listener 进度监听器，取消时抛出 CancellationException
+     * @return 班级信息
+     */
+    public SchoolClass read(ReadListener listener) throws IOException {
+        return read(Constant.IO_CONCURRENCY, listener);
+    }
+
+    /**
+     * 读取整个班级
+     * 先读取所有小组，再读取所有学生并按学生文件中的"小组："关联到小组
+     * @param concurrency 同时读取的文件数，小于等于1时在调用线程中顺序读取
+     * @param listener 进度监听器，取消时停止提交新的读取并抛出 CancellationException
+     * @return 班级信息
+     */
+    public SchoolClass read(int concurrency, ReadListener listener) throws IOException {
+        listener.checkCancelled();
+        List<Path> groupDirs = list(groupsDir.toPath(), Files::isDirectory);
+        List<Path> studentFiles = list(studentsDir.toPath(), path -> path.getFileName().toString().endsWith(".txt"));
+
+        ExecutorService executor = concurrency > 1 ? Executors.newFixedThreadPool(concurrency, runnable -> {
+            Thread thread = new Thread(runnable, "class-loader");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+        try {
+            List<Future<List<Double>>> groupTasks = submit(executor, groupDirs,
+                    dir -> readGroupScore(dir.resolve(dir.getFileName() + ".txt")));
+            List<Future<List<StudentFile>>> studentTasks = submit(executor, studentFiles, LegacyClassDao::readStudent);
+
+            SchoolClass schoolClass = new SchoolClass(classDir.getName());
+            Map<String, Group> groupMap = new HashMap<>();
+            int index = 0;
+            for (Future<List<Double>> task : groupTasks) {
+                for (Double score : get(task)) {
+                    Group group = new Group(groupDirs.get(index++).getFileName().toString(), new IndexedList<>());
+                    group.setScore(score);
+                    schoolClass.getGroups().add(group);
+                    groupMap.put(group.getGroupName(), group);
+                }
+            }
+            List<Student> students = new IndexedList<>();
+            int done = 0;
+            for (Future<List<StudentFile>> task : studentTasks) {
+                listener.checkCancelled();
+                for (StudentFile file : get(task)) {
+                    if (file != null) {
+                        students.add(file.toStudent(groupMap));
+                    }
+                }
+                done = Math.min(done + BATCH_SIZE, studentFiles.size());
+                listener.progress(done, studentFiles.size());
+            }
+            schoolClass.setStudents(students);
+            return schoolClass;
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * 列出目录下符合条件的文件，目录不存在时返回空列表
+     */
+    private static List<Path> list(Path dir, DirectoryStream.Filter<Path> filter) throws IOException {
+        List<Path> paths = new ArrayList<>();
+        if (!Files.isDirectory(dir)) {
+            return paths;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, filter)) {
+            for (Path path : stream) {
+                paths.add(path);
+            }
+        }
+        return paths;
+    }
+
+    /**
+     * 把文件按 BATCH_SIZE 分批提交读取，没有线程池时直接在调用线程中读取
+     * @return 每批的读取结果，顺序与文件顺序一致
+     */
+    private static <T> List<Future<List<T>>> submit(ExecutorService executor, List<Path> paths,
+                                                    FileParser<T> parser) throws IOException {
+        List<Future<List<T>>> tasks = new ArrayList<>();
+        for (int from = 0; from < paths.size(); from += BATCH_SIZE) {
+            List<Path> batch = paths.subList(from, Math.min(from + BATCH_SIZE, paths.size()));
+            Callable<List<T>> task = () -> {
+                List<T> results = new ArrayList<>(batch.size());
+                for (Path path : batch) {
+                    results.add(parser.parse(path));
+                }
+                return results;
+            };
+            if (executor == null) {
+                FutureTask<List<T>> future = new FutureTask<>(task);
+                future.run();
+                tasks.add(future);
+            } else {
+                tasks.add(executor.submit(task));
+            }
+        }
+        return tasks;
+    }
+
+    private static <T> T get(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("读取班级文件被中断");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * 解析单个学生文件，耗时计入 Metrics.STUDENT_PARSE
+     * @param file 学生文件
+     * @return 学生文件内容，缺少学号时返回null
+     */
+    static StudentFile readStudent(Path file) throws IOException {
+        long start = System.nanoTime();
+        StudentFile student = new StudentFile();
+        CountingInputStream counter = new CountingInputStream(Files.newInputStream(file));
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(counter))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("学号：")) {
+                    student.studentId = line.substring(3).trim();
+                } else if (line.startsWith("姓名：")) {
+                    student.name = line.substring(3).trim();
+                } else if (line.startsWith("小组：")) {
+                    student.groupName = line.substring(3).trim();
+                } else if (line.startsWith("照片：")) {
+                    student.photo = line.substring(3).trim();
+                }
+            }
+        }
+        Metrics.LEGACY_IO.read(counter.getCount());
+        Metrics.STUDENT_PARSE.recordSince(start);
+        if (student.studentId == null || student.studentId.isEmpty()) {
+            return null;
+        }
+        return student;
+    }
+
+    /**
+     * 读取小组分数
+     * @param file 小组信息文件
+     * @return 小组分数，未找到或格式不正确时返回0
+     */
+    static double readGroupScore(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        CountingInputStream counter = new CountingInputStream(Files.newInputStream(file));
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(counter))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("分数：")) {
+                    try {
+                        return Double.parseDouble(line.substring(3).trim());
+                    } catch (NumberFormatException e) {
+                        return 0;
+                    }
+                }
+            }
+        } finally {
+            Metrics.LEGACY_IO.read(counter.getCount());
+        }
+        return 0;
+    }
+
+    private interface FileParser<T> {
+        T parse(Path path) throws IOException;
+    }
+
+    /**
+     * 学生文件内容，在读取线程中解析，合并时再关联小组
+     */
+    static class StudentFile {
+        String studentId;   // 学号
+        String name;        // 姓名
+        String groupName;   // 小组名称
+        String photo;       // 照片路径
+
+        Student toStudent(Map<String, Group> groupMap) {
+            Group group = groupName == null ? null : groupMap.get(groupName);
+            Student student = new Student(studentId, name == null ? "" : name, 0, group);
+            student.setPhotoPath(photo);
+            if (group != null) {
+                group.getStudents().add(student);
+            }
+            return student;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.student.dao;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * 读取班级文件的进度监听器
+ * 读取过程中按批报告已读取的学生数，并在每批之间检查是否已取消；
+ * 已取消时读取方法抛出 CancellationException，已读取的内容全部丢弃
+ */
+public interface ReadListener {
+    /**
+     * 不需要进度和取消时使用
+     */
+    ReadListener NONE = new ReadListener() {
+    };
+
+    /**
+     * @param done 已读取的学生数
+     * @param total 学生总数
+     */
+    default void progress(int done, int total) {
+    }
+
+    default boolean isCancelled() {
+        return false;
+    }
+
+    /**
+     * 已取消时抛出 CancellationException
+     */
+    default void checkCancelled() {
+        if (isCancelled()) {
+            throw new CancellationException("已取消读取班级");
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.student.dao;
+
+import com.student.entity.ScoreChange;
+import com.student.util.Constant;
+import com.student.util.Metrics;
+
+import java.io.*;
+import java.util.function.Consumer;
+
+/**
+ * 小组分数历史读写类
+ * 小组分数的每次变化追加到 班级目录/history/ 下的分段日志中，每条记录为 时间 小组 变化 变化后分数 原因，
+ * 按时间范围读取时借助段的时间索引只扫描范围内的记录
+ * 分数历史不随快照合并清空，修改日志合并后仍能查询以前的分数；
+ * 每条记录在对应的修改日志写入之后才追加，异常退出时可能缺少最后一次变化，分数以修改日志为准
+ */
+public class ScoreHistoryDao implements Closeable {
+    public static final String DIR_NAME = "history";
+    private static final long SEGMENT_SIZE = 1024 * 1024;   // 段文件大小
+
+    private final SegmentedLog<ScoreChange> log;   // 分段日志
+
+    public ScoreHistoryDao(String className) {
+        this.log = new SegmentedLog<>(new File(Constant.FILE_PATH + className, DIR_NAME), new ScoreChangeCodec(),
+                SEGMENT_SIZE, Metrics.HISTORY_IO);
+    }
+
+    public void open() throws IOException {
+        log.open();
+    }
+
+    /**
+     * 追加一条分数变化记录，记录时间不早于上一条记录，需要在 ClassLock 保护下先调用 catchUp
+     * @param groupName 小组名称
+     * @param delta 分数变化
+     * @param score 变化后的分数
+     * @param reason 变化原因
+     * @return 分数变化记录
+     */
+    public synchronized ScoreChange append(String groupName, double delta, double score, String reason)
+            throws IOException {
+        long time = Math.max(System.currentTimeMillis(), log.getLastTimestamp());
+        ScoreChange change = new ScoreChange(groupName, delta, score, reason, time);
+        log.append(change);
+        return change;
+    }
+
+    /**
+     * 读取其他程序追加的记录位置
+     * @return 是否有新记录
+     */
+    public boolean catchUp() throws IOException {
+        return log.catchUp();
+    }
+
+    /**
+     * 按时间范围读取分数变化记录
+     * @param from 开始时间（包含）
+     * @param to 结束时间（包含）
+     * @param consumer 记录处理
+     */
+    public void read(long from, long to, Consumer<ScoreChange> consumer) throws IOException {
+        log.read(from, to, consumer);
+    }
+
+    /**
+     * 从指定序号开始读取之后的全部记录
+     * @param fromSeq 开始序号（包含）
+     * @param consumer 记录处理
+     * @return 下一个序号
+     */
+    public long readFrom(long fromSeq, Consumer<ScoreChange> consumer) throws IOException {
+        return log.readFrom(fromSeq, consumer);
+    }
+
+    public long getNextSeq() {
+        return log.getNextSeq();
+    }
+
+    @Override
+    public void close() throws IOException {
+        log.close();
+    }
+
+    /**
+     * 分数变化记录格式：小组名称(UTF) 变化(double) 变化后分数(double) 原因(UTF) 时间(long)
+     */
+    private static class ScoreChangeCodec implements SegmentedLog.Codec<ScoreChange> {
+        @Override
+        public void write(ScoreChange change, DataOutput out) throws IOException {
+            out.writeUTF(change.getGroupName());
+            out.writeDouble(change.getDelta());
+            out.writeDouble(change.getScore());
+            out.writeUTF(change.getReason() == null ? "" : change.getReason());
+            out.writeLong(change.getTime());
+        }
+
+        @Override
+        public ScoreChange read(DataInput in) throws IOException {
+            return new ScoreChange(in.readUTF(), in.readDouble(), in.readDouble(), in.readUTF(), in.readLong());
+        }
+
+        @Override
+        public long timestamp(ScoreChange change) {
+            return change.getTime();
+        }
+    }
+}
@@ -0,0 +1,547 @@
+package com.student.dao;
+
+import com.student.util.FileIoCounters;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ScheduledFuture;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * 分段追加日志
+ * 记录按时间顺序追加到目录下的段文件中，段文件达到 segmentSize 后滚动到新段，
+ * 段文件名为段内第一条记录的序号（20位数字）+ .seg
+ * 每个段有一个稀疏时间索引文件（.idx），每 INDEX_INTERVAL 条记录登记一次 时间(long) 位置(long)，
+ * 按时间范围读取时先定位段和索引项，再从索引项位置顺序扫描，不需要从头读取全部记录
+ *
+ * 记录格式：长度(int) 内容 CRC32校验值(int)
+ * 打开日志时重新扫描最后一个段，截掉写入中断的记录并重建该段的索引
+ * 记录的时间必须不小于上一条记录的时间，调用者可以用 getLastTimestamp 保证这一点
+ * 多个程序共用同一个日志时，调用者在 ClassLock 保护下先调用 catchUp 读取其他程序追加的记录再追加
+ *
+ * @param <T> 记录类型
+ */
+public class SegmentedLog<T> implements Closeable {
+    /**
+     * 记录的序列化方式
+     */
+    public interface Codec<T> {
+        void write(T record, DataOutput out) throws IOException;
+
+        T read(DataInput in) throws IOException;
+
+        long timestamp(T record);
+    }
+
+    static final int INDEX_INTERVAL = 64;                 // 索引间隔（记录数）
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String INDEX_SUFFIX = ".idx";
+    private static final int MAX_RECORD_SIZE = 1 << 20;   // 单条记录的最大长度
+
+    private final File dir;                // 日志目录
+    private final Codec<T> codec;          // 记录序列化方式
+    private final long segmentSize;        // 段文件滚动大小（字节）
+    private final FileIoCounters io;       // 读写计数
+    private final List<Segment> segments = new ArrayList<>();   // 全部段，按序号排列
+    private FileChannel channel;           // 当前段文件
+    private FileChannel indexChannel;      // 当前段索引文件
+    private long position;                 // 当前段写入位置
+    private long nextSeq;                  // 下一条记录的序号
+    private long lastTimestamp;            // 最后一条记录的时间
+    private volatile boolean dirty;        // 是否有未刷盘的记录
+    private boolean broken;                // 写入失败且无法截掉写了一半的记录，重新打开前不能追加
+    private ScheduledFuture<?> syncTask;   // 定时刷盘任务
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(128);
+
+    /**
+     * @param io 读写计数，扫描一次段文件计一次读取，追加一条记录计一次写入
+     */
+    public SegmentedLog(File dir, Codec<T> codec, long segmentSize, FileIoCounters io) {
+        this.dir = dir;
+        this.codec = codec;
+        this.segmentSize = segmentSize;
+        this.io = io;
+    }
+
+    /**
+     * 打开日志，读取全部段的索引并检查最后一个段
+     */
+    public synchronized void open() throws IOException {
+        if (!dir.exists()) {
+            dir.mkdirs();
+        }
+        File[] files = dir.listFiles((d, name) -> name.endsWith(SEGMENT_SUFFIX));
+        if (files != null) {
+            for (File file : files) {
+                String name = file.getName();
+                try {
+                    long baseSeq = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+                    segments.add(new Segment(baseSeq));
+                } catch (NumberFormatException e) {
+                    // 不是段文件，忽略
+                }
+            }
+        }
+        segments.sort(Comparator.comparingLong(segment -> segment.baseSeq));
+        for (int i = 0; i < segments.size() - 1; i++) {
+            segments.get(i).loadIndex();
+        }
+
+        if (segments.isEmpty()) {
+            segments.add(new Segment(0));
+        }
+        Segment active = segments.get(segments.size() - 1);
+        recover(active);
+        openActive(active);
+        syncTask = SyncScheduler.schedule(this::syncQuietly);
+    }
+
+    /**
+     * 只读打开日志，用于统计其他班级，不创建目录、不截断段文件、不写索引文件
+     * 最后一个段在内存中重建索引，末尾写入中断的记录在读取时跳过；只读打开后不能追加记录
+     */
+    public synchronized void openReadOnly() throws IOException {
+        File[] files = dir.listFiles((d, name) -> name.endsWith(SEGMENT_SUFFIX));
+        if (files != null) {
+            for (File file : files) {
+                String name = file.getName();
+                try {
+                    long baseSeq = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+                    segments.add(new Segment(baseSeq));
+                } catch (NumberFormatException e) {
+                    // 不是段文件，忽略
+                }
+            }
+        }
+        segments.sort(Comparator.comparingLong(segment -> segment.baseSeq));
+        for (int i = 0; i < segments.size() - 1; i++) {
+            segments.get(i).loadIndex();
+        }
+        if (segments.isEmpty()) {
+            return;
+        }
+        Segment last = segments.get(segments.size() - 1);
+        rebuildIndex(last);
+        nextSeq = last.baseSeq + last.recordCount;
+        lastTimestamp = last.lastTime;
+    }
+
+    /**
+     * 追加一条记录
+     * 写入失败时把段文件和索引文件截回写入前的长度再抛出异常，之后的记录不会跟在写了一半的记录后面
+     * @param record 记录
+     * @return 记录的序号
+     */
+    public synchronized long append(T record) throws IOException {
+        if (broken) {
+            throw new IOException("日志写入失败后未能恢复，请重新打开：" + dir);
+        }
+        buffer.reset();
+        DataOutputStream out = new DataOutputStream(buffer);
+        out.writeInt(0);   // 长度占位
+        codec.write(record, out);
+        out.writeInt(0);   // 校验值占位
+        byte[] bytes = buffer.toByteArray();
+        int length = bytes.length - 8;
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 4, length);
+        ByteBuffer data = ByteBuffer.wrap(bytes);
+        data.putInt(0, length);
+        data.putInt(bytes.length - 4, (int) crc.getValue());
+
+        Segment active = segments.get(segments.size() - 1);
+        long timestamp = Math.max(codec.timestamp(record), lastTimestamp);
+        boolean indexed = (nextSeq - active.baseSeq) % INDEX_INTERVAL == 0;
+        long indexLength = indexed ? indexChannel.size() : 0;
+        try {
+            if (indexed) {
+                ByteBuffer entry = ByteBuffer.allocate(16);
+                entry.putLong(timestamp).putLong(position).flip();
+                while (entry.hasRemaining()) {
+                    indexChannel.write(entry);
+                }
+            }
+            while (data.hasRemaining()) {
+                channel.write(data);
+            }
+        } catch (IOException e) {
+            try {
+                channel.truncate(position);
+                channel.position(position);
+                if (indexed) {
+                    indexChannel.truncate(indexLength);
+                }
+            } catch (IOException truncateFailure) {
+                broken = true;
+                e.addSuppressed(truncateFailure);
+            }
+            throw e;
+        }
+        if (indexed) {
+            active.addIndex(timestamp, position);
+        }
+        io.written(bytes.length);
+        position += bytes.length;
+        lastTimestamp = timestamp;
+        dirty = true;
+        long seq = nextSeq++;
+        if (position >= segmentSize) {
+            roll();
+        }
+        return seq;
+    }
+
+    /**
+     * 读取其他程序在当前段末尾追加的记录和新滚动出的段，更新序号、时间和索引
+     * @return 是否有新记录
+     */
+    public synchronized boolean catchUp() throws IOException {
+        long oldSeq = nextSeq;
+        while (true) {
+            Segment active = segments.get(segments.size() - 1);
+            if (channel.size() > position) {
+                position = scan(active, position, (record, pos) -> {
+                    long time = Math.max(codec.timestamp(record), lastTimestamp);
+                    if ((nextSeq - active.baseSeq) % INDEX_INTERVAL == 0) {
+                        active.addIndex(time, pos);
+                    }
+                    lastTimestamp = time;
+                    nextSeq++;
+                    return true;
+                });
+                channel.position(position);
+            }
+            Segment next = new Segment(nextSeq);
+            if (nextSeq == active.baseSeq || !next.file.exists()) {
+                break;
+            }
+            // 其他程序已经滚动到新的段
+            channel.close();
+            indexChannel.close();
+            segments.add(next);
+            position = 0;
+            openActive(next);
+        }
+        return nextSeq != oldSeq;
+    }
+
+    /**
+     * 按时间范围顺序读取记录
+     * @param from 开始时间（包含）
+     * @param to 结束时间（包含）
+     * @param consumer 记录处理
+     */
+    public void read(long from, long to, Consumer<T> consumer) throws IOException {
+        List<Segment> view;
+        synchronized (this) {
+            view = new ArrayList<>(segments);
+        }
+        for (int i = 0; i < view.size(); i++) {
+            Segment segment = view.get(i);
+            if (segment.indexSize == 0 || segment.indexTimes[0] > to) {
+                break;
+            }
+            if (i + 1 < view.size() && view.get(i + 1).indexSize > 0 && view.get(i + 1).indexTimes[0] < from) {
+                continue;
+            }
+            // 从最后一个时间小于 from 的索引项开始扫描
+            int k = segment.floorIndex(from);
+            long start = k < 0 ? 0 : segment.indexPositions[k];
+            boolean[] done = {false};
+            scan(segment, start, (record, pos) -> {
+                long time = codec.timestamp(record);
+                if (time > to) {
+                    done[0] = true;
+                    return false;
+                }
+                if (time >= from) {
+                    consumer.accept(record);
+                }
+                return true;
+            });
+            if (done[0]) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * 从指定序号开始顺序读取之后的全部记录
+     * @param fromSeq 开始序号（包含）
+     * @param consumer 记录处理
+     * @return 读取结束后的下一个序号
+     */
+    public long readFrom(long fromSeq, Consumer<T> consumer) throws IOException {
+        return readFrom(fromSeq, Long.MAX_VALUE, consumer);
+    }
+
+    /**
+     * 按序号范围顺序读取记录
+     * @param fromSeq 开始序号（包含）
+     * @param toSeq 结束序号（不包含）
+     * @param consumer 记录处理
+     * @return 读取结束后的下一个序号
+     */
+    public long readFrom(long fromSeq, long toSeq, Consumer<T> consumer) throws IOException {
+        List<Segment> view;
+        synchronized (this) {
+            view = new ArrayList<>(segments);
+        }
+        long seq = fromSeq;
+        for (int i = 0; i < view.size() && seq < toSeq; i++) {
+            Segment segment = view.get(i);
+            long endSeq = i + 1 < view.size() ? view.get(i + 1).baseSeq : Long.MAX_VALUE;
+            if (endSeq <= seq) {
+                continue;
+            }
+            // 定位到不大于开始序号的索引项
+            int k = (int) Math.min((Math.max(seq, segment.baseSeq) - segment.baseSeq) / INDEX_INTERVAL,
+                    segment.indexSize - 1);
+            long start = k < 0 ? 0 : segment.indexPositions[k];
+            long[] current = {segment.baseSeq + Math.max(k, 0) * (long) INDEX_INTERVAL};
+            long target = seq;
+            scan(segment, start, (record, pos) -> {
+                if (current[0] >= toSeq) {
+                    return false;
+                }
+                if (current[0]++ >= target) {
+                    consumer.accept(record);
+                }
+                return true;
+            });
+            seq = Math.max(seq, current[0]);
+        }
+        return seq;
+    }
+
+    /**
+     * 从段文件的指定位置顺序扫描记录，遇到不完整的记录时停止
+     * @return 扫描结束的位置
+     */
+    private long scan(Segment segment, long start, RecordVisitor<T> visitor) throws IOException {
+        if (!segment.file.exists()) {
+            return start;
+        }
+        try (FileChannel in = FileChannel.open(segment.file.toPath(), StandardOpenOption.READ)) {
+            in.position(start);
+            DataInputStream data = new DataInputStream(new BufferedInputStream(Channels.newInputStream(in), 64 * 1024));
+            long pos = start;
+            long size = in.size();
+            CRC32 crc = new CRC32();
+            byte[] body = new byte[256];
+            while (pos + 8 <= size) {
+                int length = data.readInt();
+                if (length <= 0 || length > MAX_RECORD_SIZE || pos + 8 + length > size) {
+                    break;
+                }
+                if (body.length < length) {
+                    body = new byte[length];
+                }
+                data.readFully(body, 0, length);
+                crc.reset();
+                crc.update(body, 0, length);
+                if (data.readInt() != (int) crc.getValue()) {
+                    break;
+                }
+                T record = codec.read(new DataInputStream(new ByteArrayInputStream(body, 0, length)));
+                if (!visitor.visit(record, pos)) {
+                    break;
+                }
+                pos += 8 + length;
+            }
+            io.read(pos - start);
+            return pos;
+        }
+    }
+
+    /**
+     * 重新扫描最后一个段，截掉写入中断的记录并重建索引
+     */
+    private void recover(Segment segment) throws IOException {
+        long validEnd = rebuildIndex(segment);
+        if (segment.file.exists() && segment.file.length() > validEnd) {
+            try (FileChannel ch = FileChannel.open(segment.file.toPath(), StandardOpenOption.WRITE)) {
+                ch.truncate(validEnd);
+            }
+        }
+        try (FileOutputStream out = new FileOutputStream(segment.indexFile)) {
+            DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+            for (int i = 0; i < segment.indexSize; i++) {
+                data.writeLong(segment.indexTimes[i]);
+                data.writeLong(segment.indexPositions[i]);
+            }
+            data.flush();
+        }
+        position = validEnd;
+        nextSeq = segment.baseSeq + segment.recordCount;
+        lastTimestamp = segment.lastTime;
+        if (segments.size() > 1) {
+            lastTimestamp = Math.max(lastTimestamp, segments.get(segments.size() - 2).lastIndexTime());
+        }
+    }
+
+    /**
+     * 顺序扫描整个段，重新计算段的索引项
+     * @return 最后一条完整记录的结束位置
+     */
+    private long rebuildIndex(Segment segment) throws IOException {
+        segment.indexSize = 0;
+        segment.recordCount = 0;
+        segment.lastTime = 0;
+        return scan(segment, 0, (record, pos) -> {
+            long time = Math.max(codec.timestamp(record), segment.lastTime);
+            if (segment.recordCount % INDEX_INTERVAL == 0) {
+                segment.addIndex(time, pos);
+            }
+            segment.lastTime = time;
+            segment.recordCount++;
+            return true;
+        });
+    }
+
+    private void openActive(Segment segment) throws IOException {
+        channel = FileChannel.open(segment.file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        channel.position(position);
+        io.opened();
+        indexChannel = FileChannel.open(segment.indexFile.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * 关闭当前段，开始新的段
+     */
+    private void roll() throws IOException {
+        channel.force(false);
+        indexChannel.force(false);
+        channel.close();
+        indexChannel.close();
+        Segment segment = new Segment(nextSeq);
+        segments.add(segment);
+        position = 0;
+        openActive(segment);
+    }
+
+    public synchronized long getNextSeq() {
+        return nextSeq;
+    }
+
+    public synchronized long getLastTimestamp() {
+        return lastTimestamp;
+    }
+
+    /**
+     * 把已追加的记录刷入磁盘
+     * 刷盘前先清除标记，刷盘期间追加的记录会重新设置标记；刷盘失败时恢复标记，下次继续重试
+     */
+    public void sync() throws IOException {
+        if (dirty) {
+            dirty = false;
+            try {
+                synchronized (this) {
+                    channel.force(false);
+                    indexChannel.force(false);
+                }
+            } catch (IOException | RuntimeException e) {
+                dirty = true;
+                throw e;
+            }
+        }
+    }
+
+    private void syncQuietly() {
+        try {
+            sync();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (syncTask != null) {
+            syncTask.cancel(false);
+        }
+        if (channel != null && channel.isOpen()) {
+            sync();
+            channel.close();
+            indexChannel.close();
+        }
+    }
+
+    private interface RecordVisitor<T> {
+        boolean visit(T record, long pos) throws IOException;
+    }
+
+    /**
+     * 段文件及其内存中的稀疏索引
+     */
+    private class Segment {
+        final long baseSeq;          // 段内第一条记录的序号
+        final File file;             // 段文件
+        final File indexFile;        // 索引文件
+        long[] indexTimes = new long[16];      // 索引项时间
+        long[] indexPositions = new long[16];  // 索引项位置
+        volatile int indexSize;                // 索引项数量
+        long recordCount;                      // 重建索引时统计的记录数
+        long lastTime;                         // 重建索引时统计的最后记录时间
+
+        Segment(long baseSeq) {
+            this.baseSeq = baseSeq;
+            String name = String.format("%020d", baseSeq);
+            this.file = new File(dir, name + SEGMENT_SUFFIX);
+            this.indexFile = new File(dir, name + INDEX_SUFFIX);
+        }
+
+        void loadIndex() throws IOException {
+            if (!indexFile.exists()) {
+                rebuildIndex(this);
+                return;
+            }
+            byte[] bytes = Files.readAllBytes(indexFile.toPath());
+            ByteBuffer data = ByteBuffer.wrap(bytes);
+            while (data.remaining() >= 16) {
+                addIndex(data.getLong(), data.getLong());
+            }
+        }
+
+        void addIndex(long time, long pos) {
+            if (indexSize == indexTimes.length) {
+                indexTimes = Arrays.copyOf(indexTimes, indexSize * 2);
+                indexPositions = Arrays.copyOf(indexPositions, indexSize * 2);
+            }
+            indexTimes[indexSize] = time;
+            indexPositions[indexSize] = pos;
+            indexSize++;
+        }
+
+        /**
+         * 二分查找最后一个时间小于指定时间的索引项
+         * @return 索引项下标，没有时返回-1
+         */
+        int floorIndex(long time) {
+            int low = 0;
+            int high = indexSize - 1;
+            int result = -1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (indexTimes[mid] < time) {
+                    result = mid;
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return result;
+        }
+
+        long lastIndexTime() {
+            return indexSize == 0 ? 0 : indexTimes[indexSize - 1];
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.student.dao;
+
+import com.student.entity.SelectionMode;
+import com.student.entity.SelectionState;
+import com.student.util.Constant;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * 随机点名抽取记录读写类
+ * 抽取记录保存在 班级目录/selection.dat，每次抽到学生或小组后在多文件事务中整体重写
+ *
+ * 文件格式（大端字节序）：
+ * 魔数(int) 版本(short) 抽取方式编号(byte)
+ * 候选范围数(int) { 范围名称(UTF) 已抽到的数量(int) { 学号或小组名(UTF) } }
+ * CRC32校验值(int)，覆盖校验值之前的全部内容
+ */
+public class SelectionDao {
+    public static final String FILE_NAME = "selection.dat";
+    private static final int MAGIC = 0x5354534C;   // "STSL"
+    private static final short VERSION = 1;
+
+    private final File file;   // 抽取记录文件
+
+    public SelectionDao(String className) {
+        this.file = new File(Constant.FILE_PATH + className, FILE_NAME);
+    }
+
+    /**
+     * 读取抽取记录
+     * @return 抽取记录，文件不存在或已损坏时返回空的记录
+     */
+    public SelectionState read() throws IOException {
+        SelectionState state = new SelectionState();
+        if (!file.isFile()) {
+            return state;
+        }
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        if (bytes.length < 4) {
+            return state;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length - 4);
+        if (ByteBuffer.wrap(bytes).getInt(bytes.length - 4) != (int) crc.getValue()) {
+            return state;
+        }
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 0, bytes.length - 4));
+        if (in.readInt() != MAGIC || in.readShort() > VERSION) {
+            return state;
+        }
+        SelectionMode mode = SelectionMode.fromCode(in.readByte());
+        if (mode != null) {
+            state.setMode(mode);
+        }
+        int pools = in.readInt();
+        for (int i = 0; i < pools; i++) {
+            String pool = in.readUTF();
+            int count = in.readInt();
+            Set<String> keys = new LinkedHashSet<>();
+            for (int j = 0; j < count; j++) {
+                keys.add(in.readUTF());
+            }
+            state.getCalled().put(pool, keys);
+        }
+        return state;
+    }
+
+    /**
+     * 在多文件事务中写入抽取记录，事务提交后才替换原有文件
+     * @param transaction 多文件事务
+     * @param state 抽取记录
+     */
+    public void write(FileTransaction transaction, SelectionState state) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bos);
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeByte(state.getMode().getCode());
+        out.writeInt(state.getCalled().size());
+        for (Map.Entry<String, Set<String>> entry : state.getCalled().entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeInt(entry.getValue().size());
+            for (String key : entry.getValue()) {
+                out.writeUTF(key);
+            }
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bos.toByteArray());
+        out.writeInt((int) crc.getValue());
+        try (FileOutputStream fos = new FileOutputStream(transaction.stage(FILE_NAME))) {
+            bos.writeTo(fos);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.student.dao;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * 表格文件读取接口
+ * 逐行读取第一个工作表，读过的行不在内存中保留，导入大量数据时内存占用不随行数增加
+ */
+public interface SheetReader extends Closeable {
+    /**
+     * 读取下一行，末尾的空单元格可能省略
+     * @return 单元格文字，空单元格为空字符串；没有更多行时返回null
+     */
+    String[] readRow() throws IOException;
+
+    /**
+     * @return 已读取的字节数，用于估计进度
+     */
+    long getBytesRead();
+
+    /**
+     * @return 需要读取的总字节数
+     */
+    long getTotalBytes();
+}
@@ -0,0 +1,23 @@
+package com.student.dao;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * 表格文件写入接口
+ * 逐行写入，写入的行不在内存中保留，导出大量数据时内存占用不随行数增加
+ */
+public interface SheetWriter extends Closeable {
+    /**
+     * 开始一个新的工作表，并写入表头
+     * @param name 工作表名称
+     * @param headers 表头
+     */
+    void startSheet(String name, String... headers) throws IOException;
+
+    /**
+     * 写入一行，单元格为字符串或数字
+     * @param cells 单元格
+     */
+    void writeRow(Object... cells) throws IOException;
+}
@@ -0,0 +1,217 @@
+package com.student.dao;
+
+import com.student.entity.Group;
+import com.student.entity.SchoolClass;
+import com.student.entity.Student;
+import com.student.util.Constant;
+import com.student.util.IndexedList;
+import com.student.util.Metrics;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * 班级快照文件读写类
+ * 把整个班级（小组、学生、小组成员关系和分数）保存在 班级目录/class.dat 一个文件中，
+ * 加载时一次顺序读取整个文件，代替逐个打开学生和小组文本文件
+ *
+ * 文件格式（大端字节序）：
+ * 魔数(int) 版本(short) 已包含的最后一条日志序号(long，版本2起) 已计分的状态日志序号(long，版本3起)
+ * 小组数(int) { 小组名称(UTF) 分数(double) }
+ * 学生数(int) { 学号(UTF) 姓名(UTF) 小组序号(int，-1表示未分组) 分数(double) 照片路径(UTF，空串表示无)
+ *              缺勤次数(int) 请假次数(int) 答题次数(int)（版本3起） }
+ * CRC32校验值(int)，覆盖校验值之前的全部内容
+ */
+public class SnapshotDao {
+    public static final String FILE_NAME = "class.dat";
+    private static final int MAGIC = 0x53544353;   // "STCS"
+    private static final short VERSION = 3;
+    private static final int PROGRESS_STEP = 1024;   // 读取时每多少名学生报告一次进度
+
+    private final File file;   // 快照文件
+    private long journalLsn;   // 快照已包含的最后一条日志序号
+    private long statusSeq;    // 快照分数已包含的状态记录数（下一条状态记录的序号）
+
+    public SnapshotDao(String className) {
+        this.file = new File(Constant.FILE_PATH + className, FILE_NAME);
+    }
+
+    public boolean exists() {
+        return file.isFile();
+    }
+
+    /**
+     * 最近一次读取或写入的快照所包含的最后一条日志序号
+     */
+    public long getJournalLsn() {
+        return journalLsn;
+    }
+
+    /**
+     * 最近一次读取或写入的快照分数所包含的状态记录数
+     */
+    public long getStatusSeq() {
+        return statusSeq;
+    }
+
+    /**
+     * 只读取快照文件头，检查磁盘上的快照是否仍是最近一次读取或写入的快照
+     * 其他程序合并快照后返回false，需要重新加载班级
+     */
+    public boolean isCurrent() throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 32))) {
+            if (in.readInt() != MAGIC) {
+                return false;
+            }
+            short version = in.readShort();
+            long lsn = version >= 2 ? in.readLong() : 0;
+            long seq = version >= 3 ? in.readLong() : 0;
+            return lsn == journalLsn && seq == statusSeq;
+        } catch (FileNotFoundException | EOFException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 读取快照文件
+     * @return 班级信息
+     */
+    public SchoolClass read() throws IOException {
+        return read(ReadListener.NONE);
+    }
+
+    /**
+     * 读取快照文件，每读取 PROGRESS_STEP 名学生报告一次进度
+     * @param listener 进度监听器，取消时抛出 CancellationException
+     * @return 班级信息
+     */
+    public SchoolClass read(ReadListener listener) throws IOException {
+        listener.checkCancelled();
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        Metrics.SNAPSHOT_IO.read(bytes.length);
+        if (bytes.length < 10) {
+            throw new IOException("快照文件已损坏：" + file);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length - 4);
+        if (ByteBuffer.wrap(bytes).getInt(bytes.length - 4) != (int) crc.getValue()) {
+            throw new IOException("快照文件校验失败：" + file);
+        }
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 0, bytes.length - 4));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("不是班级快照文件：" + file);
+        }
+        short version = in.readShort();
+        if (version > VERSION) {
+            throw new IOException("不支持的快照版本：" + version);
+        }
+        journalLsn = version >= 2 ? in.readLong() : 0;
+        statusSeq = version >= 3 ? in.readLong() : 0;
+
+        SchoolClass schoolClass = new SchoolClass(file.getParentFile().getName());
+        int groupCount = in.readInt();
+        Group[] groups = new Group[groupCount];
+        for (int i = 0; i < groupCount; i++) {
+            groups[i] = new Group(in.readUTF(), new IndexedList<>());
+            groups[i].setScore(in.readDouble());
+            schoolClass.getGroups().add(groups[i]);
+        }
+
+        int studentCount = in.readInt();
+        List<Student> students = new IndexedList<>();
+        for (int i = 0; i < studentCount; i++) {
+            if (i % PROGRESS_STEP == 0) {
+                listener.checkCancelled();
+                listener.progress(i, studentCount);
+            }
+            String studentId = in.readUTF();
+            String name = in.readUTF();
+            int groupOrdinal = in.readInt();
+            double score = in.readDouble();
+            String photo = in.readUTF();
+            Group group = groupOrdinal >= 0 && groupOrdinal < groupCount ? groups[groupOrdinal] : null;
+            Student student = new Student(studentId, name, score, group);
+            student.setPhotoPath(photo.isEmpty() ? null : photo);
+            if (version >= 3) {
+                student.setAbsenceCount(in.readInt());
+                student.setLeaveCount(in.readInt());
+                student.setAnswerCount(in.readInt());
+            }
+            if (group != null) {
+                group.getStudents().add(student);
+            }
+            students.add(student);
+        }
+        schoolClass.setStudents(students);
+        listener.progress(studentCount, studentCount);
+        return schoolClass;
+    }
+
+    /**
+     * 写入快照文件
+     * 先写入临时文件，再重命名为快照文件，写入过程中出错不会破坏原有快照
+     * @param schoolClass 班级信息
+     * @param journalLsn 快照已包含的最后一条日志序号
+     * @param statusSeq 快照分数已包含的状态记录数
+     */
+    public void write(SchoolClass schoolClass, long journalLsn, long statusSeq) throws IOException {
+        FileTransaction transaction = new FileTransaction(file.getParentFile());
+        write(transaction, schoolClass, journalLsn, statusSeq);
+        transaction.commit();
+    }
+
+    /**
+     * 在多文件事务中写入快照文件，事务提交后才替换原有快照
+     * @param transaction 多文件事务
+     * @param schoolClass 班级信息
+     * @param journalLsn 快照已包含的最后一条日志序号
+     * @param statusSeq 快照分数已包含的状态记录数
+     */
+    public void write(FileTransaction transaction, SchoolClass schoolClass, long journalLsn, long statusSeq)
+            throws IOException {
+        try (FileOutputStream fos = new FileOutputStream(transaction.stage(FILE_NAME))) {
+            CRC32 crc = new CRC32();
+            DataOutputStream out = new DataOutputStream(
+                    new CheckedOutputStream(new BufferedOutputStream(fos, 64 * 1024), crc));
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeLong(journalLsn);
+            out.writeLong(statusSeq);
+
+            Map<Group, Integer> ordinals = new IdentityHashMap<>();
+            List<Group> groups = schoolClass.getGroups();
+            out.writeInt(groups.size());
+            for (int i = 0; i < groups.size(); i++) {
+                Group group = groups.get(i);
+                ordinals.put(group, i);
+                out.writeUTF(group.getGroupName());
+                out.writeDouble(group.getScore());
+            }
+
+            List<Student> students = schoolClass.getStudents();
+            out.writeInt(students.size());
+            for (Student student : students) {
+                Integer ordinal = student.getGroup() == null ? null : ordinals.get(student.getGroup());
+                out.writeUTF(student.getStudentId());
+                out.writeUTF(student.getName());
+                out.writeInt(ordinal == null ? -1 : ordinal);
+                out.writeDouble(student.getScore());
+                out.writeUTF(student.getPhotoPath() == null ? "" : student.getPhotoPath());
+                out.writeInt(student.getAbsenceCount());
+                out.writeInt(student.getLeaveCount());
+                out.writeInt(student.getAnswerCount());
+            }
+            // 校验值本身不参与计算
+            out.flush();
+            new DataOutputStream(fos).writeInt((int) crc.getValue());
+            Metrics.SNAPSHOT_IO.written(out.size() + 4);
+        }
+        this.journalLsn = journalLsn;
+        this.statusSeq = statusSeq;
+    }
+}
@@ -0,0 +1,166 @@
+package com.student.dao;
+
+import com.student.entity.StatusRecord;
+import com.student.entity.StatusType;
+import com.student.util.Constant;
+import com.student.util.Metrics;
+
+import java.io.*;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * 学生状态日志读写类
+ * 缺勤、请假、答题记录追加到 班级目录/status/ 下的分段日志中，每条记录为 学号 状态编号 时间，
+ * 记录一次状态只是一次追加写入，按时间范围读取时借助段索引顺序扫描
+ * 旧版每次点名生成一个 status/时间.txt 文件，日志为空时一次性导入这些文件
+ */
+public class StatusLogDao implements Closeable {
+    public static final String DIR_NAME = "status";
+    private static final long SEGMENT_SIZE = 1024 * 1024;   // 段文件大小
+
+    private final File dir;                        // 状态日志目录
+    private final SegmentedLog<StatusRecord> log;  // 分段日志
+
+    public StatusLogDao(String className) {
+        this.dir = new File(Constant.FILE_PATH + className, DIR_NAME);
+        this.log = new SegmentedLog<>(dir, new StatusCodec(), SEGMENT_SIZE, Metrics.STATUS_LOG_IO);
+    }
+
+    public void open() throws IOException {
+        log.open();
+    }
+
+    /**
+     * 只读打开状态日志，用于统计其他班级
+     */
+    public void openReadOnly() throws IOException {
+        log.openReadOnly();
+    }
+
+    /**
+     * 追加一条状态记录，记录时间不早于上一条记录
+     * @param studentId 学号
+     * @param type 状态类型
+     * @return 状态记录
+     */
+    public synchronized StatusRecord append(String studentId, StatusType type) throws IOException {
+        long time = Math.max(System.currentTimeMillis(), log.getLastTimestamp());
+        StatusRecord record = new StatusRecord(studentId, type, time);
+        log.append(record);
+        return record;
+    }
+
+    /**
+     * 读取其他程序追加的状态记录位置，需要在 ClassLock 保护下调用
+     * @return 是否有新记录
+     */
+    public boolean catchUp() throws IOException {
+        return log.catchUp();
+    }
+
+    /**
+     * 按时间范围读取状态记录
+     * @param from 开始时间（包含）
+     * @param to 结束时间（包含）
+     * @param consumer 记录处理
+     */
+    public void read(long from, long to, Consumer<StatusRecord> consumer) throws IOException {
+        log.read(from, to, consumer);
+    }
+
+    /**
+     * 按序号范围读取状态记录
+     * @param fromSeq 开始序号（包含）
+     * @param toSeq 结束序号（不包含）
+     * @param consumer 记录处理
+     * @return 下一个序号
+     */
+    public long readFrom(long fromSeq, long toSeq, Consumer<StatusRecord> consumer) throws IOException {
+        return log.readFrom(fromSeq, toSeq, consumer);
+    }
+
+    public long getNextSeq() {
+        return log.getNextSeq();
+    }
+
+    /**
+     * 导入旧版状态文件，只在日志为空时执行，旧文件保留不删除
+     * 旧文件以学生姓名记录，通过姓名找到学号，找不到的记录跳过
+     * @param nameToId 姓名到学号的对应关系
+     * @return 导入的记录数
+     */
+    public synchronized int importLegacy(Map<String, String> nameToId) throws IOException {
+        if (log.getNextSeq() > 0) {
+            return 0;
+        }
+        File[] files = dir.listFiles((d, name) -> name.endsWith(".txt"));
+        if (files == null || files.length == 0) {
+            return 0;
+        }
+        List<StatusRecord> records = new ArrayList<>();
+        for (File file : files) {
+            String name = file.getName();
+            long time;
+            try {
+                time = Long.parseLong(name.substring(0, name.length() - 4));
+            } catch (NumberFormatException e) {
+                continue;
+            }
+            String studentName = null;
+            StatusType type = null;
+            try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.startsWith("学生：")) {
+                        studentName = line.substring(3).trim();
+                    } else if (line.startsWith("状态：")) {
+                        type = StatusType.fromLabel(line.substring(3).trim());
+                    }
+                }
+            }
+            String studentId = studentName == null ? null : nameToId.get(studentName);
+            if (studentId != null && type != null) {
+                records.add(new StatusRecord(studentId, type, time));
+            }
+        }
+        records.sort(Comparator.comparingLong(StatusRecord::getTime));
+        for (StatusRecord record : records) {
+            log.append(record);
+        }
+        log.sync();
+        return records.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        log.close();
+    }
+
+    /**
+     * 状态记录格式：学号(UTF) 状态编号(byte) 时间(long)
+     */
+    private static class StatusCodec implements SegmentedLog.Codec<StatusRecord> {
+        @Override
+        public void write(StatusRecord record, DataOutput out) throws IOException {
+            out.writeUTF(record.getStudentId());
+            out.writeByte(record.getType().getCode());
+            out.writeLong(record.getTime());
+        }
+
+        @Override
+        public StatusRecord read(DataInput in) throws IOException {
+            String studentId = in.readUTF();
+            StatusType type = StatusType.fromCode(in.readByte());
+            if (type == null) {
+                throw new IOException("未知的状态类型");
+            }
+            return new StatusRecord(studentId, type, in.readLong());
+        }
+
+        @Override
+        public long timestamp(StatusRecord record) {
+            return record.getTime();
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.student.dao;
+
+import java.util.concurrent.*;
+
+/**
+ * 后台刷盘线程
+ * 日志类文件追加记录时只写入操作系统缓存，由这里的定时任务统一刷盘，
+ * 同一刷盘间隔内的多次追加共用一次刷盘
+ */
+class SyncScheduler {
+    static final long SYNC_INTERVAL = 100;   // 刷盘间隔（毫秒）
+
+    private static final ScheduledExecutorService EXECUTOR = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "log-sync");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * 每隔 SYNC_INTERVAL 毫秒执行一次刷盘任务
+     * @param task 刷盘任务
+     * @return 定时任务，关闭文件时取消
+     */
+    static ScheduledFuture<?> schedule(Runnable task) {
+        return EXECUTOR.scheduleWithFixedDelay(task, SYNC_INTERVAL, SYNC_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+}
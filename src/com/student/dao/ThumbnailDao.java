@@ -0,0 +1,123 @@
+package com.student.dao;
+
+import com.student.util.Constant;
+import com.student.util.Metrics;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 照片缩略图读写类
+ * 缩略图以 PNG 格式保存在 班级目录/thumbnails/ 下，文件名由照片路径、修改时间和大小计算得出，
+ * 照片被替换后文件名随之改变，旧的缩略图不再被读取；删除学生时由 delete 删除其照片的缩略图，
+ * 加载班级时由 retain 清理其余不再使用的缩略图
+ */
+public class ThumbnailDao {
+    public static final String DIR_NAME = "thumbnails";
+
+    private final File dir;   // 缩略图目录
+
+    public ThumbnailDao(String className) {
+        this.dir = new File(Constant.FILE_PATH + className, DIR_NAME);
+    }
+
+    /**
+     * 读取照片的缩略图
+     * @param photo 照片文件
+     * @return 缩略图，不存在或无法读取时返回null
+     */
+    public BufferedImage read(File photo) {
+        File file = fileOf(photo);
+        if (!file.exists()) {
+            return null;
+        }
+        try {
+            Metrics.THUMBNAIL_IO.read(file.length());
+            return ImageIO.read(file);
+        } catch (IOException e) {
+            // 缩略图损坏时重新生成
+            file.delete();
+            return null;
+        }
+    }
+
+    /**
+     * 保存照片的缩略图，先写临时文件再重命名，其他程序不会读到写了一半的文件
+     * @param photo 照片文件
+     * @param image 缩略图
+     */
+    public void write(File photo, BufferedImage image) throws IOException {
+        if (!dir.exists() && !dir.mkdirs()) {
+            throw new IOException("无法创建缩略图目录：" + dir);
+        }
+        File file = fileOf(photo);
+        File temp = File.createTempFile("thumb", ".tmp", dir);
+        try {
+            if (!ImageIO.write(image, "png", temp)) {
+                throw new IOException("无法写入缩略图：" + file);
+            }
+            Metrics.THUMBNAIL_IO.written(temp.length());
+            try {
+                Files.move(temp.toPath(), file.toPath(),
+                        StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            temp.delete();
+        }
+    }
+
+    /**
+     * 删除照片当前内容的缩略图，只计算一个文件名，不遍历缩略图目录
+     * @param photo 照片文件
+     */
+    public void delete(File photo) {
+        fileOf(photo).delete();
+    }
+
+    /**
+     * 删除不属于任何一张照片当前内容的缩略图，包括已删除学生的照片和已被替换的照片留下的缩略图
+     * @param photos 仍在使用的照片
+     */
+    public void retain(Collection<File> photos) {
+        File[] files = dir.listFiles((parent, name) -> name.endsWith(".png"));
+        if (files == null) {
+            return;
+        }
+        Set<String> live = new HashSet<>();
+        for (File photo : photos) {
+            live.add(fileOf(photo).getName());
+        }
+        for (File file : files) {
+            if (!live.contains(file.getName())) {
+                file.delete();
+            }
+        }
+    }
+
+    private File fileOf(File photo) {
+        String key = photo.getAbsolutePath() + '|' + photo.lastModified() + '|' + photo.length();
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(key.getBytes(StandardCharsets.UTF_8));
+            StringBuilder name = new StringBuilder(digest.length * 2 + 4);
+            for (byte b : digest) {
+                name.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return new File(dir, name.append(".png").toString());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
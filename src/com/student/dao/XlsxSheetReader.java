@@ -0,0 +1,260 @@
+package com.student.dao;
+
+import com.student.util.Metrics;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * XLSX 表格读取类
+ * 用 StAX 流式解析 Office Open XML：先读入共享字符串表，再逐行解析第一个工作表，
+ * 工作表的行不在内存中保留；单元格按 r 属性中的列号放到对应位置，中间的空单元格补空字符串
+ * 数字单元格保持 Excel 中的写法，整数不带小数点，学号按数字存储时也能原样读出
+ */
+public class XlsxSheetReader implements SheetReader {
+    private static final String RELATIONSHIP_NS = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+    private static final XMLInputFactory FACTORY = XMLInputFactory.newFactory();
+
+    static {
+        // 工作簿来自外部，不解析 DTD 和外部实体
+        FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
+    private final ZipFile zip;                       // 工作簿文件
+    private final CountingInputStream counter;       // 统计已读取的工作表字节数
+    private final XMLStreamReader sheet;             // 第一个工作表的解析器
+    private final long totalBytes;                   // 工作表解压后的大小，未知时为压缩文件大小
+    private final List<String> sharedStrings;        // 共享字符串表
+
+    public XlsxSheetReader(File file) throws IOException {
+        zip = new ZipFile(file);
+        try {
+            sharedStrings = readSharedStrings();
+            ZipEntry entry = zip.getEntry(firstSheetPath());
+            if (entry == null) {
+                throw new IOException("工作簿中没有工作表");
+            }
+            totalBytes = entry.getSize() > 0 ? entry.getSize() : file.length();
+            counter = new CountingInputStream(zip.getInputStream(entry));
+            sheet = FACTORY.createXMLStreamReader(counter, "UTF-8");
+        } catch (IOException | XMLStreamException | RuntimeException e) {
+            zip.close();
+            throw e instanceof IOException ? (IOException) e : new IOException("无法读取工作簿：" + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public String[] readRow() throws IOException {
+        try {
+            while (sheet.hasNext()) {
+                if (sheet.next() == XMLStreamConstants.START_ELEMENT && "row".equals(sheet.getLocalName())) {
+                    return readCells();
+                }
+            }
+            return null;
+        } catch (XMLStreamException e) {
+            throw new IOException("工作表格式错误：" + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public long getBytesRead() {
+        return counter.getCount();
+    }
+
+    @Override
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    @Override
+    public void close() throws IOException {
+        // 按解压后的工作表字节数计数
+        Metrics.SHEET_IO.read(counter.getCount());
+        try {
+            sheet.close();
+        } catch (XMLStreamException e) {
+            e.printStackTrace();
+        } finally {
+            zip.close();
+        }
+    }
+
+    /**
+     * 读取当前 row 元素中的单元格，结束时停在 row 的结束标签
+     */
+    private String[] readCells() throws XMLStreamException, IOException {
+        List<String> cells = new ArrayList<>();
+        while (sheet.hasNext()) {
+            int event = sheet.next();
+            if (event == XMLStreamConstants.END_ELEMENT && "row".equals(sheet.getLocalName())) {
+                break;
+            }
+            if (event != XMLStreamConstants.START_ELEMENT || !"c".equals(sheet.getLocalName())) {
+                continue;
+            }
+            int column = columnIndex(sheet.getAttributeValue(null, "r"));
+            String type = sheet.getAttributeValue(null, "t");
+            String value = readCellValue(type);
+            if (column < 0) {
+                column = cells.size();
+            }
+            while (cells.size() < column) {
+                cells.add("");
+            }
+            if (column == cells.size()) {
+                cells.add(value);
+            } else {
+                cells.set(column, value);
+            }
+        }
+        return cells.toArray(new String[0]);
+    }
+
+    /**
+     * 读取当前 c 元素的值，结束时停在 c 的结束标签
+     */
+    private String readCellValue(String type) throws XMLStreamException, IOException {
+        StringBuilder text = new StringBuilder();
+        while (sheet.hasNext()) {
+            int event = sheet.next();
+            if (event == XMLStreamConstants.END_ELEMENT && "c".equals(sheet.getLocalName())) {
+                break;
+            }
+            if (event == XMLStreamConstants.START_ELEMENT
+                    && ("v".equals(sheet.getLocalName()) || "t".equals(sheet.getLocalName()))) {
+                // 内联的富文本由多个 t 元素组成
+                text.append(sheet.getElementText());
+            }
+        }
+        String value = text.toString();
+        if ("s".equals(type)) {
+            try {
+                return sharedStrings.get(Integer.parseInt(value.trim()));
+            } catch (NumberFormatException | IndexOutOfBoundsException e) {
+                throw new IOException("共享字符串序号错误：" + value);
+            }
+        }
+        if (type == null || "n".equals(type)) {
+            return formatNumber(value);
+        }
+        return value;
+    }
+
+    private List<String> readSharedStrings() throws IOException, XMLStreamException {
+        List<String> strings = new ArrayList<>();
+        ZipEntry entry = zip.getEntry("xl/sharedStrings.xml");
+        if (entry == null) {
+            return strings;
+        }
+        try (InputStream in = zip.getInputStream(entry)) {
+            XMLStreamReader xml = FACTORY.createXMLStreamReader(in, "UTF-8");
+            StringBuilder text = null;
+            while (xml.hasNext()) {
+                int event = xml.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    if ("si".equals(xml.getLocalName())) {
+                        text = new StringBuilder();
+                    } else if ("t".equals(xml.getLocalName()) && text != null) {
+                        text.append(xml.getElementText());
+                    } else if ("rPh".equals(xml.getLocalName())) {
+                        // 跳过注音
+                        skipElement(xml);
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT && "si".equals(xml.getLocalName())) {
+                    strings.add(text.toString());
+                    text = null;
+                }
+            }
+            xml.close();
+        }
+        return strings;
+    }
+
+    /**
+     * 按工作簿中第一个工作表的关系查找工作表文件，找不到时使用默认位置
+     */
+    private String firstSheetPath() throws IOException, XMLStreamException {
+        String relationId = null;
+        ZipEntry workbook = zip.getEntry("xl/workbook.xml");
+        if (workbook != null) {
+            try (InputStream in = zip.getInputStream(workbook)) {
+                XMLStreamReader xml = FACTORY.createXMLStreamReader(in, "UTF-8");
+                while (xml.hasNext() && relationId == null) {
+                    if (xml.next() == XMLStreamConstants.START_ELEMENT && "sheet".equals(xml.getLocalName())) {
+                        relationId = xml.getAttributeValue(RELATIONSHIP_NS, "id");
+                    }
+                }
+                xml.close();
+            }
+        }
+        ZipEntry relations = zip.getEntry("xl/_rels/workbook.xml.rels");
+        if (relationId != null && relations != null) {
+            try (InputStream in = zip.getInputStream(relations)) {
+                XMLStreamReader xml = FACTORY.createXMLStreamReader(in, "UTF-8");
+                while (xml.hasNext()) {
+                    if (xml.next() == XMLStreamConstants.START_ELEMENT && "Relationship".equals(xml.getLocalName())
+                            && relationId.equals(xml.getAttributeValue(null, "Id"))) {
+                        String target = xml.getAttributeValue(null, "Target");
+                        xml.close();
+                        return target.startsWith("/") ? target.substring(1) : "xl/" + target;
+                    }
+                }
+                xml.close();
+            }
+        }
+        return "xl/worksheets/sheet1.xml";
+    }
+
+    private static void skipElement(XMLStreamReader xml) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0 && xml.hasNext()) {
+            int event = xml.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    /**
+     * 单元格引用（如 AB12）中的列号，从0开始；没有引用时返回-1
+     */
+    private static int columnIndex(String reference) {
+        if (reference == null) {
+            return -1;
+        }
+        int column = 0;
+        int i = 0;
+        while (i < reference.length() && Character.isLetter(reference.charAt(i))) {
+            column = column * 26 + (Character.toUpperCase(reference.charAt(i)) - 'A' + 1);
+            i++;
+        }
+        return i == 0 ? -1 : column - 1;
+    }
+
+    /**
+     * 数字写成普通写法：20240001 而不是 2.0240001E7，整数不带 .0
+     */
+    private static String formatNumber(String value) {
+        if (value.isEmpty() || (value.indexOf('E') < 0 && value.indexOf('e') < 0 && !value.endsWith(".0"))) {
+            return value;
+        }
+        try {
+            return new BigDecimal(value).stripTrailingZeros().toPlainString();
+        } catch (NumberFormatException e) {
+            return value;
+        }
+    }
+}
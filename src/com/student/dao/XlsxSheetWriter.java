@@ -0,0 +1,150 @@
+package com.student.dao;
+
+import com.student.util.ScoreUtil;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * XLSX 表格写入类
+ * 直接按 Office Open XML 格式写 zip 文件：每个工作表是一个 zip 条目，行写入后立即压缩输出，
+ * 字符串使用内联字符串单元格，不需要在内存中收集共享字符串表
+ * 工作簿、关系等描述文件在关闭时写入
+ */
+public class XlsxSheetWriter implements SheetWriter {
+    private final ZipOutputStream zip;                       // zip 输出
+    private final Writer writer;                             // 当前条目的文本输出
+    private final List<String> sheetNames = new ArrayList<>(); // 已写入的工作表名称
+    private boolean inSheet;                                 // 是否正在写工作表
+
+    public XlsxSheetWriter(File file) throws IOException {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.zip = new ZipOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024));
+        this.writer = new BufferedWriter(new OutputStreamWriter(zip, StandardCharsets.UTF_8), 16 * 1024);
+    }
+
+    @Override
+    public void startSheet(String name, String... headers) throws IOException {
+        endSheet();
+        sheetNames.add(name);
+        zip.putNextEntry(new ZipEntry("xl/worksheets/sheet" + sheetNames.size() + ".xml"));
+        writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n");
+        writer.write("<worksheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\"><sheetData>");
+        inSheet = true;
+        writeRow((Object[]) headers);
+    }
+
+    @Override
+    public void writeRow(Object... cells) throws IOException {
+        writer.write("<row>");
+        for (Object cell : cells) {
+            if (cell instanceof Number) {
+                writer.write("<c><v>");
+                writer.write(cell instanceof Double ? ScoreUtil.format((Double) cell) : cell.toString());
+                writer.write("</v></c>");
+            } else if (cell != null) {
+                writer.write("<c t=\"inlineStr\"><is><t xml:space=\"preserve\">");
+                writeEscaped(cell.toString());
+                writer.write("</t></is></c>");
+            } else {
+                writer.write("<c/>");
+            }
+        }
+        writer.write("</row>");
+    }
+
+    private void endSheet() throws IOException {
+        if (inSheet) {
+            writer.write("</sheetData></worksheet>");
+            writer.flush();
+            zip.closeEntry();
+            inSheet = false;
+        }
+    }
+
+    private void writeEscaped(String text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '<':
+                    writer.write("&lt;");
+                    break;
+                case '>':
+                    writer.write("&gt;");
+                    break;
+                case '&':
+                    writer.write("&amp;");
+                    break;
+                case '"':
+                    writer.write("&quot;");
+                    break;
+                default:
+                    // XML 不允许的控制字符直接丢弃
+                    if (c >= 0x20 || c == '\t' || c == '\n' || c == '\r') {
+                        writer.write(c);
+                    }
+            }
+        }
+    }
+
+    /**
+     * 写入一个完整的 zip 条目
+     */
+    private void writeEntry(String name, String content) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        writer.write(content);
+        writer.flush();
+        zip.closeEntry();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            endSheet();
+            StringBuilder types = new StringBuilder();
+            types.append("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n")
+                    .append("<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">")
+                    .append("<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>")
+                    .append("<Default Extension=\"xml\" ContentType=\"application/xml\"/>")
+                    .append("<Override PartName=\"/xl/workbook.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml\"/>");
+            StringBuilder sheets = new StringBuilder();
+            StringBuilder rels = new StringBuilder();
+            for (int i = 1; i <= sheetNames.size(); i++) {
+                types.append("<Override PartName=\"/xl/worksheets/sheet").append(i)
+                        .append(".xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>");
+                sheets.append("<sheet name=\"").append(escapeAttribute(sheetNames.get(i - 1)))
+                        .append("\" sheetId=\"").append(i).append("\" r:id=\"rId").append(i).append("\"/>");
+                rels.append("<Relationship Id=\"rId").append(i)
+                        .append("\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/worksheet\" Target=\"worksheets/sheet")
+                        .append(i).append(".xml\"/>");
+            }
+            types.append("</Types>");
+            writeEntry("[Content_Types].xml", types.toString());
+            writeEntry("_rels/.rels", "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n"
+                    + "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+                    + "<Relationship Id=\"rId1\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/officeDocument\" Target=\"xl/workbook.xml\"/>"
+                    + "</Relationships>");
+            writeEntry("xl/workbook.xml", "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n"
+                    + "<workbook xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\" "
+                    + "xmlns:r=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships\"><sheets>"
+                    + sheets + "</sheets></workbook>");
+            writeEntry("xl/_rels/workbook.xml.rels", "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n"
+                    + "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+                    + rels + "</Relationships>");
+        } finally {
+            zip.close();
+        }
+    }
+
+    private static String escapeAttribute(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+}
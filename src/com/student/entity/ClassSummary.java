@@ -0,0 +1,165 @@
+package com.student.entity;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 班级统计汇总
+ * 全校统计时每个班级读取一次得到的部分结果，班级文件没有变化时直接复用
+ */
+public class ClassSummary {
+    private String className;      // 班级名称
+    private int studentCount;      // 学生数
+    private int groupCount;        // 小组数
+    private double totalScore;     // 学生得分合计
+    private double minScore;       // 最低分
+    private double maxScore;       // 最高分
+    private double medianScore;    // 中位数
+    private double p90Score;       // 90%分位数
+    private long absenceCount;     // 缺勤次数
+    private long leaveCount;       // 请假次数
+    private long answerCount;      // 答题次数
+    private List<TopStudent> topStudents = new ArrayList<>();   // 班内得分最高的学生，从高到低
+
+    /**
+     * 得分靠前的学生，只保存统计时的值，不引用班级中的学生对象
+     */
+    public static class TopStudent {
+        private final String className;  // 班级名称
+        private final String studentId;  // 学号
+        private final String name;       // 姓名
+        private final double score;      // 得分
+
+        public TopStudent(String className, String studentId, String name, double score) {
+            this.className = className;
+            this.studentId = studentId;
+            this.name = name;
+            this.score = score;
+        }
+
+        public String getClassName() {
+            return className;
+        }
+
+        public String getStudentId() {
+            return studentId;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public double getScore() {
+            return score;
+        }
+    }
+
+    // 构造函数
+    public ClassSummary(String className) {
+        this.className = className;
+    }
+
+    /**
+     * 平均得分，没有学生时返回0
+     */
+    public double getMeanScore() {
+        return studentCount == 0 ? 0 : totalScore / studentCount;
+    }
+
+    // Getter 和 Setter 方法
+    public String getClassName() {
+        return className;
+    }
+
+    public void setClassName(String className) {
+        this.className = className;
+    }
+
+    public int getStudentCount() {
+        return studentCount;
+    }
+
+    public void setStudentCount(int studentCount) {
+        this.studentCount = studentCount;
+    }
+
+    public int getGroupCount() {
+        return groupCount;
+    }
+
+    public void setGroupCount(int groupCount) {
+        this.groupCount = groupCount;
+    }
+
+    public double getTotalScore() {
+        return totalScore;
+    }
+
+    public void setTotalScore(double totalScore) {
+        this.totalScore = totalScore;
+    }
+
+    public double getMinScore() {
+        return minScore;
+    }
+
+    public void setMinScore(double minScore) {
+        this.minScore = minScore;
+    }
+
+    public double getMaxScore() {
+        return maxScore;
+    }
+
+    public void setMaxScore(double maxScore) {
+        this.maxScore = maxScore;
+    }
+
+    public double getMedianScore() {
+        return medianScore;
+    }
+
+    public void setMedianScore(double medianScore) {
+        this.medianScore = medianScore;
+    }
+
+    public double getP90Score() {
+        return p90Score;
+    }
+
+    public void setP90Score(double p90Score) {
+        this.p90Score = p90Score;
+    }
+
+    public long getAbsenceCount() {
+        return absenceCount;
+    }
+
+    public void setAbsenceCount(long absenceCount) {
+        this.absenceCount = absenceCount;
+    }
+
+    public long getLeaveCount() {
+        return leaveCount;
+    }
+
+    public void setLeaveCount(long leaveCount) {
+        this.leaveCount = leaveCount;
+    }
+
+    public long getAnswerCount() {
+        return answerCount;
+    }
+
+    public void setAnswerCount(long answerCount) {
+        this.answerCount = answerCount;
+    }
+
+    public List<TopStudent> getTopStudents() {
+        return topStudents;
+    }
+
+    public void setTopStudents(List<TopStudent> topStudents) {
+        this.topStudents = topStudents;
+    }
+}
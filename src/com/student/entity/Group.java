@@ -5,6 +5,8 @@ import java.util.List;
 public class Group {
     private String groupName; // 小组名称
     private List<Student> students; // 学生列表
+    private double score; // 小组分数
+    private double memberScore; // 组内学生得分合计
 
     // 构造函数
     public Group(String groupName, List<Student> students) {
@@ -28,4 +30,25 @@ public class Group {
     public void setStudents(List<Student> students) {
         this.students = students;
     }
+
+    public double getScore() {
+        return score;
+    }
+
+    public void setScore(double score) {
+        this.score = score;
+    }
+
+    public double getMemberScore() {
+        return memberScore;
+    }
+
+    public void setMemberScore(double memberScore) {
+        this.memberScore = memberScore;
+    }
+
+    // 小组总分：小组分数加组内学生得分合计
+    public double getTotalScore() {
+        return score + memberScore;
+    }
 }
@@ -0,0 +1,44 @@
+package com.student.entity;
+
+import com.student.util.IndexedList;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class SchoolClass {
+    private String className;       // 班级名称
+    private List<Group> groups;     // 小组列表
+    private List<Student> students; // 学生列表
+
+    // 构造函数
+    public SchoolClass(String className) {
+        this.className = className;
+        this.groups = new ArrayList<>();
+        this.students = new IndexedList<>();
+    }
+
+    // Getter 和 Setter 方法
+    public String getClassName() {
+        return className;
+    }
+
+    public void setClassName(String className) {
+        this.className = className;
+    }
+
+    public List<Group> getGroups() {
+        return groups;
+    }
+
+    public void setGroups(List<Group> groups) {
+        this.groups = groups;
+    }
+
+    public List<Student> getStudents() {
+        return students;
+    }
+
+    public void setStudents(List<Student> students) {
+        this.students = students;
+    }
+}
@@ -0,0 +1,63 @@
+package com.student.entity;
+
+/**
+ * 小组分数变化记录
+ * 每次修改小组分数或给小组加减分对应一条记录
+ */
+public class ScoreChange {
+    private String groupName;  // 小组名称
+    private double delta;      // 分数变化，扣分为负数
+    private double score;      // 变化后的小组分数
+    private String reason;     // 变化原因
+    private long time;         // 记录时间（毫秒）
+
+    // 构造函数
+    public ScoreChange(String groupName, double delta, double score, String reason, long time) {
+        this.groupName = groupName;
+        this.delta = delta;
+        this.score = score;
+        this.reason = reason;
+        this.time = time;
+    }
+
+    // Getter 和 Setter 方法
+    public String getGroupName() {
+        return groupName;
+    }
+
+    public void setGroupName(String groupName) {
+        this.groupName = groupName;
+    }
+
+    public double getDelta() {
+        return delta;
+    }
+
+    public void setDelta(double delta) {
+        this.delta = delta;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    public void setScore(double score) {
+        this.score = score;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+
+    public long getTime() {
+        return time;
+    }
+
+    public void setTime(long time) {
+        this.time = time;
+    }
+}
@@ -0,0 +1,48 @@
+package com.student.entity;
+
+/**
+ * 随机点名的抽取方式
+ * 编号写入班级的抽取记录文件，已有方式的编号不能修改
+ */
+public enum SelectionMode {
+    RANDOM(1, "随机"),             // 每次在全部候选中随机抽取，可能重复
+    SHUFFLE_BAG(2, "不重复"),      // 全部候选都抽过一轮之前不重复抽取
+    WEIGHTED(3, "少答题优先");     // 答题次数越少越容易被抽到
+
+    private final int code;       // 方式编号
+    private final String label;   // 方式名称
+
+    SelectionMode(int code, String label) {
+        this.code = code;
+        this.label = label;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * 下拉框中显示方式名称
+     */
+    @Override
+    public String toString() {
+        return label;
+    }
+
+    /**
+     * 根据编号查找抽取方式
+     * @return 抽取方式，编号未知时返回null
+     */
+    public static SelectionMode fromCode(int code) {
+        for (SelectionMode mode : values()) {
+            if (mode.code == code) {
+                return mode;
+            }
+        }
+        return null;
+    }
+}
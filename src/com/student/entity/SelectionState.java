@@ -0,0 +1,26 @@
+package com.student.entity;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 班级的随机点名抽取记录
+ * 保存抽取方式，以及每个候选范围在本轮中已经抽到过的候选，不重复抽取时跳过这些候选
+ */
+public class SelectionState {
+    private SelectionMode mode = SelectionMode.RANDOM;                  // 抽取方式
+    private final Map<String, Set<String>> called = new LinkedHashMap<>(); // 候选范围到本轮已抽到的学号或小组名
+
+    public SelectionMode getMode() {
+        return mode;
+    }
+
+    public void setMode(SelectionMode mode) {
+        this.mode = mode;
+    }
+
+    public Map<String, Set<String>> getCalled() {
+        return called;
+    }
+}
@@ -0,0 +1,43 @@
+package com.student.entity;
+
+/**
+ * 学生状态记录
+ * 每次点名记录缺勤、请假或答题对应一条状态记录
+ */
+public class StatusRecord {
+    private String studentId;  // 学号
+    private StatusType type;   // 状态类型
+    private long time;         // 记录时间（毫秒）
+
+    // 构造函数
+    public StatusRecord(String studentId, StatusType type, long time) {
+        this.studentId = studentId;
+        this.type = type;
+        this.time = time;
+    }
+
+    // Getter 和 Setter 方法
+    public String getStudentId() {
+        return studentId;
+    }
+
+    public void setStudentId(String studentId) {
+        this.studentId = studentId;
+    }
+
+    public StatusType getType() {
+        return type;
+    }
+
+    public void setType(StatusType type) {
+        this.type = type;
+    }
+
+    public long getTime() {
+        return time;
+    }
+
+    public void setTime(long time) {
+        this.time = time;
+    }
+}
@@ -0,0 +1,53 @@
+package com.student.entity;
+
+/**
+ * 学生状态类型
+ * 编号写入状态日志文件，已有类型的编号不能修改
+ */
+public enum StatusType {
+    ABSENCE(1, "缺勤"),   // 缺勤
+    LEAVE(2, "请假"),     // 请假
+    ANSWER(3, "答题");    // 答题
+
+    private final int code;       // 状态编号
+    private final String label;   // 状态名称
+
+    StatusType(int code, String label) {
+        this.code = code;
+        this.label = label;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * 根据编号查找状态类型
+     * @return 状态类型，编号未知时返回null
+     */
+    public static StatusType fromCode(int code) {
+        for (StatusType type : values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 根据名称查找状态类型
+     * @return 状态类型，名称未知时返回null
+     */
+    public static StatusType fromLabel(String label) {
+        for (StatusType type : values()) {
+            if (type.label.equals(label)) {
+                return type;
+            }
+        }
+        return null;
+    }
+}
@@ -5,6 +5,10 @@ public class Student {
     private String name;      // 姓名
     private double score;     // 成绩
     private Group group;      // 所属小组班级
+    private String photoPath; // 照片路径，为空时使用默认路径
+    private int absenceCount; // 缺勤次数
+    private int leaveCount;   // 请假次数
+    private int answerCount;  // 答题次数
 
     // 构造函数
     public Student(String studentId, String name, double score, Group group) {
@@ -46,4 +50,41 @@ public class Student {
     public void setGroup(Group group) {
         this.group = group;
     }
+
+    public String getPhotoPath() {
+        return photoPath;
+    }
+
+    public void setPhotoPath(String photoPath) {
+        this.photoPath = photoPath;
+    }
+
+    public int getAbsenceCount() {
+        return absenceCount;
+    }
+
+    public void setAbsenceCount(int absenceCount) {
+        this.absenceCount = absenceCount;
+    }
+
+    public int getLeaveCount() {
+        return leaveCount;
+    }
+
+    public void setLeaveCount(int leaveCount) {
+        this.leaveCount = leaveCount;
+    }
+
+    public int getAnswerCount() {
+        return answerCount;
+    }
+
+    public void setAnswerCount(int answerCount) {
+        this.answerCount = answerCount;
+    }
+
+    // 所属小组名称，未分组时返回空字符串
+    public String getGroupName() {
+        return group == null ? "" : group.getGroupName();
+    }
 }
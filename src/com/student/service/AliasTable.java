@@ -0,0 +1,62 @@
+package com.student.service;
+
+import java.util.Random;
+
+/**
+ * 按权重抽取下标的别名表（Vose 方法）
+ * 建表 O(n)，之后每次抽取只需一个随机下标和一次比较，与候选数量无关
+ */
+class AliasTable {
+    private final double[] probability;   // 抽中下标 i 时保留 i 的概率
+    private final int[] alias;            // 不保留 i 时改为抽中的下标
+
+    /**
+     * @param weights 每个下标的权重，不能为负数，全为0时按等概率抽取
+     */
+    AliasTable(double[] weights) {
+        int n = weights.length;
+        probability = new double[n];
+        alias = new int[n];
+        double sum = 0;
+        for (double weight : weights) {
+            sum += weight;
+        }
+        double[] scaled = new double[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < n; i++) {
+            scaled[i] = sum > 0 ? weights[i] * n / sum : 1;
+            if (scaled[i] < 1) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+            probability[less] = scaled[less];
+            alias[less] = more;
+            scaled[more] = scaled[more] + scaled[less] - 1;
+            if (scaled[more] < 1) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+        // 剩下的下标概率为1，浮点误差留在 small 中的也按1处理
+        while (largeCount > 0) {
+            probability[large[--largeCount]] = 1;
+        }
+        while (smallCount > 0) {
+            probability[small[--smallCount]] = 1;
+        }
+    }
+
+    int sample(Random random) {
+        int i = random.nextInt(probability.length);
+        return random.nextDouble() < probability[i] ? i : alias[i];
+    }
+}
@@ -0,0 +1,39 @@
+package com.student.service;
+
+import com.student.entity.Group;
+import com.student.entity.Student;
+
+/**
+ * 班级数据变化监听器
+ * 本程序或共享目录上其他程序修改班级后，班级数据仓库在界面线程中逐条通知变化的学生和小组，
+ * 面板只需更新对应的表格行；通知送达时对象可能已经有更新的修改，直接读取对象的当前值即可
+ */
+public interface ClassListener {
+    default void studentAdded(Student student) {
+    }
+
+    /**
+     * @param oldId 修改前的学号，学号未变化时与当前学号相同
+     * @param student 学生
+     */
+    default void studentChanged(String oldId, Student student) {
+    }
+
+    default void studentRemoved(String studentId) {
+    }
+
+    default void groupAdded(Group group) {
+    }
+
+    default void groupChanged(Group group) {
+    }
+
+    default void groupRemoved(String groupName) {
+    }
+
+    /**
+     * 班级被重新加载（切换班级或其他程序合并了快照），需要重新读取全部数据
+     */
+    default void classReloaded() {
+    }
+}
@@ -0,0 +1,68 @@
+package com.student.service;
+
+import com.student.dao.JournalDao;
+import com.student.dao.JournalRecord;
+import com.student.dao.LegacyClassDao;
+import com.student.dao.ReadListener;
+import com.student.dao.SnapshotDao;
+import com.student.dao.StatusLogDao;
+import com.student.entity.SchoolClass;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * 班级只读读取类
+ * 与 ClassRepository 加载班级的顺序相同：读取快照，用 ClassReplayer 重放快照之后的修改日志和状态日志，得到班级的当前数据，
+ * 但不获取文件锁、不截断日志、不合并快照、不修改 Constant 中的当前班级，可以在多个线程中同时读取不同班级
+ * 读取期间其他程序合并了快照时重新读取
+ */
+class ClassReader {
+    private static final int MAX_ATTEMPTS = 3;   // 快照被合并时最多读取的次数
+
+    private final String className;                                 // 班级名称
+
+    private ClassReader(String className) {
+        this.className = className;
+    }
+
+    /**
+     * 读取班级的当前数据
+     * @param className 班级名称
+     * @return 班级信息，与当前加载的班级互不影响
+     */
+    static SchoolClass read(String className) throws IOException {
+        return new ClassReader(className).read();
+    }
+
+    private SchoolClass read() throws IOException {
+        for (int attempt = 1; ; attempt++) {
+            SnapshotDao snapshotDao = new SnapshotDao(className);
+            if (!snapshotDao.exists()) {
+                // 从未加载过的旧版班级，逐个读取文本文件，并发由调用者按班级安排
+                return new LegacyClassDao(className).read(1, ReadListener.NONE);
+            }
+            SchoolClass schoolClass = replay(snapshotDao);
+            if (snapshotDao.isCurrent()) {
+                return schoolClass;
+            }
+            if (attempt == MAX_ATTEMPTS) {
+                throw new IOException("班级正在被其他程序修改：" + className);
+            }
+        }
+    }
+
+    private SchoolClass replay(SnapshotDao snapshotDao) throws IOException {
+        ClassReplayer replayer = new ClassReplayer(snapshotDao.read(), snapshotDao.getStatusSeq());
+        List<JournalRecord> records = new JournalDao(className).read(snapshotDao.getJournalLsn());
+        StatusLogDao statusLogDao = new StatusLogDao(className);
+        try {
+            statusLogDao.openReadOnly();
+            replayer.replay(records, statusLogDao, ClassReplayer.ChangeHandler.NONE);
+            replayer.replayStatus(statusLogDao, Long.MAX_VALUE, ClassReplayer.ChangeHandler.NONE);
+        } finally {
+            statusLogDao.close();
+        }
+        return replayer.getSchoolClass();
+    }
+}
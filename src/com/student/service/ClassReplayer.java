@@ -0,0 +1,256 @@
+package com.student.service;
+
+import com.student.dao.JournalRecord;
+import com.student.dao.StatusLogDao;
+import com.student.entity.Group;
+import com.student.entity.SchoolClass;
+import com.student.entity.Student;
+import com.student.util.IndexedList;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 班级重放类
+ * 把修改日志和状态日志的记录应用到一个班级上，ClassRepository 和 ClassReader 共用同一套规则
+ * 与当前数据冲突的记录（如小组已不存在）直接忽略；每处变化通过 ChangeHandler 通知调用者更新自己的索引
+ */
+class ClassReplayer {
+    private final SchoolClass schoolClass;                             // 重放的班级
+    private final Map<String, Student> studentIndex = new HashMap<>(); // 学号到学生的索引
+    private final Map<String, Group> groupIndex = new HashMap<>();     // 小组名称到小组的索引
+    private long statusSeq;                                            // 已计入得分的状态记录数
+
+    /**
+     * 建立学号和小组名称索引，并按学生得分重新计算小组总分
+     * @param schoolClass 从快照或旧版文件读取的班级
+     * @param statusSeq 已计入得分的状态记录数
+     */
+    ClassReplayer(SchoolClass schoolClass, long statusSeq) {
+        this.schoolClass = schoolClass;
+        this.statusSeq = statusSeq;
+        for (Group group : schoolClass.getGroups()) {
+            groupIndex.put(group.getGroupName(), group);
+        }
+        for (Student student : schoolClass.getStudents()) {
+            studentIndex.put(student.getStudentId(), student);
+        }
+        ScoreEngine.rebuildGroupTotals(schoolClass);
+    }
+
+    SchoolClass getSchoolClass() {
+        return schoolClass;
+    }
+
+    Student getStudent(String studentId) {
+        return studentIndex.get(studentId);
+    }
+
+    Group getGroup(String groupName) {
+        return groupIndex.get(groupName);
+    }
+
+    int getStudentCount() {
+        return studentIndex.size();
+    }
+
+    long getStatusSeq() {
+        return statusSeq;
+    }
+
+    /**
+     * 状态记录已由调用者直接计分后更新位置
+     */
+    void setStatusSeq(long statusSeq) {
+        this.statusSeq = statusSeq;
+    }
+
+    /**
+     * 按修改顺序重放日志，遇到状态日志位置记录时先计入此前的状态记录
+     */
+    void replay(List<JournalRecord> records, StatusLogDao statusLog, ChangeHandler handler) throws IOException {
+        for (JournalRecord record : records) {
+            if (record.getType() == JournalRecord.Type.STATUS_MARK) {
+                replayStatus(statusLog, record.getStatusSeq(), handler);
+            } else {
+                apply(record, handler);
+            }
+        }
+    }
+
+    /**
+     * 把尚未计分的状态记录计入得分，学生已不存在的记录忽略
+     * 同一学生的多条记录只通知一次
+     * @param toSeq 结束序号（不包含）
+     */
+    void replayStatus(StatusLogDao statusLog, long toSeq, ChangeHandler handler) throws IOException {
+        if (statusSeq >= Math.min(toSeq, statusLog.getNextSeq())) {
+            return;
+        }
+        Set<Student> changed = new LinkedHashSet<>();
+        statusSeq = statusLog.readFrom(statusSeq, toSeq, record -> {
+            Student student = studentIndex.get(record.getStudentId());
+            if (student != null) {
+                ScoreEngine.apply(student, record.getType());
+                changed.add(student);
+            }
+        });
+        Set<Group> groups = new LinkedHashSet<>();
+        for (Student student : changed) {
+            handler.studentScored(student);
+            if (student.getGroup() != null) {
+                groups.add(student.getGroup());
+            }
+        }
+        for (Group group : groups) {
+            handler.groupChanged(group);
+        }
+    }
+
+    /**
+     * 把一条日志记录应用到班级
+     * @param record 日志记录
+     */
+    void apply(JournalRecord record, ChangeHandler handler) {
+        switch (record.getType()) {
+            case ADD_GROUP: {
+                if (groupIndex.containsKey(record.getGroupName())) {
+                    return;
+                }
+                Group group = new Group(record.getGroupName(), new IndexedList<>());
+                schoolClass.getGroups().add(group);
+                groupIndex.put(group.getGroupName(), group);
+                handler.groupAdded(group);
+                break;
+            }
+            case DELETE_GROUP: {
+                Group group = groupIndex.remove(record.getGroupName());
+                if (group == null) {
+                    return;
+                }
+                for (Student student : group.getStudents()) {
+                    student.setGroup(null);
+                    handler.studentChanged(student.getStudentId(), student);
+                }
+                schoolClass.getGroups().remove(group);
+                handler.groupRemoved(group);
+                break;
+            }
+            case SET_GROUP_SCORE: {
+                Group group = groupIndex.get(record.getGroupName());
+                if (group != null) {
+                    group.setScore(record.getScore());
+                    handler.groupChanged(group);
+                }
+                break;
+            }
+            case ADD_STUDENT: {
+                if (studentIndex.containsKey(record.getStudentId())) {
+                    return;
+                }
+                Group group = groupIndex.get(record.getGroupName());
+                Student student = new Student(record.getStudentId(), record.getName(), 0, group);
+                student.setPhotoPath(record.getPhotoPath());
+                schoolClass.getStudents().add(student);
+                studentIndex.put(student.getStudentId(), student);
+                if (group != null) {
+                    group.getStudents().add(student);
+                }
+                handler.studentAdded(student);
+                break;
+            }
+            case UPDATE_STUDENT: {
+                Student student = studentIndex.get(record.getStudentId());
+                String newId = record.getNewStudentId();
+                if (student == null || (!newId.equals(student.getStudentId()) && studentIndex.containsKey(newId))) {
+                    return;
+                }
+                Group oldGroup = student.getGroup();
+                Group newGroup = groupIndex.get(record.getGroupName());
+                if (oldGroup != newGroup) {
+                    ScoreEngine.move(student, oldGroup, newGroup);
+                    if (oldGroup != null) {
+                        oldGroup.getStudents().remove(student);
+                        handler.groupChanged(oldGroup);
+                    }
+                    if (newGroup != null) {
+                        newGroup.getStudents().add(student);
+                        handler.groupChanged(newGroup);
+                    }
+                }
+                String oldId = student.getStudentId();
+                studentIndex.remove(oldId);
+                student.setStudentId(newId);
+                student.setName(record.getName());
+                student.setGroup(newGroup);
+                studentIndex.put(newId, student);
+                handler.studentChanged(oldId, student);
+                break;
+            }
+            case DELETE_STUDENT: {
+                Student student = studentIndex.remove(record.getStudentId());
+                if (student == null) {
+                    return;
+                }
+                Group group = student.getGroup();
+                if (group != null) {
+                    ScoreEngine.move(student, group, null);
+                    group.getStudents().remove(student);
+                    handler.groupChanged(group);
+                }
+                schoolClass.getStudents().remove(student);
+                handler.studentRemoved(student);
+                break;
+            }
+            case STATUS_MARK:
+                // 只在重放日志时用于确定状态记录的位置
+                break;
+        }
+    }
+
+    /**
+     * 重放产生的变化，默认不做任何处理
+     */
+    interface ChangeHandler {
+        ChangeHandler NONE = new ChangeHandler() {
+        };
+
+        default void groupAdded(Group group) {
+        }
+
+        /**
+         * 小组已从班级删除，组内学生已改为未分组
+         */
+        default void groupRemoved(Group group) {
+        }
+
+        /**
+         * 小组分数或组内学生变化
+         */
+        default void groupChanged(Group group) {
+        }
+
+        default void studentAdded(Student student) {
+        }
+
+        /**
+         * 学号、姓名或小组变化
+         * @param oldId 修改前的学号
+         */
+        default void studentChanged(String oldId, Student student) {
+        }
+
+        default void studentRemoved(Student student) {
+        }
+
+        /**
+         * 状态记录计入得分后调用，同一次重放中每个学生只调用一次
+         */
+        default void studentScored(Student student) {
+        }
+    }
+}
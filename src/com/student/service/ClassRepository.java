@@ -0,0 +1,1182 @@
+package com.student.service;
+
+import com.student.dao.ClassLock;
+import com.student.dao.FileTransaction;
+import com.student.dao.JournalDao;
+import com.student.dao.JournalRecord;
+import com.student.dao.LegacyClassDao;
+import com.student.dao.ReadListener;
+import com.student.dao.ScoreHistoryDao;
+import com.student.dao.SelectionDao;
+import com.student.dao.SnapshotDao;
+import com.student.dao.StatusLogDao;
+import com.student.entity.Group;
+import com.student.entity.SchoolClass;
+import com.student.entity.ScoreChange;
+import com.student.entity.SelectionState;
+import com.student.entity.StatusRecord;
+import com.student.entity.StatusType;
+import com.student.entity.Student;
+import com.student.util.Constant;
+import com.student.util.Metrics;
+import com.student.util.RankTree;
+
+import javax.swing.*;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * 班级数据仓库
+ * 切换班级时一次性加载班级的小组和学生，之后所有面板都从内存读取
+ * 每次修改先在修改日志末尾追加一条记录，再更新内存数据；
+ * 日志记录数达到 COMPACT_THRESHOLD 时在同一个多文件事务中写入新的快照并清空日志
+ * 班级还没有快照文件时从旧版文本文件导入，并生成快照文件
+ * 点名记录的缺勤、请假、答题写入单独的状态日志，并由 ScoreEngine 即时计入学生和小组得分；
+ * 快照保存已计分的状态日志位置，加载时只重放之后的状态记录
+ *
+ * 同一个班级可以被共享目录上的多个程序同时打开：所有写操作都在 ClassLock 文件锁保护下进行，
+ * 写入前先读取并应用其他程序追加的日志和状态记录；ClassWatcher 发现文件变化时也会读取这些记录，
+ * 其他程序合并了快照时重新加载班级。数据变化通过 ClassListener 逐条通知打开的面板，通知总在界面线程中发出。
+ * 加锁顺序固定为先文件锁、后仓库锁：目录监视发现的变化由后台刷新线程在仓库锁外等待文件锁并读取文件，
+ * 界面线程的查询不会因为其他程序长时间持有文件锁而阻塞；只有把记录重放到内存数据时才进入仓库锁。
+ * 界面不加锁读取学生和小组对象的字段，后台重放期间可能读到正在修改的字段，收到变化通知后重新读取即可。
+ * getStudents、getGroups 返回复制的列表
+ */
+public class ClassRepository {
+    private static final ClassRepository INSTANCE = new ClassRepository();
+    private static final int COMPACT_THRESHOLD = 500;   // 触发合并快照的日志记录数
+    private static final int STATUS_COMPACT_THRESHOLD = 5000;   // 触发合并快照的未计入快照的状态记录数
+
+    private SchoolClass current;                                      // 当前班级
+    private ClassLock classLock;                                      // 当前班级的文件锁
+    private ClassWatcher watcher;                                     // 当前班级的目录监视
+    private SnapshotDao snapshotDao;                                  // 当前班级的快照文件读写
+    private JournalDao journalDao;                                    // 当前班级的修改日志读写
+    private StatusLogDao statusLogDao;                                // 当前班级的状态日志读写
+    private ScoreHistoryDao scoreHistoryDao;                          // 当前班级的小组分数历史读写
+    private ScoreHistory scoreHistory;                                // 当前班级的小组分数历史查询
+    private SelectionState selection;                                 // 当前班级的随机点名抽取记录
+    private ClassReplayer replayer;                                   // 当前班级的日志重放和学号、小组名称索引
+    private final ClassReplayer.ChangeHandler changes = new IndexUpdater(); // 把重放产生的变化同步到索引和变化通知
+    private StudentSearchIndex searchIndex;                           // 学生搜索索引，第一次搜索时建立
+    private Leaderboards leaderboards;                                // 排行榜，第一次查询排名时建立
+    private final List<ClassListener> listeners = new CopyOnWriteArrayList<>();   // 数据变化监听器
+    private final List<Consumer<ClassListener>> pendingEvents = new ArrayList<>(); // 等待通知的变化
+    private boolean loading;                                          // 批量新增学生时不产生逐条变化通知
+    private final Object loadMonitor = new Object();                  // 同一时刻只加载一个班级
+    private final ExecutorService refresher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "class-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });                                                               // 读取其他程序修改的后台线程
+
+    private ClassRepository() {
+    }
+
+    public static ClassRepository getInstance() {
+        return INSTANCE;
+    }
+
+    public void addListener(ClassListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(ClassListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * 加载班级，成功后设置为当前班级
+     * 读取快照后重放快照之后的修改日志
+     * @param className 班级名称
+     */
+    public void load(String className) throws IOException {
+        load(className, ReadListener.NONE);
+    }
+
+    /**
+     * 加载班级，可以在后台线程调用
+     * 读取快照、打开日志、重放日志都在新建的对象上进行，不占用仓库锁，界面线程读取原班级不会被阻塞，
+     * 重新加载当前班级时也是如此；
+     * 全部读取完成后才在仓库锁内切换到新班级，面板只收到一次班级重新加载的通知。
+     * 已读取的学生没有按批发布给面板：修改和排名都以完整的班级为前提，读到一半的班级不能交给面板使用
+     * 读取期间按批报告进度并检查是否已取消，取消时抛出 CancellationException，当前班级保持不变；
+     * 加载成功时耗时计入 Metrics.CLASS_LOAD
+     * @param className 班级名称
+     * @param listener 进度监听器
+     */
+    public void load(String className, ReadListener listener) throws IOException {
+        synchronized (loadMonitor) {
+            ClassLock currentLock;
+            synchronized (this) {
+                currentLock = current != null && current.getClassName().equals(className) ? classLock : null;
+            }
+            if (currentLock != null) {
+                reloadWithLock(className, currentLock, listener);
+            } else {
+                loadWithLock(className, listener);
+            }
+        }
+    }
+
+    /**
+     * 重新加载当前班级：同一个程序不能对同一个文件重复加锁，使用当前班级已打开的文件锁
+     * 与加载其他班级一样在仓库锁外读取，界面线程在读取期间仍可查询原来的数据
+     */
+    private void reloadWithLock(String className, ClassLock lock, ReadListener listener) throws IOException {
+        long start = System.nanoTime();
+        lock.lock();
+        try {
+            if (!installIfCurrent(lock, read(className, listener))) {
+                throw new IOException("班级已切换");
+            }
+        } finally {
+            lock.unlock();
+        }
+        Metrics.CLASS_LOAD.recordSince(start);
+    }
+
+    /**
+     * 在仓库锁内切换到持有 lock 期间读取完成的班级，读取期间已切换到其他班级时关闭读取的日志文件
+     * @return 是否已切换
+     */
+    private boolean installIfCurrent(ClassLock lock, LoadedClass loaded) {
+        synchronized (this) {
+            if (classLock == lock) {
+                install(loaded);
+                dispatchEvents();
+                return true;
+            }
+        }
+        loaded.close();
+        return false;
+    }
+
+    /**
+     * 获得新班级的文件锁，读取班级后在仓库锁内切换
+     */
+    private void loadWithLock(String className, ReadListener listener) throws IOException {
+        long start = System.nanoTime();
+        ClassLock newLock = new ClassLock(className);
+        boolean installed = false;
+        try {
+            newLock.lock();
+            try {
+                LoadedClass loaded = read(className, listener);
+                synchronized (this) {
+                    install(loaded);
+                    installed = true;
+                    closeWatcher();
+                    closeLock();
+                    classLock = newLock;
+                    try {
+                        File classDir = new File(Constant.FILE_PATH + className);
+                        watcher = new ClassWatcher(new File[]{classDir, new File(classDir, StatusLogDao.DIR_NAME)},
+                                () -> refresher.execute(() -> refreshQuietly(className)));
+                    } catch (IOException e) {
+                        // 无法监视目录时只是看不到其他程序的修改，写入前仍会读取
+                        e.printStackTrace();
+                    }
+                    dispatchEvents();
+                }
+            } finally {
+                newLock.unlock();
+            }
+        } catch (IOException | RuntimeException e) {
+            if (installed) {
+                // 已经切换到新班级后才失败，不能继续使用新班级的文件锁
+                unload();
+            } else {
+                newLock.close();
+            }
+            throw e;
+        }
+        Metrics.CLASS_LOAD.recordSince(start);
+    }
+
+    /**
+     * 在已获得文件锁的情况下重新加载当前班级，需要在仓库锁内调用
+     */
+    private void loadLocked(String className) throws IOException {
+        install(read(className, ReadListener.NONE));
+    }
+
+    /**
+     * 在已获得文件锁的情况下读取班级，不访问仓库的任何字段
+     * @param listener 进度监听器，读取快照期间和切换之前检查是否已取消
+     * @return 已重放全部日志的班级和打开的日志文件，失败时日志文件已关闭
+     */
+    private static LoadedClass read(String className, ReadListener listener) throws IOException {
+        // 完成或撤销上次异常退出时未完成的多文件事务
+        FileTransaction.recover(new File(Constant.FILE_PATH + className));
+
+        SnapshotDao newSnapshotDao = new SnapshotDao(className);
+        SchoolClass schoolClass;
+        if (newSnapshotDao.exists()) {
+            schoolClass = newSnapshotDao.read(listener);
+        } else {
+            // 导入旧版文本文件，生成快照后下次直接读取快照
+            schoolClass = new LegacyClassDao(className).read(listener);
+            newSnapshotDao.write(schoolClass, 0, 0);
+        }
+        listener.checkCancelled();
+
+        LoadedClass loaded = new LoadedClass(className, newSnapshotDao,
+                new ClassReplayer(schoolClass, newSnapshotDao.getStatusSeq()));
+        try {
+            List<JournalRecord> records = loaded.journalDao.open(newSnapshotDao.getJournalLsn());
+            loaded.statusLogDao.open();
+            loaded.scoreHistoryDao.open();
+            loaded.replayer.replay(records, loaded.statusLogDao, ClassReplayer.ChangeHandler.NONE);
+            importLegacyStatus(schoolClass, loaded.statusLogDao);
+            loaded.replayer.replayStatus(loaded.statusLogDao, Long.MAX_VALUE, ClassReplayer.ChangeHandler.NONE);
+            loaded.selection = readSelection(className);
+            for (Student student : schoolClass.getStudents()) {
+                loaded.photoPaths.add(photoPath(className, student));
+            }
+            listener.checkCancelled();
+        } catch (IOException | RuntimeException e) {
+            loaded.close();
+            throw e;
+        }
+        return loaded;
+    }
+
+    /**
+     * 读取随机点名的抽取记录，读取失败只影响本轮的不重复抽取，使用空的记录
+     */
+    private static SelectionState readSelection(String className) {
+        try {
+            return new SelectionDao(className).read();
+        } catch (IOException e) {
+            e.printStackTrace();
+            return new SelectionState();
+        }
+    }
+
+    /**
+     * 切换到已读取的班级，需要在仓库锁内、持有新班级的文件锁时调用
+     */
+    private void install(LoadedClass loaded) {
+        closeJournal();
+        current = loaded.replayer.getSchoolClass();
+        snapshotDao = loaded.snapshotDao;
+        journalDao = loaded.journalDao;
+        statusLogDao = loaded.statusLogDao;
+        scoreHistoryDao = loaded.scoreHistoryDao;
+        scoreHistory = new ScoreHistory(loaded.scoreHistoryDao);
+        selection = loaded.selection;
+        replayer = loaded.replayer;
+        searchIndex = null;
+        leaderboards = null;
+        Constant.CLASS_PATH = loaded.className;
+        Constant.students = current.getStudents();
+        Constant.groups.clear();
+        for (Group group : current.getGroups()) {
+            Constant.groups.put(group, group.getStudents());
+        }
+        pendingEvents.clear();
+        pendingEvents.add(ClassListener::classReloaded);
+        // 删除学生时只删除这个学生的缩略图，照片被替换后留下的旧缩略图在加载时统一清理
+        PhotoCache.getInstance().retain(loaded.className, loaded.photoPaths);
+        compactQuietly();
+    }
+
+    private void replay(List<JournalRecord> records) throws IOException {
+        replayer.replay(records, statusLogDao, changes);
+    }
+
+    private void replayStatus(long toSeq) throws IOException {
+        replayer.replayStatus(statusLogDao, toSeq, changes);
+    }
+
+    /**
+     * 把旧版按姓名记录的状态文件导入状态日志
+     */
+    private static void importLegacyStatus(SchoolClass schoolClass, StatusLogDao statusLog) {
+        Map<String, String> nameToId = new HashMap<>();
+        for (Student student : schoolClass.getStudents()) {
+            nameToId.putIfAbsent(student.getName(), student.getStudentId());
+        }
+        try {
+            statusLog.importLegacy(nameToId);
+        } catch (IOException e) {
+            // 导入失败不影响使用，下次加载时重试
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * 读取其他程序写入的修改，需要在文件锁保护下调用
+     * 其他程序合并了快照时重新加载班级
+     */
+    private void refreshLocked() throws IOException {
+        if (!snapshotDao.isCurrent()) {
+            loadLocked(current.getClassName());
+            return;
+        }
+        statusLogDao.catchUp();
+        List<JournalRecord> records = journalDao.catchUp();
+        if (records == null) {
+            loadLocked(current.getClassName());
+            return;
+        }
+        replay(records);
+        replayStatus(Long.MAX_VALUE);
+    }
+
+    /**
+     * 目录监视发现文件变化时在后台刷新线程中调用
+     * 等待文件锁、读取新追加的记录和重新读取班级都不占用仓库锁，只在修改内存数据时进入仓库锁，
+     * 变化通知由 dispatchEvents 转到界面线程
+     * @param className 发现变化的班级，已切换到其他班级时忽略
+     */
+    private void refreshQuietly(String className) {
+        ClassLock lock;
+        synchronized (this) {
+            if (current == null || !current.getClassName().equals(className)) {
+                return;
+            }
+            lock = classLock;
+        }
+        try {
+            lock.lock();
+            try {
+                refreshInBackground(className, lock);
+            } finally {
+                lock.unlock();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * 持有文件锁、不持有仓库锁时读取其他程序写入的修改
+     * 日志文件只在持有文件锁时读写，可以在仓库锁外读取；重放到内存数据时才进入仓库锁
+     */
+    private void refreshInBackground(String className, ClassLock lock) throws IOException {
+        SnapshotDao snapshot;
+        JournalDao journal;
+        StatusLogDao statusLog;
+        synchronized (this) {
+            if (classLock != lock) {
+                return;
+            }
+            snapshot = snapshotDao;
+            journal = journalDao;
+            statusLog = statusLogDao;
+        }
+        List<JournalRecord> records = null;
+        if (snapshot.isCurrent()) {
+            statusLog.catchUp();
+            records = journal.catchUp();
+        }
+        if (records == null) {
+            // 其他程序合并了快照或日志无法接续，在仓库锁外重新读取整个班级
+            installIfCurrent(lock, read(className, ReadListener.NONE));
+            return;
+        }
+        synchronized (this) {
+            if (classLock != lock) {
+                return;
+            }
+            try {
+                replay(records);
+                replayStatus(Long.MAX_VALUE);
+            } finally {
+                dispatchEvents();
+            }
+        }
+    }
+
+    /**
+     * 清空当前班级
+     */
+    public synchronized void unload() {
+        closeWatcher();
+        closeJournal();
+        closeLock();
+        current = null;
+        snapshotDao = null;
+        journalDao = null;
+        statusLogDao = null;
+        scoreHistoryDao = null;
+        scoreHistory = null;
+        selection = null;
+        searchIndex = null;
+        leaderboards = null;
+        replayer = null;
+        Constant.CLASS_PATH = "";
+        Constant.students = new ArrayList<>();
+        Constant.groups.clear();
+        pendingEvents.clear();
+        pendingEvents.add(ClassListener::classReloaded);
+        dispatchEvents();
+    }
+
+    public synchronized boolean isLoaded() {
+        return current != null;
+    }
+
+    /**
+     * 复制当前的学生列表，调用者可以在锁外遍历，不受后台线程修改的影响
+     */
+    public synchronized List<Student> getStudents() {
+        return current == null ? new ArrayList<>() : new ArrayList<>(current.getStudents());
+    }
+
+    /**
+     * 在仓库锁内读取学生和小组对象的字段，供后台线程复制数据使用
+     * 修改都在仓库锁内进行，reader 读到的每个对象都不会是修改了一半的状态；reader 中不能读写文件
+     * @param reader 读取操作
+     * @return reader 的返回值
+     */
+    public synchronized <T> T readLocked(Supplier<T> reader) {
+        return reader.get();
+    }
+
+    /**
+     * 复制当前的小组列表
+     */
+    public synchronized List<Group> getGroups() {
+        return current == null ? new ArrayList<>() : new ArrayList<>(current.getGroups());
+    }
+
+    /**
+     * 生成当前全部小组及其成员的名册，班级修改后需要重新获取
+     */
+    public synchronized GroupRoster getRoster() {
+        return new GroupRoster(current == null ? Collections.emptyList() : current.getGroups());
+    }
+
+    /**
+     * 按学号、姓名或姓名拼音首字母的前缀搜索学生
+     * 第一次搜索时建立索引，之后随学生的新增、修改、删除逐条更新
+     * @param query 搜索文字，不区分大小写
+     * @param limit 最多返回的学生数
+     * @return 匹配的学生
+     */
+    public synchronized List<Student> search(String query, int limit) {
+        if (current == null) {
+            return Collections.emptyList();
+        }
+        if (searchIndex == null) {
+            searchIndex = new StudentSearchIndex();
+            searchIndex.rebuild(current.getStudents());
+        }
+        return searchIndex.search(query, limit);
+    }
+
+    /**
+     * 全班得分最高的 k 名学生，排行榜第一次查询时建立，之后随得分变化逐个更新
+     * @param k 人数
+     * @return 按得分从高到低排列的学生
+     */
+    public synchronized List<Student> getTopStudents(int k) {
+        return current == null ? Collections.emptyList() : getLeaderboards().getStudents().top(k);
+    }
+
+    /**
+     * 小组内得分最高的 k 名学生
+     * @param groupName 小组名称
+     * @param k 人数
+     * @return 按得分从高到低排列的学生，小组不存在时返回空列表
+     */
+    public synchronized List<Student> getTopStudents(String groupName, int k) {
+        Group group = current == null ? null : replayer.getGroup(groupName);
+        return group == null ? Collections.emptyList() : getLeaderboards().getMembers(group).top(k);
+    }
+
+    /**
+     * 总分最高的 k 个小组
+     * @param k 小组数
+     * @return 按总分从高到低排列的小组
+     */
+    public synchronized List<Group> getTopGroups(int k) {
+        return current == null ? Collections.emptyList() : getLeaderboards().getGroups().top(k);
+    }
+
+    /**
+     * 学生在全班的名次，同分同名次
+     * @return 名次，从1开始；学生不存在时返回-1
+     */
+    public synchronized int getStudentRank(Student student) {
+        return current == null ? -1 : getLeaderboards().getStudents().rank(student);
+    }
+
+    /**
+     * 学生在小组内的名次，同分同名次
+     * @return 名次，从1开始；学生不在小组中时返回-1
+     */
+    public synchronized int getGroupMemberRank(Student student) {
+        if (current == null || student.getGroup() == null) {
+            return -1;
+        }
+        RankTree<Student> members = getLeaderboards().getMembers(student.getGroup());
+        return members == null ? -1 : members.rank(student);
+    }
+
+    /**
+     * 小组的总分名次，同分同名次
+     * @return 名次，从1开始；小组不存在时返回-1
+     */
+    public synchronized int getGroupRank(Group group) {
+        return current == null ? -1 : getLeaderboards().getGroups().rank(group);
+    }
+
+    private Leaderboards getLeaderboards() {
+        if (leaderboards == null) {
+            leaderboards = new Leaderboards(current);
+        }
+        return leaderboards;
+    }
+
+    // 以下方法把学生和小组的变化同步到已建立的排行榜
+
+    private void indexStudentChanged(Student student) {
+        if (leaderboards != null) {
+            leaderboards.studentChanged(student);
+        }
+    }
+
+    private void indexStudentRemoved(Student student) {
+        if (leaderboards != null) {
+            leaderboards.studentRemoved(student);
+        }
+    }
+
+    private void indexGroupAdded(Group group) {
+        if (leaderboards != null) {
+            leaderboards.groupAdded(group);
+        }
+    }
+
+    private void indexGroupRemoved(Group group) {
+        if (leaderboards != null) {
+            leaderboards.groupRemoved(group);
+        }
+    }
+
+    public synchronized Student getStudent(String studentId) {
+        return current == null ? null : replayer.getStudent(studentId);
+    }
+
+    public synchronized Group getGroup(String groupName) {
+        return current == null ? null : replayer.getGroup(groupName);
+    }
+
+    public synchronized int getStudentCount() {
+        return current == null ? 0 : replayer.getStudentCount();
+    }
+
+    /**
+     * 获取学生照片路径，学生文件中没有照片路径时使用 photos/学号.jpg
+     * @param student 学生信息
+     * @return 照片路径
+     */
+    public String getPhotoPath(Student student) {
+        return photoPath(Constant.CLASS_PATH, student);
+    }
+
+    private static String photoPath(String className, Student student) {
+        if (student.getPhotoPath() != null && !student.getPhotoPath().isEmpty()) {
+            return student.getPhotoPath();
+        }
+        return Constant.FILE_PATH + className + "/photos/" + student.getStudentId() + ".jpg";
+    }
+
+    /**
+     * 新增小组
+     * @param groupName 小组名称
+     * @return 新增是否成功，小组已存在时返回false
+     */
+    public boolean addGroup(String groupName) throws IOException {
+        return locked(() -> {
+            if (replayer.getGroup(groupName) != null) {
+                return false;
+            }
+            commit(false, JournalRecord.addGroup(groupName));
+            return true;
+        });
+    }
+
+    /**
+     * 删除小组，小组中的学生变为未分组
+     * @param groupName 小组名称
+     * @return 删除是否成功
+     */
+    public boolean deleteGroup(String groupName) throws IOException {
+        return locked(() -> {
+            if (replayer.getGroup(groupName) == null) {
+                return false;
+            }
+            commit(false, JournalRecord.deleteGroup(groupName));
+            return true;
+        });
+    }
+
+    /**
+     * 修改小组分数，变化记入小组分数历史
+     * @param groupName 小组名称
+     * @param score 新的分数
+     */
+    public void updateGroupScore(String groupName, double score) throws IOException {
+        updateGroupScore(groupName, score, "修改分数");
+    }
+
+    /**
+     * 修改小组分数，变化记入小组分数历史
+     * @param groupName 小组名称
+     * @param score 新的分数
+     * @param reason 修改原因
+     */
+    public void updateGroupScore(String groupName, double score, String reason) throws IOException {
+        locked(() -> {
+            requireGroup(groupName);
+            commitGroupScore(groupName, false, score, reason);
+            return null;
+        });
+    }
+
+    /**
+     * 给小组加分，分数为负数时扣分，变化记入小组分数历史
+     * @param groupName 小组名称
+     * @param points 加减的分数
+     */
+    public void addGroupScore(String groupName, double points) throws IOException {
+        addGroupScore(groupName, points, points < 0 ? "扣分" : "加分");
+    }
+
+    /**
+     * 给小组加分，分数为负数时扣分，变化记入小组分数历史
+     * @param groupName 小组名称
+     * @param points 加减的分数
+     * @param reason 加减分原因
+     */
+    public void addGroupScore(String groupName, double points, String reason) throws IOException {
+        locked(() -> {
+            requireGroup(groupName);
+            commitGroupScore(groupName, true, points, reason);
+            return null;
+        });
+    }
+
+    /**
+     * 按时间范围查询小组分数变化记录
+     * @param groupName 小组名称，为null时查询全部小组
+     * @param from 开始时间（毫秒，包含）
+     * @param to 结束时间（毫秒，包含）
+     * @return 按时间排列的记录
+     */
+    public List<ScoreChange> getScoreHistory(String groupName, long from, long to) throws IOException {
+        return locked(() -> {
+            scoreHistoryDao.catchUp();
+            return scoreHistory.read(groupName, from, to);
+        });
+    }
+
+    /**
+     * 查询每周每个小组的分数变化合计
+     * @param from 开始时间（毫秒，包含），从所在周的周一开始
+     * @param to 结束时间（毫秒，包含）
+     * @return 周一零点的时间 -> 小组名称 -> 分数变化合计，按时间排列，没有变化的周不包含在内
+     */
+    public SortedMap<Long, Map<String, Double>> getWeeklyScoreTotals(long from, long to) throws IOException {
+        return locked(() -> {
+            scoreHistoryDao.catchUp();
+            return scoreHistory.weeklyTotals(from, to);
+        });
+    }
+
+    /**
+     * 当前班级的随机点名抽取记录，加载班级时已读取，不读取文件
+     * 返回的对象由 SelectionEngine 在界面线程中修改，修改后调用 saveSelection 保存
+     * @return 抽取记录，没有加载班级时返回不会保存的空记录
+     */
+    public synchronized SelectionState getSelection() {
+        return current == null ? new SelectionState() : selection;
+    }
+
+    /**
+     * 在文件锁保护下用多文件事务重写 selection.dat
+     * @param state getSelection 返回的抽取记录，已经切换到其他班级时不保存
+     */
+    public void saveSelection(SelectionState state) throws IOException {
+        synchronized (this) {
+            if (current == null || state != selection) {
+                return;
+            }
+        }
+        locked(() -> {
+            if (state != selection) {
+                return null;
+            }
+            File dir = new File(Constant.FILE_PATH + current.getClassName());
+            FileTransaction fileTransaction = new FileTransaction(dir);
+            new SelectionDao(current.getClassName()).write(fileTransaction, state);
+            try {
+                fileTransaction.commit();
+            } catch (IOException e) {
+                FileTransaction.recover(dir);
+                throw e;
+            }
+            return null;
+        });
+    }
+
+    /**
+     * 新增学生
+     * @param studentId 学号
+     * @param name 姓名
+     * @param groupName 小组名称
+     * @return 新增是否成功，学号已存在时返回false
+     */
+    public boolean addStudent(String studentId, String name, String groupName) throws IOException {
+        return locked(() -> {
+            if (replayer.getStudent(studentId) != null) {
+                return false;
+            }
+            requireGroup(groupName);
+            commit(false, JournalRecord.addStudent(studentId, name, groupName, null));
+            return true;
+        });
+    }
+
+    /**
+     * 批量新增学生，不存在的小组自动创建，全部记录作为一个记录组写入日志并刷盘
+     * 学号与现有学生（包括其他电脑刚添加的学生）或前面的行重复时跳过该行
+     * 不逐条通知变化，写入后只通知一次班级重新加载
+     * @param rows 每行依次为学号、姓名、小组名称、照片路径（可以为null）
+     * @return 每行是否已新增，与 rows 下标对应
+     */
+    public boolean[] addStudents(List<String[]> rows) throws IOException {
+        return locked(() -> {
+            boolean[] added = new boolean[rows.size()];
+            refreshLocked();
+            List<JournalRecord> records = new ArrayList<>(rows.size() + 16);
+            Set<String> studentIds = new HashSet<>();
+            Set<String> newGroups = new HashSet<>();
+            for (int i = 0; i < rows.size(); i++) {
+                String[] row = rows.get(i);
+                if (replayer.getStudent(row[0]) != null || !studentIds.add(row[0])) {
+                    continue;
+                }
+                if (replayer.getGroup(row[2]) == null && newGroups.add(row[2])) {
+                    records.add(JournalRecord.addGroup(row[2]));
+                }
+                records.add(JournalRecord.addStudent(row[0], row[1], row[2], row[3]));
+                added[i] = true;
+            }
+            if (records.isEmpty()) {
+                return added;
+            }
+            journalDao.append(records);
+            journalDao.sync();
+            loading = true;
+            try {
+                for (JournalRecord record : records) {
+                    apply(record);
+                }
+            } finally {
+                loading = false;
+            }
+            pendingEvents.add(ClassListener::classReloaded);
+            compactQuietly();
+            return added;
+        });
+    }
+
+    /**
+     * 修改学生信息
+     * @param oldId 原学号
+     * @param studentId 新学号
+     * @param name 新姓名
+     * @param groupName 新小组名称
+     * @return 修改是否成功，新学号已被其他学生使用时返回false
+     */
+    public boolean updateStudent(String oldId, String studentId, String name, String groupName)
+            throws IOException {
+        return locked(() -> {
+            if (replayer.getStudent(oldId) == null) {
+                throw new IOException("学生不存在：" + oldId);
+            }
+            if (!oldId.equals(studentId) && replayer.getStudent(studentId) != null) {
+                return false;
+            }
+            requireGroup(groupName);
+            // 学号变化前的状态记录仍按原学号计分
+            commit(!oldId.equals(studentId), JournalRecord.updateStudent(oldId, studentId, name, groupName));
+            return true;
+        });
+    }
+
+    /**
+     * 删除学生
+     * @param studentId 学号
+     */
+    public void deleteStudent(String studentId) throws IOException {
+        locked(() -> {
+            if (replayer.getStudent(studentId) != null) {
+                commit(true, JournalRecord.deleteStudent(studentId));
+            }
+            return null;
+        });
+    }
+
+    /**
+     * 记录学生状态（缺勤、请假、答题）
+     * @param student 学生
+     * @param type 状态类型
+     * @return 状态记录
+     */
+    public StatusRecord recordStatus(Student student, StatusType type) throws IOException {
+        return locked(() -> {
+            refreshLocked();
+            if (replayer.getStudent(student.getStudentId()) != student) {
+                throw new IOException("学生不存在：" + student.getStudentId());
+            }
+            StatusRecord record = statusLogDao.append(student.getStudentId(), type);
+            ScoreEngine.apply(student, type);
+            indexStudentChanged(student);
+            replayer.setStatusSeq(statusLogDao.getNextSeq());
+            fireStudentChanged(student.getStudentId(), student);
+            if (student.getGroup() != null) {
+                Group group = student.getGroup();
+                fire(listener -> listener.groupChanged(group));
+            }
+            compactQuietly();
+            return record;
+        });
+    }
+
+    /**
+     * 在当前班级的文件锁和仓库锁内执行操作，结束后通知记录下来的变化
+     * 总是先在仓库锁外获得文件锁再进入仓库锁：后台刷新持有文件锁读取文件时不占用仓库锁，
+     * 两种顺序混用会互相等待。获得文件锁期间已切换到其他班级时抛出 IOException
+     * @param action 修改或查询
+     * @return action 的返回值
+     */
+    private <T> T locked(LockedAction<T> action) throws IOException {
+        ClassLock lock;
+        synchronized (this) {
+            checkLoaded();
+            lock = classLock;
+        }
+        lock.lock();
+        try {
+            synchronized (this) {
+                if (classLock != lock) {
+                    throw new IOException("班级已切换");
+                }
+                try {
+                    return action.run();
+                } finally {
+                    dispatchEvents();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 在文件锁和仓库锁内执行的操作
+     */
+    private interface LockedAction<T> {
+        T run() throws IOException;
+    }
+
+    /**
+     * 提交一次修改：读取其他程序的修改后追加日志记录，成功后再更新内存数据，需要在 locked 内调用
+     * @param statusMark 是否在修改前记录状态日志位置（学号变化或删除学生时需要）
+     * @param record 日志记录
+     */
+    private void commit(boolean statusMark, JournalRecord record) throws IOException {
+        refreshLocked();
+        if (statusMark) {
+            journalDao.append(Arrays.asList(JournalRecord.statusMark(statusLogDao.getNextSeq()), record));
+        } else {
+            journalDao.append(record);
+        }
+        apply(record);
+        compactQuietly();
+    }
+
+    /**
+     * 提交小组分数修改并追加分数历史，需要在 locked 内调用
+     * 加减分在获得文件锁、读取其他程序的修改之后才计算新分数，不会覆盖其他电脑同时加的分
+     * 分数历史不属于日志的记录组：先写入日志再追加分数历史，两步之间程序退出或历史写入失败时，
+     * 分数以日志为准，分数历史缺少这一次变化；不会出现历史中有而分数中没有的变化。
+     * 分数历史只用于查询，加载班级时不用它恢复分数，也不补写缺少的记录
+     * @param groupName 小组名称
+     * @param relative 为true时 value 是加减的分数，否则是新的分数
+     * @param value 分数
+     * @param reason 原因
+     */
+    private void commitGroupScore(String groupName, boolean relative, double value, String reason)
+            throws IOException {
+        refreshLocked();
+        Group group = requireGroup(groupName);
+        double score = relative ? group.getScore() + value : value;
+        double delta = score - group.getScore();
+        JournalRecord record = JournalRecord.setGroupScore(groupName, score);
+        journalDao.append(record);
+        apply(record);
+        if (delta != 0) {
+            appendScoreChange(new ScoreChange(groupName, delta, score, reason, 0));
+        }
+        compactQuietly();
+    }
+
+    /**
+     * 分数修改写入日志后追加分数历史，记录时间在追加时确定，需要在文件锁保护下调用
+     */
+    private void appendScoreChange(ScoreChange change) {
+        try {
+            scoreHistoryDao.catchUp();
+            scoreHistoryDao.append(change.getGroupName(), change.getDelta(), change.getScore(), change.getReason());
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * 把一条日志记录应用到内存数据，修改提交和加载时重放日志共用
+     * 与当前数据冲突的记录（如小组已不存在）直接忽略
+     * @param record 日志记录
+     */
+    private void apply(JournalRecord record) {
+        replayer.apply(record, changes);
+    }
+
+    private void fireStudentChanged(String oldId, Student student) {
+        fire(listener -> listener.studentChanged(oldId, student));
+    }
+
+    /**
+     * 记录一条变化，修改完成后由 dispatchEvents 统一通知
+     */
+    private void fire(Consumer<ClassListener> event) {
+        if (!loading) {
+            pendingEvents.add(event);
+        }
+    }
+
+    /**
+     * 在界面线程中按顺序通知记录下来的变化
+     */
+    private void dispatchEvents() {
+        if (pendingEvents.isEmpty()) {
+            return;
+        }
+        List<Consumer<ClassListener>> events = new ArrayList<>(pendingEvents);
+        pendingEvents.clear();
+        SwingUtilities.invokeLater(() -> {
+            for (Consumer<ClassListener> event : events) {
+                for (ClassListener listener : listeners) {
+                    event.accept(listener);
+                }
+            }
+        });
+    }
+
+    /**
+     * 修改已经写入日志后合并快照，合并失败不影响本次修改，下次修改时重试
+     */
+    private void compactQuietly() {
+        try {
+            compactIfNeeded();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * 日志记录数或未计入快照的状态记录数达到阈值时，在一个多文件事务中写入新的快照并清空日志
+     * 需要在文件锁保护下调用
+     */
+    private void compactIfNeeded() throws IOException {
+        if (journalDao.getRecordCount() < COMPACT_THRESHOLD
+                && replayer.getStatusSeq() - snapshotDao.getStatusSeq() < STATUS_COMPACT_THRESHOLD) {
+            return;
+        }
+        long lastLsn = journalDao.getLastLsn();
+        FileTransaction fileTransaction = new FileTransaction(new File(Constant.FILE_PATH + current.getClassName()));
+        snapshotDao.write(fileTransaction, current, lastLsn, replayer.getStatusSeq());
+        journalDao.stageReset(fileTransaction);
+        try {
+            fileTransaction.commit();
+        } catch (IOException e) {
+            FileTransaction.recover(new File(Constant.FILE_PATH + current.getClassName()));
+            throw e;
+        } finally {
+            // 无论事务是否提交，日志中的记录都已包含在内存数据中，不需要重放
+            journalDao.open(lastLsn);
+        }
+    }
+
+    private void closeJournal() {
+        if (journalDao != null) {
+            try {
+                journalDao.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        if (statusLogDao != null) {
+            try {
+                statusLogDao.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        if (scoreHistoryDao != null) {
+            try {
+                scoreHistoryDao.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void closeWatcher() {
+        if (watcher != null) {
+            try {
+                watcher.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            watcher = null;
+        }
+    }
+
+    private void closeLock() {
+        if (classLock != null) {
+            try {
+                classLock.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            classLock = null;
+        }
+    }
+
+    private Group requireGroup(String groupName) throws IOException {
+        Group group = replayer.getGroup(groupName);
+        if (group == null) {
+            throw new IOException("小组不存在：" + groupName);
+        }
+        return group;
+    }
+
+    private void checkLoaded() {
+        if (current == null) {
+            throw new IllegalStateException("尚未选择班级");
+        }
+    }
+
+    /**
+     * 把重放日志产生的变化同步到当前班级的索引，并记录变化通知（加载中不通知）
+     */
+    private class IndexUpdater implements ClassReplayer.ChangeHandler {
+        @Override
+        public void groupAdded(Group group) {
+            Constant.groups.put(group, group.getStudents());
+            indexGroupAdded(group);
+            fire(listener -> listener.groupAdded(group));
+        }
+
+        @Override
+        public void groupRemoved(Group group) {
+            indexGroupRemoved(group);
+            Constant.groups.remove(group);
+            fire(listener -> listener.groupRemoved(group.getGroupName()));
+        }
+
+        @Override
+        public void groupChanged(Group group) {
+            if (leaderboards != null) {
+                leaderboards.groupChanged(group);
+            }
+            fire(listener -> listener.groupChanged(group));
+        }
+
+        @Override
+        public void studentAdded(Student student) {
+            if (searchIndex != null) {
+                searchIndex.add(student);
+            }
+            indexStudentChanged(student);
+            fire(listener -> listener.studentAdded(student));
+        }
+
+        @Override
+        public void studentChanged(String oldId, Student student) {
+            if (searchIndex != null) {
+                searchIndex.update(student);
+            }
+            indexStudentChanged(student);
+            fireStudentChanged(oldId, student);
+        }
+
+        @Override
+        public void studentRemoved(Student student) {
+            if (searchIndex != null) {
+                searchIndex.remove(student);
+            }
+            indexStudentRemoved(student);
+            fire(listener -> listener.studentRemoved(student.getStudentId()));
+            PhotoCache.getInstance().studentRemoved(current.getClassName(), getPhotoPath(student));
+        }
+
+        @Override
+        public void studentScored(Student student) {
+            indexStudentChanged(student);
+            fireStudentChanged(student.getStudentId(), student);
+        }
+    }
+
+    /**
+     * 在仓库锁外读取完成、等待切换的班级
+     */
+    private static class LoadedClass {
+        private final String className;                  // 班级名称
+        private final SnapshotDao snapshotDao;           // 快照文件读写
+        private final JournalDao journalDao;             // 修改日志读写
+        private final StatusLogDao statusLogDao;         // 状态日志读写
+        private final ScoreHistoryDao scoreHistoryDao;   // 小组分数历史读写
+        private final ClassReplayer replayer;            // 已重放日志的班级
+        private SelectionState selection;                // 随机点名的抽取记录
+        private final List<String> photoPaths = new ArrayList<>();   // 全部学生的照片路径，切换后清理缩略图目录
+
+        LoadedClass(String className, SnapshotDao snapshotDao, ClassReplayer replayer) {
+            this.className = className;
+            this.snapshotDao = snapshotDao;
+            this.journalDao = new JournalDao(className);
+            this.statusLogDao = new StatusLogDao(className);
+            this.scoreHistoryDao = new ScoreHistoryDao(className);
+            this.replayer = replayer;
+        }
+
+        /**
+         * 读取失败或取消时关闭已打开的日志文件
+         */
+        void close() {
+            for (Closeable dao : new Closeable[]{journalDao, statusLogDao, scoreHistoryDao}) {
+                try {
+                    dao.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.student.service;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+
+/**
+ * 班级目录监视
+ * 用 WatchService 监视班级目录和状态日志目录，文件有变化时让班级数据仓库读取新追加的记录
+ * 连续的多个变化合并成一次读取，本程序自己的写入也会触发，此时读取不到新记录，开销很小
+ */
+class ClassWatcher implements Closeable {
+    private static final long DEBOUNCE = 100;   // 合并连续变化的等待时间（毫秒）
+
+    private final WatchService watchService;
+    private final Thread thread;
+    private final Runnable onChange;            // 文件变化后的处理
+    private volatile boolean closed;
+
+    /**
+     * @param dirs 监视的目录
+     * @param onChange 文件变化后的处理，在监视线程中调用
+     */
+    ClassWatcher(File[] dirs, Runnable onChange) throws IOException {
+        this.onChange = onChange;
+        this.watchService = FileSystems.getDefault().newWatchService();
+        try {
+            for (File dir : dirs) {
+                dir.toPath().register(watchService,
+                        StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            }
+        } catch (IOException e) {
+            watchService.close();
+            throw e;
+        }
+        this.thread = new Thread(this::run, "class-watcher");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    private void run() {
+        try {
+            while (!closed) {
+                drain(watchService.take());
+                // 等待一小段时间，把这期间的变化合并成一次读取
+                Thread.sleep(DEBOUNCE);
+                WatchKey key;
+                while ((key = watchService.poll()) != null) {
+                    drain(key);
+                }
+                if (!closed) {
+                    try {
+                        onChange.run();
+                    } catch (RuntimeException e) {
+                        // 一次处理失败不能停止监视
+                        e.printStackTrace();
+                    }
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // 监视已关闭
+        }
+    }
+
+    private static void drain(WatchKey key) {
+        key.pollEvents();
+        key.reset();
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        watchService.close();
+        thread.interrupt();
+    }
+}
@@ -0,0 +1,58 @@
+package com.student.service;
+
+import com.student.entity.Group;
+import com.student.entity.Student;
+
+import java.util.List;
+
+/**
+ * 小组成员名册
+ * 某一时刻全部小组及其成员的只读副本，用数组按下标访问，随机点名时不需要查找和复制；
+ * 班级修改后名册不会变化，需要重新调用 ClassRepository.getRoster 获取
+ */
+public class GroupRoster {
+    private static final Student[] NO_STUDENTS = new Student[0];
+
+    private final Group[] groups;        // 全部小组
+    private final Student[][] members;   // 与 groups 下标对应的小组成员
+
+    GroupRoster(List<Group> groupList) {
+        groups = groupList.toArray(new Group[0]);
+        members = new Student[groups.length][];
+        for (int i = 0; i < groups.length; i++) {
+            List<Student> students = groups[i].getStudents();
+            members[i] = students.isEmpty() ? NO_STUDENTS : students.toArray(NO_STUDENTS);
+        }
+    }
+
+    public int getGroupCount() {
+        return groups.length;
+    }
+
+    public Group getGroup(int index) {
+        return groups[index];
+    }
+
+    /**
+     * 获取小组成员，返回的数组由名册共享，调用者不能修改
+     * @param index 小组下标
+     * @return 小组成员
+     */
+    public Student[] getMembers(int index) {
+        return members[index];
+    }
+
+    /**
+     * 查找小组下标
+     * @param groupName 小组名称
+     * @return 小组下标，不存在时返回-1
+     */
+    public int indexOf(String groupName) {
+        for (int i = 0; i < groups.length; i++) {
+            if (groups[i].getGroupName().equals(groupName)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
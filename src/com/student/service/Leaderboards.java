@@ -0,0 +1,105 @@
+package com.student.service;
+
+import com.student.entity.Group;
+import com.student.entity.SchoolClass;
+import com.student.entity.Student;
+import com.student.util.RankTree;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * 班级排行榜
+ * 全班学生按得分、每个小组的成员按得分、全部小组按总分各保存在一棵排名树中，
+ * ClassRepository 修改学生或小组后逐个通知，每次通知只做常数次 O(log n) 的树操作
+ */
+class Leaderboards {
+    private final RankTree<Student> students = new RankTree<>();                 // 全班学生排名
+    private final RankTree<Group> groups = new RankTree<>();                     // 小组总分排名
+    private final Map<Group, RankTree<Student>> members = new IdentityHashMap<>(); // 小组内学生排名
+    private final Map<Student, Group> placed = new IdentityHashMap<>();          // 学生当前所在的小组内排名
+
+    Leaderboards(SchoolClass schoolClass) {
+        for (Group group : schoolClass.getGroups()) {
+            groupAdded(group);
+        }
+        for (Student student : schoolClass.getStudents()) {
+            studentChanged(student);
+        }
+    }
+
+    RankTree<Student> getStudents() {
+        return students;
+    }
+
+    RankTree<Group> getGroups() {
+        return groups;
+    }
+
+    /**
+     * @return 小组内学生排名，小组不存在时返回null
+     */
+    RankTree<Student> getMembers(Group group) {
+        return members.get(group);
+    }
+
+    /**
+     * 新增学生，或学生的得分、小组变化后调用，同时更新原小组和新小组的总分排名
+     */
+    void studentChanged(Student student) {
+        students.update(student, student.getScore());
+        Group oldGroup = placed.get(student);
+        Group newGroup = student.getGroup();
+        if (oldGroup != newGroup) {
+            if (oldGroup != null) {
+                members.get(oldGroup).remove(student);
+                groupChanged(oldGroup);
+            }
+            if (newGroup == null || !members.containsKey(newGroup)) {
+                placed.remove(student);
+                return;
+            }
+            placed.put(student, newGroup);
+        }
+        if (newGroup != null) {
+            members.get(newGroup).update(student, student.getScore());
+            groupChanged(newGroup);
+        }
+    }
+
+    void studentRemoved(Student student) {
+        students.remove(student);
+        Group group = placed.remove(student);
+        if (group != null) {
+            members.get(group).remove(student);
+            groupChanged(group);
+        }
+    }
+
+    void groupAdded(Group group) {
+        members.put(group, new RankTree<>());
+        groups.update(group, group.getTotalScore());
+    }
+
+    /**
+     * 小组分数或组内学生得分合计变化后调用，已删除的小组忽略
+     */
+    void groupChanged(Group group) {
+        if (groups.contains(group)) {
+            groups.update(group, group.getTotalScore());
+        }
+    }
+
+    /**
+     * 删除小组，组内学生应已移出小组
+     */
+    void groupRemoved(Group group) {
+        groups.remove(group);
+        RankTree<Student> tree = members.remove(group);
+        if (tree != null && tree.size() > 0) {
+            for (Student student : tree.top(tree.size())) {
+                placed.remove(student);
+            }
+        }
+    }
+}
@@ -0,0 +1,361 @@
+package com.student.service;
+
+import com.student.dao.ThumbnailDao;
+import com.student.util.Constant;
+import com.student.util.Metrics;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+/**
+ * 学生照片缩略图缓存
+ * 照片在后台线程解码：读取时按缩略图尺寸隔行隔列采样，只解码需要的像素，再缩放成 SIZE×SIZE 的缩略图；
+ * 缩略图同时保存到 班级目录/thumbnails/，之后再显示同一张照片时不需要再解码原图
+ * 内存中按照片路径、最近使用顺序保存缩略图，占用字节数超过 Constant.PHOTO_CACHE_MB 时淘汰最久未使用的缩略图；
+ * 界面线程和缓存锁内都不访问文件：缩略图记录解码时照片的修改时间和大小，load 命中缓存时
+ * 每 RECHECK_MILLIS 最多一次在后台线程核对，照片已被替换时重新解码并再次回调
+ * 后台线程优先处理最新的请求，随机点名滚动时显示的总是最后请求的照片；
+ * 随机点名开始时用 prefetch 预读候选学生的照片，滚动停止时照片通常已在缓存中
+ */
+public class PhotoCache {
+    public static final int SIZE = 200;   // 缩略图边长
+    private static final long THUMBNAIL_BYTES = 4L * SIZE * SIZE;   // 一张缩略图占用的字节数
+    private static final int THREADS = 2;
+    private static final long RECHECK_MILLIS = 5000;   // 同一张照片两次核对修改时间的最小间隔
+    private static final PhotoCache INSTANCE = new PhotoCache(Constant.PHOTO_CACHE_MB * 1024L * 1024L);
+
+    private final long capacity;   // 缓存容量（字节）
+    private long size;             // 已缓存的缩略图字节数
+    private final LinkedHashMap<String, Thumbnail> cache = new LinkedHashMap<>(64, 0.75f, true); // 照片路径到缩略图，按访问顺序
+    private final Map<String, Request> pending = new HashMap<>();  // 照片路径到等待解码的照片
+    private final ExecutorService executor;
+
+    PhotoCache(long capacity) {
+        this.capacity = capacity;
+        this.executor = new ThreadPoolExecutor(THREADS, THREADS, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingDeque<Runnable>() {
+                    @Override
+                    public boolean offer(Runnable runnable) {
+                        // 新请求放在队首
+                        return offerFirst(runnable);
+                    }
+                }, runnable -> {
+                    Thread thread = new Thread(runnable, "photo-loader");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    public static PhotoCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 缩略图
+     */
+    public static final class Thumbnail {
+        private final ImageIcon icon;   // 缩略图，照片不存在或无法读取时为null
+        private final String message;   // 没有缩略图时显示的文字
+        private final long bytes;       // 占用的内存字节数
+        private final long lastModified;   // 解码时照片的修改时间，照片不存在时为0
+        private final long length;         // 解码时照片的大小，照片不存在时为0
+        private long checkedAt;            // 上次核对照片的时间，在缓存锁内读写
+
+        private Thumbnail(ImageIcon icon, String message, long bytes, long lastModified, long length) {
+            this.icon = icon;
+            this.message = message;
+            this.bytes = bytes;
+            this.lastModified = lastModified;
+            this.length = length;
+            this.checkedAt = System.currentTimeMillis();
+        }
+
+        /**
+         * 照片在解码之后是否被替换或删除，读取文件属性，只在后台线程调用
+         */
+        private boolean isStale(File photo) {
+            return photo.lastModified() != lastModified || photo.length() != length;
+        }
+
+        public ImageIcon getIcon() {
+            return icon;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    /**
+     * 解码请求
+     */
+    private static final class Request {
+        private final List<Consumer<Thumbnail>> callbacks = new ArrayList<>(1);   // 等待的回调
+        private boolean started;   // 是否已开始解码
+    }
+
+    /**
+     * 读取已缓存的缩略图，不读取文件，可以在界面线程调用
+     * @param path 照片路径
+     * @return 缩略图，尚未缓存时返回null
+     */
+    public synchronized Thumbnail getIfPresent(String path) {
+        return cache.get(path);
+    }
+
+    /**
+     * 读取缩略图，已缓存时直接回调，否则在后台线程解码后在界面线程回调
+     * 同一张照片正在解码时不会重复解码；已缓存的照片到了核对时间时在后台核对，
+     * 照片已被替换时重新解码，完成后在界面线程再回调一次
+     * @param path 照片路径
+     * @param callback 回调
+     */
+    public void load(String path, Consumer<Thumbnail> callback) {
+        Thumbnail thumbnail;
+        synchronized (this) {
+            thumbnail = cache.get(path);
+            if (thumbnail == null) {
+                request(path).callbacks.add(callback);
+                return;
+            }
+            long now = System.currentTimeMillis();
+            if (now - thumbnail.checkedAt >= RECHECK_MILLIS) {
+                thumbnail.checkedAt = now;
+                Thumbnail checked = thumbnail;
+                executor.execute(() -> recheck(path, checked, callback));
+            }
+        }
+        callback.accept(thumbnail);
+    }
+
+    /**
+     * 在后台线程核对已缓存的缩略图，照片已被替换或删除时丢弃缩略图并重新解码
+     */
+    private void recheck(String path, Thumbnail thumbnail, Consumer<Thumbnail> callback) {
+        if (!thumbnail.isStale(new File(path))) {
+            return;
+        }
+        synchronized (this) {
+            if (cache.get(path) == thumbnail) {
+                remove(path);
+            }
+            Thumbnail reloaded = cache.get(path);
+            if (reloaded == null) {
+                request(path).callbacks.add(callback);
+                return;
+            }
+            SwingUtilities.invokeLater(() -> callback.accept(reloaded));
+        }
+    }
+
+    /**
+     * 在后台解码尚未缓存的照片，不回调
+     * 已在等待的照片重新排到队首
+     * @param path 照片路径
+     */
+    public synchronized void prefetch(String path) {
+        if (!cache.containsKey(path)) {
+            request(path);
+        }
+    }
+
+    /**
+     * 预读一批照片，列表后面的照片先解码
+     * 最多预读缓存容量一半的照片，其余空间留给滚动中即将显示的照片，避免预读的照片互相淘汰
+     * @param paths 照片路径
+     */
+    public synchronized void prefetch(List<String> paths) {
+        int limit = (int) (capacity / THUMBNAIL_BYTES / 2);
+        for (int i = Math.max(0, paths.size() - limit); i < paths.size(); i++) {
+            prefetch(paths.get(i));
+        }
+    }
+
+    /**
+     * 登记一张照片的解码请求，并把解码任务放到队首
+     * 任务已在队列中时再放入一次，先执行的任务解码，后执行的任务直接返回
+     */
+    private Request request(String path) {
+        Request request = pending.get(path);
+        if (request == null) {
+            request = new Request();
+            pending.put(path, request);
+        } else if (request.started) {
+            return request;
+        }
+        Request submitted = request;
+        String className = Constant.CLASS_PATH;
+        executor.execute(() -> decode(path, className, submitted));
+        return request;
+    }
+
+    private void decode(String path, String className, Request request) {
+        synchronized (this) {
+            if (request.started) {
+                return;
+            }
+            request.started = true;
+        }
+        Thumbnail loaded = decode(path, className);
+        List<Consumer<Thumbnail>> callbacks;
+        synchronized (this) {
+            put(path, loaded);
+            pending.remove(path);
+            callbacks = request.callbacks;
+        }
+        if (!callbacks.isEmpty()) {
+            SwingUtilities.invokeLater(() -> {
+                for (Consumer<Thumbnail> callback : callbacks) {
+                    callback.accept(loaded);
+                }
+            });
+        }
+    }
+
+    private void put(String path, Thumbnail thumbnail) {
+        Thumbnail old = cache.put(path, thumbnail);
+        if (old != null) {
+            size -= old.bytes;
+        }
+        size += thumbnail.bytes;
+        Iterator<Map.Entry<String, Thumbnail>> eldest = cache.entrySet().iterator();
+        while (size > capacity && cache.size() > 1) {
+            Map.Entry<String, Thumbnail> entry = eldest.next();
+            size -= entry.getValue().bytes;
+            eldest.remove();
+        }
+    }
+
+    private void remove(String path) {
+        Thumbnail old = cache.remove(path);
+        if (old != null) {
+            size -= old.bytes;
+        }
+    }
+
+    /**
+     * 学生被删除后调用：丢弃内存中的缩略图，并在后台删除这张照片的缩略图文件
+     * 其他学生使用同一张照片时下次显示重新生成缩略图
+     * @param className 班级名称
+     * @param path 被删除学生的照片路径
+     */
+    public void studentRemoved(String className, String path) {
+        synchronized (this) {
+            remove(path);
+        }
+        if (!Constant.PHOTO_THUMBNAILS || className.isEmpty()) {
+            return;
+        }
+        executor.execute(() -> new ThumbnailDao(className).delete(new File(path)));
+    }
+
+    /**
+     * 加载班级后调用：在后台删除班级中已没有学生使用的缩略图文件，包括照片被替换后留下的旧缩略图
+     * @param className 班级名称
+     * @param paths 班级全部学生的照片路径
+     */
+    public void retain(String className, Collection<String> paths) {
+        if (!Constant.PHOTO_THUMBNAILS || className.isEmpty()) {
+            return;
+        }
+        List<File> photos = new ArrayList<>(paths.size());
+        for (String path : paths) {
+            photos.add(new File(path));
+        }
+        executor.execute(() -> new ThumbnailDao(className).retain(photos));
+    }
+
+    /**
+     * 生成缩略图，优先读取已保存的缩略图文件，耗时计入 Metrics.PHOTO_DECODE
+     */
+    static Thumbnail decode(String path, String className) {
+        long start = System.nanoTime();
+        try {
+            return decodeThumbnail(path, className);
+        } finally {
+            Metrics.PHOTO_DECODE.recordSince(start);
+        }
+    }
+
+    private static Thumbnail decodeThumbnail(String path, String className) {
+        File photo = new File(path);
+        // 先记录修改时间和大小，解码期间照片被替换时下次核对会发现
+        long lastModified = photo.lastModified();
+        long length = photo.length();
+        if (!photo.isFile()) {
+            return new Thumbnail(null, "无照片", 64, lastModified, length);
+        }
+        ThumbnailDao thumbnailDao = Constant.PHOTO_THUMBNAILS && !className.isEmpty()
+                ? new ThumbnailDao(className) : null;
+        BufferedImage image = thumbnailDao == null ? null : thumbnailDao.read(photo);
+        if (image == null) {
+            try {
+                Metrics.PHOTO_IO.read(length);
+                image = scale(readSubsampled(photo));
+            } catch (IOException | RuntimeException e) {
+                e.printStackTrace();
+                return new Thumbnail(null, "无法加载照片", 64, lastModified, length);
+            }
+            if (thumbnailDao != null) {
+                try {
+                    thumbnailDao.write(photo, image);
+                } catch (IOException e) {
+                    // 保存失败只影响下次的速度
+                    e.printStackTrace();
+                }
+            }
+        }
+        return new Thumbnail(new ImageIcon(image), null, 4L * image.getWidth() * image.getHeight(),
+                lastModified, length);
+    }
+
+    /**
+     * 隔行隔列读取照片，读出的图片宽高都不小于缩略图边长
+     */
+    private static BufferedImage readSubsampled(File photo) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(photo)) {
+            if (in == null) {
+                throw new IOException("无法读取照片：" + photo);
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                throw new IOException("不支持的照片格式：" + photo);
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int step = Math.max(1, Math.min(reader.getWidth(0), reader.getHeight(0)) / SIZE);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static BufferedImage scale(BufferedImage image) {
+        int type = image.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage scaled = new BufferedImage(SIZE, SIZE, type);
+        Graphics2D g = scaled.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(image, 0, 0, SIZE, SIZE, null);
+        } finally {
+            g.dispose();
+        }
+        return scaled;
+    }
+}
@@ -0,0 +1,48 @@
+package com.student.service;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+
+/**
+ * 随机点名的滚动序列
+ * 由 SelectionEngine 的抽样器预先抽好接下来 lookahead 个候选，每抽出一个新候选就通知 onQueued，
+ * 面板用它预读候选学生的照片，候选滚动到屏幕上时照片已经解码完成
+ * @param <T> 候选类型
+ */
+public class RollSequence<T> {
+    private final List<T> pool;              // 候选列表
+    private final IntSupplier sampler;       // 抽样器，返回候选下标
+    private final Consumer<T> onQueued;      // 新候选加入序列时的通知
+    private final int[] queue;               // 已抽好的候选下标，循环使用
+    private int head;                        // 下一个候选在 queue 中的位置
+
+    /**
+     * @param pool 候选列表，不能为空
+     * @param sampler 抽样器，返回候选下标
+     * @param lookahead 预先抽好的候选数
+     * @param onQueued 新候选加入序列时的通知
+     */
+    public RollSequence(List<T> pool, IntSupplier sampler, int lookahead, Consumer<T> onQueued) {
+        this.pool = pool;
+        this.sampler = sampler;
+        this.onQueued = onQueued;
+        this.queue = new int[Math.max(1, lookahead)];
+        for (int i = 0; i < queue.length; i++) {
+            queue[i] = sampler.getAsInt();
+            onQueued.accept(pool.get(queue[i]));
+        }
+    }
+
+    /**
+     * 取出下一个候选，并在序列末尾补抽一个
+     * @return 候选
+     */
+    public T next() {
+        T candidate = pool.get(queue[head]);
+        queue[head] = sampler.getAsInt();
+        onQueued.accept(pool.get(queue[head]));
+        head = (head + 1) % queue.length;
+        return candidate;
+    }
+}
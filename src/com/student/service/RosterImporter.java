@@ -0,0 +1,221 @@
+package com.student.service;
+
+import com.student.dao.CsvSheetReader;
+import com.student.dao.SheetReader;
+import com.student.dao.XlsxSheetReader;
+import com.student.entity.Group;
+import com.student.entity.Student;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * 学生名单批量导入
+ * 逐行读取 CSV 或 XLSX 名单（学号、姓名、小组，可选照片路径），在内存中用学号集合检查重复，
+ * 全部行检查完后通过 ClassRepository.addStudents 一次写入，不存在的小组自动创建
+ * 第一行是表头时按表头的列名找到各列（列名见 COLUMN_NAMES），否则按学号、姓名、小组、照片路径的顺序读取
+ */
+public class RosterImporter {
+    /**
+     * 导入进度
+     */
+    public interface Listener {
+        /**
+         * @param rows 已读取的行数
+         * @param percent 估计的完成百分比
+         */
+        void progress(int rows, int percent);
+
+        /**
+         * @return 是否取消导入
+         */
+        boolean isCancelled();
+    }
+
+    /**
+     * 导入结果
+     */
+    public static class Result {
+        private int imported;                              // 新增的学生数
+        private int groupsCreated;                         // 新建的小组数
+        private int errorCount;                            // 出错的行数
+        private final List<String> errors = new ArrayList<>();   // 错误说明，最多保留 MAX_ERRORS 条
+
+        public int getImported() {
+            return imported;
+        }
+
+        public int getGroupsCreated() {
+            return groupsCreated;
+        }
+
+        public int getErrorCount() {
+            return errorCount;
+        }
+
+        public List<String> getErrors() {
+            return errors;
+        }
+
+        private void error(int line, String message) {
+            errorCount++;
+            if (errors.size() < MAX_ERRORS) {
+                errors.add("第 " + line + " 行：" + message);
+            }
+        }
+    }
+
+    private static final int MAX_ERRORS = 1000;          // 最多保留的错误说明条数
+    private static final int PROGRESS_INTERVAL = 1024;   // 每读取多少行报告一次进度
+    private static final int READ_PERCENT = 90;          // 读取文件占总进度的百分比，其余为写入
+    // 学号、姓名、小组、照片路径各列可以使用的表头名称
+    private static final String[][] COLUMN_NAMES = {
+            {"学号", "id", "studentid"},
+            {"姓名", "name"},
+            {"小组", "小组名称", "group"},
+            {"照片", "照片路径", "photo"}};
+
+    private final ClassRepository repository;
+
+    public RosterImporter(ClassRepository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * 导入名单，出错的行跳过并记录在结果中，其余的行一次写入
+     * @param file 名单文件，扩展名为 .xlsx 时按 Excel 工作簿读取，否则按 CSV 读取
+     * @param listener 进度
+     * @return 导入结果，取消时返回null，不写入任何学生
+     */
+    public Result importFile(File file, Listener listener) throws IOException {
+        Result result = new Result();
+        List<String[]> rows = new ArrayList<>();
+        List<Integer> lines = new ArrayList<>();
+        Set<String> studentIds = new HashSet<>();
+        for (Student student : repository.getStudents()) {
+            studentIds.add(student.getStudentId());
+        }
+        Set<String> groups = new HashSet<>();
+        for (Group group : repository.getGroups()) {
+            groups.add(group.getGroupName());
+        }
+        Set<String> newGroups = new HashSet<>();
+
+        try (SheetReader reader = open(file)) {
+            int[] columns = {0, 1, 2, 3};
+            int line = 0;
+            String[] cells;
+            while ((cells = reader.readRow()) != null) {
+                line++;
+                if (line % PROGRESS_INTERVAL == 0) {
+                    long total = Math.max(1, reader.getTotalBytes());
+                    listener.progress(line, (int) Math.min(READ_PERCENT, reader.getBytesRead() * READ_PERCENT / total));
+                    if (listener.isCancelled()) {
+                        return null;
+                    }
+                }
+                if (isBlank(cells)) {
+                    continue;
+                }
+                if (line == 1 && isHeader(cells)) {
+                    columns = headerColumns(cells);
+                    continue;
+                }
+                String studentId = cell(cells, columns[0]);
+                String name = cell(cells, columns[1]);
+                String groupName = cell(cells, columns[2]);
+                String photo = cell(cells, columns[3]);
+                if (studentId.isEmpty()) {
+                    result.error(line, "学号为空");
+                } else if (name.isEmpty()) {
+                    result.error(line, "姓名为空（学号 " + studentId + "）");
+                } else if (groupName.isEmpty()) {
+                    result.error(line, "小组为空（学号 " + studentId + "）");
+                } else if (!studentIds.add(studentId)) {
+                    result.error(line, "学号 " + studentId + " 已存在");
+                } else {
+                    if (!groups.contains(groupName)) {
+                        newGroups.add(groupName);
+                    }
+                    rows.add(new String[]{studentId, name, groupName, photo.isEmpty() ? null : photo});
+                    lines.add(line);
+                }
+            }
+            listener.progress(line, READ_PERCENT);
+        }
+        if (listener.isCancelled()) {
+            return null;
+        }
+
+        boolean[] added = repository.addStudents(rows);
+        for (int i = 0; i < added.length; i++) {
+            if (added[i]) {
+                result.imported++;
+            } else {
+                result.error(lines.get(i), "学号 " + rows.get(i)[0] + " 已被其他电脑添加");
+            }
+        }
+        for (String groupName : newGroups) {
+            if (repository.getGroup(groupName) != null) {
+                result.groupsCreated++;
+            }
+        }
+        listener.progress(lines.size(), 100);
+        return result;
+    }
+
+    private static boolean isBlank(String[] cells) {
+        for (String cell : cells) {
+            if (!cell.trim().isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 同时有学号和姓名的表头名称时认为第一行是表头
+     */
+    private static boolean isHeader(String[] cells) {
+        int[] columns = headerColumns(cells);
+        return columns[0] >= 0 && columns[1] >= 0;
+    }
+
+    /**
+     * 按表头找到学号、姓名、小组、照片路径所在的列，没有的列为-1
+     */
+    private static int[] headerColumns(String[] headers) {
+        int[] columns = {-1, -1, -1, -1};
+        for (int i = 0; i < headers.length; i++) {
+            int column = columnOf(headers[i]);
+            if (column >= 0 && columns[column] < 0) {
+                columns[column] = i;
+            }
+        }
+        return columns;
+    }
+
+    private static int columnOf(String header) {
+        String name = header.trim().replace(" ", "").toLowerCase();
+        for (int column = 0; column < COLUMN_NAMES.length; column++) {
+            for (String candidate : COLUMN_NAMES[column]) {
+                if (candidate.equals(name)) {
+                    return column;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static String cell(String[] cells, int column) {
+        return column >= 0 && column < cells.length ? cells[column].trim() : "";
+    }
+
+    private static SheetReader open(File file) throws IOException {
+        if (file.getName().toLowerCase().endsWith(".xlsx")) {
+            return new XlsxSheetReader(file);
+        }
+        return new CsvSheetReader(file);
+    }
+}
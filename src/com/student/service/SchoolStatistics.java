@@ -0,0 +1,299 @@
+package com.student.service;
+
+import com.student.dao.JournalDao;
+import com.student.dao.SnapshotDao;
+import com.student.dao.StatusLogDao;
+import com.student.entity.ClassSummary;
+import com.student.entity.SchoolClass;
+import com.student.entity.StatusType;
+import com.student.util.Constant;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * 全校统计
+ * 对 Constant.FILE_PATH 下的每个班级目录统计学生数、平均分、分位数、考勤次数和全校排行榜，
+ * 班级列表按二分拆成 ForkJoin 任务，每个叶子任务用 ClassReader 只读读取一个班级，复制成 ScoreColumns 后汇总，
+ * 再逐层合并两半的结果；网络存储上各班级的读取延迟可以重叠
+ * 每个班级的汇总按目录和其中数据文件的修改时间、长度缓存，文件没有变化的班级不再读取
+ */
+public class SchoolStatistics {
+    private static final SchoolStatistics INSTANCE = new SchoolStatistics();
+    private static final int TOP = 10;   // 全校排行榜和每个班级保留的名次数
+
+    private final ForkJoinPool pool = new ForkJoinPool(Constant.IO_CONCURRENCY);   // 读取班级的线程池
+    private final Map<String, CachedSummary> cache = new ConcurrentHashMap<>();    // 班级名称到汇总
+
+    /**
+     * 全校统计结果
+     * 平均分、最高最低分和考勤次数由各班级的部分结果直接合并，分位数只按班级给出
+     */
+    public static class Result {
+        private final List<ClassSummary> classes = new ArrayList<>();           // 各班级汇总，按班级名称排列
+        private final List<String> failedClasses = new ArrayList<>();           // 读取失败的班级
+        private List<ClassSummary.TopStudent> topStudents = new ArrayList<>();  // 全校得分最高的学生
+        private int studentCount;          // 学生数
+        private double totalScore;         // 学生得分合计
+        private double minScore = Double.POSITIVE_INFINITY;   // 最低分
+        private double maxScore = Double.NEGATIVE_INFINITY;   // 最高分
+        private long absenceCount;         // 缺勤次数
+        private long leaveCount;           // 请假次数
+        private long answerCount;          // 答题次数
+        private int cachedCount;           // 直接使用缓存的班级数
+
+        public List<ClassSummary> getClasses() {
+            return classes;
+        }
+
+        public List<String> getFailedClasses() {
+            return failedClasses;
+        }
+
+        public List<ClassSummary.TopStudent> getTopStudents() {
+            return topStudents;
+        }
+
+        public int getStudentCount() {
+            return studentCount;
+        }
+
+        public double getTotalScore() {
+            return totalScore;
+        }
+
+        /**
+         * 全校平均得分，没有学生时返回0
+         */
+        public double getMeanScore() {
+            return studentCount == 0 ? 0 : totalScore / studentCount;
+        }
+
+        public double getMinScore() {
+            return studentCount == 0 ? 0 : minScore;
+        }
+
+        public double getMaxScore() {
+            return studentCount == 0 ? 0 : maxScore;
+        }
+
+        public long getAbsenceCount() {
+            return absenceCount;
+        }
+
+        public long getLeaveCount() {
+            return leaveCount;
+        }
+
+        public long getAnswerCount() {
+            return answerCount;
+        }
+
+        public int getCachedCount() {
+            return cachedCount;
+        }
+
+        private void add(ClassSummary summary) {
+            classes.add(summary);
+            studentCount += summary.getStudentCount();
+            totalScore += summary.getTotalScore();
+            if (summary.getStudentCount() > 0) {
+                minScore = Math.min(minScore, summary.getMinScore());
+                maxScore = Math.max(maxScore, summary.getMaxScore());
+            }
+            absenceCount += summary.getAbsenceCount();
+            leaveCount += summary.getLeaveCount();
+            answerCount += summary.getAnswerCount();
+            topStudents = mergeTop(topStudents, summary.getTopStudents());
+        }
+
+        /**
+         * 合并后一半班级的结果，两半的班级按名称前后相接，合并后仍按名称排列
+         */
+        private void merge(Result other) {
+            classes.addAll(other.classes);
+            failedClasses.addAll(other.failedClasses);
+            studentCount += other.studentCount;
+            totalScore += other.totalScore;
+            minScore = Math.min(minScore, other.minScore);
+            maxScore = Math.max(maxScore, other.maxScore);
+            absenceCount += other.absenceCount;
+            leaveCount += other.leaveCount;
+            answerCount += other.answerCount;
+            cachedCount += other.cachedCount;
+            topStudents = mergeTop(topStudents, other.topStudents);
+        }
+
+        /**
+         * 合并两个按得分从高到低排列的列表，保留前 TOP 名
+         */
+        private static List<ClassSummary.TopStudent> mergeTop(List<ClassSummary.TopStudent> a,
+                                                               List<ClassSummary.TopStudent> b) {
+            List<ClassSummary.TopStudent> merged = new ArrayList<>(Math.min(TOP, a.size() + b.size()));
+            int i = 0;
+            int j = 0;
+            while (merged.size() < TOP && (i < a.size() || j < b.size())) {
+                if (j == b.size() || (i < a.size() && a.get(i).getScore() >= b.get(j).getScore())) {
+                    merged.add(a.get(i++));
+                } else {
+                    merged.add(b.get(j++));
+                }
+            }
+            return merged;
+        }
+    }
+
+    /**
+     * 缓存的班级汇总及读取时的文件标记
+     */
+    private static class CachedSummary {
+        final long stamp;              // 文件标记
+        final ClassSummary summary;    // 班级汇总
+
+        CachedSummary(long stamp, ClassSummary summary) {
+            this.stamp = stamp;
+            this.summary = summary;
+        }
+    }
+
+    private SchoolStatistics() {
+    }
+
+    public static SchoolStatistics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 统计全部班级，可以在后台线程调用
+     * @return 统计结果
+     */
+    public Result query() {
+        File[] dirs = new File(Constant.FILE_PATH).listFiles(File::isDirectory);
+        if (dirs == null) {
+            dirs = new File[0];
+        }
+        Arrays.sort(dirs, Comparator.comparing(File::getName));
+        Set<String> names = new HashSet<>();
+        for (File dir : dirs) {
+            names.add(dir.getName());
+        }
+        // 已删除的班级不再保留缓存
+        cache.keySet().retainAll(names);
+        return pool.invoke(new ClassTask(dirs, 0, dirs.length));
+    }
+
+    /**
+     * 统计一段班级目录的任务，多于一个班级时拆成两半
+     */
+    private class ClassTask extends RecursiveTask<Result> {
+        private final File[] dirs;   // 全部班级目录
+        private final int from;      // 开始下标（包含）
+        private final int to;        // 结束下标（不包含）
+
+        ClassTask(File[] dirs, int from, int to) {
+            this.dirs = dirs;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Result compute() {
+            if (to - from <= 1) {
+                Result result = new Result();
+                if (from < to) {
+                    summarize(dirs[from], result);
+                }
+                return result;
+            }
+            int mid = (from + to) >>> 1;
+            ClassTask left = new ClassTask(dirs, from, mid);
+            left.fork();
+            Result right = new ClassTask(dirs, mid, to).compute();
+            Result result = left.join();
+            result.merge(right);
+            return result;
+        }
+    }
+
+    /**
+     * 统计一个班级并计入结果，文件没有变化时使用缓存
+     */
+    private void summarize(File dir, Result result) {
+        String className = dir.getName();
+        long stamp = stamp(dir);
+        CachedSummary cached = cache.get(className);
+        if (cached != null && cached.stamp == stamp) {
+            result.cachedCount++;
+            result.add(cached.summary);
+            return;
+        }
+        try {
+            ClassSummary summary = summarize(ClassReader.read(className));
+            // 读取期间文件又有变化时不缓存，下次重新读取
+            if (stamp(dir) == stamp) {
+                cache.put(className, new CachedSummary(stamp, summary));
+            }
+            result.add(summary);
+        } catch (IOException | RuntimeException e) {
+            e.printStackTrace();
+            result.failedClasses.add(className);
+        }
+    }
+
+    /**
+     * 把班级复制成 ScoreColumns，在同一个副本上计算全部汇总项
+     */
+    static ClassSummary summarize(SchoolClass schoolClass) {
+        ScoreColumns columns = new ScoreColumns(schoolClass);
+        ClassSummary summary = new ClassSummary(schoolClass.getClassName());
+        summary.setStudentCount(columns.size());
+        summary.setGroupCount(schoolClass.getGroups().size());
+        summary.setTotalScore(columns.sum());
+        summary.setMinScore(columns.min());
+        summary.setMaxScore(columns.max());
+        double[] percentiles = columns.percentiles(50, 90);
+        summary.setMedianScore(percentiles[0]);
+        summary.setP90Score(percentiles[1]);
+        summary.setAbsenceCount(columns.totalCount(StatusType.ABSENCE));
+        summary.setLeaveCount(columns.totalCount(StatusType.LEAVE));
+        summary.setAnswerCount(columns.totalCount(StatusType.ANSWER));
+        List<ClassSummary.TopStudent> top = new ArrayList<>();
+        for (int row : columns.topRows(TOP)) {
+            top.add(new ClassSummary.TopStudent(schoolClass.getClassName(), columns.getStudent(row).getStudentId(),
+                    columns.getName(row), columns.getStudent(row).getScore()));
+        }
+        summary.setTopStudents(top);
+        return summary;
+    }
+
+    /**
+     * 班级文件标记：班级目录和读取时用到的数据文件的修改时间和长度
+     * 修改学生、记录状态、合并快照都会改变其中某个文件
+     */
+    private static long stamp(File dir) {
+        long stamp = dir.lastModified();
+        stamp = stamp * 31 + fileStamp(new File(dir, SnapshotDao.FILE_NAME));
+        stamp = stamp * 31 + fileStamp(new File(dir, JournalDao.FILE_NAME));
+        File statusDir = new File(dir, StatusLogDao.DIR_NAME);
+        stamp = stamp * 31 + statusDir.lastModified();
+        File[] segments = statusDir.listFiles();
+        if (segments != null) {
+            Arrays.sort(segments);
+            for (File segment : segments) {
+                stamp = stamp * 31 + fileStamp(segment);
+            }
+        }
+        // 没有快照的旧版班级
+        stamp = stamp * 31 + new File(dir, "students").lastModified();
+        stamp = stamp * 31 + new File(dir, "groups").lastModified();
+        return stamp;
+    }
+
+    private static long fileStamp(File file) {
+        return file.lastModified() * 31 + file.length();
+    }
+}
@@ -0,0 +1,345 @@
+package com.student.service;
+
+import com.student.entity.Group;
+import com.student.entity.SchoolClass;
+import com.student.entity.StatusType;
+import com.student.entity.Student;
+
+import java.util.*;
+
+/**
+ * 班级成绩的列式副本
+ * 不是随班级维护的存储：每次创建都从学生对象复制一遍，得分、小组序号、缺勤/请假/答题次数各存为一个基本类型数组，
+ * 姓名按字典编码为整数，之后不随班级变化更新。复制本身要逐个访问学生对象并建立姓名字典，
+ * 比在学生对象上算一次平均分更慢；只有在同一个副本上连续运行多个统计时，顺序扫描数组省下的时间才能抵消复制的开销
+ * 目前只由 SchoolStatistics 在班级文件变化、刚用 ClassReader 读取班级之后创建一次，算完汇总即丢弃，
+ * 汇总结果按文件标记缓存。求和等循环使用多个累加器，便于 JIT 生成流水线化的代码
+ */
+public class ScoreColumns {
+    private static final int NO_GROUP = -1;
+
+    private final double[] scores;          // 得分
+    private final int[] groupOrdinals;      // 小组序号，未分组为 NO_GROUP
+    private final int[] absences;           // 缺勤次数
+    private final int[] leaves;             // 请假次数
+    private final int[] answers;            // 答题次数
+    private final int[] nameCodes;          // 姓名编码
+    private final Student[] students;       // 每行对应的学生
+    private final int size;                 // 行数
+    private final List<String> names = new ArrayList<>();                // 姓名字典
+    private final Map<String, Integer> nameIndex = new HashMap<>();      // 姓名到编码
+    private final List<Group> groups;                                    // 小组序号到小组
+    private final Map<Group, Integer> groupIndex = new IdentityHashMap<>(); // 小组到序号
+
+    ScoreColumns(SchoolClass schoolClass) {
+        groups = new ArrayList<>(schoolClass.getGroups());
+        for (int i = 0; i < groups.size(); i++) {
+            groupIndex.put(groups.get(i), i);
+        }
+        List<Student> list = schoolClass.getStudents();
+        size = list.size();
+        scores = new double[size];
+        groupOrdinals = new int[size];
+        absences = new int[size];
+        leaves = new int[size];
+        answers = new int[size];
+        nameCodes = new int[size];
+        students = new Student[size];
+        for (int row = 0; row < size; row++) {
+            Student student = list.get(row);
+            students[row] = student;
+            scores[row] = student.getScore();
+            Integer ordinal = student.getGroup() == null ? null : groupIndex.get(student.getGroup());
+            groupOrdinals[row] = ordinal == null ? NO_GROUP : ordinal;
+            absences[row] = student.getAbsenceCount();
+            leaves[row] = student.getLeaveCount();
+            answers[row] = student.getAnswerCount();
+            nameCodes[row] = encode(student.getName());
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 小组序号的上限，groupSums 等按小组统计的结果以小组序号为下标
+     */
+    public int getGroupSlots() {
+        return groups.size();
+    }
+
+    /**
+     * @param ordinal 小组序号
+     * @return 小组
+     */
+    public Group getGroup(int ordinal) {
+        return groups.get(ordinal);
+    }
+
+    /**
+     * @param row 行号
+     * @return 该行学生的姓名
+     */
+    public String getName(int row) {
+        return names.get(nameCodes[row]);
+    }
+
+    public Student getStudent(int row) {
+        return students[row];
+    }
+
+    /**
+     * 得分合计
+     */
+    public double sum() {
+        double s0 = 0;
+        double s1 = 0;
+        double s2 = 0;
+        double s3 = 0;
+        double[] a = scores;
+        int n = size;
+        int i = 0;
+        for (; i + 3 < n; i += 4) {
+            s0 += a[i];
+            s1 += a[i + 1];
+            s2 += a[i + 2];
+            s3 += a[i + 3];
+        }
+        for (; i < n; i++) {
+            s0 += a[i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    /**
+     * 平均得分，没有学生时返回0
+     */
+    public double mean() {
+        return size == 0 ? 0 : sum() / size;
+    }
+
+    public double min() {
+        double min = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < size; i++) {
+            min = Math.min(min, scores[i]);
+        }
+        return size == 0 ? 0 : min;
+    }
+
+    public double max() {
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < size; i++) {
+            max = Math.max(max, scores[i]);
+        }
+        return size == 0 ? 0 : max;
+    }
+
+    /**
+     * 得分的百分位数，按最近秩法取值
+     * @param percents 百分位，0到100
+     * @return 与 percents 下标对应的得分，没有学生时全为0
+     */
+    public double[] percentiles(double... percents) {
+        double[] result = new double[percents.length];
+        if (size == 0) {
+            return result;
+        }
+        double[] work = Arrays.copyOf(scores, size);
+        Integer[] order = new Integer[percents.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingDouble(i -> percents[i]));
+        // 按百分位从小到大选择，每次只在上一次选出位置的右边继续划分
+        int from = 0;
+        for (int i : order) {
+            int k = (int) Math.ceil(Math.min(100, Math.max(0, percents[i])) / 100 * size) - 1;
+            k = Math.max(k, 0);
+            if (k >= from) {
+                select(work, from, size - 1, k);
+                from = k;
+            }
+            result[i] = work[k];
+        }
+        return result;
+    }
+
+    /**
+     * 得分最高的 k 行，一次扫描，只对已选出的 k 行做插入排序
+     * @param k 行数
+     * @return 按得分从高到低排列的行号
+     */
+    public int[] topRows(int k) {
+        int[] top = new int[Math.min(k, size)];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            double score = scores[i];
+            if (count == top.length && (count == 0 || score <= scores[top[count - 1]])) {
+                continue;
+            }
+            int j = count < top.length ? count++ : count - 1;
+            while (j > 0 && scores[top[j - 1]] < score) {
+                top[j] = top[j - 1];
+                j--;
+            }
+            top[j] = i;
+        }
+        return top;
+    }
+
+    /**
+     * 得分分布
+     * @param min 第一个区间的下限
+     * @param width 区间宽度
+     * @param buckets 区间数，低于 min 的计入第一个区间，超出最后一个区间的计入最后一个区间
+     * @return 每个区间的人数
+     */
+    public int[] histogram(double min, double width, int buckets) {
+        // 得分大多集中在少数区间，交替计入4组计数，相邻两次自增不写同一个位置
+        int[] counts = new int[buckets * 4];
+        double scale = 1 / width;
+        int last = buckets - 1;
+        int i = 0;
+        for (; i + 3 < size; i += 4) {
+            counts[bucket(scores[i], min, scale, last)]++;
+            counts[buckets + bucket(scores[i + 1], min, scale, last)]++;
+            counts[buckets * 2 + bucket(scores[i + 2], min, scale, last)]++;
+            counts[buckets * 3 + bucket(scores[i + 3], min, scale, last)]++;
+        }
+        for (; i < size; i++) {
+            counts[bucket(scores[i], min, scale, last)]++;
+        }
+        int[] result = new int[buckets];
+        for (int b = 0; b < buckets; b++) {
+            result[b] = counts[b] + counts[buckets + b] + counts[buckets * 2 + b] + counts[buckets * 3 + b];
+        }
+        return result;
+    }
+
+    /**
+     * 每个小组的学生得分合计
+     * @return 以小组序号为下标
+     */
+    public double[] groupSums() {
+        double[] sums = new double[groups.size()];
+        for (int i = 0; i < size; i++) {
+            int ordinal = groupOrdinals[i];
+            if (ordinal != NO_GROUP) {
+                sums[ordinal] += scores[i];
+            }
+        }
+        return sums;
+    }
+
+    /**
+     * 每个小组的学生数
+     * @return 以小组序号为下标
+     */
+    public int[] groupCounts() {
+        int[] counts = new int[groups.size()];
+        for (int i = 0; i < size; i++) {
+            int ordinal = groupOrdinals[i];
+            if (ordinal != NO_GROUP) {
+                counts[ordinal]++;
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * 全班某种状态的次数合计
+     */
+    public long totalCount(StatusType type) {
+        int[] column = column(type);
+        long s0 = 0;
+        long s1 = 0;
+        int i = 0;
+        for (; i + 1 < size; i += 2) {
+            s0 += column[i];
+            s1 += column[i + 1];
+        }
+        for (; i < size; i++) {
+            s0 += column[i];
+        }
+        return s0 + s1;
+    }
+
+    /**
+     * 某种状态次数不少于 threshold 的学生行号，例如缺勤较多的学生
+     */
+    public int[] rowsWithCountAtLeast(StatusType type, int threshold) {
+        int[] column = column(type);
+        int[] result = new int[16];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (column[i] >= threshold) {
+                if (count == result.length) {
+                    result = Arrays.copyOf(result, count * 2);
+                }
+                result[count++] = i;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private int[] column(StatusType type) {
+        switch (type) {
+            case ABSENCE:
+                return absences;
+            case LEAVE:
+                return leaves;
+            default:
+                return answers;
+        }
+    }
+
+    private int encode(String name) {
+        String key = name == null ? "" : name;
+        Integer code = nameIndex.get(key);
+        if (code == null) {
+            code = names.size();
+            names.add(key);
+            nameIndex.put(key, code);
+        }
+        return code;
+    }
+
+    private static int bucket(double score, double min, double scale, int last) {
+        int bucket = (int) ((score - min) * scale);
+        return bucket < 0 ? 0 : Math.min(bucket, last);
+    }
+
+    /**
+     * 快速选择：把第 k 小的值放到 k 位置，左边不大于它，右边不小于它
+     */
+    private static void select(double[] a, int low, int high, int k) {
+        while (low < high) {
+            double pivot = a[(low + high) >>> 1];
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (a[i] < pivot) {
+                    i++;
+                }
+                while (a[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    double t = a[i];
+                    a[i] = a[j];
+                    a[j] = t;
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                high = j;
+            } else if (k >= i) {
+                low = i;
+            } else {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.student.service;
+
+import com.student.entity.Group;
+import com.student.entity.SchoolClass;
+import com.student.entity.StatusType;
+import com.student.entity.Student;
+import com.student.util.Constant;
+
+/**
+ * 计分规则
+ * 每条状态记录按 Constant 中的分值修改学生得分和次数，同时修改所在小组的组内学生得分合计，
+ * 每条记录只做常数次加减，不需要重新扫描历史记录
+ * 学生换组或删除时把学生得分从原小组的合计中移出
+ */
+class ScoreEngine {
+    private ScoreEngine() {
+    }
+
+    /**
+     * 状态对应的分值
+     * @param type 状态类型
+     * @return 加分为正数，扣分为负数
+     */
+    static int points(StatusType type) {
+        switch (type) {
+            case ABSENCE:
+                return -Constant.ABSENTEEISM_SCORE;
+            case LEAVE:
+                return -Constant.LEAVE_SCORE;
+            case ANSWER:
+                return Constant.ANSWER_QUESTION;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * 把一条状态记录计入学生和小组得分
+     */
+    static void apply(Student student, StatusType type) {
+        int points = points(type);
+        student.setScore(student.getScore() + points);
+        switch (type) {
+            case ABSENCE:
+                student.setAbsenceCount(student.getAbsenceCount() + 1);
+                break;
+            case LEAVE:
+                student.setLeaveCount(student.getLeaveCount() + 1);
+                break;
+            case ANSWER:
+                student.setAnswerCount(student.getAnswerCount() + 1);
+                break;
+        }
+        Group group = student.getGroup();
+        if (group != null) {
+            group.setMemberScore(group.getMemberScore() + points);
+        }
+    }
+
+    /**
+     * 学生换组时移动学生得分
+     * @param student 学生
+     * @param from 原小组，可以为null
+     * @param to 新小组，可以为null
+     */
+    static void move(Student student, Group from, Group to) {
+        if (from != null) {
+            from.setMemberScore(from.getMemberScore() - student.getScore());
+        }
+        if (to != null) {
+            to.setMemberScore(to.getMemberScore() + student.getScore());
+        }
+    }
+
+    /**
+     * 重新计算全部小组的组内学生得分合计，只在加载班级时调用
+     */
+    static void rebuildGroupTotals(SchoolClass schoolClass) {
+        for (Group group : schoolClass.getGroups()) {
+            group.setMemberScore(0);
+        }
+        for (Student student : schoolClass.getStudents()) {
+            move(student, null, student.getGroup());
+        }
+    }
+}
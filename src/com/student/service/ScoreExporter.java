@@ -0,0 +1,136 @@
+package com.student.service;
+
+import com.student.dao.CsvSheetWriter;
+import com.student.dao.SheetWriter;
+import com.student.dao.XlsxSheetWriter;
+import com.student.entity.Group;
+import com.student.entity.Student;
+import com.student.util.Metrics;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 班级成绩导出
+ * 逐行写出学生成绩（得分和缺勤、请假、答题次数）和小组成绩，
+ * 次数和得分由计分规则实时维护，导出时不需要读取状态日志
+ * 文件扩展名为 .xlsx 时导出 Excel 工作簿，否则导出 CSV
+ */
+public class ScoreExporter {
+    /**
+     * 导出进度
+     */
+    public interface Listener {
+        /**
+         * @param done 已写出的行数
+         * @param total 总行数
+         */
+        void progress(int done, int total);
+
+        /**
+         * @return 是否取消导出
+         */
+        boolean isCancelled();
+    }
+
+    private static final int PROGRESS_INTERVAL = 256;   // 每写出多少行报告一次进度
+
+    private final ClassRepository repository;
+
+    public ScoreExporter(ClassRepository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * 导出当前班级成绩
+     * 先写到导出文件所在目录的临时文件，完成后再替换导出文件，失败或取消时只删除临时文件，已有的导出文件保持不变
+     * 每 PROGRESS_INTERVAL 行在仓库锁内复制一次学生和小组的字段，写出的每一行都不会混有修改了一半的数据
+     * @param file 导出文件
+     * @param listener 进度
+     * @return 是否导出完成，取消时返回false
+     */
+    public boolean export(File file, Listener listener) throws IOException {
+        List<Student> students = repository.getStudents();
+        List<Group> groups = repository.getGroups();
+        int total = students.size() + groups.size();
+        File temp = File.createTempFile(file.getName(), ".tmp", file.getAbsoluteFile().getParentFile());
+        try {
+            try (SheetWriter writer = open(file, temp)) {
+                writer.startSheet("学生成绩", "学号", "姓名", "小组", "缺勤", "请假", "答题", "得分");
+                for (int from = 0; from < students.size(); from += PROGRESS_INTERVAL) {
+                    List<Student> chunk = students.subList(from, Math.min(from + PROGRESS_INTERVAL, students.size()));
+                    for (Object[] row : repository.readLocked(() -> studentRows(chunk))) {
+                        writer.writeRow(row);
+                    }
+                    if (report(listener, from + chunk.size(), total)) {
+                        return false;
+                    }
+                }
+                writer.startSheet("小组成绩", "小组名称", "人数", "分数", "成员得分", "总分");
+                for (int from = 0; from < groups.size(); from += PROGRESS_INTERVAL) {
+                    List<Group> chunk = groups.subList(from, Math.min(from + PROGRESS_INTERVAL, groups.size()));
+                    for (Object[] row : repository.readLocked(() -> groupRows(chunk))) {
+                        writer.writeRow(row);
+                    }
+                    if (report(listener, students.size() + from + chunk.size(), total)) {
+                        return false;
+                    }
+                }
+            }
+            Metrics.SHEET_IO.written(temp.length());
+            try {
+                Files.move(temp.toPath(), file.toPath(),
+                        StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp.toPath());
+        }
+        listener.progress(total, total);
+        return true;
+    }
+
+    private static List<Object[]> studentRows(List<Student> students) {
+        List<Object[]> rows = new ArrayList<>(students.size());
+        for (Student student : students) {
+            rows.add(new Object[]{student.getStudentId(), student.getName(), student.getGroupName(),
+                    student.getAbsenceCount(), student.getLeaveCount(), student.getAnswerCount(),
+                    student.getScore()});
+        }
+        return rows;
+    }
+
+    private static List<Object[]> groupRows(List<Group> groups) {
+        List<Object[]> rows = new ArrayList<>(groups.size());
+        for (Group group : groups) {
+            rows.add(new Object[]{group.getGroupName(), group.getStudents().size(), group.getScore(),
+                    group.getMemberScore(), group.getTotalScore()});
+        }
+        return rows;
+    }
+
+    /**
+     * 报告进度
+     * @return 是否已取消
+     */
+    private static boolean report(Listener listener, int done, int total) {
+        listener.progress(done, total);
+        return listener.isCancelled();
+    }
+
+    /**
+     * 按导出文件的扩展名选择格式，写入临时文件
+     */
+    private static SheetWriter open(File file, File temp) throws IOException {
+        if (file.getName().toLowerCase().endsWith(".xlsx")) {
+            return new XlsxSheetWriter(temp);
+        }
+        return new CsvSheetWriter(temp);
+    }
+}
@@ -0,0 +1,73 @@
+package com.student.service;
+
+import com.student.dao.ScoreHistoryDao;
+import com.student.entity.ScoreChange;
+
+import java.io.IOException;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.TemporalAdjusters;
+import java.util.*;
+
+/**
+ * 小组分数历史查询
+ * 按时间范围查询直接借助分数历史日志的时间索引，只读取范围内的记录；
+ * 每周合计第一次查询时扫描一遍全部历史，生成 周一零点 -> 小组 -> 分数变化合计 的汇总表，
+ * 之后只读取新追加的记录（包括其他电脑追加的）累加到汇总表中，不再重新扫描全部历史
+ * 由 ClassRepository 在文件锁和对象锁保护下调用
+ */
+class ScoreHistory {
+    private final ScoreHistoryDao dao;                       // 分数历史日志
+    private final ZoneId zone = ZoneId.systemDefault();      // 按本地时间划分周
+    private final TreeMap<Long, Map<String, Double>> weekly = new TreeMap<>();   // 每周每个小组的分数变化合计
+    private long weeklySeq;                                  // 已计入汇总表的记录数，为0时第一次查询读取全部历史
+
+    ScoreHistory(ScoreHistoryDao dao) {
+        this.dao = dao;
+    }
+
+    /**
+     * 按时间范围读取分数变化记录
+     * @param groupName 小组名称，为null时读取全部小组
+     * @param from 开始时间（包含）
+     * @param to 结束时间（包含）
+     * @return 按时间排列的记录
+     */
+    List<ScoreChange> read(String groupName, long from, long to) throws IOException {
+        List<ScoreChange> changes = new ArrayList<>();
+        dao.read(from, to, change -> {
+            if (groupName == null || groupName.equals(change.getGroupName())) {
+                changes.add(change);
+            }
+        });
+        return changes;
+    }
+
+    /**
+     * 每周每个小组的分数变化合计
+     * @param from 开始时间（包含），按所在周的周一零点计算
+     * @param to 结束时间（包含）
+     * @return 周一零点的时间 -> 小组名称 -> 分数变化合计，按时间排列
+     */
+    SortedMap<Long, Map<String, Double>> weeklyTotals(long from, long to) throws IOException {
+        weeklySeq = dao.readFrom(weeklySeq, change -> weekly
+                .computeIfAbsent(weekStart(change.getTime()), week -> new HashMap<>())
+                .merge(change.getGroupName(), change.getDelta(), Double::sum));
+        SortedMap<Long, Map<String, Double>> totals = new TreeMap<>();
+        for (Map.Entry<Long, Map<String, Double>> entry : weekly.subMap(weekStart(from), true, to, true).entrySet()) {
+            totals.put(entry.getKey(), new HashMap<>(entry.getValue()));
+        }
+        return totals;
+    }
+
+    /**
+     * 时间所在周的周一零点
+     */
+    long weekStart(long time) {
+        LocalDate date = Instant.ofEpochMilli(time).atZone(zone).toLocalDate()
+                .with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        return date.atStartOfDay(zone).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,152 @@
+package com.student.service;
+
+import com.student.entity.SelectionMode;
+import com.student.entity.SelectionState;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.function.IntFunction;
+import java.util.function.IntSupplier;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * 随机点名抽取引擎
+ * 按当前班级的抽取方式生成抽样器，随机点名滚动时每一帧和最终结果都由抽样器给出：
+ * 随机：在全部候选中等概率抽取；
+ * 不重复：只在本轮还没抽到过的候选中抽取，全部抽过后开始新一轮；
+ * 少答题优先：候选的权重为 1/(1+答题次数)，用别名表抽取，每次抽取的代价与候选数量无关，
+ * 权重与上次相同时沿用上次的别名表，答题记录变化后下次开始滚动时重新建表
+ * 抽取方式和本轮已抽到的候选保存在 班级目录/selection.dat，重新打开程序后继续本轮；
+ * 抽取记录随班级在后台加载，这里只取用 ClassRepository 中已读取的记录，保存时由仓库获得文件锁后写入
+ */
+public class SelectionEngine {
+    public static final String STUDENTS = "students";   // 全班学生的候选范围
+    public static final String GROUPS = "groups";       // 全部小组的候选范围
+    private static final SelectionEngine INSTANCE = new SelectionEngine();
+
+    private final Random random;      // 抽取用的随机数
+    private SelectionState state;     // 当前班级的抽取记录
+    private final Map<String, double[]> weights = new HashMap<>();       // 候选范围到上次建表时的权重
+    private final Map<String, AliasTable> aliasTables = new HashMap<>(); // 候选范围到别名表
+
+    private SelectionEngine() {
+        this(new Random());
+    }
+
+    /**
+     * 测试时传入固定种子的随机数
+     */
+    SelectionEngine(Random random) {
+        this.random = random;
+    }
+
+    public static SelectionEngine getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 小组内学生的候选范围
+     * @param groupName 小组名称
+     */
+    public static String groupPool(String groupName) {
+        return "group:" + groupName;
+    }
+
+    public synchronized SelectionMode getMode() {
+        return state().getMode();
+    }
+
+    /**
+     * 修改当前班级的抽取方式并保存
+     */
+    public synchronized void setMode(SelectionMode mode) {
+        state().setMode(mode);
+        save();
+    }
+
+    /**
+     * 生成抽样器，每次调用返回一个候选下标
+     * @param pool 候选范围，不同范围分别记录本轮已抽到的候选
+     * @param size 候选数，必须大于0
+     * @param key 候选下标到学号或小组名
+     * @param participation 候选下标到答题次数，少答题优先时使用
+     * @return 抽样器
+     */
+    public synchronized IntSupplier sampler(String pool, int size, IntFunction<String> key,
+                                            IntToDoubleFunction participation) {
+        switch (state().getMode()) {
+            case SHUFFLE_BAG: {
+                Set<String> called = state.getCalled().computeIfAbsent(pool, k -> new LinkedHashSet<>());
+                int[] remaining = new int[size];
+                int count = 0;
+                for (int i = 0; i < size; i++) {
+                    if (!called.contains(key.apply(i))) {
+                        remaining[count++] = i;
+                    }
+                }
+                if (count == 0) {
+                    // 全部抽过一轮，开始新一轮
+                    called.clear();
+                    for (int i = 0; i < size; i++) {
+                        remaining[i] = i;
+                    }
+                    count = size;
+                }
+                int bagSize = count;
+                return () -> remaining[random.nextInt(bagSize)];
+            }
+            case WEIGHTED: {
+                double[] poolWeights = new double[size];
+                for (int i = 0; i < size; i++) {
+                    poolWeights[i] = 1 / (1 + Math.max(0, participation.applyAsDouble(i)));
+                }
+                AliasTable table = aliasTables.get(pool);
+                if (table == null || !Arrays.equals(weights.get(pool), poolWeights)) {
+                    table = new AliasTable(poolWeights);
+                    aliasTables.put(pool, table);
+                    weights.put(pool, poolWeights);
+                }
+                AliasTable sampler = table;
+                return () -> sampler.sample(random);
+            }
+            default:
+                return () -> random.nextInt(size);
+        }
+    }
+
+    /**
+     * 记录最终抽到的候选，不重复抽取时本轮不再抽到该候选
+     * @param pool 候选范围
+     * @param key 学号或小组名
+     */
+    public synchronized void called(String pool, String key) {
+        if (state().getMode() != SelectionMode.SHUFFLE_BAG) {
+            return;
+        }
+        if (state.getCalled().computeIfAbsent(pool, k -> new LinkedHashSet<>()).add(key)) {
+            save();
+        }
+    }
+
+    /**
+     * 获取当前班级的抽取记录，切换班级后清空上个班级的别名表
+     */
+    private SelectionState state() {
+        SelectionState selection = ClassRepository.getInstance().getSelection();
+        if (selection != state) {
+            state = selection;
+            weights.clear();
+            aliasTables.clear();
+        }
+        return state;
+    }
+
+    private void save() {
+        try {
+            ClassRepository.getInstance().saveSelection(state);
+        } catch (IOException e) {
+            // 保存失败只影响重新打开程序后的抽取，不影响本次点名
+            e.printStackTrace();
+        }
+    }
+}
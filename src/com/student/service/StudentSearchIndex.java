@@ -0,0 +1,111 @@
+package com.student.service;
+
+import com.student.entity.Student;
+import com.student.util.PinyinUtil;
+
+import java.util.*;
+
+/**
+ * 学生搜索索引
+ * 每名学生有若干检索词：学号、姓名、名字（去掉第一个字）、姓名拼音首字母、名字拼音首字母，
+ * 全部检索词按字典序保存在 TreeMap 中；按前缀查找时从第一个不小于前缀的检索词开始向后扫描到不匹配为止，
+ * 代价只与匹配数有关。新增、修改、删除学生时只插入或删除这名学生的几个检索词
+ * 拼音只有首字母：完整拼音需要拼音字典，见 PinyinUtil
+ */
+class StudentSearchIndex {
+    private final TreeMap<String, List<Student>> terms = new TreeMap<>();   // 检索词到学生，同名学生共用一个检索词
+    private final Map<Student, String[]> indexed = new IdentityHashMap<>(); // 学生到已索引的检索词，删除时使用
+
+    /**
+     * 为全部学生重新建立索引
+     */
+    void rebuild(List<Student> students) {
+        terms.clear();
+        indexed.clear();
+        for (Student student : students) {
+            add(student);
+        }
+    }
+
+    void add(Student student) {
+        String[] studentTerms = termsOf(student);
+        indexed.put(student, studentTerms);
+        for (String term : studentTerms) {
+            terms.computeIfAbsent(term, key -> new ArrayList<>(1)).add(student);
+        }
+    }
+
+    void remove(Student student) {
+        String[] studentTerms = indexed.remove(student);
+        if (studentTerms == null) {
+            return;
+        }
+        for (String term : studentTerms) {
+            List<Student> owners = terms.get(term);
+            if (owners == null) {
+                continue;
+            }
+            for (int i = 0; i < owners.size(); i++) {
+                if (owners.get(i) == student) {
+                    owners.remove(i);
+                    break;
+                }
+            }
+            if (owners.isEmpty()) {
+                terms.remove(term);
+            }
+        }
+    }
+
+    /**
+     * 学号或姓名修改后重新索引
+     */
+    void update(Student student) {
+        remove(student);
+        add(student);
+    }
+
+    /**
+     * 按前缀查找学生，同一学生只返回一次
+     * @param query 学号、姓名或拼音首字母的前缀，不区分大小写
+     * @param limit 最多返回的学生数
+     * @return 匹配的学生
+     */
+    List<Student> search(String query, int limit) {
+        String prefix = query.trim().toLowerCase();
+        List<Student> matches = new ArrayList<>();
+        if (prefix.isEmpty()) {
+            return matches;
+        }
+        Set<Student> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Map.Entry<String, List<Student>> entry : terms.tailMap(prefix, true).entrySet()) {
+            if (!entry.getKey().startsWith(prefix)) {
+                break;
+            }
+            for (Student student : entry.getValue()) {
+                if (seen.add(student)) {
+                    matches.add(student);
+                    if (matches.size() >= limit) {
+                        return matches;
+                    }
+                }
+            }
+        }
+        return matches;
+    }
+
+    private static String[] termsOf(Student student) {
+        String name = student.getName() == null ? "" : student.getName().toLowerCase();
+        Set<String> studentTerms = new LinkedHashSet<>();
+        studentTerms.add(student.getStudentId().toLowerCase());
+        studentTerms.add(name);
+        studentTerms.add(PinyinUtil.initials(name));
+        if (name.length() >= 2) {
+            String givenName = name.substring(1);
+            studentTerms.add(givenName);
+            studentTerms.add(PinyinUtil.initials(givenName));
+        }
+        studentTerms.remove("");
+        return studentTerms.toArray(new String[0]);
+    }
+}
@@ -3,13 +3,16 @@ package com.student.util;
 import com.student.entity.Group;
 import com.student.entity.Student;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 
 public class Constant {
-    // 小组、学生等文件路径
-    public static final String FILE_PATH = "D:/starschool/classes/";
+    // 指定数据目录的系统属性，测试和基准测试用它把数据放到临时目录
+    public static final String FILE_PATH_PROPERTY = "student.data.path";
+    // 小组、学生等文件路径，可用 -Dstudent.data.path=目录 调整
+    public static final String FILE_PATH = withSlash(System.getProperty(FILE_PATH_PROPERTY, "D:/starschool/classes/"));
     // 班级路径
     public static String CLASS_PATH = "";
     // 存放当前班级的小组和学生
@@ -22,5 +25,15 @@ public class Constant {
     public static final int LEAVE_SCORE = 2;
     // 回答问题正确加3分
     public static final int ANSWER_QUESTION = 3;
+    // 导入旧版班级文件时同时读取的文件数，可用 -Dstudent.io.concurrency=N 调整
+    public static final int IO_CONCURRENCY = Integer.getInteger("student.io.concurrency", 16);
+    // 照片缩略图缓存占用的内存上限（MB），可用 -Dstudent.photo.cache.mb=N 调整
+    public static final int PHOTO_CACHE_MB = Integer.getInteger("student.photo.cache.mb", 64);
+    // 是否把缩略图保存到班级目录下的 thumbnails 目录，可用 -Dstudent.photo.thumbnails=false 关闭
+    public static final boolean PHOTO_THUMBNAILS =
+            Boolean.parseBoolean(System.getProperty("student.photo.thumbnails", "true"));
 
+    private static String withSlash(String path) {
+        return path.endsWith("/") || path.endsWith(File.separator) ? path : path + "/";
+    }
 }
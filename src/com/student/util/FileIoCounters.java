@@ -0,0 +1,71 @@
+package com.student.util;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 一类数据文件的读写计数
+ * 打开指打开后保持使用的文件（如追加写入的日志），读、写指一次完整读出或写入一个文件
+ */
+public class FileIoCounters implements FileIoCountersMXBean {
+    private final LongAdder filesOpened = new LongAdder();   // 打开的文件数
+    private final LongAdder filesRead = new LongAdder();     // 读取的文件数
+    private final LongAdder filesWritten = new LongAdder();  // 写入的文件数
+    private final LongAdder bytesRead = new LongAdder();     // 读取的字节数
+    private final LongAdder bytesWritten = new LongAdder();  // 写入的字节数
+
+    public void opened() {
+        filesOpened.increment();
+    }
+
+    /**
+     * 读取了一个文件
+     * @param bytes 读取的字节数
+     */
+    public void read(long bytes) {
+        filesRead.increment();
+        bytesRead.add(bytes);
+    }
+
+    /**
+     * 写入了一个文件，追加写入时每次追加算一次
+     * @param bytes 写入的字节数
+     */
+    public void written(long bytes) {
+        filesWritten.increment();
+        bytesWritten.add(bytes);
+    }
+
+    @Override
+    public long getFilesOpened() {
+        return filesOpened.sum();
+    }
+
+    @Override
+    public long getFilesRead() {
+        return filesRead.sum();
+    }
+
+    @Override
+    public long getFilesWritten() {
+        return filesWritten.sum();
+    }
+
+    @Override
+    public long getBytesRead() {
+        return bytesRead.sum();
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    @Override
+    public void reset() {
+        filesOpened.reset();
+        filesRead.reset();
+        filesWritten.reset();
+        bytesRead.reset();
+        bytesWritten.reset();
+    }
+}
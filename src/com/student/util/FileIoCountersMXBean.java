@@ -0,0 +1,18 @@
+package com.student.util;
+
+/**
+ * 文件读写计数的 JMX 接口，在 JConsole、VisualVM 的 MBeans 页签中查看 com.student 下的 FileIO
+ */
+public interface FileIoCountersMXBean {
+    long getFilesOpened();
+
+    long getFilesRead();
+
+    long getFilesWritten();
+
+    long getBytesRead();
+
+    long getBytesWritten();
+
+    void reset();
+}
@@ -0,0 +1,230 @@
+package com.student.util;
+
+import java.util.*;
+
+/**
+ * 带位置索引的成员列表
+ * 班级和小组的学生列表，按加入顺序保存成员，并用哈希表记录每个成员在数组中的位置：
+ * 删除成员时只把它的位置标记为空（墓碑），不移动其他成员，contains 和 remove 的代价与成员数无关
+ * 墓碑超过数组的一半时整理一次数组，整理的代价分摊到每次删除上仍是常数；整理只在 add、remove 中进行，
+ * 读取不修改列表。遍历（包括 stream）时跳过墓碑；有墓碑时按下标读取需要顺序计数，因此不标记 RandomAccess
+ * 成员按对象本身区分，同一个对象不能加入两次；不支持按下标插入、替换和删除
+ * @param <E> 成员类型
+ */
+public class IndexedList<E> extends AbstractList<E> {
+    private static final int MIN_COMPACT = 16;   // 墓碑少于这个数时不整理
+
+    private Object[] elements = new Object[8];   // 成员和墓碑（null），按加入顺序排列
+    private int end;                             // 已使用的数组长度
+    private int size;                            // 成员数
+    private final Map<E, Integer> positions = new IdentityHashMap<>();   // 成员到数组下标
+
+    public IndexedList() {
+    }
+
+    @Override
+    public boolean add(E member) {
+        if (positions.containsKey(member)) {
+            throw new IllegalArgumentException("成员已在列表中：" + member);
+        }
+        if (end == elements.length) {
+            // 墓碑较多时整理后就有空位，否则扩容
+            if (end - size > elements.length / 4) {
+                compact();
+            } else {
+                elements = Arrays.copyOf(elements, elements.length * 2);
+            }
+        }
+        elements[end] = member;
+        positions.put(member, end);
+        end++;
+        size++;
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object member) {
+        Integer position = positions.remove(member);
+        if (position == null) {
+            return false;
+        }
+        elements[position] = null;
+        size--;
+        modCount++;
+        int tombstones = end - size;
+        if (tombstones >= MIN_COMPACT && tombstones > end / 2) {
+            compact();
+        }
+        return true;
+    }
+
+    @Override
+    public boolean contains(Object member) {
+        return positions.containsKey(member);
+    }
+
+    @Override
+    public int indexOf(Object member) {
+        Integer position = positions.get(member);
+        if (position == null) {
+            return -1;
+        }
+        if (size == end) {
+            return position;
+        }
+        int index = 0;
+        for (int i = 0; i < position; i++) {
+            if (elements[i] != null) {
+                index++;
+            }
+        }
+        return index;
+    }
+
+    @Override
+    public int lastIndexOf(Object member) {
+        return indexOf(member);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        Objects.checkIndex(index, size);
+        if (size == end) {
+            return (E) elements[index];
+        }
+        int position = skip(0);
+        for (int i = 0; i < index; i++) {
+            position = skip(position + 1);
+        }
+        return (E) elements[position];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(elements, 0, end, null);
+        positions.clear();
+        end = 0;
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    public Object[] toArray() {
+        Object[] array = new Object[size];
+        copyTo(array);
+        return array;
+    }
+
+    @Override
+    public <T> T[] toArray(T[] array) {
+        if (array.length < size) {
+            array = Arrays.copyOf(array, size);
+        }
+        copyTo(array);
+        if (array.length > size) {
+            array[size] = null;
+        }
+        return array;
+    }
+
+    /**
+     * 按顺序复制成员，跳过墓碑
+     */
+    private void copyTo(Object[] array) {
+        if (size == end) {
+            System.arraycopy(elements, 0, array, 0, size);
+            return;
+        }
+        int to = 0;
+        for (int from = 0; from < end; from++) {
+            if (elements[from] != null) {
+                array[to++] = elements[from];
+            }
+        }
+    }
+
+    /**
+     * 遍历时跳过墓碑，不整理数组
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+            private int next = skip(0);                    // 下一个成员的数组下标
+            private int last = -1;                         // 上次返回的成员的数组下标
+            private int expectedModCount = modCount;
+
+            @Override
+            public boolean hasNext() {
+                return next < end;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public E next() {
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (next >= end) {
+                    throw new NoSuchElementException();
+                }
+                last = next;
+                next = skip(next + 1);
+                return (E) elements[last];
+            }
+
+            @Override
+            public void remove() {
+                if (last < 0) {
+                    throw new IllegalStateException();
+                }
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                // 直接标记墓碑，不整理数组，遍历位置保持不变
+                positions.remove(elements[last]);
+                elements[last] = null;
+                size--;
+                modCount++;
+                expectedModCount = modCount;
+                last = -1;
+            }
+        };
+    }
+
+    private int skip(int from) {
+        while (from < end && elements[from] == null) {
+            from++;
+        }
+        return from;
+    }
+
+    /**
+     * 去掉墓碑，成员移到数组前部并更新位置索引
+     */
+    @SuppressWarnings("unchecked")
+    private void compact() {
+        if (size == end) {
+            return;
+        }
+        int to = 0;
+        for (int from = 0; from < end; from++) {
+            Object member = elements[from];
+            if (member != null) {
+                if (to != from) {
+                    elements[to] = member;
+                    positions.put((E) member, to);
+                }
+                to++;
+            }
+        }
+        Arrays.fill(elements, to, end, null);
+        end = to;
+    }
+}
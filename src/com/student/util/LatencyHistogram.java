@@ -0,0 +1,140 @@
+package com.student.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 耗时直方图
+ * 按纳秒数的二进制位数分为64个区间，第 i 个区间为 [2^(i-1), 2^i) 纳秒，记录一次只做几次原子加法，
+ * 可以在界面线程和后台线程中同时记录，不需要加锁
+ */
+public class LatencyHistogram implements LatencyHistogramMXBean {
+    private static final int BUCKETS = 64;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);   // 各区间的次数
+    private final LongAdder count = new LongAdder();    // 记录次数
+    private final LongAdder total = new LongAdder();    // 耗时合计（纳秒）
+    private final AtomicLong max = new AtomicLong();    // 最大耗时（纳秒）
+
+    /**
+     * 记录一次耗时
+     * @param nanos 耗时（纳秒）
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        buckets.incrementAndGet(BUCKETS - Long.numberOfLeadingZeros(value));
+        count.increment();
+        total.add(value);
+        if (value > max.get()) {
+            max.accumulateAndGet(value, Math::max);
+        }
+    }
+
+    /**
+     * 记录从 startNanos 到现在的耗时
+     * @param startNanos 开始时的 System.nanoTime()
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+
+    @Override
+    public double getMeanMicros() {
+        long n = count.sum();
+        return n == 0 ? 0 : total.sum() / 1000.0 / n;
+    }
+
+    @Override
+    public double getMaxMicros() {
+        return max.get() / 1000.0;
+    }
+
+    @Override
+    public double getP50Micros() {
+        return percentile(0.50);
+    }
+
+    @Override
+    public double getP90Micros() {
+        return percentile(0.90);
+    }
+
+    @Override
+    public double getP99Micros() {
+        return percentile(0.99);
+    }
+
+    @Override
+    public Map<String, Long> getHistogram() {
+        Map<String, Long> histogram = new LinkedHashMap<>();
+        for (int i = 0; i < BUCKETS; i++) {
+            long n = buckets.get(i);
+            if (n > 0) {
+                histogram.put("≤" + format(upperBound(i)), n);
+            }
+        }
+        return histogram;
+    }
+
+    @Override
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.set(i, 0);
+        }
+        count.reset();
+        total.reset();
+        max.set(0);
+    }
+
+    /**
+     * 估计分位数，返回所在区间的上限，不超过最大耗时
+     */
+    private double percentile(double fraction) {
+        long[] snapshot = new long[BUCKETS];
+        long n = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = buckets.get(i);
+            n += snapshot[i];
+        }
+        if (n == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(fraction * n);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(upperBound(i), max.get()) / 1000.0;
+            }
+        }
+        return max.get() / 1000.0;
+    }
+
+    /**
+     * 区间的上限（纳秒）
+     */
+    private static long upperBound(int bucket) {
+        return bucket >= 63 ? Long.MAX_VALUE : (1L << bucket) - 1;
+    }
+
+    private static String format(long nanos) {
+        if (nanos < 1_000) {
+            return nanos + "ns";
+        }
+        if (nanos < 1_000_000) {
+            return String.format("%.1fus", nanos / 1e3);
+        }
+        if (nanos < 1_000_000_000) {
+            return String.format("%.1fms", nanos / 1e6);
+        }
+        return String.format("%.1fs", nanos / 1e9);
+    }
+}
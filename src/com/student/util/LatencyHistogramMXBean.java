@@ -0,0 +1,28 @@
+package com.student.util;
+
+import java.util.Map;
+
+/**
+ * 耗时直方图的 JMX 接口，在 JConsole、VisualVM 的 MBeans 页签中查看 com.student 下的 Latency
+ * 分位数按对数区间估计，取所在区间的上限
+ */
+public interface LatencyHistogramMXBean {
+    long getCount();
+
+    double getMeanMicros();
+
+    double getMaxMicros();
+
+    double getP50Micros();
+
+    double getP90Micros();
+
+    double getP99Micros();
+
+    /**
+     * @return 区间上限（如 "≤1.0ms"）到次数，只包含有记录的区间
+     */
+    Map<String, Long> getHistogram();
+
+    void reset();
+}
@@ -0,0 +1,74 @@
+package com.student.util;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * 运行指标
+ * 各类数据文件的读写计数和主要操作的耗时直方图，类加载时注册到平台 MBeanServer，
+ * 程序运行中可用 JConsole、VisualVM 连接后在 MBeans 页签的 com.student 下查看，各项都提供 reset 操作
+ * 读写计数按数据来源统计，不按界面统计：界面不直接读写文件，所有文件都经过 dao 包中的类
+ */
+public class Metrics {
+    private static final String DOMAIN = "com.student";
+
+    // 班级快照 class.dat
+    public static final FileIoCounters SNAPSHOT_IO = fileIo("Snapshot");
+    // 修改日志 journal.log
+    public static final FileIoCounters JOURNAL_IO = fileIo("Journal");
+    // 状态记录日志段
+    public static final FileIoCounters STATUS_LOG_IO = fileIo("StatusLog");
+    // 得分历史日志段
+    public static final FileIoCounters HISTORY_IO = fileIo("ScoreHistory");
+    // 旧版班级的学生、小组文本文件
+    public static final FileIoCounters LEGACY_IO = fileIo("LegacyFiles");
+    // 学生照片原图
+    public static final FileIoCounters PHOTO_IO = fileIo("Photos");
+    // 照片缩略图
+    public static final FileIoCounters THUMBNAIL_IO = fileIo("Thumbnails");
+    // 导入的名单、导出的成绩表
+    public static final FileIoCounters SHEET_IO = fileIo("Sheets");
+
+    // 加载一个班级（快照或旧版文件，加上日志重放）
+    public static final LatencyHistogram CLASS_LOAD = latency("Load", "Class");
+    // 解析一个旧版学生文件
+    public static final LatencyHistogram STUDENT_PARSE = latency("Parse", "StudentFile");
+    // 解码一张学生照片并生成缩略图
+    public static final LatencyHistogram PHOTO_DECODE = latency("Decode", "Photo");
+    // 学生列表、小组列表、排行榜的整表刷新
+    public static final LatencyHistogram STUDENT_TABLE_REFRESH = latency("TableRefresh", "StudentList");
+    public static final LatencyHistogram GROUP_TABLE_REFRESH = latency("TableRefresh", "GroupList");
+    public static final LatencyHistogram LEADERBOARD_REFRESH = latency("TableRefresh", "Leaderboard");
+    // 随机点名滚动时每一帧的处理时间，超过定时器间隔（50ms）时滚动会卡顿
+    public static final LatencyHistogram STUDENT_ROLL_TICK = latency("RollTick", "RandomStudent");
+    public static final LatencyHistogram GROUP_ROLL_TICK = latency("RollTick", "RandomGroup");
+
+    private Metrics() {
+    }
+
+    private static FileIoCounters fileIo(String name) {
+        FileIoCounters counters = new FileIoCounters();
+        register(counters, "FileIO", name);
+        return counters;
+    }
+
+    private static LatencyHistogram latency(String type, String name) {
+        LatencyHistogram histogram = new LatencyHistogram();
+        register(histogram, type, name);
+        return histogram;
+    }
+
+    /**
+     * 注册失败时只打印异常，指标仍可记录，只是无法从 JMX 查看
+     */
+    private static void register(Object mbean, String type, String name) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            server.registerMBean(mbean, new ObjectName(DOMAIN + ":type=" + type + ",name=" + name));
+        } catch (JMException | SecurityException e) {
+            e.printStackTrace();
+        }
+    }
+}
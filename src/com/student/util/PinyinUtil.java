@@ -0,0 +1,74 @@
+package com.student.util;
+
+import java.nio.charset.Charset;
+
+/**
+ * 拼音首字母工具类
+ * GB2312 一级汉字（3755个常用字）按拼音顺序编码，根据每个声母第一个字的编码即可查出汉字的拼音首字母，
+ * 不需要拼音字典；二级汉字按部首编码，无法得到首字母，保留原字
+ */
+public class PinyinUtil {
+    private static final Charset GB2312 = Charset.forName("GB2312");
+    // 各首字母第一个汉字的 GB2312 编码：啊芭擦搭蛾发噶哈击喀垃妈拿哦啪期然撒塌挖昔压匝
+    private static final int[] BOUNDARIES = {
+            0xB0A1, 0xB0C5, 0xB2C1, 0xB4EE, 0xB6EA, 0xB7A2, 0xB8C1, 0xB9FE, 0xBBF7, 0xBFA6, 0xC0AC, 0xC2E8,
+            0xC4C3, 0xC5B6, 0xC5BE, 0xC6DA, 0xC8BB, 0xC8F6, 0xCBFA, 0xCDDA, 0xCEF4, 0xD1B9, 0xD4D1};
+    private static final char[] LETTERS = "abcdefghjklmnopqrstwxyz".toCharArray();
+    private static final int LEVEL1_END = 0xD7F9;   // 一级汉字最后一个字“座”
+    private static final char CJK_START = '\u4E00';  // 基本区汉字范围
+    private static final char CJK_END = '\u9FFF';
+    private static final char[] CJK_INITIALS = buildTable();   // 基本区汉字的首字母，不是一级汉字的保留原字
+
+    /**
+     * 获取字符串的拼音首字母，英文字母转为小写，其他字符保持不变
+     * @param text 字符串
+     * @return 拼音首字母
+     */
+    public static String initials(String text) {
+        StringBuilder initials = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            initials.append(initial(text.charAt(i)));
+        }
+        return initials.toString();
+    }
+
+    /**
+     * 获取单个字符的拼音首字母
+     */
+    public static char initial(char c) {
+        if (c < 0x80) {
+            return Character.toLowerCase(c);
+        }
+        if (c < CJK_START || c > CJK_END) {
+            return c;
+        }
+        return CJK_INITIALS[c - CJK_START];
+    }
+
+    /**
+     * 一次算出全部基本区汉字的首字母，之后查表，不必每个字都编码一次
+     */
+    private static char[] buildTable() {
+        char[] table = new char[CJK_END - CJK_START + 1];
+        for (char c = CJK_START; c <= CJK_END; c++) {
+            table[c - CJK_START] = lookup(c);
+        }
+        return table;
+    }
+
+    private static char lookup(char c) {
+        byte[] bytes = String.valueOf(c).getBytes(GB2312);
+        if (bytes.length != 2) {
+            return c;
+        }
+        int code = (bytes[0] & 0xFF) << 8 | (bytes[1] & 0xFF);
+        if (code < BOUNDARIES[0] || code > LEVEL1_END) {
+            return c;
+        }
+        int letter = BOUNDARIES.length - 1;
+        while (code < BOUNDARIES[letter]) {
+            letter--;
+        }
+        return LETTERS[letter];
+    }
+}
@@ -0,0 +1,260 @@
+package com.student.util;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 排名树
+ * 按分数从高到低排列元素的平衡二叉树（AVL），每个结点记录子树的元素数，
+ * 修改分数、查询名次都是 O(log n)，取前 k 名是 O(log n + k)，不需要每次排序全部元素
+ * 分数相同的元素按加入排名的先后排列，名次按“分数比它高的元素数 + 1”计算，同分同名次
+ * 元素按对象本身区分，元素的分数变化后调用 update 重新排名
+ * @param <E> 元素类型
+ */
+public class RankTree<E> {
+    private Node<E> root;                                              // 根结点
+    private final Map<E, Node<E>> nodes = new IdentityHashMap<>();     // 元素到结点
+    private long nextSeq;                                              // 下一个加入排名的先后序号
+
+    /**
+     * 加入元素或更新元素的分数
+     * @param element 元素
+     * @param score 当前分数
+     */
+    public void update(E element, double score) {
+        Node<E> node = nodes.get(element);
+        if (node != null) {
+            if (node.score == score) {
+                return;
+            }
+            root = delete(root, node.score, node.seq);
+        }
+        node = new Node<>(element, score, node == null ? nextSeq++ : node.seq);
+        nodes.put(element, node);
+        root = insert(root, node);
+    }
+
+    /**
+     * 删除元素
+     * @return 元素是否在排名中
+     */
+    public boolean remove(E element) {
+        Node<E> node = nodes.remove(element);
+        if (node == null) {
+            return false;
+        }
+        root = delete(root, node.score, node.seq);
+        return true;
+    }
+
+    public boolean contains(E element) {
+        return nodes.containsKey(element);
+    }
+
+    public int size() {
+        return size(root);
+    }
+
+    public void clear() {
+        root = null;
+        nodes.clear();
+    }
+
+    /**
+     * 元素的名次，同分同名次
+     * @return 名次，从1开始；不在排名中时返回-1
+     */
+    public int rank(E element) {
+        Node<E> node = nodes.get(element);
+        return node == null ? -1 : countAbove(node.score) + 1;
+    }
+
+    /**
+     * 分数高于指定分数的元素数
+     */
+    public int countAbove(double score) {
+        int count = 0;
+        Node<E> node = root;
+        while (node != null) {
+            if (node.score > score) {
+                count += size(node.left) + 1;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 前 k 名
+     * @param k 个数
+     * @return 按分数从高到低排列的元素
+     */
+    public List<E> top(int k) {
+        List<E> result = new ArrayList<>(Math.min(k, size()));
+        // 中序遍历，栈中是还没有访问的祖先结点
+        List<Node<E>> stack = new ArrayList<>();
+        Node<E> node = root;
+        while (result.size() < k && (node != null || !stack.isEmpty())) {
+            while (node != null) {
+                stack.add(node);
+                node = node.left;
+            }
+            node = stack.remove(stack.size() - 1);
+            result.add(node.element);
+            node = node.right;
+        }
+        return result;
+    }
+
+    /**
+     * 第 index 个元素（从0开始，按分数从高到低）
+     */
+    public E get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("index " + index + ", size " + size());
+        }
+        Node<E> node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index == leftSize) {
+                return node.element;
+            } else {
+                index -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * 比较两个排名位置：分数高的在前，同分时先加入的在前
+     */
+    private static int compare(double score, long seq, Node<?> node) {
+        if (score != node.score) {
+            return score > node.score ? -1 : 1;
+        }
+        return Long.compare(seq, node.seq);
+    }
+
+    private static <E> Node<E> insert(Node<E> node, Node<E> added) {
+        if (node == null) {
+            added.left = null;
+            added.right = null;
+            added.height = 1;
+            added.size = 1;
+            return added;
+        }
+        if (compare(added.score, added.seq, node) < 0) {
+            node.left = insert(node.left, added);
+        } else {
+            node.right = insert(node.right, added);
+        }
+        return balance(node);
+    }
+
+    private static <E> Node<E> delete(Node<E> node, double score, long seq) {
+        if (node == null) {
+            return null;
+        }
+        int c = compare(score, seq, node);
+        if (c < 0) {
+            node.left = delete(node.left, score, seq);
+        } else if (c > 0) {
+            node.right = delete(node.right, score, seq);
+        } else {
+            if (node.left == null) {
+                return node.right;
+            }
+            if (node.right == null) {
+                return node.left;
+            }
+            // 用右子树中最靠前的结点替换被删除的结点
+            Node<E> successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            successor.right = deleteFirst(node.right);
+            successor.left = node.left;
+            node = successor;
+        }
+        return balance(node);
+    }
+
+    private static <E> Node<E> deleteFirst(Node<E> node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = deleteFirst(node.left);
+        return balance(node);
+    }
+
+    private static <E> Node<E> balance(Node<E> node) {
+        update(node);
+        int factor = height(node.left) - height(node.right);
+        if (factor > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (factor < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private static <E> Node<E> rotateRight(Node<E> node) {
+        Node<E> left = node.left;
+        node.left = left.right;
+        left.right = node;
+        update(node);
+        update(left);
+        return left;
+    }
+
+    private static <E> Node<E> rotateLeft(Node<E> node) {
+        Node<E> right = node.right;
+        node.right = right.left;
+        right.left = node;
+        update(node);
+        update(right);
+        return right;
+    }
+
+    private static void update(Node<?> node) {
+        node.height = Math.max(height(node.left), height(node.right)) + 1;
+        node.size = size(node.left) + size(node.right) + 1;
+    }
+
+    private static int height(Node<?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static int size(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static class Node<E> {
+        final E element;       // 元素
+        final double score;    // 加入排名时的分数
+        final long seq;        // 加入排名的先后序号
+        Node<E> left;          // 分数更高的子树
+        Node<E> right;         // 分数更低的子树
+        int height;            // 子树高度
+        int size;              // 子树元素数
+
+        Node(E element, double score, long seq) {
+            this.element = element;
+            this.score = score;
+            this.seq = seq;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.student.util;
+
+/**
+ * 分数工具类
+ */
+public class ScoreUtil {
+
+    /**
+     * 格式化分数，整数分数不显示小数部分
+     * @param score 分数
+     * @return 格式化后的分数
+     */
+    public static String format(double score) {
+        if (score == Math.rint(score) && !Double.isInfinite(score)) {
+            return String.valueOf((long) score);
+        }
+        return String.valueOf(score);
+    }
+}
@@ -1,5 +1,6 @@
 package com.student.view;
 
+import com.student.service.ClassRepository;
 import com.student.util.Constant;
 import javax.swing.*;
 import javax.swing.border.EtchedBorder;
@@ -10,6 +11,10 @@ import java.util.Enumeration;
 
 public class ChangeClassPanel extends JScrollPane {
     JLabel infoLbl = new JLabel();
+    JLabel progressLbl = new JLabel();                // 加载进度文字
+    JProgressBar progressBar = new JProgressBar(0, 100); // 加载进度条
+    JButton btnCancel = new JButton("取消加载");       // 取消加载按钮
+    private LoadClassTask loadTask;                   // 正在进行的加载任务
 
     public ChangeClassPanel(MainFrame mainFrame) {
         this.setBorder(new TitledBorder(new EtchedBorder(), "新选择班级"));
@@ -58,39 +63,61 @@ public class ChangeClassPanel extends JScrollPane {
             contentPanel.add(btnChooseClass);
             btnChooseClass.setBounds(x, y + (count * 40), 120, 30);
             
+            // 加载进度，开始加载后显示
+            contentPanel.add(btnCancel);
+            contentPanel.add(progressBar);
+            contentPanel.add(progressLbl);
+            btnCancel.setBounds(x + 130, y + (count * 40), 100, 30);
+            progressBar.setBounds(x, y + (count * 40) + 40, 230, 20);
+            progressLbl.setBounds(x, y + (count * 40) + 65, 300, 30);
+            btnCancel.setVisible(false);
+            progressBar.setVisible(false);
+            btnCancel.addActionListener(e -> {
+                if (loadTask != null) {
+                    loadTask.requestCancel();
+                    btnCancel.setEnabled(false);
+                }
+            });
+
             // 设置内容面板的首选大小
-            contentPanel.setPreferredSize(new Dimension(maxWidth + 50, y + (count * 40) + 50));
+            contentPanel.setPreferredSize(new Dimension(maxWidth + 50, y + (count * 40) + 130));
             
             btnChooseClass.addActionListener(e -> {
                 Enumeration<AbstractButton> elements = btnGroup.getElements();
-                boolean isSelected = false;
+                String selectedClass = null;
                 while (elements.hasMoreElements()) {
                     JRadioButton btn = (JRadioButton) elements.nextElement();
                     if (btn.isSelected()) {
-                        isSelected = true;
-                        String selectedClass = btn.getText();
-                        mainFrame.setTitle(selectedClass);
-                        Constant.CLASS_PATH = selectedClass;
-                        
-                        // 读取学生总数
-                        int studentCount = getStudentCount(selectedClass);
-                        infoLbl.setText("班级：" + selectedClass + "，班级学生总数：" + studentCount);
+                        selectedClass = btn.getText();
                         break;
                     }
                 }
-                if (isSelected) {
-                    // TODO 初始化小组和学生
-                    try {
-                        // 可以在这里添加其他初始化代码
-                    } catch (Exception e1) {
-                        e1.printStackTrace();
-                        JOptionPane.showMessageDialog(this, "初始化小组和学生信息失败，请检查相关文件", "", JOptionPane.INFORMATION_MESSAGE);
-                    }
-                    this.removeAll();
-                    infoLbl.setBounds(160, 100, 200, 30);
-                    this.add(infoLbl);
-                    this.repaint();
-                    this.validate();
+                if (selectedClass != null) {
+                    // 在后台线程初始化小组和学生，界面显示进度
+                    String className = selectedClass;
+                    btnChooseClass.setEnabled(false);
+                    btnCancel.setEnabled(true);
+                    btnCancel.setVisible(true);
+                    progressBar.setValue(0);
+                    progressBar.setVisible(true);
+                    loadTask = new LoadClassTask(this, className, progressBar, progressLbl, loaded -> {
+                        loadTask = null;
+                        btnChooseClass.setEnabled(true);
+                        btnCancel.setVisible(false);
+                        progressBar.setVisible(false);
+                        if (!loaded) {
+                            return;
+                        }
+                        mainFrame.setTitle(className);
+                        infoLbl.setText("班级：" + className + "，班级学生总数："
+                                + ClassRepository.getInstance().getStudentCount());
+                        this.removeAll();
+                        infoLbl.setBounds(160, 100, 200, 30);
+                        this.add(infoLbl);
+                        this.repaint();
+                        this.validate();
+                    });
+                    loadTask.execute();
                 } else {
                     JOptionPane.showMessageDialog(this, "请先选择班级", "", JOptionPane.INFORMATION_MESSAGE);
                 }
@@ -100,20 +127,14 @@ public class ChangeClassPanel extends JScrollPane {
         }
     }
 
-    // 修改获取学生总数的方法
-    private int getStudentCount(String className) {
-        File studentsDir = new File(Constant.FILE_PATH + className + "/students");
-        if (!studentsDir.exists() || !studentsDir.isDirectory()) {
-            return 0;
+    /**
+     * 离开切换班级页面时取消未完成的加载
+     */
+    @Override
+    public void removeNotify() {
+        if (loadTask != null) {
+            loadTask.requestCancel();
         }
-        
-        // 只统计学生文件（不包含目录）
-        File[] studentFiles = studentsDir.listFiles((dir, name) -> 
-            name.endsWith(".txt") && new File(dir, name).isFile()
-        );
-        
-       
-        
-        return studentFiles != null ? studentFiles.length : 0;
+        super.removeNotify();
     }
 }
@@ -7,6 +7,7 @@ import javax.swing.border.TitledBorder;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.io.File;
+import com.student.service.ClassRepository;
 import com.student.util.Constant;
 
 /**
@@ -80,6 +81,9 @@ public class ClassListPanel extends JPanel {
             }
             // 修改班级文件夹名称
             String oldClassName = (String) classTable.getValueAt(selectedRow, 1);
+            if (!closeIfCurrent(oldClassName)) {
+                return;
+            }
             File oldDir = new File(Constant.FILE_PATH + oldClassName);
             File newDir = new File(Constant.FILE_PATH + newClassName);
             if (oldDir.renameTo(newDir)) {
@@ -101,6 +105,9 @@ public class ClassListPanel extends JPanel {
                 return;
             }
             String className = (String) classTable.getValueAt(selectedRow, 1);
+            if (!closeIfCurrent(className)) {
+                return;
+            }
             File dir = new File(Constant.FILE_PATH + className);
             if (deleteDirectory(dir)) {
                 updateClassList();
@@ -142,6 +149,24 @@ public class ClassListPanel extends JPanel {
         }
     }
 
+    /**
+     * 修改或删除当前班级前先关闭它：班级打开时日志、文件锁和目录监视都占用着班级目录中的文件，
+     * Windows 上目录无法改名或删除
+     * @param className 要修改或删除的班级
+     * @return 可以继续修改或删除时返回true，用户取消时返回false
+     */
+    private boolean closeIfCurrent(String className) {
+        if (!className.equals(Constant.CLASS_PATH)) {
+            return true;
+        }
+        if (JOptionPane.showConfirmDialog(this, "该班级正在使用，需要先关闭该班级，是否继续？", "",
+                JOptionPane.YES_NO_OPTION) != JOptionPane.YES_OPTION) {
+            return false;
+        }
+        ClassRepository.getInstance().unload();
+        return true;
+    }
+
     /**
      * 递归删除目录及其内容
      * @param directory 要删除的目录
@@ -0,0 +1,72 @@
+package com.student.view;
+
+import com.student.service.ClassRepository;
+import com.student.service.ScoreExporter;
+
+import javax.swing.*;
+import java.awt.*;
+import java.io.File;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * 导出成绩后台任务
+ * 在后台线程写出文件，界面线程显示进度对话框，可以随时取消
+ * 进度对话框只在界面线程中访问：定时器在界面线程检查是否已点击取消，后台线程只读取 canceled
+ */
+public class ExportScoreTask extends SwingWorker<Boolean, Void> {
+    private final Component parent;           // 对话框的父组件
+    private final File file;                  // 导出文件
+    private final ProgressMonitor monitor;    // 进度对话框
+    private final Timer cancelCheck;          // 检查进度对话框是否已取消的定时器
+    private volatile boolean canceled;        // 进度对话框已取消，由界面线程设置
+
+    public ExportScoreTask(Component parent, File file) {
+        this.parent = parent;
+        this.file = file;
+        this.monitor = new ProgressMonitor(parent, "正在导出成绩", file.getName(), 0, 100);
+        this.monitor.setMillisToDecideToPopup(200);
+        addPropertyChangeListener(e -> {
+            if ("progress".equals(e.getPropertyName())) {
+                monitor.setProgress((Integer) e.getNewValue());
+            }
+        });
+        this.cancelCheck = new Timer(100, e -> {
+            if (monitor.isCanceled()) {
+                canceled = true;
+            }
+        });
+        this.cancelCheck.start();
+    }
+
+    @Override
+    protected Boolean doInBackground() throws Exception {
+        return new ScoreExporter(ClassRepository.getInstance()).export(file, new ScoreExporter.Listener() {
+            @Override
+            public void progress(int done, int total) {
+                setProgress(total == 0 ? 100 : (int) (done * 100L / total));
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return canceled || ExportScoreTask.this.isCancelled();
+            }
+        });
+    }
+
+    @Override
+    protected void done() {
+        cancelCheck.stop();
+        monitor.close();
+        try {
+            if (get()) {
+                JOptionPane.showMessageDialog(parent, "成绩已导出到 " + file.getPath(), "",
+                        JOptionPane.INFORMATION_MESSAGE);
+            } else {
+                JOptionPane.showMessageDialog(parent, "已取消导出", "", JOptionPane.INFORMATION_MESSAGE);
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            e.printStackTrace();
+            JOptionPane.showMessageDialog(parent, "导出失败", "", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+}
@@ -1,10 +1,11 @@
 package com.student.view;
 
+import com.student.service.ClassRepository;
 import com.student.util.Constant;
 import javax.swing.*;
 import javax.swing.border.EtchedBorder;
 import javax.swing.border.TitledBorder;
-import java.io.*;
+import java.io.IOException;
 
 /**
  * 小组添加面板类
@@ -55,37 +56,13 @@ public class GroupAddPanel extends JPanel {
                 return;
             }
             
-            // 在当前班级文件夹中创建groups子文件夹
-            String groupDirPath = Constant.FILE_PATH + Constant.CLASS_PATH + "/groups";
-            File groupsDir = new File(groupDirPath);
-            if (!groupsDir.exists()) {
-                groupsDir.mkdirs();
-            }
-            
-            // 创建小组文件夹
-            File groupDir = new File(groupsDir, groupName);
-            if (groupDir.exists()) {
-                JOptionPane.showMessageDialog(this, "小组已存在", "", JOptionPane.WARNING_MESSAGE);
-                return;
-            }
-            
             try {
-                // 创建小组文件夹
-                if (groupDir.mkdir()) {
-                    // 在小组文件夹中创建小组信息文件
-                    File groupInfoFile = new File(groupDir, groupName + ".txt");
-                    try (BufferedWriter writer = new BufferedWriter(new FileWriter(groupInfoFile))) {
-                        writer.write("小组名称：" + groupName);
-                        writer.newLine();
-                        writer.write("创建时间：" + new java.util.Date());
-                        writer.newLine();
-                        writer.write("所属班级：" + Constant.CLASS_PATH);
-                    }
-                    
+                // 通过班级数据仓库追加一条新增小组的日志记录，小组已存在时返回false
+                if (ClassRepository.getInstance().addGroup(groupName)) {
                     JOptionPane.showMessageDialog(this, "新增小组成功", "", JOptionPane.INFORMATION_MESSAGE);
                     txtName.setText(""); // 清空输入框
                 } else {
-                    JOptionPane.showMessageDialog(this, "创建小组失败", "", JOptionPane.ERROR_MESSAGE);
+                    JOptionPane.showMessageDialog(this, "小组已存在", "", JOptionPane.WARNING_MESSAGE);
                 }
                 
             } catch (IOException ex) {
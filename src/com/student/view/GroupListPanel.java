@@ -1,15 +1,17 @@
 package com.student.view;
 
 import com.student.entity.Group;
-import com.student.util.Constant;
+import com.student.service.ClassListener;
+import com.student.service.ClassRepository;
+import com.student.util.Metrics;
+import com.student.util.ScoreUtil;
 
 import javax.swing.*;
 import javax.swing.border.EtchedBorder;
 import javax.swing.border.TitledBorder;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
-import java.io.*;
-import java.util.ArrayList;
+import java.io.IOException;
 import java.util.List;
 
 /**
@@ -19,13 +21,55 @@ import java.util.List;
  */
 public class GroupListPanel extends JPanel {
     // 表格列头定义
-    String[] headers = {"序号", "小组名称", "分数"};
+    String[] headers = {"序号", "小组名称", "分数", "成员得分", "总分"};
     // 界面组件声明
     JTable classTable;                   // 小组列表表格
     JTextField txtName = new JTextField();    // 小组名称输入框
     JTextField txtScore = new JTextField();   // 分数输入框
     JButton btnEdit = new JButton("修改");    // 修改按钮
     JButton btnDelete = new JButton("删除");  // 删除按钮
+    JButton btnHistory = new JButton("分数历史");  // 分数历史按钮
+
+    // 班级数据变化时只更新对应的表格行，包括其他电脑上的修改
+    private final ClassListener classListener = new ClassListener() {
+        @Override
+        public void groupAdded(Group group) {
+            groupChanged(group);
+        }
+
+        @Override
+        public void groupChanged(Group group) {
+            DefaultTableModel model = (DefaultTableModel) classTable.getModel();
+            int row = findRow(group.getGroupName());
+            if (row < 0) {
+                model.addRow(toRow(model.getRowCount(), group));
+                return;
+            }
+            String[] values = toRow(row, group);
+            for (int column = 2; column < values.length; column++) {
+                model.setValueAt(values[column], row, column);
+            }
+        }
+
+        @Override
+        public void groupRemoved(String groupName) {
+            DefaultTableModel model = (DefaultTableModel) classTable.getModel();
+            int row = findRow(groupName);
+            if (row < 0) {
+                return;
+            }
+            model.removeRow(row);
+            // 重新编号后面的行
+            for (int i = row; i < model.getRowCount(); i++) {
+                model.setValueAt(String.valueOf(i + 1), i, 0);
+            }
+        }
+
+        @Override
+        public void classReloaded() {
+            updateGroupList();
+        }
+    };
 
     /**
      * 构造方法：初始化小组列表面板的界面组件
@@ -56,6 +100,7 @@ public class GroupListPanel extends JPanel {
         txtScore.setPreferredSize(new Dimension(100, 30));
         btnPanel.add(btnEdit);
         btnPanel.add(btnDelete);
+        btnPanel.add(btnHistory);
         this.add(btnPanel, BorderLayout.SOUTH);
 
         // 更新小组列表
@@ -92,103 +137,89 @@ public class GroupListPanel extends JPanel {
             }
             deleteGroup(selectedRow);
         });
+
+        // 分数历史按钮监听器
+        btnHistory.addActionListener(e -> {
+            int selectedRow = classTable.getSelectedRow();
+            if (selectedRow < 0) {
+                JOptionPane.showMessageDialog(this, "请先选择小组", "", JOptionPane.INFORMATION_MESSAGE);
+                return;
+            }
+            new ScoreHistoryDialog(this, (String) classTable.getValueAt(selectedRow, 1)).setVisible(true);
+        });
     }
 
     /**
      * 更新小组列表显示
-     * 读取当前班级目录下的所有小组信息并显示在表格中
+     * 从班级数据仓库读取所有小组信息并显示在表格中，耗时计入 Metrics.GROUP_TABLE_REFRESH
      */
     private void updateGroupList() {
-        // 检查是否选择了班级
-        if (Constant.CLASS_PATH == null || Constant.CLASS_PATH.isEmpty()) {
-            return;
-        }
-
-        // 获取小组文件夹路径
-        File groupsDir = new File(Constant.FILE_PATH + Constant.CLASS_PATH + "/groups");
-        if (!groupsDir.exists() || !groupsDir.isDirectory()) {
-            return;
-        }
-
-        // 获取所有小组文件夹
-        File[] groupDirs = groupsDir.listFiles(File::isDirectory);
-        if (groupDirs == null) {
-            return;
-        }
+        long start = System.nanoTime();
+        List<Group> groups = ClassRepository.getInstance().getGroups();
 
         // 准备表格数据
-        String[][] data = new String[groupDirs.length][3];
-        for (int i = 0; i < groupDirs.length; i++) {
-            data[i][0] = String.valueOf(i + 1);  // 序号
-            data[i][1] = groupDirs[i].getName(); // 小组名称
-            
-            // 读取小组分数
-            File scoreFile = new File(groupDirs[i], groupDirs[i].getName() + ".txt");
-            data[i][2] = readGroupScore(scoreFile);
+        String[][] data = new String[groups.size()][];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = toRow(i, groups.get(i));
         }
 
         // 更新表格
         DefaultTableModel model = new DefaultTableModel(data, headers);
         classTable.setModel(model);
+        Metrics.GROUP_TABLE_REFRESH.recordSince(start);
+    }
+
+    private static String[] toRow(int index, Group group) {
+        return new String[]{
+                String.valueOf(index + 1),                      // 序号
+                group.getGroupName(),                           // 小组名称
+                ScoreUtil.format(group.getScore()),             // 分数
+                ScoreUtil.format(group.getMemberScore()),       // 组内学生得分合计
+                ScoreUtil.format(group.getTotalScore())         // 总分
+        };
     }
 
     /**
-     * 读取小组分数
-     * @param file 小组信息文件
-     * @return 小组分数，如果未找到则返回"0"
+     * 按小组名称查找表格行
+     * @return 行号，找不到时返回-1
      */
-    private String readGroupScore(File file) {
-        if (!file.exists()) {
-            return "0";
-        }
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                if (line.startsWith("分数：")) {
-                    return line.substring(3).trim();
-                }
+    private int findRow(String groupName) {
+        for (int row = 0; row < classTable.getRowCount(); row++) {
+            if (groupName.equals(classTable.getModel().getValueAt(row, 1))) {
+                return row;
             }
-        } catch (IOException e) {
-            e.printStackTrace();
         }
-        return "0";
+        return -1;
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        ClassRepository.getInstance().addListener(classListener);
+    }
+
+    @Override
+    public void removeNotify() {
+        ClassRepository.getInstance().removeListener(classListener);
+        super.removeNotify();
     }
 
     /**
-     * 更新小组信息
+     * 更新小组信息，修改前的分数保留在小组分数历史中
      * @param selectedRow 选中的表格行索引
      */
     private void updateGroupInfo(int selectedRow) {
         String groupName = (String) classTable.getValueAt(selectedRow, 1);
-        String newScore = txtScore.getText();
-        
-        File groupDir = new File(Constant.FILE_PATH + Constant.CLASS_PATH + "/groups/" + groupName);
-        File groupFile = new File(groupDir, groupName + ".txt");
+        double newScore;
+        try {
+            newScore = Double.parseDouble(txtScore.getText().trim());
+        } catch (NumberFormatException e) {
+            JOptionPane.showMessageDialog(this, "请输入正确的分数", "", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
 
         try {
-            // 读取现有内容
-            List<String> lines = new ArrayList<>();
-            if (groupFile.exists()) {
-                try (BufferedReader reader = new BufferedReader(new FileReader(groupFile))) {
-                    String line;
-                    while ((line = reader.readLine()) != null) {
-                        if (!line.startsWith("分数：")) {
-                            lines.add(line);
-                        }
-                    }
-                }
-            }
-            
-            // 写入更新后的内容
-            try (BufferedWriter writer = new BufferedWriter(new FileWriter(groupFile))) {
-                for (String line : lines) {
-                    writer.write(line);
-                    writer.newLine();
-                }
-                writer.write("分数：" + newScore);
-            }
-            
-            updateGroupList();
+            ClassRepository.getInstance().updateGroupScore(groupName, newScore);
             JOptionPane.showMessageDialog(this, "修改成功", "", JOptionPane.INFORMATION_MESSAGE);
         } catch (IOException e) {
             e.printStackTrace();
@@ -202,34 +233,16 @@ public class GroupListPanel extends JPanel {
      */
     private void deleteGroup(int selectedRow) {
         String groupName = (String) classTable.getValueAt(selectedRow, 1);
-        File groupDir = new File(Constant.FILE_PATH + Constant.CLASS_PATH + "/groups/" + groupName);
-        
-        if (deleteDirectory(groupDir)) {
-            updateGroupList();
-            JOptionPane.showMessageDialog(this, "删除成功", "", JOptionPane.INFORMATION_MESSAGE);
-        } else {
-            JOptionPane.showMessageDialog(this, "删除失败", "", JOptionPane.ERROR_MESSAGE);
-        }
-    }
 
-    /**
-     * 递归删除目录及其内容
-     * @param directory 要删除的目录
-     * @return 删除是否成功
-     */
-    private boolean deleteDirectory(File directory) {
-        if (directory.exists()) {
-            File[] files = directory.listFiles();
-            if (files != null) {
-                for (File file : files) {
-                    if (file.isDirectory()) {
-                        deleteDirectory(file);    // 递归删除子目录
-                    } else {
-                        file.delete();           // 删除文件
-                    }
-                }
+        try {
+            if (ClassRepository.getInstance().deleteGroup(groupName)) {
+                JOptionPane.showMessageDialog(this, "删除成功", "", JOptionPane.INFORMATION_MESSAGE);
+            } else {
+                JOptionPane.showMessageDialog(this, "删除失败", "", JOptionPane.ERROR_MESSAGE);
             }
+        } catch (IOException e) {
+            e.printStackTrace();
+            JOptionPane.showMessageDialog(this, "删除失败", "", JOptionPane.ERROR_MESSAGE);
         }
-        return directory.delete();               // 删除空目录
     }
 }
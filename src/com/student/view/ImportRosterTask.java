@@ -0,0 +1,78 @@
+package com.student.view;
+
+import com.student.service.ClassRepository;
+import com.student.service.RosterImporter;
+
+import javax.swing.*;
+import java.awt.*;
+import java.io.File;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * 批量导入学生后台任务
+ * 在后台线程读取名单并写入班级，界面线程显示进度对话框；读取名单时可以取消，
+ * 取消后不写入任何学生。完成后显示导入结果和出错的行
+ */
+public class ImportRosterTask extends SwingWorker<RosterImporter.Result, Void> {
+    private final Component parent;           // 对话框的父组件
+    private final File file;                  // 名单文件
+    private final ProgressMonitor monitor;    // 进度对话框
+
+    public ImportRosterTask(Component parent, File file) {
+        this.parent = parent;
+        this.file = file;
+        this.monitor = new ProgressMonitor(parent, "正在导入学生", file.getName(), 0, 100);
+        this.monitor.setMillisToDecideToPopup(200);
+        addPropertyChangeListener(e -> {
+            if ("progress".equals(e.getPropertyName())) {
+                monitor.setProgress((Integer) e.getNewValue());
+            }
+        });
+    }
+
+    @Override
+    protected RosterImporter.Result doInBackground() throws Exception {
+        return new RosterImporter(ClassRepository.getInstance()).importFile(file, new RosterImporter.Listener() {
+            @Override
+            public void progress(int rows, int percent) {
+                setProgress(percent);
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return monitor.isCanceled() || ImportRosterTask.this.isCancelled();
+            }
+        });
+    }
+
+    @Override
+    protected void done() {
+        monitor.close();
+        RosterImporter.Result result;
+        try {
+            result = get();
+        } catch (InterruptedException | ExecutionException e) {
+            e.printStackTrace();
+            Throwable cause = e.getCause() == null ? e : e.getCause();
+            JOptionPane.showMessageDialog(parent, "导入失败：" + cause.getMessage(), "错误", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        if (result == null) {
+            JOptionPane.showMessageDialog(parent, "已取消导入", "", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+        String summary = "已导入 " + result.getImported() + " 名学生，新建 " + result.getGroupsCreated() + " 个小组";
+        if (result.getErrorCount() == 0) {
+            JOptionPane.showMessageDialog(parent, summary, "", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+        JTextArea errors = new JTextArea(String.join("\n", result.getErrors()), 15, 40);
+        errors.setEditable(false);
+        String message = summary + "，" + result.getErrorCount() + " 行未导入";
+        if (result.getErrorCount() > result.getErrors().size()) {
+            message += "（只显示前 " + result.getErrors().size() + " 行）";
+        }
+        JOptionPane.showMessageDialog(parent, new Object[]{message, new JScrollPane(errors)}, "",
+                JOptionPane.WARNING_MESSAGE);
+    }
+}
@@ -0,0 +1,204 @@
+package com.student.view;
+
+import com.student.entity.Group;
+import com.student.entity.Student;
+import com.student.service.ClassListener;
+import com.student.service.ClassRepository;
+import com.student.util.Metrics;
+import com.student.util.ScoreUtil;
+
+import javax.swing.*;
+import javax.swing.border.EtchedBorder;
+import javax.swing.border.TitledBorder;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.util.List;
+
+/**
+ * 排行榜面板类
+ * 显示全班学生、小组总分或某个小组内学生的前 TOP 名，可以按学号查询学生的名次
+ * 排名由班级数据仓库的排名树维护，数据变化时只重新读取前 TOP 名，不排序全部学生
+ */
+public class LeaderboardPanel extends JPanel {
+    private static final int TOP = 10;                   // 显示的名次数
+    private static final String ALL_STUDENTS = "全班学生";
+    private static final String ALL_GROUPS = "小组总分";
+    private static final String GROUP_PREFIX = "小组：";
+
+    JComboBox<String> cmbScope = new JComboBox<>();      // 排行范围
+    DefaultTableModel tableModel = new DefaultTableModel(0, 0);   // 排行表格模型
+    JTable rankTable;                                    // 排行表格
+    JTextField txtId = new JTextField();                 // 查询名次的学号
+    JButton btnRank = new JButton("查询名次");            // 查询名次按钮
+    JLabel lblRank = new JLabel();                       // 名次
+    private boolean refreshPending;                      // 是否已安排刷新
+
+    // 班级数据变化时合并为一次刷新
+    private final ClassListener classListener = new ClassListener() {
+        @Override
+        public void studentAdded(Student student) {
+            scheduleRefresh();
+        }
+
+        @Override
+        public void studentChanged(String oldId, Student student) {
+            scheduleRefresh();
+        }
+
+        @Override
+        public void studentRemoved(String studentId) {
+            scheduleRefresh();
+        }
+
+        @Override
+        public void groupAdded(Group group) {
+            loadScopes();
+        }
+
+        @Override
+        public void groupChanged(Group group) {
+            scheduleRefresh();
+        }
+
+        @Override
+        public void groupRemoved(String groupName) {
+            loadScopes();
+        }
+
+        @Override
+        public void classReloaded() {
+            loadScopes();
+        }
+    };
+
+    /**
+     * 构造方法：初始化排行榜面板的界面组件
+     */
+    public LeaderboardPanel() {
+        this.setBorder(new TitledBorder(new EtchedBorder(), "排行榜"));
+        this.setLayout(new BorderLayout());
+
+        JPanel scopePanel = new JPanel();
+        scopePanel.add(new JLabel("范围："));
+        scopePanel.add(cmbScope);
+        cmbScope.setPreferredSize(new Dimension(200, 30));
+        this.add(scopePanel, BorderLayout.NORTH);
+
+        rankTable = new JTable(tableModel) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        this.add(new JScrollPane(rankTable), BorderLayout.CENTER);
+
+        JPanel rankPanel = new JPanel();
+        rankPanel.add(txtId);
+        txtId.setPreferredSize(new Dimension(100, 30));
+        rankPanel.add(btnRank);
+        rankPanel.add(lblRank);
+        this.add(rankPanel, BorderLayout.SOUTH);
+
+        loadScopes();
+
+        cmbScope.addActionListener(e -> refresh());
+        btnRank.addActionListener(e -> showRank());
+        txtId.addActionListener(e -> showRank());
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        ClassRepository.getInstance().addListener(classListener);
+    }
+
+    @Override
+    public void removeNotify() {
+        ClassRepository.getInstance().removeListener(classListener);
+        super.removeNotify();
+    }
+
+    /**
+     * 加载排行范围：全班学生、小组总分和每个小组
+     */
+    private void loadScopes() {
+        Object selected = cmbScope.getSelectedItem();
+        cmbScope.removeAllItems();
+        cmbScope.addItem(ALL_STUDENTS);
+        cmbScope.addItem(ALL_GROUPS);
+        for (Group group : ClassRepository.getInstance().getGroups()) {
+            cmbScope.addItem(GROUP_PREFIX + group.getGroupName());
+        }
+        if (selected != null) {
+            cmbScope.setSelectedItem(selected);
+        }
+        refresh();
+    }
+
+    private void scheduleRefresh() {
+        if (!refreshPending) {
+            refreshPending = true;
+            SwingUtilities.invokeLater(this::refresh);
+        }
+    }
+
+    /**
+     * 按当前范围重新读取前 TOP 名，耗时计入 Metrics.LEADERBOARD_REFRESH
+     */
+    private void refresh() {
+        long start = System.nanoTime();
+        refreshTable();
+        Metrics.LEADERBOARD_REFRESH.recordSince(start);
+    }
+
+    private void refreshTable() {
+        refreshPending = false;
+        String scope = (String) cmbScope.getSelectedItem();
+        if (scope == null) {
+            return;
+        }
+        ClassRepository repository = ClassRepository.getInstance();
+        if (scope.equals(ALL_GROUPS)) {
+            List<Group> groups = repository.getTopGroups(TOP);
+            String[][] rows = new String[groups.size()][];
+            for (int i = 0; i < rows.length; i++) {
+                Group group = groups.get(i);
+                rows[i] = new String[]{String.valueOf(repository.getGroupRank(group)), group.getGroupName(),
+                        String.valueOf(group.getStudents().size()), ScoreUtil.format(group.getTotalScore())};
+            }
+            tableModel.setDataVector(rows, new String[]{"名次", "小组名称", "人数", "总分"});
+            return;
+        }
+        boolean inGroup = scope.startsWith(GROUP_PREFIX);
+        List<Student> students = inGroup
+                ? repository.getTopStudents(scope.substring(GROUP_PREFIX.length()), TOP)
+                : repository.getTopStudents(TOP);
+        String[][] rows = new String[students.size()][];
+        for (int i = 0; i < rows.length; i++) {
+            Student student = students.get(i);
+            int rank = inGroup ? repository.getGroupMemberRank(student) : repository.getStudentRank(student);
+            rows[i] = new String[]{String.valueOf(rank), student.getStudentId(), student.getName(),
+                    student.getGroupName(), ScoreUtil.format(student.getScore())};
+        }
+        tableModel.setDataVector(rows, new String[]{"名次", "学号", "姓名", "小组", "得分"});
+    }
+
+    /**
+     * 显示输入学号的学生在全班和小组内的名次
+     */
+    private void showRank() {
+        ClassRepository repository = ClassRepository.getInstance();
+        Student student = repository.getStudent(txtId.getText().trim());
+        if (student == null) {
+            lblRank.setText("没有这名学生");
+            return;
+        }
+        String text = student.getName() + "：全班第 " + repository.getStudentRank(student) + " 名（共 "
+                + repository.getStudentCount() + " 人）";
+        int groupRank = repository.getGroupMemberRank(student);
+        if (groupRank > 0) {
+            text += "，" + student.getGroupName() + " 组内第 " + groupRank + " 名";
+        }
+        lblRank.setText(text);
+    }
+}
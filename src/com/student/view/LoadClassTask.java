@@ -0,0 +1,97 @@
+package com.student.view;
+
+import com.student.dao.ReadListener;
+import com.student.service.ClassRepository;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * 加载班级后台任务
+ * 在后台线程读取班级文件，每读取一批学生发布一次进度，界面线程更新进度条和提示文字
+ * 调用 requestCancel 后在下一批之间停止，切换到新班级之前取消时当前班级保持不变；
+ * 不用 cancel(true) 中断线程，中断会关闭正在读写的日志文件通道
+ */
+public class LoadClassTask extends SwingWorker<Boolean, String> {
+    private final Component parent;               // 对话框的父组件
+    private final String className;               // 要加载的班级
+    private final JLabel messageLabel;            // 进度文字
+    private final Consumer<Boolean> onFinished;   // 结束时在界面线程回调，参数表示是否已加载
+    private volatile boolean cancelRequested;     // 是否已请求取消
+
+    /**
+     * @param parent 对话框的父组件
+     * @param className 班级名称
+     * @param progressBar 进度条
+     * @param messageLabel 进度文字
+     * @param onFinished 结束时回调，加载成功为true，取消或失败为false
+     */
+    public LoadClassTask(Component parent, String className, JProgressBar progressBar, JLabel messageLabel,
+                         Consumer<Boolean> onFinished) {
+        this.parent = parent;
+        this.className = className;
+        this.messageLabel = messageLabel;
+        this.onFinished = onFinished;
+        addPropertyChangeListener(e -> {
+            if ("progress".equals(e.getPropertyName())) {
+                progressBar.setValue((Integer) e.getNewValue());
+            }
+        });
+    }
+
+    /**
+     * 请求取消加载
+     */
+    public void requestCancel() {
+        cancelRequested = true;
+    }
+
+    @Override
+    protected Boolean doInBackground() throws Exception {
+        publish("正在读取班级 " + className);
+        try {
+            ClassRepository.getInstance().load(className, new ReadListener() {
+                @Override
+                public void progress(int done, int total) {
+                    setProgress(total == 0 ? 100 : (int) (done * 100L / total));
+                    publish("已读取 " + done + " / " + total + " 名学生");
+                }
+
+                @Override
+                public boolean isCancelled() {
+                    return cancelRequested;
+                }
+            });
+            return true;
+        } catch (CancellationException e) {
+            return false;
+        }
+    }
+
+    @Override
+    protected void process(List<String> messages) {
+        // 只显示最新的进度
+        messageLabel.setText(messages.get(messages.size() - 1));
+    }
+
+    @Override
+    protected void done() {
+        boolean loaded = false;
+        try {
+            loaded = get();
+            if (!loaded) {
+                messageLabel.setText("已取消加载");
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            e.printStackTrace();
+            messageLabel.setText("加载失败");
+            JOptionPane.showMessageDialog(parent, "初始化小组和学生信息失败，请检查相关文件", "",
+                    JOptionPane.INFORMATION_MESSAGE);
+        }
+        onFinished.accept(loaded);
+    }
+}
@@ -3,7 +3,9 @@ package com.student.view;
 import com.student.util.Constant;
 
 import javax.swing.*;
+import javax.swing.filechooser.FileNameExtensionFilter;
 import java.awt.*;
+import java.io.File;
 
 public class MainFrame extends JFrame {
 
@@ -26,6 +28,7 @@ public class MainFrame extends JFrame {
         JMenu classMenu = new JMenu("班级管理");
         JMenuItem addClassMenuItem = new JMenuItem("新增班级");
         JMenuItem classListMenuItem = new JMenuItem("班级列表");
+        JMenuItem schoolStatisticsMenuItem = new JMenuItem("全校统计");
 
         JMenu groupMenu = new JMenu("小组管理");
         JMenuItem addGroupMenuItem = new JMenuItem("新增小组");
@@ -38,6 +41,7 @@ public class MainFrame extends JFrame {
         JMenu onClassMenu = new JMenu("课堂管理");
         JMenuItem randomGroupMenuItem = new JMenuItem("随机小组");
         JMenuItem randomStudentMenuItem = new JMenuItem("随机学生");
+        JMenuItem leaderboardMenuItem = new JMenuItem("排行榜");
 
         this.getContentPane().add(mainMenu, BorderLayout.NORTH);
         mainMenu.add(fileMenu);
@@ -50,12 +54,14 @@ public class MainFrame extends JFrame {
         fileMenu.add(exitMenuItem);
         classMenu.add(addClassMenuItem);
         classMenu.add(classListMenuItem);
+        classMenu.add(schoolStatisticsMenuItem);
         groupMenu.add(addGroupMenuItem);
         groupMenu.add(groupListMenuItem);
         studentMenu.add(addStudentMenuItem);
         studentMenu.add(studentListMenuItem);
         onClassMenu.add(randomGroupMenuItem);
         onClassMenu.add(randomStudentMenuItem);
+        onClassMenu.add(leaderboardMenuItem);
         // 添加菜单事件
         // 切换班级
         changeClassMenuItem.addActionListener(e -> {
@@ -70,8 +76,7 @@ public class MainFrame extends JFrame {
             if (Constant.CLASS_PATH.isEmpty()) {
                 JOptionPane.showMessageDialog(this, "请先选择班级", "", JOptionPane.INFORMATION_MESSAGE);
             } else {
-                // TODO 导出
-                JOptionPane.showMessageDialog(this, "成绩已导出", "", JOptionPane.INFORMATION_MESSAGE);
+                exportScore();
             }
         });
         // 退出程序
@@ -93,6 +98,14 @@ public class MainFrame extends JFrame {
             this.getContentPane().validate();
             this.getContentPane().repaint();
         });
+        // 全校统计
+        schoolStatisticsMenuItem.addActionListener(e -> {
+            this.getContentPane().removeAll();
+            initMenus();
+            this.getContentPane().add(new SchoolStatisticsPanel(), BorderLayout.CENTER);
+            this.getContentPane().validate();
+            this.getContentPane().repaint();
+        });
         // 新增小组
         addGroupMenuItem.addActionListener(e -> {
             if (Constant.CLASS_PATH.isEmpty()) {
@@ -165,5 +178,40 @@ public class MainFrame extends JFrame {
                 this.getContentPane().validate();
             }
         });
+        // 排行榜
+        leaderboardMenuItem.addActionListener(e -> {
+            if (Constant.CLASS_PATH.isEmpty()) {
+                JOptionPane.showMessageDialog(this, "请先选择班级", "", JOptionPane.INFORMATION_MESSAGE);
+            } else {
+                this.getContentPane().removeAll();
+                initMenus();
+                this.getContentPane().add(new LeaderboardPanel(), BorderLayout.CENTER);
+                this.getContentPane().repaint();
+                this.getContentPane().validate();
+            }
+        });
+    }
+
+    /**
+     * 选择导出文件，在后台导出当前班级成绩
+     */
+    private void exportScore() {
+        JFileChooser chooser = new JFileChooser();
+        FileNameExtensionFilter xlsxFilter = new FileNameExtensionFilter("Excel 工作簿 (*.xlsx)", "xlsx");
+        FileNameExtensionFilter csvFilter = new FileNameExtensionFilter("CSV 文件 (*.csv)", "csv");
+        chooser.addChoosableFileFilter(xlsxFilter);
+        chooser.addChoosableFileFilter(csvFilter);
+        chooser.setFileFilter(xlsxFilter);
+        chooser.setSelectedFile(new File(Constant.CLASS_PATH + "成绩.xlsx"));
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File file = chooser.getSelectedFile();
+        String name = file.getName().toLowerCase();
+        if (!name.endsWith(".xlsx") && !name.endsWith(".csv")) {
+            String extension = chooser.getFileFilter() == csvFilter ? ".csv" : ".xlsx";
+            file = new File(file.getParentFile(), file.getName() + extension);
+        }
+        new ExportScoreTask(this, file).execute();
     }
 }
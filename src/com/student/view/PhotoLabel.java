@@ -0,0 +1,60 @@
+package com.student.view;
+
+import com.student.service.PhotoCache;
+
+import javax.swing.*;
+
+/**
+ * 学生照片显示区域
+ * 缩略图从 PhotoCache 读取，已缓存时立即显示；未缓存时保留当前显示，后台解码完成后再显示，
+ * 解码期间又请求了其他照片时丢弃旧的结果
+ */
+public class PhotoLabel extends JLabel {
+    private static final String EMPTY_TEXT = "照片";
+
+    private String requestedPath;   // 最后请求显示的照片路径
+
+    public PhotoLabel() {
+        super(EMPTY_TEXT);
+        setBorder(BorderFactory.createEtchedBorder());
+        setHorizontalAlignment(SwingConstants.CENTER);
+    }
+
+    /**
+     * 显示照片
+     * @param photoPath 照片文件路径，为空时显示“无照片”
+     */
+    public void showPhoto(String photoPath) {
+        if (photoPath == null || photoPath.isEmpty()) {
+            requestedPath = null;
+            setIcon(null);
+            setText("无照片");
+            return;
+        }
+        requestedPath = photoPath;
+        PhotoCache.getInstance().load(photoPath, thumbnail -> {
+            if (photoPath.equals(requestedPath)) {
+                show(thumbnail);
+            }
+        });
+    }
+
+    /**
+     * 清空照片，恢复默认文字
+     */
+    public void clear() {
+        requestedPath = null;
+        setIcon(null);
+        setText(EMPTY_TEXT);
+    }
+
+    private void show(PhotoCache.Thumbnail thumbnail) {
+        if (thumbnail.getIcon() != null) {
+            setIcon(thumbnail.getIcon());
+            setText("");
+        } else {
+            setIcon(null);
+            setText(thumbnail.getMessage());
+        }
+    }
+}
@@ -1,13 +1,24 @@
 package com.student.view;
 
-import com.student.util.Constant;
+import com.student.entity.Group;
+import com.student.entity.SelectionMode;
+import com.student.entity.StatusType;
+import com.student.entity.Student;
+import com.student.service.ClassListener;
+import com.student.service.ClassRepository;
+import com.student.service.GroupRoster;
+import com.student.service.PhotoCache;
+import com.student.service.SelectionEngine;
+import com.student.util.Metrics;
+import com.student.util.ScoreUtil;
 import javax.swing.*;
 import javax.swing.border.*;
 import javax.swing.Timer;
 import java.awt.*;
-import java.io.*;
+import java.io.IOException;
 import java.util.*;
 import java.util.List;
+import java.util.function.IntSupplier;
 
 /**
  * 随机点名面板类
@@ -22,19 +33,54 @@ public class RandomGroupPanel extends JPanel {
     private JTextField studentField;     // 学生姓名显示框
     private JLabel scoreLabel;           // 小组评分标签
     private JTextField scoreField;       // 小组评分输入框
-    private JLabel photoLabel;           // 学生照片显示区域
+    private PhotoLabel photoLabel;       // 学生照片显示区域
     private JButton randomGroupBtn;      // 随机小组按钮
     private JButton randomStudentBtn;    // 随机学生按钮
     private JButton scoreBtn;            // 评分按钮
     private JButton absenceButton;       // 缺勤按钮
     private JButton leaveButton;         // 请假按钮
+    private JComboBox<SelectionMode> modeBox; // 抽取方式
 
     // 功能相关成员变量
     private Timer timer;                 // 随机效果定时器
-    private Random random = new Random(); // 随机数生成器
-    private List<String[]> groupList = new ArrayList<>();      // 小组列表
-    private List<String[]> groupStudentList = new ArrayList<>(); // 学生列表
+    private IntSupplier groupSampler;    // 本次滚动的小组抽样器，名册过期时重新生成
+    private GroupRoster roster;             // 小组成员名册，班级修改后置为null，下次使用时重新获取
+    private int currentGroup = -1;          // 当前选中的小组在名册中的下标
     private boolean isRandomizing = false;  // 随机状态标志
+    private Student currentStudent;         // 当前选中的学生
+
+    // 班级修改后只标记名册过期，滚动时不读取文件、不复制列表
+    private final ClassListener classListener = new ClassListener() {
+        @Override
+        public void studentAdded(Student student) {
+            invalidateRoster();
+        }
+
+        @Override
+        public void studentChanged(String oldId, Student student) {
+            invalidateRoster();
+        }
+
+        @Override
+        public void studentRemoved(String studentId) {
+            invalidateRoster();
+        }
+
+        @Override
+        public void groupAdded(Group group) {
+            invalidateRoster();
+        }
+
+        @Override
+        public void groupRemoved(String groupName) {
+            invalidateRoster();
+        }
+
+        @Override
+        public void classReloaded() {
+            invalidateRoster();
+        }
+    };
 
     /**
      * 构造方法：初始化随机点名面板的界面组件
@@ -50,12 +96,14 @@ public class RandomGroupPanel extends JPanel {
         studentField = new JTextField();
         scoreLabel = new JLabel("小组评分：");
         scoreField = new JTextField();
-        photoLabel = new JLabel("照片");
+        photoLabel = new PhotoLabel();
         randomGroupBtn = new JButton("随机小组");
         randomStudentBtn = new JButton("随机学生");
         scoreBtn = new JButton("小组评分");
         absenceButton = new JButton("缺勤");
         leaveButton = new JButton("请假");
+        modeBox = new JComboBox<>(SelectionMode.values());
+        modeBox.setSelectedItem(SelectionEngine.getInstance().getMode());
 
         // 设置组件位置和大小
         groupLabel.setBounds(50, 50, 80, 30);
@@ -66,15 +114,12 @@ public class RandomGroupPanel extends JPanel {
         scoreField.setBounds(130, 100, 150, 30);
         photoLabel.setBounds(300, 100, 200, 200);
         randomGroupBtn.setBounds(50, 320, 100, 30);
+        modeBox.setBounds(160, 320, 110, 30);
         randomStudentBtn.setBounds(350, 320, 100, 30);
         scoreBtn.setBounds(50, 370, 100, 30);
         absenceButton.setBounds(350, 370, 80, 30);
         leaveButton.setBounds(450, 370, 80, 30);
 
-        // 设置照片标签的边框和对齐方式
-        photoLabel.setBorder(BorderFactory.createEtchedBorder());
-        photoLabel.setHorizontalAlignment(SwingConstants.CENTER);
-
         // 设置文本框为只读
         groupField.setEditable(false);
         studentField.setEditable(false);
@@ -92,16 +137,13 @@ public class RandomGroupPanel extends JPanel {
         this.add(scoreBtn);
         this.add(absenceButton);
         this.add(leaveButton);
+        this.add(modeBox);
 
-        // 初始化定时器，用于实现随机效果
+        // 初始化定时器，用于实现随机效果，每一帧的耗时计入 Metrics.GROUP_ROLL_TICK
         timer = new Timer(50, e -> {
-            if (groupList.isEmpty()) {
-                stopRandomizing();
-                return;
-            }
-            String[] randomGroup = groupList.get(random.nextInt(groupList.size()));
-            groupField.setText(randomGroup[0]); // 显示小组名
-            loadGroupStudents(randomGroup[0]); // 加载该小组的学生
+            long start = System.nanoTime();
+            roll();
+            Metrics.GROUP_ROLL_TICK.recordSince(start);
         });
 
         // 随机小组按钮事件处理
@@ -115,32 +157,29 @@ public class RandomGroupPanel extends JPanel {
 
         // 随机学生按钮事件
         randomStudentBtn.addActionListener(e -> {
-            String currentGroup = groupField.getText();
-            if (currentGroup.isEmpty()) {
+            GroupRoster roster = getRoster();
+            if (currentGroup < 0) {
                 JOptionPane.showMessageDialog(this, "请先选择小组", "", JOptionPane.INFORMATION_MESSAGE);
                 return;
             }
 
-            // 检查小组目录和学生文件是否存在
-            File groupDir = new File(Constant.FILE_PATH + Constant.CLASS_PATH + "/groups/" + currentGroup);
-            File studentsFile = new File(groupDir, "students.txt");
-            
-            if (!studentsFile.exists() || !loadGroupStudents(currentGroup)) {
-                JOptionPane.showMessageDialog(this, "小组 " + currentGroup + " 没有学生", "", JOptionPane.INFORMATION_MESSAGE);
+            // 检查小组是否有学生
+            Student[] members = roster.getMembers(currentGroup);
+            if (members.length == 0) {
+                JOptionPane.showMessageDialog(this, "小组 " + groupField.getText() + " 没有学生", "",
+                        JOptionPane.INFORMATION_MESSAGE);
                 studentField.setText("");
-                photoLabel.setIcon(null);
-                photoLabel.setText("照片");
+                photoLabel.clear();
                 return;
             }
 
-            if (groupStudentList.isEmpty()) {
-                JOptionPane.showMessageDialog(this, "小组 " + currentGroup + " 没有学生", "", JOptionPane.INFORMATION_MESSAGE);
-                return;
-            }
-
-            String[] randomStudent = groupStudentList.get(random.nextInt(groupStudentList.size()));
-            studentField.setText(randomStudent[1]);
-            displayPhoto(randomStudent[2]);
+            String pool = SelectionEngine.groupPool(roster.getGroup(currentGroup).getGroupName());
+            Student randomStudent = members[SelectionEngine.getInstance().sampler(pool, members.length,
+                    i -> members[i].getStudentId(), i -> members[i].getAnswerCount()).getAsInt()];
+            SelectionEngine.getInstance().called(pool, randomStudent.getStudentId());
+            currentStudent = randomStudent;
+            studentField.setText(randomStudent.getName());
+            photoLabel.showPhoto(ClassRepository.getInstance().getPhotoPath(randomStudent));
         });
 
         // 小组评分按钮事件
@@ -158,19 +197,66 @@ public class RandomGroupPanel extends JPanel {
             updateGroupScore(groupName, score);
         });
 
+        // 抽取方式修改后保存到班级
+        modeBox.addActionListener(e -> {
+            SelectionEngine.getInstance().setMode((SelectionMode) modeBox.getSelectedItem());
+        });
+
         // 缺勤和请假按钮事件
-        absenceButton.addActionListener(e -> recordStatus("缺勤"));
-        leaveButton.addActionListener(e -> recordStatus("请假"));
+        absenceButton.addActionListener(e -> recordStatus(StatusType.ABSENCE));
+        leaveButton.addActionListener(e -> recordStatus(StatusType.LEAVE));
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        ClassRepository.getInstance().addListener(classListener);
+        invalidateRoster();
+    }
+
+    @Override
+    public void removeNotify() {
+        ClassRepository.getInstance().removeListener(classListener);
+        super.removeNotify();
+    }
+
+    /**
+     * 获取小组成员名册，名册过期时重新获取，并按小组名称找回当前选中的小组
+     */
+    private GroupRoster getRoster() {
+        if (roster == null) {
+            roster = ClassRepository.getInstance().getRoster();
+            currentGroup = groupField.getText().isEmpty() ? -1 : roster.indexOf(groupField.getText());
+        }
+        return roster;
+    }
+
+    private void invalidateRoster() {
+        roster = null;
+        groupSampler = null;
+    }
 
-        // 添加这行：加载小组列表
-        loadGroupList();
+    /**
+     * 生成小组抽样器，少答题优先时按组内学生的平均答题次数计算权重
+     */
+    private IntSupplier newGroupSampler(GroupRoster roster) {
+        return SelectionEngine.getInstance().sampler(SelectionEngine.GROUPS, roster.getGroupCount(),
+                i -> roster.getGroup(i).getGroupName(), i -> {
+                    Student[] members = roster.getMembers(i);
+                    int answers = 0;
+                    for (Student member : members) {
+                        answers += member.getAnswerCount();
+                    }
+                    return members.length == 0 ? 0 : (double) answers / members.length;
+                });
     }
 
     private void startRandomizing() {
-        if (groupList.isEmpty()) {
+        if (getRoster().getGroupCount() == 0) {
             JOptionPane.showMessageDialog(this, "没有可用的小组", "", JOptionPane.INFORMATION_MESSAGE);
             return;
         }
+        groupSampler = newGroupSampler(getRoster());
         isRandomizing = true;
         timer.start();
         randomGroupBtn.setText("停止随机小组");
@@ -180,75 +266,90 @@ public class RandomGroupPanel extends JPanel {
         isRandomizing = false;
         timer.stop();
         randomGroupBtn.setText("随机小组");
+        if (currentGroup >= 0) {
+            SelectionEngine.getInstance().called(SelectionEngine.GROUPS, groupField.getText());
+        }
+        prefetchPhotos();
     }
 
-    private boolean loadGroupStudents(String groupName) {
-        groupStudentList.clear();
-        File groupDir = new File(Constant.FILE_PATH + Constant.CLASS_PATH + "/groups/" + groupName);
-        File studentsFile = new File(groupDir, "students.txt");
-
-        if (!studentsFile.exists()) {
-            return false;
-        }
-
-        try (BufferedReader reader = new BufferedReader(new FileReader(studentsFile))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length >= 2) {
-                    String[] studentInfo = new String[3];
-                    studentInfo[0] = parts[0]; // 学号
-                    studentInfo[1] = parts[1]; // 姓名
-                    studentInfo[2] = Constant.FILE_PATH + Constant.CLASS_PATH + "/photos/" + parts[0] + ".jpg"; // 照片路径
-                    groupStudentList.add(studentInfo);
-                }
-            }
-            return !groupStudentList.isEmpty();
-        } catch (IOException e) {
-            e.printStackTrace();
-            return false;
+    /**
+     * 滚动一帧：抽取下一个小组并显示
+     */
+    private void roll() {
+        GroupRoster roster = getRoster();
+        if (roster.getGroupCount() == 0) {
+            stopRandomizing();
+            return;
         }
+        if (groupSampler == null) {
+            groupSampler = newGroupSampler(roster);
+        }
+        currentGroup = groupSampler.getAsInt();
+        groupField.setText(roster.getGroup(currentGroup).getGroupName()); // 显示小组名
+        currentStudent = null;
+        studentField.setText("");
     }
 
-    private void displayPhoto(String photoPath) {
-        // 从文件中加载学生照片并显示在photoLabel上
-        // 这里需要实现从文件中加载照片的逻辑
+    /**
+     * 预读选中小组全部学生的照片，点击随机学生时照片已在缓存中
+     */
+    private void prefetchPhotos() {
+        GroupRoster roster = getRoster();
+        if (currentGroup < 0) {
+            return;
+        }
+        ClassRepository repository = ClassRepository.getInstance();
+        Student[] members = roster.getMembers(currentGroup);
+        List<String> photoPaths = new ArrayList<>(members.length);
+        for (Student student : members) {
+            photoPaths.add(repository.getPhotoPath(student));
+        }
+        PhotoCache.getInstance().prefetch(photoPaths);
     }
 
+    /**
+     * 小组评分，输入的分数加到小组分数上，负数表示扣分
+     * @param groupName 小组名称
+     * @param score 输入的分数
+     */
     private void updateGroupScore(String groupName, String score) {
-        // 更新小组评分
-        // 这里需要实现更新小组评分的逻辑
-    }
-
-    private void recordStatus(String status) {
-        // 记录学生状态
-        // 这里需要实现记录学生状态的逻辑
-    }
-
-    // 添加加载小组列表的方法
-    private void loadGroupList() {
-        groupList.clear();
-        if (Constant.CLASS_PATH == null || Constant.CLASS_PATH.isEmpty()) {
+        double points;
+        try {
+            points = Double.parseDouble(score.trim());
+        } catch (NumberFormatException e) {
+            JOptionPane.showMessageDialog(this, "请输入正确的分数", "", JOptionPane.INFORMATION_MESSAGE);
             return;
         }
+        try {
+            ClassRepository repository = ClassRepository.getInstance();
+            repository.addGroupScore(groupName, points, "随机点组评分");
+            Group group = repository.getGroup(groupName);
+            scoreField.setText("");
+            JOptionPane.showMessageDialog(this, "评分成功，小组总分：" + ScoreUtil.format(group.getTotalScore()),
+                    "", JOptionPane.INFORMATION_MESSAGE);
+        } catch (IOException e) {
+            e.printStackTrace();
+            JOptionPane.showMessageDialog(this, "评分失败", "", JOptionPane.ERROR_MESSAGE);
+        }
+    }
 
-        File groupsDir = new File(Constant.FILE_PATH + Constant.CLASS_PATH + "/groups");
-        if (!groupsDir.exists() || !groupsDir.isDirectory()) {
+    /**
+     * 记录当前选中学生的状态，并计入学生和小组得分
+     * @param status 状态类型（缺勤/请假）
+     */
+    private void recordStatus(StatusType status) {
+        if (currentStudent == null) {
+            JOptionPane.showMessageDialog(this, "请先随机选择学生", "", JOptionPane.INFORMATION_MESSAGE);
             return;
         }
-
-        // 添加调试信息
-        System.out.println("正在加载小组，路径：" + groupsDir.getAbsolutePath());
-
-        File[] groupDirs = groupsDir.listFiles(File::isDirectory);
-        if (groupDirs != null) {
-            for (File dir : groupDirs) {
-                String[] groupInfo = new String[]{dir.getName()};
-                groupList.add(groupInfo);
-                System.out.println("找到小组：" + dir.getName());
-            }
+        try {
+            ClassRepository.getInstance().recordStatus(currentStudent, status);
+            JOptionPane.showMessageDialog(this, "记录成功", "", JOptionPane.INFORMATION_MESSAGE);
+            currentStudent = null;
+            studentField.setText("");
+        } catch (IOException e) {
+            e.printStackTrace();
+            JOptionPane.showMessageDialog(this, "记录失败", "", JOptionPane.ERROR_MESSAGE);
         }
-
-        System.out.println("共加载 " + groupList.size() + " 个小组");
     }
 }
@@ -1,6 +1,13 @@
 package com.student.view;
 
-import com.student.util.Constant;
+import com.student.entity.SelectionMode;
+import com.student.entity.StatusType;
+import com.student.entity.Student;
+import com.student.service.ClassRepository;
+import com.student.service.PhotoCache;
+import com.student.service.RollSequence;
+import com.student.service.SelectionEngine;
+import com.student.util.Metrics;
 import javax.swing.*;
 import javax.swing.border.*;
 import javax.swing.Timer;
@@ -8,6 +15,7 @@ import java.awt.*;
 import java.io.*;
 import java.util.*;
 import java.util.List;
+import java.util.function.IntSupplier;
 
 /**
  * 随机学生点名面板类
@@ -15,20 +23,24 @@ import java.util.List;
  * 继承自JPanel，提供图形化界面
  */
 public class RandomStudentPanel extends JPanel {
+    private static final int LOOKAHEAD = 10;   // 预先抽好并预读照片的候选数，约为半秒的滚动
+
     // 界面组件声明
     private JLabel nameLabel;            // 学生姓名标签
     private JTextField nameField;        // 学生姓名显示框
-    private JLabel photoLabel;           // 学生照片显示区域
+    private PhotoLabel photoLabel;       // 学生照片显示区域
     private JButton randomButton;        // 随机选择按钮
     private JButton absenceButton;       // 缺勤按钮
     private JButton leaveButton;         // 请假按钮
     private JButton answerButton;        // 答题按钮
+    private JComboBox<SelectionMode> modeBox; // 抽取方式
 
     // 功能相关成员变量
     private Timer timer;                 // 随机效果定时器
-    private Random random = new Random(); // 随机数生成器
-    private List<String[]> studentList = new ArrayList<>(); // 学生信息列表
+    private List<Student> studentList = new ArrayList<>(); // 学生信息列表
     private boolean isRandomizing = false;  // 随机状态标志
+    private Student currentStudent;         // 当前选中的学生
+    private RollSequence<Student> sequence; // 本次滚动的候选序列
 
     /**
      * 构造方法：初始化随机点名面板的界面组件
@@ -40,11 +52,13 @@ public class RandomStudentPanel extends JPanel {
         // 初始化组件
         nameLabel = new JLabel("学生姓名：");
         nameField = new JTextField();
-        photoLabel = new JLabel("照片");
+        photoLabel = new PhotoLabel();
         randomButton = new JButton("随机学生");
         absenceButton = new JButton("缺勤");
         leaveButton = new JButton("请假");
         answerButton = new JButton("答题");
+        modeBox = new JComboBox<>(SelectionMode.values());
+        modeBox.setSelectedItem(SelectionEngine.getInstance().getMode());
 
         // 设置组件位置和大小
         nameLabel.setBounds(150, 50, 80, 30);
@@ -54,10 +68,7 @@ public class RandomStudentPanel extends JPanel {
         absenceButton.setBounds(120, 410, 80, 30);
         leaveButton.setBounds(210, 410, 80, 30);
         answerButton.setBounds(300, 410, 80, 30);
-
-        // 设置照片标签的边框和对齐方式
-        photoLabel.setBorder(BorderFactory.createEtchedBorder());
-        photoLabel.setHorizontalAlignment(SwingConstants.CENTER);
+        modeBox.setBounds(310, 360, 110, 30);
 
         // 添加组件到面板
         this.add(nameLabel);
@@ -67,17 +78,13 @@ public class RandomStudentPanel extends JPanel {
         this.add(absenceButton);
         this.add(leaveButton);
         this.add(answerButton);
+        this.add(modeBox);
 
-        // 初始化定时器，实现随机效果
+        // 初始化定时器，实现随机效果，每一帧的耗时计入 Metrics.STUDENT_ROLL_TICK
         timer = new Timer(50, e -> {
-            if (studentList.isEmpty()) {
-                stopRandomizing();
-                return;
-            }
-            // 随机选择并显示学生信息
-            String[] randomStudent = studentList.get(random.nextInt(studentList.size()));
-            nameField.setText(randomStudent[1]); // 显示学生姓名
-            displayPhoto(randomStudent[2]);      // 显示学生照片
+            long start = System.nanoTime();
+            roll();
+            Metrics.STUDENT_ROLL_TICK.recordSince(start);
         });
 
         // 事件监听器设置
@@ -89,67 +96,34 @@ public class RandomStudentPanel extends JPanel {
             }
         });
 
+        // 抽取方式修改后保存到班级
+        modeBox.addActionListener(e -> {
+            SelectionEngine.getInstance().setMode((SelectionMode) modeBox.getSelectedItem());
+        });
+
         // 缺勤按钮事件
         absenceButton.addActionListener(e -> {
-            recordStatus("缺勤");
+            recordStatus(StatusType.ABSENCE);
         });
 
         // 请假按钮事件
         leaveButton.addActionListener(e -> {
-            recordStatus("请假");
+            recordStatus(StatusType.LEAVE);
         });
 
         // 答题按钮事件
         answerButton.addActionListener(e -> {
-            recordStatus("答题");
+            recordStatus(StatusType.ANSWER);
         });
-
-        // 加载学生列表
-        loadStudentList();
     }
 
     /**
      * 加载学生列表
-     * 从文件系统读取所有学生信息，包括学号、姓名和照片路径
+     * 每次开始滚动前从班级数据仓库重新读取，面板打开期间新增、删除的学生或重新加载的班级都能抽到
      */
     private void loadStudentList() {
         studentList.clear();
-        if (Constant.CLASS_PATH == null || Constant.CLASS_PATH.isEmpty()) {
-            return;
-        }
-
-        File studentsDir = new File(Constant.FILE_PATH + Constant.CLASS_PATH + "/students");
-        if (!studentsDir.exists() || !studentsDir.isDirectory()) {
-            return;
-        }
-
-        File[] studentFiles = studentsDir.listFiles((dir, name) -> name.endsWith(".txt"));
-        if (studentFiles == null) {
-            return;
-        }
-
-        for (File file : studentFiles) {
-            try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-                String[] studentInfo = new String[3];  // 增加一个元素存储照片路径
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    if (line.startsWith("学号：")) {
-                        studentInfo[0] = line.substring(3).trim();
-                    } else if (line.startsWith("姓名：")) {
-                        studentInfo[1] = line.substring(3).trim();
-                    } else if (line.startsWith("照片：")) {
-                        studentInfo[2] = line.substring(3).trim();
-                    }
-                }
-                // 如果没有照片路径，设置默认路径
-                if (studentInfo[2] == null) {
-                    studentInfo[2] = Constant.FILE_PATH + Constant.CLASS_PATH + "/photos/" + studentInfo[0] + ".jpg";
-                }
-                studentList.add(studentInfo);
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
-        }
+        studentList.addAll(ClassRepository.getInstance().getStudents());
     }
 
     /**
@@ -157,11 +131,24 @@ public class RandomStudentPanel extends JPanel {
      * 启动定时器，实现随机效果
      */
     private void startRandomizing() {
+        loadStudentList();
         if (studentList.isEmpty()) {
             JOptionPane.showMessageDialog(this, "没有可用的学生信息", "", 
                 JOptionPane.INFORMATION_MESSAGE);
             return;
         }
+        // 预读全部学生的照片，并预读滚动序列中即将出现的学生的照片
+        ClassRepository repository = ClassRepository.getInstance();
+        PhotoCache photoCache = PhotoCache.getInstance();
+        List<String> photoPaths = new ArrayList<>(studentList.size());
+        for (Student student : studentList) {
+            photoPaths.add(repository.getPhotoPath(student));
+        }
+        photoCache.prefetch(photoPaths);
+        IntSupplier sampler = SelectionEngine.getInstance().sampler(SelectionEngine.STUDENTS, studentList.size(),
+                i -> studentList.get(i).getStudentId(), i -> studentList.get(i).getAnswerCount());
+        sequence = new RollSequence<>(studentList, sampler, LOOKAHEAD,
+                student -> photoCache.prefetch(repository.getPhotoPath(student)));
         isRandomizing = true;
         randomButton.setText("停止");
         timer.start();
@@ -169,79 +156,63 @@ public class RandomStudentPanel extends JPanel {
 
     /**
      * 停止随机选择
-     * 停止定时器，显示最终选中的学生
+     * 停止定时器，显示最终选中的学生，并记入抽取记录
      */
     private void stopRandomizing() {
         isRandomizing = false;
         randomButton.setText("随机学生");
         timer.stop();
+        if (currentStudent != null) {
+            SelectionEngine.getInstance().called(SelectionEngine.STUDENTS, currentStudent.getStudentId());
+        }
+    }
+
+    /**
+     * 滚动一帧：取出滚动序列中的下一名学生并显示
+     */
+    private void roll() {
+        if (studentList.isEmpty()) {
+            stopRandomizing();
+            return;
+        }
+        // 随机选择并显示学生信息
+        Student randomStudent = sequence.next();
+        currentStudent = randomStudent;
+        nameField.setText(randomStudent.getName());                                  // 显示学生姓名
+        photoLabel.showPhoto(ClassRepository.getInstance().getPhotoPath(randomStudent)); // 显示学生照片
     }
 
     /**
      * 记录学生状态
      * @param status 状态类型（缺勤/请假/答题）
-     * 将学生状态信息保存到文件中
+     * 将学生状态追加到班级的状态日志中
      */
-    private void recordStatus(String status) {
-        String currentStudent = nameField.getText();
-        if (currentStudent.isEmpty()) {
+    private void recordStatus(StatusType status) {
+        if (currentStudent == null || nameField.getText().isEmpty()) {
             JOptionPane.showMessageDialog(this, "请先随机选择学生", "", 
                 JOptionPane.INFORMATION_MESSAGE);
             return;
         }
 
-        // 创建状态记录文件
-        try {
-            File statusDir = new File(Constant.FILE_PATH + Constant.CLASS_PATH + "/status");
-            if (!statusDir.exists()) {
-                statusDir.mkdirs();
-            }
+        // 抽到学生后班级可能已被重新加载，按学号取仓库中的学生
+        Student student = ClassRepository.getInstance().getStudent(currentStudent.getStudentId());
+        if (student == null) {
+            JOptionPane.showMessageDialog(this, "该学生已被删除", "", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
 
-            // 使用时间戳作为文件名，记录状态信息
-            File statusFile = new File(statusDir, new Date().getTime() + ".txt");
-            try (BufferedWriter writer = new BufferedWriter(new FileWriter(statusFile))) {
-                writer.write("学生：" + currentStudent);
-                writer.newLine();
-                writer.write("状态：" + status);
-                writer.newLine();
-                writer.write("时间：" + new Date());
-            }
+        try {
+            ClassRepository.getInstance().recordStatus(student, status);
 
             // 记录成功后清空显示
             JOptionPane.showMessageDialog(this, "记录成功", "", JOptionPane.INFORMATION_MESSAGE);
+            currentStudent = null;
             nameField.setText("");
-            photoLabel.setIcon(null);
-            photoLabel.setText("照片");
+            photoLabel.clear();
 
         } catch (IOException e) {
             e.printStackTrace();
             JOptionPane.showMessageDialog(this, "记录失败", "", JOptionPane.ERROR_MESSAGE);
         }
     }
-
-    /**
-     * 显示学生照片
-     * @param photoPath 照片文件路径
-     * 加载并调整照片大小以适应显示区域
-     */
-    private void displayPhoto(String photoPath) {
-        if (photoPath != null && !photoPath.isEmpty()) {
-            try {
-                // 加载并缩放图片
-                ImageIcon imageIcon = new ImageIcon(photoPath);
-                // 调整图片大小以适应标签
-                Image image = imageIcon.getImage();
-                Image scaledImage = image.getScaledInstance(200, 200, Image.SCALE_SMOOTH);
-                photoLabel.setIcon(new ImageIcon(scaledImage));
-                photoLabel.setText(""); // 清除默认文本
-            } catch (Exception e) {
-                photoLabel.setIcon(null);
-                photoLabel.setText("无法加载照片");
-                e.printStackTrace();
-            }
-        } else {
-            photoLabel.setIcon(null);
-            photoLabel.setText("无照片");
-        }
-    }
 }
@@ -0,0 +1,127 @@
+package com.student.view;
+
+import com.student.entity.ClassSummary;
+import com.student.service.SchoolStatistics;
+import com.student.util.ScoreUtil;
+
+import javax.swing.*;
+import javax.swing.border.EtchedBorder;
+import javax.swing.border.TitledBorder;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * 全校统计面板类
+ * 显示每个班级的人数、平均分、分位数和考勤次数，以及全校得分最高的学生
+ * 统计在后台线程进行，不需要先选择班级；没有变化的班级直接使用上次的汇总
+ */
+public class SchoolStatisticsPanel extends JPanel {
+    private static final String[] CLASS_HEADERS = {"班级", "人数", "小组数", "平均分", "最高分", "最低分", "中位数",
+            "90%分位", "缺勤", "请假", "答题"};
+    private static final String[] TOP_HEADERS = {"名次", "班级", "学号", "姓名", "得分"};
+
+    DefaultTableModel classModel = new DefaultTableModel(0, 0);   // 班级汇总表格模型
+    DefaultTableModel topModel = new DefaultTableModel(0, 0);     // 全校排行表格模型
+    JLabel lblSummary = new JLabel();                            // 全校汇总
+    JButton btnRefresh = new JButton("刷新");                    // 刷新按钮
+
+    /**
+     * 构造方法：初始化全校统计面板的界面组件，并开始第一次统计
+     */
+    public SchoolStatisticsPanel() {
+        this.setBorder(new TitledBorder(new EtchedBorder(), "全校统计"));
+        this.setLayout(new BorderLayout());
+
+        JPanel topPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        topPanel.add(btnRefresh);
+        topPanel.add(lblSummary);
+        this.add(topPanel, BorderLayout.NORTH);
+
+        JTable classTable = new JTable(classModel) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        JTable topTable = new JTable(topModel) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        JSplitPane splitPane = new JSplitPane(JSplitPane.VERTICAL_SPLIT, new JScrollPane(classTable),
+                new JScrollPane(topTable));
+        splitPane.setResizeWeight(0.6);
+        this.add(splitPane, BorderLayout.CENTER);
+
+        classModel.setColumnIdentifiers(CLASS_HEADERS);
+        topModel.setColumnIdentifiers(TOP_HEADERS);
+        btnRefresh.addActionListener(e -> refresh());
+        refresh();
+    }
+
+    /**
+     * 在后台统计全部班级，完成后更新表格
+     */
+    private void refresh() {
+        btnRefresh.setEnabled(false);
+        lblSummary.setText("正在统计...");
+        long start = System.nanoTime();
+        new SwingWorker<SchoolStatistics.Result, Void>() {
+            @Override
+            protected SchoolStatistics.Result doInBackground() {
+                return SchoolStatistics.getInstance().query();
+            }
+
+            @Override
+            protected void done() {
+                btnRefresh.setEnabled(true);
+                try {
+                    show(get(), (System.nanoTime() - start) / 1_000_000);
+                } catch (InterruptedException | ExecutionException e) {
+                    e.printStackTrace();
+                    lblSummary.setText("统计失败");
+                }
+            }
+        }.execute();
+    }
+
+    private void show(SchoolStatistics.Result result, long millis) {
+        List<ClassSummary> classes = result.getClasses();
+        String[][] rows = new String[classes.size()][];
+        for (int i = 0; i < rows.length; i++) {
+            ClassSummary summary = classes.get(i);
+            rows[i] = new String[]{summary.getClassName(), String.valueOf(summary.getStudentCount()),
+                    String.valueOf(summary.getGroupCount()), ScoreUtil.format(summary.getMeanScore()),
+                    ScoreUtil.format(summary.getMaxScore()), ScoreUtil.format(summary.getMinScore()),
+                    ScoreUtil.format(summary.getMedianScore()), ScoreUtil.format(summary.getP90Score()),
+                    String.valueOf(summary.getAbsenceCount()), String.valueOf(summary.getLeaveCount()),
+                    String.valueOf(summary.getAnswerCount())};
+        }
+        classModel.setDataVector(rows, CLASS_HEADERS);
+
+        List<ClassSummary.TopStudent> top = result.getTopStudents();
+        rows = new String[top.size()][];
+        for (int i = 0; i < rows.length; i++) {
+            ClassSummary.TopStudent student = top.get(i);
+            // 同分同名次
+            String rank = i > 0 && student.getScore() == top.get(i - 1).getScore() ? rows[i - 1][0]
+                    : String.valueOf(i + 1);
+            rows[i] = new String[]{rank, student.getClassName(), student.getStudentId(), student.getName(),
+                    ScoreUtil.format(student.getScore())};
+        }
+        topModel.setDataVector(rows, TOP_HEADERS);
+
+        String text = "共 " + classes.size() + " 个班级、" + result.getStudentCount() + " 名学生，平均分 "
+                + ScoreUtil.format(result.getMeanScore()) + "，用时 " + millis + " 毫秒";
+        if (result.getCachedCount() > 0) {
+            text += "（" + result.getCachedCount() + " 个班级无变化）";
+        }
+        if (!result.getFailedClasses().isEmpty()) {
+            text += "，读取失败：" + String.join("、", result.getFailedClasses());
+        }
+        lblSummary.setText(text);
+    }
+}
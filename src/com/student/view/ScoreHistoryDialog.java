@@ -0,0 +1,142 @@
+package com.student.view;
+
+import com.student.entity.ScoreChange;
+import com.student.service.ClassRepository;
+import com.student.util.ScoreUtil;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.io.IOException;
+import java.time.*;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * 小组分数历史对话框
+ * 按日期范围显示一个小组的分数变化记录和每周加减分合计，默认显示最近30天
+ * 分数历史在后台线程读取，读取完成后在界面线程填入表格
+ */
+public class ScoreHistoryDialog extends JDialog {
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final int DEFAULT_DAYS = 30;   // 默认显示的天数
+
+    private final String groupName;                                // 小组名称
+    private final JTextField txtFrom = new JTextField(10);         // 开始日期
+    private final JTextField txtTo = new JTextField(10);           // 结束日期
+    private final JButton btnQuery = new JButton("查询");          // 查询按钮，查询期间不可用
+    private final DefaultTableModel changeModel =
+            new DefaultTableModel(new String[]{"时间", "变化", "分数", "原因"}, 0);   // 分数变化记录
+    private final DefaultTableModel weeklyModel =
+            new DefaultTableModel(new String[]{"周", "加减分合计"}, 0);               // 每周合计
+
+    public ScoreHistoryDialog(Component parent, String groupName) {
+        super(SwingUtilities.getWindowAncestor(parent), "小组分数历史：" + groupName, ModalityType.MODELESS);
+        this.groupName = groupName;
+        this.setLayout(new BorderLayout());
+
+        // 顶部日期范围
+        JPanel rangePanel = new JPanel();
+        rangePanel.add(new JLabel("从"));
+        rangePanel.add(txtFrom);
+        rangePanel.add(new JLabel("到"));
+        rangePanel.add(txtTo);
+        rangePanel.add(btnQuery);
+        this.add(rangePanel, BorderLayout.NORTH);
+
+        JTabbedPane tabs = new JTabbedPane();
+        tabs.addTab("变化记录", new JScrollPane(readOnlyTable(changeModel)));
+        tabs.addTab("每周合计", new JScrollPane(readOnlyTable(weeklyModel)));
+        this.add(tabs, BorderLayout.CENTER);
+
+        LocalDate today = LocalDate.now();
+        txtFrom.setText(today.minusDays(DEFAULT_DAYS).format(DATE));
+        txtTo.setText(today.format(DATE));
+        btnQuery.addActionListener(e -> query());
+        query();
+
+        this.setSize(500, 400);
+        this.setLocationRelativeTo(parent);
+    }
+
+    /**
+     * 按输入的日期范围查询分数变化记录和每周合计
+     */
+    private void query() {
+        ZoneId zone = ZoneId.systemDefault();
+        long from;
+        long to;
+        try {
+            from = LocalDate.parse(txtFrom.getText().trim(), DATE).atStartOfDay(zone).toInstant().toEpochMilli();
+            to = LocalDate.parse(txtTo.getText().trim(), DATE).plusDays(1).atStartOfDay(zone).toInstant()
+                    .toEpochMilli() - 1;
+        } catch (DateTimeParseException e) {
+            JOptionPane.showMessageDialog(this, "请按 yyyy-MM-dd 格式输入日期", "", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+        long fromTime = from;
+        long toTime = to;
+
+        btnQuery.setEnabled(false);
+        new SwingWorker<Void, Void>() {
+            private List<ScoreChange> changes;                    // 分数变化记录
+            private SortedMap<Long, Map<String, Double>> weekly;  // 每周合计
+
+            @Override
+            protected Void doInBackground() throws IOException {
+                ClassRepository repository = ClassRepository.getInstance();
+                changes = repository.getScoreHistory(groupName, fromTime, toTime);
+                weekly = repository.getWeeklyScoreTotals(fromTime, toTime);
+                return null;
+            }
+
+            @Override
+            protected void done() {
+                btnQuery.setEnabled(true);
+                try {
+                    get();
+                } catch (InterruptedException | ExecutionException e) {
+                    e.printStackTrace();
+                    JOptionPane.showMessageDialog(ScoreHistoryDialog.this, "读取分数历史失败", "",
+                            JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+                show(changes, weekly, zone);
+            }
+        }.execute();
+    }
+
+    private void show(List<ScoreChange> changes, SortedMap<Long, Map<String, Double>> weekly, ZoneId zone) {
+        changeModel.setRowCount(0);
+        for (ScoreChange change : changes) {
+            changeModel.addRow(new Object[]{
+                    LocalDateTime.ofInstant(Instant.ofEpochMilli(change.getTime()), zone).format(TIME),
+                    (change.getDelta() > 0 ? "+" : "") + ScoreUtil.format(change.getDelta()),
+                    ScoreUtil.format(change.getScore()),
+                    change.getReason()});
+        }
+        weeklyModel.setRowCount(0);
+        for (Map.Entry<Long, Map<String, Double>> week : weekly.entrySet()) {
+            Double total = week.getValue().get(groupName);
+            if (total != null) {
+                LocalDate monday = Instant.ofEpochMilli(week.getKey()).atZone(zone).toLocalDate();
+                weeklyModel.addRow(new Object[]{monday.format(DATE) + " 至 " + monday.plusDays(6).format(DATE),
+                        ScoreUtil.format(total)});
+            }
+        }
+    }
+
+    private static JTable readOnlyTable(DefaultTableModel model) {
+        return new JTable(model) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+    }
+}
@@ -1,14 +1,13 @@
 package com.student.view;
 
 import com.student.entity.Group;
-import com.student.util.Constant;
+import com.student.service.ClassRepository;
 
 import javax.swing.*;
 import javax.swing.border.EtchedBorder;
 import javax.swing.border.TitledBorder;
-import java.io.*;
-import java.util.Date;
-import java.util.List;
+import javax.swing.filechooser.FileNameExtensionFilter;
+import java.io.IOException;
 
 /**
  * 学生添加面板类
@@ -36,6 +35,7 @@ public class StudentAddPanel extends JPanel {
         JLabel lblGroup = new JLabel("小组:");
         cmbGroup = new JComboBox<>();
         JButton btnConfirm = new JButton("确认");
+        JButton btnImport = new JButton("批量导入");
 
         // 设置组件位置和大小
         lblId.setBounds(200, 60, 100, 30);
@@ -45,45 +45,45 @@ public class StudentAddPanel extends JPanel {
         lblGroup.setBounds(200, 220, 100, 30);
         cmbGroup.setBounds(200, 260, 100, 30);
         btnConfirm.setBounds(200, 300, 100, 30);
+        btnImport.setBounds(310, 300, 100, 30);
+
+        // 添加组件到面板
+        this.add(lblId);
+        this.add(txtId);
+        this.add(lblName);
+        this.add(txtName);
+        this.add(lblGroup);
+        this.add(cmbGroup);
+        this.add(btnConfirm);
+        this.add(btnImport);
 
         // 加载小组列表到下拉框
         loadGroups();
 
         // 添加确认按钮的点击事件监听器
         btnConfirm.addActionListener(e -> addStudent());
+
+        // 批量导入按钮：从 CSV 或 Excel 名单导入学生
+        btnImport.addActionListener(e -> importStudents());
     }
 
     /**
      * 加载小组列表
-     * 从文件系统读取所有小组信息并添加到下拉框中
+     * 从班级数据仓库读取所有小组并添加到下拉框中
      */
     private void loadGroups() {
         cmbGroup.removeAllItems();
         cmbGroup.addItem("请选择小组");  // 添加默认选项
 
-        // 检查班级路径是否存在
-        if (Constant.CLASS_PATH == null || Constant.CLASS_PATH.isEmpty()) {
-            return;
-        }
-
-        // 读取小组文件夹
-        File groupsDir = new File(Constant.FILE_PATH + Constant.CLASS_PATH + "/groups");
-        if (!groupsDir.exists() || !groupsDir.isDirectory()) {
-            return;
-        }
-
-        // 获取所有小组文件夹并添加到下拉框
-        File[] groupDirs = groupsDir.listFiles(File::isDirectory);
-        if (groupDirs != null) {
-            for (File groupDir : groupDirs) {
-                cmbGroup.addItem(groupDir.getName());
-            }
+        for (Group group : ClassRepository.getInstance().getGroups()) {
+            cmbGroup.addItem(group.getGroupName());
         }
     }
 
     /**
      * 添加学生信息
-     * 将学生信息保存到文件系统中，包括个人信息文件和小组成员文件
+     * 通过班级数据仓库保存学生信息：在班级文件锁下追加一条新增学生的日志记录，
+     * 日志积累到一定数量后由仓库合并进班级快照
      */
     private void addStudent() {
         // 获取并验证输入信息
@@ -106,38 +106,12 @@ public class StudentAddPanel extends JPanel {
         }
 
         try {
-            // 创建students文件夹（如果不存在）
-            File studentsDir = new File(Constant.FILE_PATH + Constant.CLASS_PATH + "/students");
-            if (!studentsDir.exists()) {
-                studentsDir.mkdirs();
-            }
-
-            // 检查学号是否已存在
-            File studentFile = new File(studentsDir, studentId + ".txt");
-            if (studentFile.exists()) {
+            // 保存学生信息，学号已存在（包括其他电脑刚添加的）时返回false
+            if (!ClassRepository.getInstance().addStudent(studentId, studentName, groupName)) {
                 JOptionPane.showMessageDialog(this, "该学号已存在", "", JOptionPane.WARNING_MESSAGE);
                 return;
             }
 
-            // 写入学生个人信息文件
-            try (BufferedWriter writer = new BufferedWriter(new FileWriter(studentFile))) {
-                writer.write("学号：" + studentId);
-                writer.newLine();
-                writer.write("姓名：" + studentName);
-                writer.newLine();
-                writer.write("小组：" + groupName);
-                writer.newLine();
-                writer.write("加入时间：" + new java.util.Date());
-            }
-
-            // 更新小组成员文件
-            File groupDir = new File(Constant.FILE_PATH + Constant.CLASS_PATH + "/groups/" + groupName);
-            File groupStudentsFile = new File(groupDir, "students.txt");
-            try (BufferedWriter writer = new BufferedWriter(new FileWriter(groupStudentsFile, true))) {
-                writer.write(studentId + "," + studentName);
-                writer.newLine();
-            }
-
             // 清空输入框并显示成功消息
             txtId.setText("");
             txtName.setText("");
@@ -150,4 +124,21 @@ public class StudentAddPanel extends JPanel {
                 "错误", JOptionPane.ERROR_MESSAGE);
         }
     }
+
+    /**
+     * 选择名单文件，在后台批量导入学生
+     * 名单每行依次为学号、姓名、小组，可以有照片路径列；第一行可以是表头
+     */
+    private void importStudents() {
+        if (!ClassRepository.getInstance().isLoaded()) {
+            JOptionPane.showMessageDialog(this, "请先选择班级", "", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+        JFileChooser chooser = new JFileChooser();
+        chooser.setFileFilter(new FileNameExtensionFilter("学生名单 (*.xlsx, *.csv)", "xlsx", "csv"));
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        new ImportRosterTask(this, chooser.getSelectedFile()).execute();
+    }
 }
@@ -2,15 +2,18 @@ package com.student.view;
 
 import com.student.entity.Group;
 import com.student.entity.Student;
-import com.student.util.Constant;
+import com.student.service.ClassListener;
+import com.student.service.ClassRepository;
+import com.student.util.Metrics;
 
 import javax.swing.*;
 import javax.swing.border.EtchedBorder;
 import javax.swing.border.TitledBorder;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import java.awt.*;
-import java.io.*;
-import java.util.*;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -19,15 +22,54 @@ import java.util.List;
  * 继承自JPanel，提供图形化界面
  */
 public class StudentListPanel extends JPanel {
-    // 表格列头定义
-    String[] headers = {"学号", "姓名", "小组"};
+    private static final int SEARCH_LIMIT = 200;   // 最多显示的搜索结果数
+
     // 界面组件声明
+    StudentTableModel tableModel = new StudentTableModel(); // 学生信息表格模型
     JTable studentTable;                     // 学生信息表格
     JTextField txtId = new JTextField();     // 学号输入框
     JTextField txtName = new JTextField();   // 姓名输入框
     JComboBox<String> cmbGroup = new JComboBox<>();  // 小组选择下拉框
     JButton btnEdit = new JButton("修改");   // 修改按钮
     JButton btnDelete = new JButton("删除"); // 删除按钮
+    JTextField txtSearch = new JTextField(); // 搜索输入框
+    JLabel lblMatches = new JLabel();        // 搜索结果数
+    private List<Student> matches = new ArrayList<>();   // 当前搜索结果
+    private int matchIndex;                  // 当前选中的搜索结果
+
+    // 班级数据变化时只更新对应的表格行，包括其他电脑上的修改
+    private final ClassListener classListener = new ClassListener() {
+        @Override
+        public void studentAdded(Student student) {
+            tableModel.update(student.getStudentId(), student);
+        }
+
+        @Override
+        public void studentChanged(String oldId, Student student) {
+            tableModel.update(oldId, student);
+        }
+
+        @Override
+        public void studentRemoved(String studentId) {
+            tableModel.remove(studentId);
+        }
+
+        @Override
+        public void groupAdded(Group group) {
+            loadGroups();
+        }
+
+        @Override
+        public void groupRemoved(String groupName) {
+            loadGroups();
+        }
+
+        @Override
+        public void classReloaded() {
+            loadGroups();
+            updateStudentList();
+        }
+    };
 
     /**
      * 构造方法：初始化学生列表面板的界面组件
@@ -37,14 +79,16 @@ public class StudentListPanel extends JPanel {
         this.setBorder(new TitledBorder(new EtchedBorder(), "学生列表"));
         this.setLayout(new BorderLayout());
 
-        // 初始化表格，设置为不可编辑
-        DefaultTableModel tableModel = new DefaultTableModel(new String[0][0], headers);
-        studentTable = new JTable(tableModel) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;  // 设置表格不可直接编辑
-            }
-        };
+        // 初始化顶部搜索面板，可按学号、姓名或姓名拼音首字母搜索
+        JPanel searchPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        searchPanel.add(new JLabel("搜索："));
+        searchPanel.add(txtSearch);
+        txtSearch.setPreferredSize(new Dimension(200, 30));
+        searchPanel.add(lblMatches);
+        this.add(searchPanel, BorderLayout.NORTH);
+
+        // 初始化表格，表格模型的单元格不可直接编辑
+        studentTable = new JTable(tableModel);
         studentTable.getSelectionModel().setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         JScrollPane scrollPane = new JScrollPane(studentTable);
         this.add(scrollPane, BorderLayout.CENTER);
@@ -71,93 +115,105 @@ public class StudentListPanel extends JPanel {
         studentTable.getSelectionModel().addListSelectionListener(e -> {
             int selectedRow = studentTable.getSelectedRow();
             if (selectedRow >= 0) {
-                txtId.setText((String) studentTable.getValueAt(selectedRow, 0));
-                txtName.setText((String) studentTable.getValueAt(selectedRow, 1));
-                cmbGroup.setSelectedItem(studentTable.getValueAt(selectedRow, 2));
+                Student student = tableModel.getStudent(selectedRow);
+                txtId.setText(student.getStudentId());
+                txtName.setText(student.getName());
+                cmbGroup.setSelectedItem(student.getGroupName());
             }
         });
 
-        // 修改按钮监听器
-        btnEdit.addActionListener(e -> {
-            if (validateAndEdit()) {
-                updateStudentList();
-            }
-        });
+        // 修改按钮监听器，表格行由班级数据变化通知更新
+        btnEdit.addActionListener(e -> validateAndEdit());
 
         // 删除按钮监听器
-        btnDelete.addActionListener(e -> {
-            if (deleteStudent()) {
-                updateStudentList();
+        btnDelete.addActionListener(e -> deleteStudent());
+
+        // 每次输入都重新搜索并选中第一个结果，回车跳到下一个结果
+        txtSearch.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                search();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                search();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                search();
             }
         });
+        txtSearch.addActionListener(e -> showNextMatch());
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        ClassRepository.getInstance().addListener(classListener);
+    }
+
+    @Override
+    public void removeNotify() {
+        ClassRepository.getInstance().removeListener(classListener);
+        super.removeNotify();
     }
 
     /**
      * 加载小组列表
-     * 从文件系统读取所有小组信息并添加到下拉框中
+     * 从班级数据仓库读取所有小组并添加到下拉框中
      */
     private void loadGroups() {
         cmbGroup.removeAllItems();
         cmbGroup.addItem("请选择小组");
 
-        if (Constant.CLASS_PATH == null || Constant.CLASS_PATH.isEmpty()) {
-            return;
-        }
-
-        File groupsDir = new File(Constant.FILE_PATH + Constant.CLASS_PATH + "/groups");
-        if (groupsDir.exists() && groupsDir.isDirectory()) {
-            File[] groupDirs = groupsDir.listFiles(File::isDirectory);
-            if (groupDirs != null) {
-                for (File groupDir : groupDirs) {
-                    cmbGroup.addItem(groupDir.getName());
-                }
-            }
+        for (Group group : ClassRepository.getInstance().getGroups()) {
+            cmbGroup.addItem(group.getGroupName());
         }
     }
 
     /**
      * 更新学生列表显示
-     * 从文件系统读取所有学生信息并显示在表格中
+     * 表格模型直接引用班级数据仓库中的学生，之后的修改由班级数据变化通知逐行更新
+     * 耗时计入 Metrics.STUDENT_TABLE_REFRESH
      */
     private void updateStudentList() {
-        if (Constant.CLASS_PATH == null || Constant.CLASS_PATH.isEmpty()) {
-            return;
-        }
-
-        File studentsDir = new File(Constant.FILE_PATH + Constant.CLASS_PATH + "/students");
-        if (!studentsDir.exists() || !studentsDir.isDirectory()) {
-            return;
-        }
+        long start = System.nanoTime();
+        tableModel.reload(ClassRepository.getInstance().getStudents());
+        Metrics.STUDENT_TABLE_REFRESH.recordSince(start);
+    }
 
-        File[] studentFiles = studentsDir.listFiles((dir, name) -> name.endsWith(".txt"));
-        if (studentFiles == null) {
-            return;
+    /**
+     * 按搜索框的内容查找学生，选中第一个结果
+     */
+    private void search() {
+        String query = txtSearch.getText().trim();
+        matches = query.isEmpty() ? new ArrayList<>() : ClassRepository.getInstance().search(query, SEARCH_LIMIT);
+        matchIndex = -1;
+        if (query.isEmpty()) {
+            lblMatches.setText("");
+        } else if (matches.isEmpty()) {
+            lblMatches.setText("没有找到");
+        } else {
+            lblMatches.setText((matches.size() < SEARCH_LIMIT ? "" : "至少") + matches.size() + " 个结果");
         }
+        showNextMatch();
+    }
 
-        List<String[]> studentList = new ArrayList<>();
-        for (File file : studentFiles) {
-            try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-                String[] studentInfo = new String[3];
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    if (line.startsWith("学号：")) {
-                        studentInfo[0] = line.substring(3).trim();
-                    } else if (line.startsWith("姓名：")) {
-                        studentInfo[1] = line.substring(3).trim();
-                    } else if (line.startsWith("小组：")) {
-                        studentInfo[2] = line.substring(3).trim();
-                    }
-                }
-                studentList.add(studentInfo);
-            } catch (IOException e) {
-                e.printStackTrace();
+    /**
+     * 选中下一个搜索结果并滚动到可见位置，跳过搜索后已删除的学生
+     */
+    private void showNextMatch() {
+        for (int i = 0; i < matches.size(); i++) {
+            matchIndex = (matchIndex + 1) % matches.size();
+            int row = tableModel.rowOf(matches.get(matchIndex).getStudentId());
+            if (row >= 0 && tableModel.getStudent(row) == matches.get(matchIndex)) {
+                studentTable.setRowSelectionInterval(row, row);
+                studentTable.scrollRectToVisible(studentTable.getCellRect(row, 0, true));
+                return;
             }
         }
-
-        // 更新表格
-        String[][] data = studentList.toArray(new String[0][]);
-        DefaultTableModel model = new DefaultTableModel(data, headers);
-        studentTable.setModel(model);
     }
 
     /**
@@ -182,37 +238,12 @@ public class StudentListPanel extends JPanel {
         }
 
         try {
-            // 1. 更新学生文件
-            String oldId = (String) studentTable.getValueAt(selectedRow, 0);
-            File oldFile = new File(Constant.FILE_PATH + Constant.CLASS_PATH + "/students/" + oldId + ".txt");
-            File newFile = new File(Constant.FILE_PATH + Constant.CLASS_PATH + "/students/" + studentId + ".txt");
-
-            if (!oldId.equals(studentId) && newFile.exists()) {
+            String oldId = tableModel.getStudent(selectedRow).getStudentId();
+            if (!ClassRepository.getInstance().updateStudent(oldId, studentId, studentName, groupName)) {
                 JOptionPane.showMessageDialog(this, "该学号已存在", "", JOptionPane.WARNING_MESSAGE);
                 return false;
             }
 
-            // 2. 从旧小组文件中删除学生
-            String oldGroup = (String) studentTable.getValueAt(selectedRow, 2);
-            updateGroupStudentsList(oldGroup, oldId, null, true);
-
-            // 3. 添加到新小组文件
-            updateGroupStudentsList(groupName, studentId, studentName, false);
-
-            // 4. 更新学生信息文件
-            if (!oldId.equals(studentId)) {
-                oldFile.delete();
-            }
-            try (BufferedWriter writer = new BufferedWriter(new FileWriter(newFile))) {
-                writer.write("学号：" + studentId);
-                writer.newLine();
-                writer.write("姓名：" + studentName);
-                writer.newLine();
-                writer.write("小组：" + groupName);
-                writer.newLine();
-                writer.write("修改时间：" + new Date());
-            }
-
             JOptionPane.showMessageDialog(this, "修改成功", "", JOptionPane.INFORMATION_MESSAGE);
             return true;
 
@@ -237,16 +268,10 @@ public class StudentListPanel extends JPanel {
         }
 
         try {
-            String studentId = (String) studentTable.getValueAt(selectedRow, 0);
-            String groupName = (String) studentTable.getValueAt(selectedRow, 2);
-
-            // 1. 删除学生文件
-            File studentFile = new File(Constant.FILE_PATH + Constant.CLASS_PATH + 
-                "/students/" + studentId + ".txt");
-            studentFile.delete();
-
-            // 2. 从小组文件中删除学生
-            updateGroupStudentsList(groupName, studentId, null, true);
+            String studentId = tableModel.getStudent(selectedRow).getStudentId();
+            ClassRepository.getInstance().deleteStudent(studentId);
+            // 删除后最后一行会移到被删除的位置，清除选择避免误选
+            studentTable.clearSelection();
 
             JOptionPane.showMessageDialog(this, "删除成功", "", JOptionPane.INFORMATION_MESSAGE);
             return true;
@@ -258,39 +283,4 @@ public class StudentListPanel extends JPanel {
             return false;
         }
     }
-
-    private void updateGroupStudentsList(String groupName, String studentId, 
-        String studentName, boolean isRemove) throws IOException {
-        
-        File groupDir = new File(Constant.FILE_PATH + Constant.CLASS_PATH + "/groups/" + groupName);
-        File studentsFile = new File(groupDir, "students.txt");
-
-        if (isRemove) {
-            if (!studentsFile.exists()) {
-                return;
-            }
-
-            List<String> lines = new ArrayList<>();
-            try (BufferedReader reader = new BufferedReader(new FileReader(studentsFile))) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    if (!line.startsWith(studentId + ",")) {
-                        lines.add(line);
-                    }
-                }
-            }
-
-            try (BufferedWriter writer = new BufferedWriter(new FileWriter(studentsFile))) {
-                for (String line : lines) {
-                    writer.write(line);
-                    writer.newLine();
-                }
-            }
-        } else {
-            try (BufferedWriter writer = new BufferedWriter(new FileWriter(studentsFile, true))) {
-                writer.write(studentId + "," + studentName);
-                writer.newLine();
-            }
-        }
-    }
 }
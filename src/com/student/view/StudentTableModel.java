@@ -0,0 +1,124 @@
+package com.student.view;
+
+import com.student.entity.Student;
+import com.student.util.ScoreUtil;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 学生列表表格模型
+ * 每行直接引用班级中的学生对象，表格绘制到某一行时才读取学生的当前值，不预先生成单元格文字；
+ * 按学号索引行号，新增、修改、删除学生都只通知变化的行，代价与学生总数无关
+ * 删除学生时把最后一行移到被删除的位置，不移动其余的行
+ */
+public class StudentTableModel extends AbstractTableModel {
+    private static final String[] HEADERS = {"学号", "姓名", "小组", "得分"};
+
+    private final List<Student> rows = new ArrayList<>();          // 表格行
+    private final Map<String, Integer> rowIndex = new HashMap<>();  // 学号到行号
+
+    /**
+     * 用新的学生列表替换全部行，切换或重新加载班级时调用
+     * @param students 学生列表
+     */
+    public void reload(List<Student> students) {
+        rows.clear();
+        rows.addAll(students);
+        rowIndex.clear();
+        for (int row = 0; row < rows.size(); row++) {
+            rowIndex.put(rows.get(row).getStudentId(), row);
+        }
+        fireTableDataChanged();
+    }
+
+    /**
+     * 新增或更新学生所在的行
+     * @param oldId 修改前的学号，学号未变化时与当前学号相同
+     * @param student 学生
+     */
+    public void update(String oldId, Student student) {
+        Integer row = rowIndex.remove(oldId);
+        if (row == null) {
+            row = rowIndex.get(student.getStudentId());
+        }
+        if (row == null) {
+            row = rows.size();
+            rows.add(student);
+            rowIndex.put(student.getStudentId(), row);
+            fireTableRowsInserted(row, row);
+            return;
+        }
+        rows.set(row, student);
+        rowIndex.put(student.getStudentId(), row);
+        fireTableRowsUpdated(row, row);
+    }
+
+    /**
+     * 删除学生所在的行，最后一行移到被删除的位置
+     * @param studentId 学号
+     */
+    public void remove(String studentId) {
+        Integer row = rowIndex.remove(studentId);
+        if (row == null) {
+            return;
+        }
+        int last = rows.size() - 1;
+        Student moved = rows.remove(last);
+        fireTableRowsDeleted(last, last);
+        if (row != last) {
+            rows.set(row, moved);
+            rowIndex.put(moved.getStudentId(), row);
+            fireTableRowsUpdated(row, row);
+        }
+    }
+
+    /**
+     * 学生所在的行号
+     * @param studentId 学号
+     * @return 行号，不在表格中时返回-1
+     */
+    public int rowOf(String studentId) {
+        Integer row = rowIndex.get(studentId);
+        return row == null ? -1 : row;
+    }
+
+    public Student getStudent(int row) {
+        return rows.get(row);
+    }
+
+    @Override
+    public int getRowCount() {
+        return rows.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return HEADERS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return HEADERS[column];
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        Student student = rows.get(row);
+        switch (column) {
+            case 0:
+                return student.getStudentId();
+            case 1:
+                return student.getName();
+            case 2:
+                return student.getGroupName();
+            case 3:
+                return ScoreUtil.format(student.getScore());
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.student;
+
+import com.student.util.Constant;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * 测试用的班级目录，建在 Constant.FILE_PATH 下（由 pom 指向 target/test-data）
+ */
+public final class ClassDirs {
+    private ClassDirs() {
+    }
+
+    /**
+     * 删除同名的旧目录后新建班级目录
+     */
+    public static File create(String className) {
+        delete(className);
+        File dir = new File(Constant.FILE_PATH + className);
+        dir.mkdirs();
+        return dir;
+    }
+
+    public static void delete(String className) {
+        Path dir = new File(Constant.FILE_PATH + className).toPath();
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
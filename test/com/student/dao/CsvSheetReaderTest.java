@@ -0,0 +1,74 @@
+package com.student.dao;
+
+import com.student.ClassDirs;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvSheetReaderTest {
+    private static final String CLASS_NAME = "csv-reader-test";
+
+    private File dir;
+
+    @BeforeEach
+    void setUp() {
+        dir = ClassDirs.create(CLASS_NAME);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ClassDirs.delete(CLASS_NAME);
+    }
+
+    @Test
+    void quotedCellsKeepCommasNewlinesAndQuotes() throws IOException {
+        File file = csv("S001,\"张,三\",\"一\r\n组\",\"说\"\"你好\"\"\"\r\n"
+                + "S002,李四,,\"\"\n"
+                + "\"S003\",王五,二组", StandardCharsets.UTF_8);
+
+        try (CsvSheetReader reader = new CsvSheetReader(file)) {
+            assertArrayEquals(new String[]{"S001", "张,三", "一\r\n组", "说\"你好\""}, reader.readRow());
+            assertArrayEquals(new String[]{"S002", "李四", "", ""}, reader.readRow());
+            assertArrayEquals(new String[]{"S003", "王五", "二组"}, reader.readRow());
+            assertNull(reader.readRow());
+            assertNull(reader.readRow());
+        }
+    }
+
+    @Test
+    void bomIsSkipped() throws IOException {
+        File file = csv("\uFEFF学号,姓名\nS001,张三\n", StandardCharsets.UTF_8);
+
+        try (CsvSheetReader reader = new CsvSheetReader(file)) {
+            assertArrayEquals(new String[]{"学号", "姓名"}, reader.readRow());
+            assertArrayEquals(new String[]{"S001", "张三"}, reader.readRow());
+            assertNull(reader.readRow());
+            assertEquals(file.length(), reader.getBytesRead());
+        }
+    }
+
+    @Test
+    void nonUtf8FileIsReadAsGbk() throws IOException {
+        File file = csv("学号,姓名\r\nS001,张三\r\n", Charset.forName("GBK"));
+
+        try (CsvSheetReader reader = new CsvSheetReader(file)) {
+            assertArrayEquals(new String[]{"学号", "姓名"}, reader.readRow());
+            assertArrayEquals(new String[]{"S001", "张三"}, reader.readRow());
+            assertNull(reader.readRow());
+        }
+    }
+
+    private File csv(String content, Charset charset) throws IOException {
+        File file = new File(dir, "roster.csv");
+        Files.write(file.toPath(), content.getBytes(charset));
+        return file;
+    }
+}
@@ -0,0 +1,96 @@
+package com.student.dao;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileTransactionTest {
+    @TempDir
+    File dir;
+
+    @Test
+    void commitReplacesAllFiles() throws IOException {
+        write("a.dat", "old a");
+        write("b.dat", "old b");
+        FileTransaction transaction = new FileTransaction(dir);
+        Files.writeString(transaction.stage("a.dat").toPath(), "new a");
+        Files.writeString(transaction.stage("b.dat").toPath(), "new b");
+        transaction.commit();
+
+        assertEquals("new a", read("a.dat"));
+        assertEquals("new b", read("b.dat"));
+        assertEquals(2, dir.list().length);
+    }
+
+    @Test
+    void recoverDiscardsUncommittedFiles() throws IOException {
+        write("a.dat", "old a");
+        FileTransaction transaction = new FileTransaction(dir);
+        Files.writeString(transaction.stage("a.dat").toPath(), "new a");
+        // 没有提交就中断
+
+        FileTransaction.recover(dir);
+        assertEquals("old a", read("a.dat"));
+        assertEquals(1, dir.list().length);
+    }
+
+    @Test
+    void recoverFinishesCommittedTransaction() throws IOException {
+        // 提交标记已写完，a 已重命名，b 还没有重命名时中断
+        write("a.dat", "new a");
+        write("b.dat", "old b");
+        write("b.dat.txn", "new b");
+        Files.write(new File(dir, "txn.commit").toPath(), marker("a.dat", "b.dat"));
+
+        FileTransaction.recover(dir);
+        assertEquals("new a", read("a.dat"));
+        assertEquals("new b", read("b.dat"));
+        assertEquals(2, dir.list().length);
+    }
+
+    @Test
+    void recoverIgnoresTornMarker() throws IOException {
+        write("a.dat", "old a");
+        write("a.dat.txn", "new a");
+        byte[] marker = marker("a.dat");
+        Files.write(new File(dir, "txn.commit").toPath(), Arrays.copyOf(marker, marker.length - 2));
+
+        FileTransaction.recover(dir);
+        assertEquals("old a", read("a.dat"));
+        assertEquals(1, dir.list().length);
+    }
+
+    /**
+     * 按 FileTransaction 的格式生成提交标记：文件数 文件名... CRC32
+     */
+    private static byte[] marker(String... names) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bos);
+        out.writeInt(names.length);
+        for (String name : names) {
+            out.writeUTF(name);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bos.toByteArray());
+        out.writeInt((int) crc.getValue());
+        return bos.toByteArray();
+    }
+
+    private void write(String name, String content) throws IOException {
+        Files.writeString(new File(dir, name).toPath(), content, StandardCharsets.UTF_8);
+    }
+
+    private String read(String name) throws IOException {
+        return Files.readString(new File(dir, name).toPath(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,139 @@
+package com.student.dao;
+
+import com.student.ClassDirs;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournalDaoTest {
+    private static final String CLASS_NAME = "journal-test";
+
+    private File file;
+
+    @BeforeEach
+    void setUp() {
+        file = new File(ClassDirs.create(CLASS_NAME), JournalDao.FILE_NAME);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ClassDirs.delete(CLASS_NAME);
+    }
+
+    @Test
+    void reopenReplaysRecordsAfterSnapshotLsn() throws IOException {
+        try (JournalDao journal = open(0)) {
+            journal.append(JournalRecord.addGroup("G1"));
+            journal.append(JournalRecord.addStudent("S1", "Alice", "G1", null));
+            journal.append(JournalRecord.setGroupScore("G1", 2.5));
+            assertEquals(3, journal.getLastLsn());
+        }
+
+        JournalDao journal = new JournalDao(CLASS_NAME);
+        List<JournalRecord> records = journal.open(1);
+        journal.close();
+        assertEquals(2, records.size());
+        assertEquals(JournalRecord.Type.ADD_STUDENT, records.get(0).getType());
+        assertEquals("Alice", records.get(0).getName());
+        assertEquals(2, records.get(0).getLsn());
+        assertEquals(2.5, records.get(1).getScore());
+        assertEquals(3, journal.getRecordCount());
+    }
+
+    @Test
+    void tornTailIsTruncatedAndLaterAppendsSurvive() throws IOException {
+        try (JournalDao journal = open(0)) {
+            journal.append(JournalRecord.addGroup("G1"));
+        }
+        long validLength = file.length();
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+            // 长度字段写完、内容只写了一部分
+            out.write(new byte[]{0, 0, 0, 40, 0, 0, 0, 0, 0, 0});
+        }
+
+        try (JournalDao journal = new JournalDao(CLASS_NAME)) {
+            assertEquals(1, journal.open(0).size());
+            assertEquals(validLength, file.length());
+            journal.append(JournalRecord.addGroup("G2"));
+        }
+        List<JournalRecord> records = read();
+        assertEquals(2, records.size());
+        assertEquals("G2", records.get(1).getGroupName());
+        assertEquals(2, records.get(1).getLsn());
+    }
+
+    @Test
+    void groupWithBadCrcAndEverythingAfterItIsDropped() throws IOException {
+        long firstGroupEnd;
+        try (JournalDao journal = open(0)) {
+            journal.append(JournalRecord.addGroup("G1"));
+            firstGroupEnd = file.length();
+            journal.append(JournalRecord.addGroup("G2"));
+            journal.append(JournalRecord.addGroup("G3"));
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            // 破坏第二个记录组中的小组名
+            raf.seek(firstGroupEnd + 4 + 8 + 1 + 2);
+            raf.write('X');
+        }
+
+        try (JournalDao journal = new JournalDao(CLASS_NAME)) {
+            List<JournalRecord> records = journal.open(0);
+            assertEquals(1, records.size());
+            assertEquals("G1", records.get(0).getGroupName());
+            assertEquals(firstGroupEnd, file.length());
+            assertEquals(1, journal.getLastLsn());
+        }
+    }
+
+    @Test
+    void recordGroupIsAllOrNothing() throws IOException {
+        try (JournalDao journal = open(0)) {
+            journal.append(JournalRecord.addGroup("G1"));
+            journal.append(Arrays.asList(
+                    JournalRecord.addStudent("S1", "Alice", "G1", null),
+                    JournalRecord.addStudent("S2", "Bob", "G1", null),
+                    JournalRecord.deleteGroup("G0")));
+        }
+        assertEquals(4, read().size());
+
+        // 整组写入中断：截掉最后一个记录组的校验值
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() - 2);
+        }
+        List<JournalRecord> records = read();
+        assertEquals(1, records.size());
+        assertEquals(JournalRecord.Type.ADD_GROUP, records.get(0).getType());
+    }
+
+    @Test
+    void catchUpReadsRecordsAppendedByAnotherWriter() throws IOException {
+        try (JournalDao reader = open(0); JournalDao writer = open(0)) {
+            writer.append(JournalRecord.addGroup("G1"));
+            writer.append(JournalRecord.deleteStudent("S9"));
+            List<JournalRecord> records = reader.catchUp();
+            assertEquals(2, records.size());
+            assertEquals(2, reader.getLastLsn());
+            assertTrue(reader.catchUp().isEmpty());
+        }
+    }
+
+    private JournalDao open(long afterLsn) throws IOException {
+        JournalDao journal = new JournalDao(CLASS_NAME);
+        journal.open(afterLsn);
+        return journal;
+    }
+
+    private List<JournalRecord> read() throws IOException {
+        return new JournalDao(CLASS_NAME).read(0);
+    }
+}
@@ -0,0 +1,114 @@
+package com.student.dao;
+
+import com.student.util.FileIoCounters;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SegmentedLogTest {
+    @TempDir
+    File dir;
+
+    @Test
+    void readsBackRecordsAcrossSegments() throws IOException {
+        try (SegmentedLog<long[]> log = open(256)) {
+            for (long i = 0; i < 500; i++) {
+                assertEquals(i, log.append(new long[]{i * 10, i}));
+            }
+        }
+        File[] segments = dir.listFiles((d, name) -> name.endsWith(".seg"));
+        assertTrue(segments.length > 1);
+
+        try (SegmentedLog<long[]> log = open(256)) {
+            assertEquals(500, log.getNextSeq());
+            List<Long> values = new ArrayList<>();
+            assertEquals(500, log.readFrom(123, record -> values.add(record[1])));
+            assertEquals(377, values.size());
+            assertEquals(123L, values.get(0));
+            assertEquals(499L, values.get(values.size() - 1));
+
+            values.clear();
+            log.read(1000, 2000, record -> values.add(record[1]));
+            assertEquals(101, values.size());
+            assertEquals(100L, values.get(0));
+            assertEquals(200L, values.get(100));
+        }
+    }
+
+    @Test
+    void tornTailIsTruncatedOnOpen() throws IOException {
+        try (SegmentedLog<long[]> log = open(1 << 20)) {
+            for (long i = 0; i < 10; i++) {
+                log.append(new long[]{i, i});
+            }
+        }
+        File segment = dir.listFiles((d, name) -> name.endsWith(".seg"))[0];
+        long validLength = segment.length();
+        try (FileOutputStream out = new FileOutputStream(segment, true)) {
+            // 只写入了长度和一部分内容
+            out.write(new byte[]{0, 0, 0, 16, 1, 2, 3});
+        }
+
+        try (SegmentedLog<long[]> log = open(1 << 20)) {
+            assertEquals(10, log.getNextSeq());
+            assertEquals(validLength, segment.length());
+            assertEquals(10, log.append(new long[]{10, 10}));
+        }
+        try (SegmentedLog<long[]> log = open(1 << 20)) {
+            List<Long> values = new ArrayList<>();
+            log.readFrom(0, record -> values.add(record[1]));
+            assertEquals(11, values.size());
+            assertEquals(10L, values.get(10));
+        }
+    }
+
+    @Test
+    void recordWithBadCrcEndsTheLog() throws IOException {
+        try (SegmentedLog<long[]> log = open(1 << 20)) {
+            for (long i = 0; i < 5; i++) {
+                log.append(new long[]{i, i});
+            }
+        }
+        File segment = dir.listFiles((d, name) -> name.endsWith(".seg"))[0];
+        // 每条记录 4 + 16 + 4 字节，破坏第4条记录的内容
+        try (RandomAccessFile file = new RandomAccessFile(segment, "rw")) {
+            file.seek(3 * 24 + 10);
+            file.write(0x7F);
+        }
+        try (SegmentedLog<long[]> log = open(1 << 20)) {
+            assertEquals(3, log.getNextSeq());
+        }
+    }
+
+    private SegmentedLog<long[]> open(long segmentSize) throws IOException {
+        SegmentedLog<long[]> log = new SegmentedLog<>(dir, new Codec(), segmentSize, new FileIoCounters());
+        log.open();
+        return log;
+    }
+
+    /**
+     * 记录为 {时间, 值}
+     */
+    private static class Codec implements SegmentedLog.Codec<long[]> {
+        @Override
+        public void write(long[] record, DataOutput out) throws IOException {
+            out.writeLong(record[0]);
+            out.writeLong(record[1]);
+        }
+
+        @Override
+        public long[] read(DataInput in) throws IOException {
+            return new long[]{in.readLong(), in.readLong()};
+        }
+
+        @Override
+        public long timestamp(long[] record) {
+            return record[0];
+        }
+    }
+}
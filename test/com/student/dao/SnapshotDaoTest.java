@@ -0,0 +1,98 @@
+package com.student.dao;
+
+import com.student.ClassDirs;
+import com.student.entity.Group;
+import com.student.entity.SchoolClass;
+import com.student.entity.Student;
+import com.student.util.IndexedList;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotDaoTest {
+    private static final String CLASS_NAME = "snapshot-test";
+
+    private File dir;
+
+    @BeforeEach
+    void setUp() {
+        dir = ClassDirs.create(CLASS_NAME);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ClassDirs.delete(CLASS_NAME);
+    }
+
+    @Test
+    void writeThenReadRestoresClass() throws IOException {
+        new SnapshotDao(CLASS_NAME).write(sampleClass(), 7, 3);
+
+        SnapshotDao dao = new SnapshotDao(CLASS_NAME);
+        SchoolClass read = dao.read();
+        assertEquals(7, dao.getJournalLsn());
+        assertEquals(3, dao.getStatusSeq());
+        assertEquals(2, read.getGroups().size());
+        assertEquals(1.5, read.getGroups().get(0).getScore());
+        assertEquals(3, read.getStudents().size());
+        Student first = read.getStudents().get(0);
+        assertEquals("S1", first.getStudentId());
+        assertEquals("Alice", first.getName());
+        assertEquals(-5, first.getScore());
+        assertEquals(1, first.getAbsenceCount());
+        assertEquals("photos/S1.jpg", first.getPhotoPath());
+        assertSame(read.getGroups().get(0), first.getGroup());
+        assertTrue(read.getGroups().get(0).getStudents().contains(first));
+        assertNull(read.getStudents().get(2).getGroup());
+        assertTrue(dao.isCurrent());
+    }
+
+    @Test
+    void corruptedSnapshotIsRejected() throws IOException {
+        new SnapshotDao(CLASS_NAME).write(sampleClass(), 0, 0);
+        try (RandomAccessFile file = new RandomAccessFile(new File(dir, SnapshotDao.FILE_NAME), "rw")) {
+            file.seek(30);
+            int b = file.read();
+            file.seek(30);
+            file.write(b ^ 0xFF);
+        }
+        assertThrows(IOException.class, () -> new SnapshotDao(CLASS_NAME).read());
+    }
+
+    @Test
+    void snapshotWrittenByAnotherDaoIsNotCurrent() throws IOException {
+        SnapshotDao dao = new SnapshotDao(CLASS_NAME);
+        dao.write(sampleClass(), 1, 0);
+        new SnapshotDao(CLASS_NAME).write(sampleClass(), 2, 0);
+        assertFalse(dao.isCurrent());
+    }
+
+    private static SchoolClass sampleClass() {
+        SchoolClass schoolClass = new SchoolClass(CLASS_NAME);
+        Group g1 = new Group("G1", new IndexedList<>());
+        g1.setScore(1.5);
+        Group g2 = new Group("G2", new IndexedList<>());
+        schoolClass.getGroups().add(g1);
+        schoolClass.getGroups().add(g2);
+        Student s1 = new Student("S1", "Alice", -5, g1);
+        s1.setAbsenceCount(1);
+        s1.setPhotoPath("photos/S1.jpg");
+        Student s2 = new Student("S2", "Bob", 3, g2);
+        s2.setAnswerCount(1);
+        Student s3 = new Student("S3", "Carol", 0, null);
+        g1.getStudents().add(s1);
+        g2.getStudents().add(s2);
+        IndexedList<Student> students = new IndexedList<>();
+        students.add(s1);
+        students.add(s2);
+        students.add(s3);
+        schoolClass.setStudents(students);
+        return schoolClass;
+    }
+}
@@ -0,0 +1,78 @@
+package com.student.dao;
+
+import com.student.ClassDirs;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ThumbnailDaoTest {
+    private static final String CLASS_NAME = "thumbnail-test";
+
+    private File dir;
+
+    @BeforeEach
+    void setUp() {
+        dir = ClassDirs.create(CLASS_NAME);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ClassDirs.delete(CLASS_NAME);
+    }
+
+    @Test
+    void replacedPhotoMissesOldThumbnail() throws IOException {
+        File photo = photo("a.jpg", 10);
+        ThumbnailDao dao = new ThumbnailDao(CLASS_NAME);
+        dao.write(photo, new BufferedImage(4, 4, BufferedImage.TYPE_INT_RGB));
+        assertNotNull(dao.read(photo));
+
+        Files.write(photo.toPath(), new byte[20]);
+        assertNull(dao.read(photo));
+    }
+
+    @Test
+    void retainDeletesThumbnailsOfUnusedPhotos() throws IOException {
+        File kept = photo("kept.jpg", 10);
+        File removed = photo("removed.jpg", 12);
+        ThumbnailDao dao = new ThumbnailDao(CLASS_NAME);
+        BufferedImage image = new BufferedImage(4, 4, BufferedImage.TYPE_INT_RGB);
+        dao.write(kept, image);
+        dao.write(removed, image);
+
+        dao.retain(Collections.singletonList(kept));
+
+        assertNotNull(dao.read(kept));
+        assertNull(dao.read(removed));
+        assertEquals(1, new File(dir, ThumbnailDao.DIR_NAME).list().length);
+    }
+
+    @Test
+    void deleteRemovesOnlyThatPhotosThumbnail() throws IOException {
+        File kept = photo("kept.jpg", 10);
+        File removed = photo("removed.jpg", 12);
+        ThumbnailDao dao = new ThumbnailDao(CLASS_NAME);
+        BufferedImage image = new BufferedImage(4, 4, BufferedImage.TYPE_INT_RGB);
+        dao.write(kept, image);
+        dao.write(removed, image);
+
+        dao.delete(removed);
+
+        assertNotNull(dao.read(kept));
+        assertNull(dao.read(removed));
+    }
+
+    private File photo(String name, int length) throws IOException {
+        File photo = new File(dir, name);
+        Files.write(photo.toPath(), new byte[length]);
+        return photo;
+    }
+}
@@ -0,0 +1,129 @@
+package com.student.dao;
+
+import com.student.ClassDirs;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class XlsxSheetReaderTest {
+    private static final String CLASS_NAME = "xlsx-reader-test";
+    private static final String HEAD = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n";
+    private static final String MAIN_NS = "http://schemas.openxmlformats.org/spreadsheetml/2006/main";
+
+    private File dir;
+
+    @BeforeEach
+    void setUp() {
+        dir = ClassDirs.create(CLASS_NAME);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ClassDirs.delete(CLASS_NAME);
+    }
+
+    @Test
+    void readsSharedStringsInlineStringsAndSparseCells() throws IOException {
+        // Excel 保存的写法：共享字符串（含富文本和注音）、内联字符串、按 r 属性跳过的空单元格、科学计数法的数字
+        File file = workbook("worksheets/roster.xml",
+                "<si><t>学号</t></si>"
+                        + "<si><t>姓名</t></si>"
+                        + "<si><r><t>张</t></r><r><t xml:space=\"preserve\">三</t></r><rPh sb=\"0\" eb=\"1\"><t>zhang</t></rPh></si>",
+                "<row r=\"1\"><c r=\"A1\" t=\"s\"><v>0</v></c><c r=\"B1\" t=\"s\"><v>1</v></c></row>"
+                        + "<row r=\"2\"><c r=\"A2\"><v>2.0240001E7</v></c><c r=\"B2\" t=\"s\"><v>2</v></c>"
+                        + "<c r=\"D2\" t=\"inlineStr\"><is><t>a.jpg</t></is></c></row>"
+                        + "<row r=\"3\"><c r=\"C3\"><v>95.0</v></c><c r=\"AA3\" t=\"str\"><v>末列</v></c></row>");
+
+        try (XlsxSheetReader reader = new XlsxSheetReader(file)) {
+            assertArrayEquals(new String[]{"学号", "姓名"}, reader.readRow());
+            assertArrayEquals(new String[]{"20240001", "张三", "", "a.jpg"}, reader.readRow());
+            String[] row = reader.readRow();
+            assertEquals(27, row.length);
+            assertEquals("", row[0]);
+            assertEquals("95", row[2]);
+            assertEquals("末列", row[26]);
+            assertNull(reader.readRow());
+            assertEquals(reader.getTotalBytes(), reader.getBytesRead());
+        }
+    }
+
+    @Test
+    void cellsWithoutReferencesFollowEachOther() throws IOException {
+        File file = workbook("worksheets/sheet1.xml", null,
+                "<row><c t=\"inlineStr\"><is><t>S001</t></is></c><c/><c t=\"inlineStr\"><is><t>一组</t></is></c></row>");
+
+        try (XlsxSheetReader reader = new XlsxSheetReader(file)) {
+            assertArrayEquals(new String[]{"S001", "", "一组"}, reader.readRow());
+            assertNull(reader.readRow());
+        }
+    }
+
+    @Test
+    void badSharedStringIndexIsReported() throws IOException {
+        File file = workbook("worksheets/sheet1.xml", "<si><t>学号</t></si>",
+                "<row><c r=\"A1\" t=\"s\"><v>3</v></c></row>");
+
+        try (XlsxSheetReader reader = new XlsxSheetReader(file)) {
+            assertThrows(IOException.class, reader::readRow);
+        }
+    }
+
+    @Test
+    void readsWhatXlsxSheetWriterWrote() throws IOException {
+        File file = new File(dir, "written.xlsx");
+        try (XlsxSheetWriter writer = new XlsxSheetWriter(file)) {
+            writer.startSheet("学生", "学号", "姓名", "成绩");
+            writer.writeRow("S001", "<张&三>", 92.5);
+            writer.writeRow("S002", null, 80);
+            writer.startSheet("小组", "小组名称");
+        }
+
+        try (XlsxSheetReader reader = new XlsxSheetReader(file)) {
+            assertArrayEquals(new String[]{"学号", "姓名", "成绩"}, reader.readRow());
+            assertArrayEquals(new String[]{"S001", "<张&三>", "92.5"}, reader.readRow());
+            assertArrayEquals(new String[]{"S002", "", "80"}, reader.readRow());
+            assertNull(reader.readRow());
+        }
+    }
+
+    /**
+     * 写一个只有一个工作表的最小工作簿，工作表的位置由工作簿关系指定
+     * @param sheetPath 工作表相对 xl/ 的路径
+     * @param sharedStrings 共享字符串表中的 si 元素，为null时不写共享字符串表
+     * @param rows 工作表中的 row 元素
+     */
+    private File workbook(String sheetPath, String sharedStrings, String rows) throws IOException {
+        File file = new File(dir, "roster.xlsx");
+        try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(file))) {
+            entry(zip, "xl/workbook.xml", HEAD + "<workbook xmlns=\"" + MAIN_NS + "\" "
+                    + "xmlns:r=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships\">"
+                    + "<sheets><sheet name=\"名单\" sheetId=\"1\" r:id=\"rId3\"/></sheets></workbook>");
+            entry(zip, "xl/_rels/workbook.xml.rels", HEAD
+                    + "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+                    + "<Relationship Id=\"rId1\" Type=\"styles\" Target=\"styles.xml\"/>"
+                    + "<Relationship Id=\"rId3\" Type=\"worksheet\" Target=\"" + sheetPath + "\"/>"
+                    + "</Relationships>");
+            if (sharedStrings != null) {
+                entry(zip, "xl/sharedStrings.xml", HEAD + "<sst xmlns=\"" + MAIN_NS + "\">" + sharedStrings + "</sst>");
+            }
+            entry(zip, "xl/" + sheetPath, HEAD + "<worksheet xmlns=\"" + MAIN_NS + "\"><sheetData>"
+                    + rows + "</sheetData></worksheet>");
+        }
+        return file;
+    }
+
+    private static void entry(ZipOutputStream zip, String name, String content) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        zip.write(content.getBytes(StandardCharsets.UTF_8));
+        zip.closeEntry();
+    }
+}
@@ -0,0 +1,115 @@
+package com.student.service;
+
+import com.student.dao.JournalRecord;
+import com.student.entity.Group;
+import com.student.entity.SchoolClass;
+import com.student.entity.Student;
+import com.student.util.IndexedList;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LeaderboardsTest {
+    private ClassReplayer replayer;
+    private Leaderboards leaderboards;
+    private ClassReplayer.ChangeHandler handler;
+
+    /**
+     * g1: a(5) b(3)，g2: c(4)，与 ClassRepository 一样由重放产生的变化更新排行榜
+     */
+    @BeforeEach
+    void setUp() {
+        SchoolClass schoolClass = new SchoolClass("leaderboards-test");
+        Group g1 = new Group("g1", new IndexedList<>());
+        Group g2 = new Group("g2", new IndexedList<>());
+        schoolClass.getGroups().add(g1);
+        schoolClass.getGroups().add(g2);
+        add(schoolClass, new Student("a", "A", 5, g1));
+        add(schoolClass, new Student("b", "B", 3, g1));
+        add(schoolClass, new Student("c", "C", 4, g2));
+        replayer = new ClassReplayer(schoolClass, 0);
+        leaderboards = new Leaderboards(schoolClass);
+        handler = new ClassReplayer.ChangeHandler() {
+            @Override
+            public void groupAdded(Group group) {
+                leaderboards.groupAdded(group);
+            }
+
+            @Override
+            public void groupRemoved(Group group) {
+                leaderboards.groupRemoved(group);
+            }
+
+            @Override
+            public void groupChanged(Group group) {
+                leaderboards.groupChanged(group);
+            }
+
+            @Override
+            public void studentAdded(Student student) {
+                leaderboards.studentChanged(student);
+            }
+
+            @Override
+            public void studentChanged(String oldId, Student student) {
+                leaderboards.studentChanged(student);
+            }
+
+            @Override
+            public void studentRemoved(Student student) {
+                leaderboards.studentRemoved(student);
+            }
+        };
+    }
+
+    @Test
+    void movingStudentUpdatesBothGroups() {
+        Group g1 = replayer.getGroup("g1");
+        Group g2 = replayer.getGroup("g2");
+        Student a = replayer.getStudent("a");
+        assertEquals(List.of(g1, g2), leaderboards.getGroups().top(2));
+
+        replayer.apply(JournalRecord.updateStudent("a", "a", "A", "g2"), handler);
+
+        assertEquals(List.of(replayer.getStudent("b")), leaderboards.getMembers(g1).top(10));
+        assertEquals(List.of(a, replayer.getStudent("c")), leaderboards.getMembers(g2).top(10));
+        assertEquals(1, leaderboards.getMembers(g2).rank(a));
+        assertFalse(leaderboards.getMembers(g1).contains(a));
+        assertEquals(List.of(g2, g1), leaderboards.getGroups().top(2));
+        assertEquals(9, g2.getTotalScore());
+        assertEquals(3, leaderboards.getStudents().size());
+    }
+
+    @Test
+    void deletingGroupDropsItsRankingButKeepsStudents() {
+        Group g1 = replayer.getGroup("g1");
+        Group g2 = replayer.getGroup("g2");
+        Student c = replayer.getStudent("c");
+
+        replayer.apply(JournalRecord.deleteGroup("g2"), handler);
+
+        assertNull(leaderboards.getMembers(g2));
+        assertEquals(List.of(g1), leaderboards.getGroups().top(10));
+        assertEquals(-1, leaderboards.getGroups().rank(g2));
+        assertEquals(3, leaderboards.getStudents().size());
+        assertEquals(2, leaderboards.getStudents().rank(c));
+
+        // 未分组的学生仍可以更新得分和加入新小组
+        c.setScore(10);
+        leaderboards.studentChanged(c);
+        assertEquals(1, leaderboards.getStudents().rank(c));
+        replayer.apply(JournalRecord.addGroup("g3"), handler);
+        replayer.apply(JournalRecord.updateStudent("c", "c", "C", "g3"), handler);
+        Group g3 = replayer.getGroup("g3");
+        assertEquals(List.of(c), leaderboards.getMembers(g3).top(10));
+        assertEquals(List.of(g3, g1), leaderboards.getGroups().top(10));
+    }
+
+    private static void add(SchoolClass schoolClass, Student student) {
+        schoolClass.getStudents().add(student);
+        student.getGroup().getStudents().add(student);
+    }
+}
@@ -0,0 +1,117 @@
+package com.student.service;
+
+import com.student.ClassDirs;
+import com.student.dao.XlsxSheetWriter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RosterImporterTest {
+    private static final String CLASS_NAME = "roster-test";
+
+    private static final RosterImporter.Listener QUIET = new RosterImporter.Listener() {
+        @Override
+        public void progress(int rows, int percent) {
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+    };
+
+    private ClassRepository repository;
+    private File dir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        dir = ClassDirs.create(CLASS_NAME);
+        repository = ClassRepository.getInstance();
+        repository.load(CLASS_NAME);
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.unload();
+        ClassDirs.delete(CLASS_NAME);
+    }
+
+    @Test
+    void duplicateAndIncompleteRowsAreSkipped() throws IOException {
+        repository.addGroup("一组");
+        repository.addStudent("S001", "张三", "一组");
+        // 表头列的顺序与默认顺序不同，学号 S001 已在班级中，S002 在文件中出现两次
+        File file = csv("\uFEFF姓名,学号,小组\n"
+                + "李四,S002,\"二组\"\n"
+                + "\"王,五\",S003,一组\n"
+                + "张三,S001,一组\n"
+                + "李四二,S002,二组\n"
+                + ",S004,一组\n"
+                + "\n"
+                + "赵六,S005,\n");
+
+        RosterImporter.Result result = new RosterImporter(repository).importFile(file, QUIET);
+
+        assertEquals(2, result.getImported());
+        assertEquals(1, result.getGroupsCreated());
+        assertEquals(Arrays.asList(
+                "第 4 行：学号 S001 已存在",
+                "第 5 行：学号 S002 已存在",
+                "第 6 行：姓名为空（学号 S004）",
+                "第 8 行：小组为空（学号 S005）"), result.getErrors());
+        assertEquals(4, result.getErrorCount());
+        assertEquals("李四", repository.getStudent("S002").getName());
+        assertEquals("王,五", repository.getStudent("S003").getName());
+        assertEquals("二组", repository.getStudent("S002").getGroupName());
+        assertEquals(3, repository.getStudents().size());
+    }
+
+    @Test
+    void rowsWithoutHeaderUseDefaultColumns() throws IOException {
+        File file = new File(dir, "roster.xlsx");
+        try (XlsxSheetWriter writer = new XlsxSheetWriter(file)) {
+            writer.startSheet("名单", "S001", "张三", "一组");
+            writer.writeRow(20240002, "李四", "一组", "photos/li.jpg");
+        }
+
+        RosterImporter.Result result = new RosterImporter(repository).importFile(file, QUIET);
+
+        assertEquals(2, result.getImported());
+        assertEquals(0, result.getErrorCount());
+        assertEquals("张三", repository.getStudent("S001").getName());
+        assertEquals("photos/li.jpg", repository.getStudent("20240002").getPhotoPath());
+    }
+
+    @Test
+    void cancelledImportWritesNothing() throws IOException {
+        File file = csv("S001,张三,一组\n");
+        RosterImporter.Listener cancelled = new RosterImporter.Listener() {
+            @Override
+            public void progress(int rows, int percent) {
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return true;
+            }
+        };
+
+        assertNull(new RosterImporter(repository).importFile(file, cancelled));
+        assertTrue(repository.getStudents().isEmpty());
+        assertTrue(repository.getGroups().isEmpty());
+    }
+
+    private File csv(String content) throws IOException {
+        File file = new File(dir, "roster.csv");
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
@@ -0,0 +1,100 @@
+package com.student.service;
+
+import com.student.ClassDirs;
+import com.student.entity.SelectionMode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.IntSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SelectionEngineTest {
+    private static final String CLASS_NAME = "selection-test";
+    private static final int DRAWS = 200000;
+
+    @AfterEach
+    void tearDown() {
+        ClassRepository.getInstance().unload();
+        ClassDirs.delete(CLASS_NAME);
+    }
+
+    @Test
+    void aliasTableFollowsWeights() {
+        double[] weights = {1, 2, 3, 4, 0};
+        int[] counts = draw(new AliasTable(weights), weights.length);
+        for (int i = 0; i < weights.length; i++) {
+            assertEquals(weights[i] / 10, (double) counts[i] / DRAWS, 0.01, "下标 " + i);
+        }
+        assertEquals(0, counts[4]);
+    }
+
+    @Test
+    void aliasTableWithZeroOrEqualWeightsIsUniform() {
+        for (double[] weights : new double[][]{{0, 0, 0, 0}, {2.5, 2.5, 2.5, 2.5}, {7}}) {
+            int[] counts = draw(new AliasTable(weights), weights.length);
+            for (int count : counts) {
+                assertEquals(1.0 / weights.length, (double) count / DRAWS, 0.01);
+            }
+        }
+    }
+
+    @Test
+    void shuffleBagDoesNotRepeatWithinACycle() throws IOException {
+        SelectionEngine engine = loadEngine();
+        engine.setMode(SelectionMode.SHUFFLE_BAG);
+        int size = 10;
+        for (int cycle = 0; cycle < 3; cycle++) {
+            Set<String> seen = new HashSet<>();
+            for (int i = 0; i < size; i++) {
+                int index = engine.sampler(SelectionEngine.STUDENTS, size, k -> "s" + k, k -> 0).getAsInt();
+                assertTrue(seen.add("s" + index), "第 " + cycle + " 轮重复抽到 s" + index);
+                engine.called(SelectionEngine.STUDENTS, "s" + index);
+            }
+            assertEquals(size, seen.size());
+        }
+    }
+
+    @Test
+    void weightedModeFavoursFewerAnswers() throws IOException {
+        SelectionEngine engine = loadEngine();
+        engine.setMode(SelectionMode.WEIGHTED);
+        // 权重 1、1/2、1/4
+        double[] answers = {0, 1, 3};
+        int[] counts = draw(engine.sampler(SelectionEngine.STUDENTS, 3, k -> "s" + k, k -> answers[k]), 3);
+        assertEquals(4.0 / 7, (double) counts[0] / DRAWS, 0.01);
+        assertEquals(2.0 / 7, (double) counts[1] / DRAWS, 0.01);
+        assertEquals(1.0 / 7, (double) counts[2] / DRAWS, 0.01);
+
+        counts = draw(engine.sampler(SelectionEngine.STUDENTS, 4, k -> "s" + k, k -> 2), 4);
+        for (int count : counts) {
+            assertEquals(0.25, (double) count / DRAWS, 0.01);
+        }
+    }
+
+    /**
+     * 不重复抽取的记录保存在班级中，需要加载一个班级
+     */
+    private static SelectionEngine loadEngine() throws IOException {
+        ClassDirs.create(CLASS_NAME);
+        ClassRepository.getInstance().load(CLASS_NAME);
+        return new SelectionEngine(new Random(13));
+    }
+
+    private static int[] draw(IntSupplier sampler, int size) {
+        int[] counts = new int[size];
+        for (int i = 0; i < DRAWS; i++) {
+            counts[sampler.getAsInt()]++;
+        }
+        return counts;
+    }
+
+    private static int[] draw(AliasTable table, int size) {
+        Random random = new Random(7);
+        return draw(() -> table.sample(random), size);
+    }
+}
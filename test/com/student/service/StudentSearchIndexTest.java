@@ -0,0 +1,64 @@
+package com.student.service;
+
+import com.student.entity.Student;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StudentSearchIndexTest {
+    private StudentSearchIndex index;
+    private Student zhangSan;
+    private Student zhangWei;
+    private Student liSi;
+
+    @BeforeEach
+    void setUp() {
+        zhangSan = new Student("S001", "张三", 0, null);
+        zhangWei = new Student("S002", "张伟", 0, null);
+        liSi = new Student("A100", "李四", 0, null);
+        index = new StudentSearchIndex();
+        index.rebuild(Arrays.asList(zhangSan, zhangWei, liSi));
+    }
+
+    @Test
+    void prefixMatchesEachField() {
+        assertEquals(Arrays.asList(zhangSan, zhangWei), index.search("s00", 10));   // 学号，不区分大小写
+        assertEquals(Collections.singletonList(liSi), index.search("A1", 10));
+        assertEquals(Arrays.asList(zhangSan, zhangWei), index.search("张", 10));    // 姓名
+        assertEquals(Collections.singletonList(zhangWei), index.search("伟", 10));  // 名字
+        assertEquals(Collections.singletonList(zhangSan), index.search("zs", 10));  // 姓名首字母
+        assertEquals(Collections.singletonList(liSi), index.search("ls", 10));
+        assertEquals(Collections.singletonList(zhangWei), index.search("w", 10));   // 名字首字母
+        assertTrue(index.search("x", 10).isEmpty());
+        assertTrue(index.search("  ", 10).isEmpty());
+    }
+
+    @Test
+    void studentIsReturnedOnceAndLimitApplies() {
+        // “s” 同时匹配张三的名字首字母和学号 S001，张三只返回一次
+        List<Student> matches = index.search("s", 10);
+        assertEquals(Arrays.asList(zhangSan, liSi, zhangWei), matches);
+        assertEquals(Arrays.asList(zhangSan, liSi), index.search("s", 2));
+    }
+
+    @Test
+    void renameAndDeleteUpdateTheIndex() {
+        zhangSan.setName("王五");
+        zhangSan.setStudentId("X9");
+        index.update(zhangSan);
+        assertTrue(index.search("zs", 10).isEmpty());
+        assertEquals(Collections.singletonList(zhangSan), index.search("ww", 10));
+        assertEquals(Collections.singletonList(zhangSan), index.search("x9", 10));
+        assertEquals(Collections.singletonList(zhangWei), index.search("s00", 10));
+
+        index.remove(zhangWei);
+        assertTrue(index.search("张", 10).isEmpty());
+        assertTrue(index.search("s002", 10).isEmpty());
+        assertEquals(Collections.singletonList(liSi), index.search("l", 10));
+    }
+}
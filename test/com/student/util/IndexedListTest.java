@@ -0,0 +1,79 @@
+package com.student.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndexedListTest {
+    @Test
+    void indexedReadsSkipTombstones() {
+        IndexedList<String> list = listOf(5);
+        list.remove("m1");
+        list.remove("m3");
+
+        assertEquals(3, list.size());
+        assertEquals("m0", list.get(0));
+        assertEquals("m2", list.get(1));
+        assertEquals("m4", list.get(2));
+        assertEquals(2, list.indexOf("m4"));
+        assertEquals(-1, list.indexOf("m1"));
+        assertArrayEquals(new Object[]{"m0", "m2", "m4"}, list.toArray());
+        assertArrayEquals(new String[]{"m0", "m2", "m4"}, list.toArray(new String[0]));
+    }
+
+    @Test
+    void readsDuringIterationDoNotInvalidateIterator() {
+        IndexedList<String> list = listOf(40);
+        for (int i = 0; i < 10; i++) {
+            list.remove(("m" + i).intern());
+        }
+        List<String> seen = new ArrayList<>();
+        Iterator<String> iterator = list.iterator();
+        while (iterator.hasNext()) {
+            String member = iterator.next();
+            assertEquals(member, list.get(list.indexOf(member)));
+            list.toArray();
+            seen.add(member);
+        }
+        assertEquals(30, seen.size());
+        assertEquals(seen, list.stream().collect(Collectors.toList()));
+    }
+
+    @Test
+    void compactsOnRemoveAndKeepsOrder() {
+        IndexedList<String> list = listOf(100);
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            if (i % 3 == 0) {
+                expected.add(("m" + i).intern());
+            } else {
+                list.remove(("m" + i).intern());
+            }
+        }
+        list.add("extra");
+        expected.add("extra");
+
+        assertEquals(expected, new ArrayList<>(list));
+        assertEquals(expected, Arrays.asList(list.toArray(new String[0])));
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(i, list.indexOf(expected.get(i)));
+        }
+    }
+
+    /**
+     * 成员用字符串常量，IndexedList 按对象本身区分成员，测试中的 "m1" 与列表中的是同一个对象
+     */
+    private static IndexedList<String> listOf(int count) {
+        IndexedList<String> list = new IndexedList<>();
+        for (int i = 0; i < count; i++) {
+            list.add(("m" + i).intern());
+        }
+        return list;
+    }
+}
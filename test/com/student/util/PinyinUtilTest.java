@@ -0,0 +1,32 @@
+package com.student.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PinyinUtilTest {
+    @Test
+    void commonNames() {
+        assertEquals("zs", PinyinUtil.initials("张三"));
+        assertEquals("wxm", PinyinUtil.initials("王小明"));
+        assertEquals("ls", PinyinUtil.initials("李四"));
+    }
+
+    @Test
+    void firstCharactersOfEachLetterAndTheirNeighbours() {
+        assertEquals('a', PinyinUtil.initial('啊'));   // B0A1，一级汉字第一个字
+        assertEquals('a', PinyinUtil.initial('澳'));   // B0C4，“芭”的前一个字
+        assertEquals('b', PinyinUtil.initial('芭'));   // B0C5
+        assertEquals('y', PinyinUtil.initial('孕'));   // D4D0，“匝”的前一个字
+        assertEquals('z', PinyinUtil.initial('匝'));   // D4D1
+        assertEquals('z', PinyinUtil.initial('座'));   // D7F9，一级汉字最后一个字
+    }
+
+    @Test
+    void charactersWithoutInitialAreKept() {
+        assertEquals('亍', PinyinUtil.initial('亍'));   // 二级汉字，按部首编码
+        assertEquals('丟', PinyinUtil.initial('丟'));   // 不在 GB2312 中
+        assertEquals('㐀', PinyinUtil.initial('㐀'));   // 基本区以外
+        assertEquals("ab1-", PinyinUtil.initials("Ab1-"));
+    }
+}
@@ -0,0 +1,126 @@
+package com.student.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RankTreeTest {
+    @Test
+    void tiesShareRankAndKeepInsertionOrder() {
+        RankTree<String> tree = new RankTree<>();
+        tree.update("a", 5);
+        tree.update("b", 7);
+        tree.update("c", 5);
+        tree.update("d", 1);
+
+        assertEquals(List.of("b", "a", "c", "d"), tree.top(10));
+        assertEquals(1, tree.rank("b"));
+        assertEquals(2, tree.rank("a"));
+        assertEquals(2, tree.rank("c"));
+        assertEquals(4, tree.rank("d"));
+        assertEquals(-1, tree.rank("x"));
+        assertEquals("c", tree.get(2));
+
+        // 分数变化后保留加入排名的先后
+        tree.update("a", 1);
+        tree.update("a", 5);
+        assertEquals(List.of("b", "a", "c", "d"), tree.top(10));
+        assertThrows(IndexOutOfBoundsException.class, () -> tree.get(4));
+    }
+
+    @Test
+    void matchesBruteForceUnderRandomUpdatesAndRemovals() {
+        Random random = new Random(20);
+        Object[] elements = new Object[200];
+        for (int i = 0; i < elements.length; i++) {
+            elements[i] = new Object();
+        }
+        RankTree<Object> tree = new RankTree<>();
+        List<Entry> expected = new ArrayList<>();
+        long nextSeq = 0;
+
+        for (int step = 0; step < 20000; step++) {
+            Object element = elements[random.nextInt(elements.length)];
+            Entry entry = find(expected, element);
+            if (random.nextInt(4) == 0) {
+                assertEquals(entry != null, tree.remove(element));
+                expected.remove(entry);
+            } else {
+                // 分数只取少数几个值，保证有大量同分
+                double score = random.nextInt(20) - 5;
+                tree.update(element, score);
+                if (entry == null) {
+                    expected.add(new Entry(element, score, nextSeq++));
+                } else {
+                    entry.score = score;
+                }
+            }
+            if (step % 50 == 0) {
+                check(tree, expected, elements, random);
+            }
+        }
+        check(tree, expected, elements, random);
+    }
+
+    private static void check(RankTree<Object> tree, List<Entry> expected, Object[] elements, Random random) {
+        List<Entry> sorted = new ArrayList<>(expected);
+        sorted.sort(Comparator.comparingDouble((Entry e) -> -e.score).thenComparingLong(e -> e.seq));
+        List<Object> order = new ArrayList<>();
+        for (Entry entry : sorted) {
+            order.add(entry.element);
+        }
+
+        assertEquals(order.size(), tree.size());
+        assertEquals(order, tree.top(order.size() + 5));
+        int k = random.nextInt(order.size() + 1);
+        assertEquals(order.subList(0, k), tree.top(k));
+        for (int i = 0; i < order.size(); i++) {
+            assertSame(order.get(i), tree.get(i));
+        }
+        for (Object element : elements) {
+            Entry entry = find(expected, element);
+            if (entry == null) {
+                assertFalse(tree.contains(element));
+                assertEquals(-1, tree.rank(element));
+            } else {
+                int above = 0;
+                for (Entry other : expected) {
+                    if (other.score > entry.score) {
+                        above++;
+                    }
+                }
+                assertEquals(above + 1, tree.rank(element));
+                assertEquals(above, tree.countAbove(entry.score));
+            }
+        }
+    }
+
+    private static Entry find(List<Entry> entries, Object element) {
+        for (Entry entry : entries) {
+            if (entry.element == element) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 对照用的元素、分数和加入排名的先后
+     */
+    private static class Entry {
+        final Object element;
+        double score;
+        final long seq;
+
+        Entry(Object element, double score, long seq) {
+            this.element = element;
+            this.score = score;
+            this.seq = seq;
+        }
+    }
+}